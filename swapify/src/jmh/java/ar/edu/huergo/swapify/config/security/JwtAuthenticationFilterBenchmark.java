@@ -0,0 +1,94 @@
+package ar.edu.huergo.swapify.config.security;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import ar.edu.huergo.swapify.service.security.JwtTokenService;
+import ar.edu.huergo.swapify.service.security.RevocacionTokensService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+
+/**
+ * Invocación completa de {@link JwtAuthenticationFilter}: lectura de header
+ * o cookies, verificación, consulta de la marca de revocación en memoria y
+ * armado de la autenticación con los roles del token.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final String SECRETO = "EsteEsUnSecretoSuperLargoDeAlMenosTreintaYDoSCaracteres1234";
+
+    private JwtAuthenticationFilter filtro;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        JwtTokenService jwtTokenService = new JwtTokenService(SECRETO, 3_600_000L);
+        UserDetails usuario = User.withUsername("cliente@huergo.edu.ar").password("{noop}x").roles("CLIENTE").build();
+        filtro = new JwtAuthenticationFilter(jwtTokenService,
+                new RevocacionTokensService(null, Duration.ofSeconds(5), 3_600_000L), new SimpleMeterRegistry());
+        token = jwtTokenService.generarToken(usuario, List.of("ROLE_CLIENTE"));
+    }
+
+    @Benchmark
+    public MockHttpServletRequest tokenEnHeader() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/publicaciones");
+        request.addHeader("Authorization", "Bearer " + token);
+        return filtrar(request);
+    }
+
+    /**
+     * Caso de las vistas web: el token llega en la cookie {@code jwtToken}
+     * junto con otras cookies del navegador.
+     */
+    @Benchmark
+    public MockHttpServletRequest tokenEnCookie() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/web/publicaciones");
+        request.setCookies(new Cookie("_ga", "GA1.1.123456789.1700000000"),
+                new Cookie("preferencias", "tema=oscuro"),
+                new Cookie("jwtToken", token));
+        return filtrar(request);
+    }
+
+    @Benchmark
+    public MockHttpServletRequest sinToken() throws ServletException, IOException {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/web/publicaciones");
+        request.setCookies(new Cookie("_ga", "GA1.1.123456789.1700000000"));
+        return filtrar(request);
+    }
+
+    private MockHttpServletRequest filtrar(MockHttpServletRequest request) throws ServletException, IOException {
+        try {
+            filtro.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return request;
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
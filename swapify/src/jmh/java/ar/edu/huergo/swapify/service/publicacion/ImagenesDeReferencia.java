@@ -0,0 +1,113 @@
+package ar.edu.huergo.swapify.service.publicacion;
+
+import java.awt.AlphaComposite;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Genera imágenes sintéticas parecidas a las que suben los usuarios: fotos
+ * con degradés y ruido, PNG con transparencia, GIF indexados y BMP sin
+ * comprimir. La semilla es fija para que las corridas sean comparables.
+ */
+public final class ImagenesDeReferencia {
+
+    public enum Formato {
+        JPEG("image/jpeg", "jpg", BufferedImage.TYPE_INT_RGB),
+        PNG_ALFA("image/png", "png", BufferedImage.TYPE_INT_ARGB),
+        GIF("image/gif", "gif", BufferedImage.TYPE_INT_RGB),
+        BMP("image/bmp", "bmp", BufferedImage.TYPE_INT_RGB);
+
+        final String contentType;
+        final String nombreImageIO;
+        final int tipoImagen;
+
+        Formato(String contentType, String nombreImageIO, int tipoImagen) {
+            this.contentType = contentType;
+            this.nombreImageIO = nombreImageIO;
+            this.tipoImagen = tipoImagen;
+        }
+    }
+
+    private ImagenesDeReferencia() {
+    }
+
+    /**
+     * Imagen de {@code lado} píxeles de ancho con relación 4:3.
+     */
+    static BufferedImage generar(Formato formato, int lado) {
+        int ancho = lado;
+        int alto = lado * 3 / 4;
+        BufferedImage imagen = new BufferedImage(ancho, alto, formato.tipoImagen);
+        Graphics2D g = imagen.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            if (formato == Formato.PNG_ALFA) {
+                g.setComposite(AlphaComposite.Clear);
+                g.fillRect(0, 0, ancho, alto);
+                g.setComposite(AlphaComposite.SrcOver);
+            }
+            g.setPaint(new GradientPaint(0, 0, new Color(32, 96, 160), ancho, alto, new Color(240, 200, 120)));
+            if (formato == Formato.PNG_ALFA) {
+                g.fillOval(ancho / 10, alto / 10, ancho * 8 / 10, alto * 8 / 10);
+            } else {
+                g.fillRect(0, 0, ancho, alto);
+            }
+            Random random = new Random(42);
+            for (int i = 0; i < 400; i++) {
+                g.setColor(new Color(random.nextInt(256), random.nextInt(256), random.nextInt(256), 160));
+                int w = 1 + random.nextInt(Math.max(1, ancho / 8));
+                int h = 1 + random.nextInt(Math.max(1, alto / 8));
+                g.fillOval(random.nextInt(ancho), random.nextInt(alto), w, h);
+            }
+        } finally {
+            g.dispose();
+        }
+        agregarRuido(imagen, new Random(7));
+        return imagen;
+    }
+
+    static byte[] codificar(BufferedImage imagen, Formato formato) {
+        try (ByteArrayOutputStream salida = new ByteArrayOutputStream()) {
+            if (!ImageIO.write(imagen, formato.nombreImageIO, salida)) {
+                throw new IllegalStateException("Sin writer de ImageIO para " + formato);
+            }
+            return salida.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Ruido leve por píxel, como el de un sensor de cámara, para que la
+     * compresión no sea artificialmente favorable.
+     */
+    private static void agregarRuido(BufferedImage imagen, Random random) {
+        for (int y = 0; y < imagen.getHeight(); y++) {
+            for (int x = 0; x < imagen.getWidth(); x++) {
+                int argb = imagen.getRGB(x, y);
+                int alfa = argb >>> 24;
+                if (alfa == 0) {
+                    continue;
+                }
+                int delta = random.nextInt(9) - 4;
+                int r = limitar(((argb >> 16) & 0xFF) + delta);
+                int v = limitar(((argb >> 8) & 0xFF) + delta);
+                int b = limitar((argb & 0xFF) + delta);
+                imagen.setRGB(x, y, (alfa << 24) | (r << 16) | (v << 8) | b);
+            }
+        }
+    }
+
+    private static int limitar(int valor) {
+        return Math.max(0, Math.min(255, valor));
+    }
+}
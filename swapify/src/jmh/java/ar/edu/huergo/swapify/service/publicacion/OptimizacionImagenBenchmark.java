@@ -0,0 +1,226 @@
+package ar.edu.huergo.swapify.service.publicacion;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.unit.DataSize;
+
+import ar.edu.huergo.swapify.dto.publicacion.MostrarPublicacionDTO;
+import ar.edu.huergo.swapify.entity.publicacion.Publicacion;
+import ar.edu.huergo.swapify.entity.publicacion.PublicacionImagen;
+import ar.edu.huergo.swapify.mapper.publicacion.PublicacionMapper;
+import ar.edu.huergo.swapify.service.imagen.DecodificadorImagenes;
+import ar.edu.huergo.swapify.service.publicacion.ImagenesDeReferencia.Formato;
+
+/**
+ * Mide cada etapa del pipeline de imágenes de {@link PublicacionService}:
+ * decodificación, escalado, recompresión JPEG y codificación Base64 para la
+ * API. Con {@code -prof gc} (activado por la tarea {@code jmh}) se reporta
+ * además la tasa de asignación por operación.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g", "-Djava.awt.headless=true"})
+public class OptimizacionImagenBenchmark {
+
+    /**
+     * Entrada de un formato y tamaño ya codificada y decodificada, para medir
+     * cada etapa sin arrastrar el costo de las anteriores.
+     */
+    @State(Scope.Benchmark)
+    public static class Entrada {
+
+        @Param({"JPEG", "PNG_ALFA", "GIF", "BMP"})
+        public Formato formato;
+
+        @Param({"640", "1920", "4096", "6000"})
+        public int lado;
+
+        PublicacionService servicio;
+        byte[] bytes;
+        BufferedImage decodificada;
+
+        @Setup(Level.Trial)
+        public void preparar() throws IOException {
+            servicio = servicio();
+            decodificada = ImagenesDeReferencia.generar(formato, lado);
+            bytes = ImagenesDeReferencia.codificar(decodificada, formato);
+            try (DecodificadorImagenes.ImagenDecodificada leida = servicio.leerImagen(bytes)) {
+                decodificada = leida.imagen();
+            }
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class EntradaJpeg {
+
+        @Param({"0.6", "0.8", "0.95"})
+        public float calidad;
+
+        @Param({"640", "1280"})
+        public int lado;
+
+        PublicacionService servicio;
+        BufferedImage imagen;
+
+        @Setup(Level.Trial)
+        public void preparar() {
+            servicio = servicio();
+            imagen = ImagenesDeReferencia.generar(Formato.JPEG, lado);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class EntradaBase64 {
+
+        @Param({"640", "1280"})
+        public int lado;
+
+        PublicacionMapper mapper;
+        byte[] jpeg;
+
+        @Setup(Level.Trial)
+        public void preparar() throws IOException {
+            mapper = new PublicacionMapper();
+            jpeg = servicio()
+                    .recomprimirComoJpeg(ImagenesDeReferencia.generar(Formato.JPEG, lado));
+        }
+    }
+
+    @Benchmark
+    public BufferedImage decodificar(Entrada entrada) throws IOException {
+        try (DecodificadorImagenes.ImagenDecodificada leida = entrada.servicio.leerImagen(entrada.bytes)) {
+            return leida.imagen();
+        }
+    }
+
+    /** Decodificación completa, sin el submuestreo de {@code leerImagen}. */
+    @Benchmark
+    public BufferedImage decodificarCompleta(Entrada entrada) throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(entrada.bytes));
+    }
+
+    @Benchmark
+    public BufferedImage escalarBicubicoDirecto(Entrada entrada) {
+        return escalarBicubico(entrada.decodificada, 1280);
+    }
+
+    @Benchmark
+    public BufferedImage escalarProgresivo(Entrada entrada) {
+        return escalarPorPasos(entrada.decodificada, 1280);
+    }
+
+    /** Escalado tal como lo hace el servicio, sin codificar el resultado. */
+    @Benchmark
+    public Object escalarSiEsNecesario(Entrada entrada) throws IOException {
+        return entrada.servicio.escalarSiEsNecesario(entrada.decodificada, entrada.formato.contentType);
+    }
+
+    @Benchmark
+    public Object optimizarImagen(Entrada entrada) throws IOException {
+        return entrada.servicio.optimizarImagen(entrada.bytes, entrada.formato.contentType, entrada.decodificada);
+    }
+
+    @Benchmark
+    public byte[] recomprimirComoJpeg(EntradaJpeg entrada) throws IOException {
+        return entrada.servicio.recomprimirComoJpeg(entrada.imagen, entrada.calidad);
+    }
+
+    @Benchmark
+    public MostrarPublicacionDTO codificarBase64ParaApi(EntradaBase64 entrada) {
+        PublicacionImagen imagen = new PublicacionImagen();
+        imagen.setOrden(0);
+        imagen.setContentType("image/jpeg");
+        imagen.setDatos(entrada.jpeg);
+        List<PublicacionImagen> imagenes = new ArrayList<>();
+        imagenes.add(imagen);
+        Publicacion publicacion = new Publicacion();
+        publicacion.setImagenes(imagenes);
+        return entrada.mapper.toDTO(publicacion);
+    }
+
+    /** Servicio sin dependencias de Spring, con un presupuesto de decodificación de un cuarto del heap. */
+    private static PublicacionService servicio() {
+        return new PublicacionService(null, null, null, null, null, null, null, null, null, null, null,
+                new DecodificadorImagenes(DataSize.ofBytes(0), Duration.ofSeconds(3), Duration.ofSeconds(10)));
+    }
+
+    private static BufferedImage escalarBicubico(BufferedImage original, int maximo) {
+        int[] destino = dimensionesDestino(original, maximo);
+        if (destino == null) {
+            return original;
+        }
+        return dibujar(original, destino[0], destino[1], RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+    }
+
+    /**
+     * Reduce a la mitad con interpolación bilineal hasta acercarse al tamaño
+     * final, y completa con un último paso bicúbico.
+     */
+    private static BufferedImage escalarPorPasos(BufferedImage original, int maximo) {
+        int[] destino = dimensionesDestino(original, maximo);
+        if (destino == null) {
+            return original;
+        }
+        BufferedImage actual = original;
+        int ancho = original.getWidth();
+        int alto = original.getHeight();
+        while (ancho / 2 >= destino[0] && alto / 2 >= destino[1]) {
+            ancho /= 2;
+            alto /= 2;
+            actual = dibujar(actual, ancho, alto, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        }
+        if (ancho != destino[0] || alto != destino[1]) {
+            actual = dibujar(actual, destino[0], destino[1], RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        }
+        return actual;
+    }
+
+    private static int[] dimensionesDestino(BufferedImage original, int maximo) {
+        int mayor = Math.max(original.getWidth(), original.getHeight());
+        if (mayor <= maximo) {
+            return null;
+        }
+        double escala = (double) maximo / mayor;
+        return new int[] {
+                (int) Math.round(original.getWidth() * escala),
+                (int) Math.round(original.getHeight() * escala)};
+    }
+
+    private static BufferedImage dibujar(BufferedImage origen, int ancho, int alto, Object interpolacion) {
+        int tipo = origen.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage destino = new BufferedImage(ancho, alto, tipo);
+        Graphics2D g = destino.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, interpolacion);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.drawImage(origen, 0, 0, ancho, alto, null);
+        } finally {
+            g.dispose();
+        }
+        return destino;
+    }
+}
@@ -0,0 +1,96 @@
+package ar.edu.huergo.swapify.service.security;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.SecretKey;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * Costo de emitir y verificar tokens con {@link JwtTokenService}. Separa la
+ * construcción del parser de la verificación de firma para dimensionar cuánto
+ * aporta cada una a la doble verificación que hace el filtro por request.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtTokenBenchmark {
+
+    private static final String SECRETO = "EsteEsUnSecretoSuperLargoDeAlMenosTreintaYDoSCaracteres1234";
+
+    private JwtTokenService jwtTokenService;
+    private UserDetails usuario;
+    private List<String> roles;
+    private String token;
+    private SecretKey clave;
+    private JwtParser parserReutilizado;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        jwtTokenService = new JwtTokenService(SECRETO, 3_600_000L);
+        usuario = User.withUsername("cliente@huergo.edu.ar").password("{noop}x").roles("CLIENTE").build();
+        roles = List.of("CLIENTE");
+        token = jwtTokenService.generarToken(usuario, roles);
+        clave = Keys.hmacShaKeyFor(SECRETO.getBytes(StandardCharsets.UTF_8));
+        parserReutilizado = Jwts.parser().verifyWith(clave).build();
+    }
+
+    @Benchmark
+    public String generarToken() {
+        return jwtTokenService.generarToken(usuario, roles);
+    }
+
+    @Benchmark
+    public String verificacionSimple() {
+        return jwtTokenService.extraerUsername(token);
+    }
+
+    /**
+     * Lo que hacía {@code JwtAuthenticationFilter} antes de leer los claims
+     * una sola vez: extraía el sujeto y luego volvía a verificar el token
+     * completo. Queda como referencia contra {@link #leerClaims()}.
+     */
+    @Benchmark
+    public boolean verificacionDobleAnterior() {
+        String username = jwtTokenService.extraerUsername(token);
+        return username != null && jwtTokenService.esTokenValido(token, usuario);
+    }
+
+    /** Lo que hace hoy {@code JwtAuthenticationFilter}: una verificación y los claims de ella. */
+    @Benchmark
+    public Claims leerClaims() {
+        return jwtTokenService.leerClaims(token);
+    }
+
+    @Benchmark
+    public JwtParser construirParser() {
+        return Jwts.parser().verifyWith(clave).build();
+    }
+
+    @Benchmark
+    public String verificacionConParserReutilizado() {
+        return parserReutilizado.parseSignedClaims(token).getPayload().getSubject();
+    }
+}
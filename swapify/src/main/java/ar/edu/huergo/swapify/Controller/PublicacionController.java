@@ -15,9 +15,7 @@ import ar.edu.huergo.swapify.dto.publicacion.ReportePublicacionesDTO;
 import ar.edu.huergo.swapify.entity.publicacion.Publicacion;
 import ar.edu.huergo.swapify.entity.security.Usuario;
 import ar.edu.huergo.swapify.mapper.publicacion.PublicacionMapper;
-import ar.edu.huergo.swapify.repository.security.UsuarioRepository;
 import ar.edu.huergo.swapify.service.publicacion.PublicacionService;
-import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
@@ -31,19 +29,20 @@ public class PublicacionController {
 
     private final PublicacionService publicacionService;
     private final PublicacionMapper publicacionMapper;
-    private final UsuarioRepository usuarioRepository;
 
     /**
-     * Crea una nueva publicación asociándola al usuario autenticado.
+     * Crea una nueva publicación asociándola al usuario autenticado. El
+     * servicio busca al usuario recién después de procesar las imágenes; una
+     * consulta previa acá dejaría tomada la conexión de la sesión del request
+     * durante todo el procesamiento.
      */
     @PostMapping
     public ResponseEntity<MostrarPublicacionDTO> crearPublicacion(
             @Valid @RequestBody CrearPublicacionDTO dto,
             @AuthenticationPrincipal User principal
     ) {
-        String username = principal.getUsername();
-        Usuario usuario = usuarioRepository.findByUsername(username)
-                .orElseThrow(() -> new EntityNotFoundException("Usuario no encontrado"));
+        Usuario usuario = new Usuario();
+        usuario.setUsername(principal.getUsername());
 
         Publicacion publicacion = publicacionService.crearPublicacion(dto, usuario);
         MostrarPublicacionDTO body = publicacionMapper.toDTO(publicacion);
@@ -5,15 +5,17 @@ import java.util.Map;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import ar.edu.huergo.swapify.config.security.LimitadorIntentosLogin;
 import ar.edu.huergo.swapify.dto.security.LoginDTO;
 import ar.edu.huergo.swapify.service.security.JwtTokenService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 
@@ -27,17 +29,19 @@ public class AuthController {
 
     private final AuthenticationManager authenticationManager;
     private final JwtTokenService jwtTokenService;
-    private final UserDetailsService userDetailsService;
+    private final LimitadorIntentosLogin limitadorIntentosLogin;
 
     /**
      * Autentica credenciales y devuelve un token JWT con los roles asociados.
      */
     @PostMapping("/login")
-    public ResponseEntity<Map<String, String>> login(@RequestBody @Valid LoginDTO request) {
+    public ResponseEntity<Map<String, String>> login(@RequestBody @Valid LoginDTO request,
+                                                     HttpServletRequest httpRequest) {
         String usernameNormalizado = normalizarEmail(request.username());
-        authenticationManager.authenticate(
+        limitadorIntentosLogin.consumir(httpRequest.getRemoteAddr(), usernameNormalizado);
+        Authentication autenticacion = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(usernameNormalizado, request.password()));
-        UserDetails userDetails = userDetailsService.loadUserByUsername(usernameNormalizado);
+        UserDetails userDetails = (UserDetails) autenticacion.getPrincipal();
         List<String> roles =
                 userDetails.getAuthorities().stream().map(a -> a.getAuthority()).toList();
         String token = jwtTokenService.generarToken(userDetails, roles);
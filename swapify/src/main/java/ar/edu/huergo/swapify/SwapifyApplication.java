@@ -2,12 +2,16 @@ package ar.edu.huergo.swapify;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class SwapifyApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(SwapifyApplication.class, args);
+		SpringApplication aplicacion = new SpringApplication(SwapifyApplication.class);
+		// Guarda las fases del arranque para el endpoint /actuator/startup.
+		aplicacion.setApplicationStartup(new BufferingApplicationStartup(4096));
+		aplicacion.run(args);
 	}
 
-} 
\ No newline at end of file
+}
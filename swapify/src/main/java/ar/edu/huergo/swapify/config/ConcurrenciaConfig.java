@@ -0,0 +1,118 @@
+package ar.edu.huergo.swapify.config;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Ejecutores de trabajo en segundo plano. Con
+ * {@code spring.threads.virtual.enabled=true} Tomcat y el pipeline de imágenes
+ * usan hilos virtuales; en caso contrario se usan pools acotados de hilos de
+ * plataforma. Las notificaciones no tienen ejecutor propio: se guardan en la
+ * transacción del request que las origina.
+ */
+@Configuration
+public class ConcurrenciaConfig {
+
+    public static final String EJECUTOR_IMAGENES = "ejecutorImagenes";
+    public static final String CUPO_IMAGENES = "cupoImagenes";
+    public static final String EJECUTOR_HASHING = "ejecutorHashing";
+    public static final String EJECUTOR_REOPTIMIZACION = "ejecutorReoptimizacion";
+
+    @Value("${swapify.concurrencia.imagenes.hilos:0}")
+    private int hilosImagenes;
+
+    @Value("${security.password.hashing.hilos:0}")
+    private int hilosHashing;
+
+    @Value("${security.password.hashing.cola:32}")
+    private int colaHashing;
+
+    /**
+     * Permisos de procesamiento de imágenes del nodo. Los toma tanto el hilo
+     * del request como cada ayudante que se envía al ejecutor, así que acota
+     * el trabajo total y no solo el que corre en el ejecutor.
+     */
+    @Bean(CUPO_IMAGENES)
+    Semaphore cupoImagenes() {
+        return new Semaphore(limiteImagenes(), true);
+    }
+
+    /**
+     * Sin límite propio: los ayudantes se envían solo con un permiso de
+     * {@link #CUPO_IMAGENES} ya tomado, y un límite acá bloquearía al request
+     * en {@code submit} mientras otro hilo termina de salir.
+     */
+    @Bean(EJECUTOR_IMAGENES)
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    AsyncTaskExecutor ejecutorImagenesVirtual() {
+        return ejecutorVirtual("swapify-imagenes-");
+    }
+
+    @Bean(EJECUTOR_IMAGENES)
+    @ConditionalOnThreading(Threading.PLATFORM)
+    AsyncTaskExecutor ejecutorImagenesPlataforma() {
+        return ejecutorPlataforma("swapify-imagenes-", limiteImagenes(), 64);
+    }
+
+    /**
+     * Hashing de contraseñas (BCrypt). Es CPU pura, así que usa hilos de
+     * plataforma aun con hilos virtuales habilitados; por defecto ocupa a lo
+     * sumo la mitad de los núcleos y rechaza lo que no entra en la cola en
+     * lugar de ejecutarlo en el hilo del request.
+     */
+    @Bean(EJECUTOR_HASHING)
+    AsyncTaskExecutor ejecutorHashing() {
+        int hilos = hilosHashing > 0 ? hilosHashing : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        ThreadPoolTaskExecutor executor = ejecutorPlataforma("swapify-hashing-", hilos, colaHashing);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+
+    /**
+     * Reoptimización del catálogo en segundo plano: un único hilo de
+     * plataforma, cuyo tiempo de CPU se puede medir para limitarlo. Un
+     * segundo pedido mientras corre se rechaza.
+     */
+    @Bean(EJECUTOR_REOPTIMIZACION)
+    AsyncTaskExecutor ejecutorReoptimizacion() {
+        ThreadPoolTaskExecutor executor = ejecutorPlataforma("swapify-reoptimizacion-", 1, 0);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        return executor;
+    }
+
+    /**
+     * El procesamiento de imágenes es intensivo en CPU: por defecto no se
+     * permiten más tareas simultáneas que núcleos disponibles.
+     */
+    private int limiteImagenes() {
+        return hilosImagenes > 0 ? hilosImagenes : Runtime.getRuntime().availableProcessors();
+    }
+
+    private AsyncTaskExecutor ejecutorVirtual(String prefijo) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor(prefijo);
+        executor.setVirtualThreads(true);
+        executor.setTaskTerminationTimeout(5_000);
+        return executor;
+    }
+
+    private ThreadPoolTaskExecutor ejecutorPlataforma(String prefijo, int hilos, int capacidadCola) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(prefijo);
+        executor.setCorePoolSize(Math.max(1, hilos));
+        executor.setMaxPoolSize(Math.max(1, hilos));
+        executor.setQueueCapacity(capacidadCola);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(5);
+        return executor;
+    }
+}
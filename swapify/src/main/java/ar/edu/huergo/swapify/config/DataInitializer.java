@@ -1,46 +1,94 @@
 package ar.edu.huergo.swapify.config;
 
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
-import org.springframework.boot.CommandLineRunner;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
 
+import ar.edu.huergo.swapify.config.arranque.HuellasArranque;
+import ar.edu.huergo.swapify.config.arranque.TareaArranque;
 import ar.edu.huergo.swapify.entity.security.Rol;
 import ar.edu.huergo.swapify.entity.security.Usuario;
 import ar.edu.huergo.swapify.repository.security.RolRepository;
 import ar.edu.huergo.swapify.repository.security.UsuarioRepository;
 import ar.edu.huergo.swapify.util.PasswordValidator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 
-@Configuration
-public class DataInitializer {
+/**
+ * Crea los roles y las cuentas de ejemplo. Si la huella de
+ * {@link #USUARIOS} coincide con la del último arranque y las cuentas siguen
+ * en la base, no hace nada: un reinicio no paga la validación ni las lecturas
+ * y escrituras de cada cuenta.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DataInitializer implements TareaArranque {
 
-    @Bean
-    CommandLineRunner initData(RolRepository rolRepository, UsuarioRepository usuarioRepository, PasswordEncoder encoder) {
-        return args -> {
-            Rol admin = rolRepository.findByNombre("ADMIN")
-                    .orElseGet(() -> rolRepository.save(new Rol("ADMIN")));
-            Rol cliente = rolRepository.findByNombre("CLIENTE")
-                    .orElseGet(() -> rolRepository.save(new Rol("CLIENTE")));
+    private static final String NOMBRE = "datos-iniciales";
 
-            asegurarUsuario(
-                    "admin@huergo.edu.ar",
-                    "AdminSuperSegura@123",
-                    "Administrador",
-                    encoder,
-                    usuarioRepository,
-                    Set.of(admin, cliente));
+    private static final List<String> ROLES = List.of("ADMIN", "CLIENTE");
+
+    private static final List<UsuarioSemilla> USUARIOS = List.of(
+            new UsuarioSemilla("admin@huergo.edu.ar", "AdminSuperSegura@123", "Administrador",
+                    List.of("ADMIN", "CLIENTE")),
+            new UsuarioSemilla("cliente@huergo.edu.ar", "ClienteSeguro@123", "Cliente ", List.of("CLIENTE")));
+
+    private final RolRepository rolRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final PasswordEncoder encoder;
+    private final HuellasArranque huellasArranque;
+
+    @Override
+    public String nombre() {
+        return NOMBRE;
+    }
+
+    @Override
+    public void ejecutar() {
+        String huella = huella();
+        if (huellasArranque.coincide(NOMBRE, huella) && cuentasPresentes()) {
+            log.debug("Datos iniciales sin cambios desde el último arranque");
+            return;
+        }
+
+        Map<String, Rol> roles = new LinkedHashMap<>();
+        for (String nombreRol : ROLES) {
+            roles.put(nombreRol, rolRepository.findByNombre(nombreRol)
+                    .orElseGet(() -> rolRepository.save(new Rol(nombreRol))));
+        }
 
+        for (UsuarioSemilla semilla : USUARIOS) {
             asegurarUsuario(
-                    "cliente@huergo.edu.ar",
-                    "ClienteSeguro@123",
-                    "Cliente ",
+                    semilla.username(),
+                    semilla.password(),
+                    semilla.nombre(),
                     encoder,
                     usuarioRepository,
-                    Set.of(cliente));
-        };
+                    semilla.roles().stream().map(roles::get).collect(Collectors.toSet()));
+        }
+        huellasArranque.registrar(NOMBRE, huella);
+    }
+
+    /*
+     * La contraseña no entra en la huella: solo se usa al crear la cuenta, y
+     * una cuenta que falta ya obliga a recorrer la lista.
+     */
+    private static String huella() {
+        return HuellasArranque.calcular(ROLES, USUARIOS.stream()
+                .map(u -> u.username() + "|" + u.nombre() + "|" + u.roles())
+                .toList());
+    }
+
+    private boolean cuentasPresentes() {
+        List<String> usernames = USUARIOS.stream().map(u -> normalizarEmail(u.username())).toList();
+        return usuarioRepository.countByUsernameIn(usernames) == usernames.size();
     }
 
     private void asegurarUsuario(String username,
@@ -56,9 +104,10 @@ public class DataInitializer {
         if (usuario == null) {
             usuario = new Usuario(usernameNormalizado, encoder.encode(rawPassword));
         } else {
+            // Sin encoder.matches en cada arranque: cuesta un BCrypt por cuenta y
+            // pisaría la contraseña si la persona la cambió desde la aplicación.
             String passwordActual = usuario.getPassword();
-            if (passwordActual == null || passwordActual.isBlank()
-                    || !encoder.matches(rawPassword, passwordActual)) {
+            if (passwordActual == null || passwordActual.isBlank()) {
                 usuario.setPassword(encoder.encode(rawPassword));
             }
             if (usuario.getRoles() == null) {
@@ -86,6 +135,7 @@ public class DataInitializer {
         }
         return email.trim().toLowerCase();
     }
-}
-
 
+    private record UsuarioSemilla(String username, String password, String nombre, List<String> roles) {
+    }
+}
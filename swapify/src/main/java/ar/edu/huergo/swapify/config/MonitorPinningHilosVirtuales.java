@@ -0,0 +1,123 @@
+package ar.edu.huergo.swapify.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reporta los hilos virtuales que quedan fijados a su hilo portador
+ * ({@code jdk.VirtualThreadPinned}) por bloques {@code synchronized} o código
+ * nativo. Solo se activa en modo de hilos virtuales y clasifica el origen
+ * para distinguir JDBC/H2, el pool de conexiones e {@code ImageIO}.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+@ConditionalOnProperty(name = "swapify.concurrencia.pinning.monitor", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class MonitorPinningHilosVirtuales implements SmartLifecycle {
+
+    private static final String EVENTO_PINNING = "jdk.VirtualThreadPinned";
+    private static final List<String> ORIGENES = List.of(
+            "org.h2.", "com.zaxxer.hikari.", "java.sql.", "org.hibernate.",
+            "javax.imageio.", "com.sun.imageio.", "java.awt.image.");
+
+    private final Duration umbral;
+    private final AtomicLong detectados = new AtomicLong();
+    private RecordingStream stream;
+
+    public MonitorPinningHilosVirtuales(@Value("${swapify.concurrencia.pinning.umbral:20ms}") Duration umbral) {
+        this.umbral = umbral;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (stream != null) {
+            return;
+        }
+        RecordingStream nuevo = new RecordingStream();
+        nuevo.enable(EVENTO_PINNING).withThreshold(umbral).withStackTrace();
+        nuevo.onEvent(EVENTO_PINNING, this::reportar);
+        nuevo.startAsync();
+        stream = nuevo;
+        log.info("Monitor de pinning de hilos virtuales activo (umbral {} ms)", umbral.toMillis());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return stream != null;
+    }
+
+    public long cantidadDetectada() {
+        return detectados.get();
+    }
+
+    private void reportar(RecordedEvent evento) {
+        detectados.incrementAndGet();
+        RecordedFrame frame = primerFrameRelevante(evento.getStackTrace());
+        String origen = frame != null ? clasificar(frame) : "desconocido";
+        String ubicacion = frame != null
+                ? frame.getMethod().getType().getName() + "." + frame.getMethod().getName() + ":" + frame.getLineNumber()
+                : "sin stack trace";
+        log.warn("Hilo virtual fijado {} ms [{}] en {}", evento.getDuration().toMillis(), origen, ubicacion);
+    }
+
+    /**
+     * Busca el primer frame que pertenezca a un origen conocido; si no hay
+     * ninguno devuelve el primer frame de la aplicación o del stack.
+     */
+    private RecordedFrame primerFrameRelevante(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return null;
+        }
+        RecordedFrame primeroDeLaApp = null;
+        for (RecordedFrame frame : stackTrace.getFrames()) {
+            if (!frame.isJavaFrame()) {
+                continue;
+            }
+            String clase = frame.getMethod().getType().getName();
+            if (ORIGENES.stream().anyMatch(clase::startsWith)) {
+                return frame;
+            }
+            if (primeroDeLaApp == null && clase.startsWith("ar.edu.huergo.swapify.")) {
+                primeroDeLaApp = frame;
+            }
+        }
+        return primeroDeLaApp != null ? primeroDeLaApp : stackTrace.getFrames().get(0);
+    }
+
+    private String clasificar(RecordedFrame frame) {
+        String clase = frame.getMethod().getType().getName();
+        if (clase.startsWith("org.h2.") || clase.startsWith("java.sql.") || clase.startsWith("org.hibernate.")) {
+            return "JDBC";
+        }
+        if (clase.startsWith("com.zaxxer.hikari.")) {
+            return "pool de conexiones";
+        }
+        if (clase.startsWith("javax.imageio.") || clase.startsWith("com.sun.imageio.")
+                || clase.startsWith("java.awt.image.")) {
+            return "ImageIO";
+        }
+        return "aplicación";
+    }
+}
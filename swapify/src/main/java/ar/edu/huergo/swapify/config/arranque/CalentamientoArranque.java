@@ -0,0 +1,167 @@
+package ar.edu.huergo.swapify.config.arranque;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import ar.edu.huergo.swapify.service.security.JwtTokenService;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Tareas de arranque que ejercitan los caminos más costosos de la primera
+ * petición antes de que la aplicación se declare lista: el registro de
+ * plugins de {@code ImageIO} y el códec JPEG/PNG, la firma y el parseo de
+ * JWT, y las plantillas Thymeleaf (que se compilan y quedan en la caché del
+ * motor la primera vez que se renderizan). Cada paso se repite algunas veces
+ * para que el JIT llegue a compilar los métodos calientes.
+ *
+ * <p>Las vistas se piden por HTTP al propio servidor porque las plantillas
+ * usan expresiones {@code @{...}} que necesitan un contexto web. Sin puerto
+ * local (por ejemplo en tests con MockMvc) ese paso no hace nada. Un error
+ * de calentamiento solo se registra: no impide el arranque.</p>
+ */
+@Configuration
+@ConditionalOnProperty(name = "swapify.arranque.calentamiento.habilitado", havingValue = "true", matchIfMissing = true)
+@Slf4j
+public class CalentamientoArranque {
+
+    @Value("${swapify.arranque.calentamiento.repeticiones:3}")
+    private int repeticiones;
+
+    @Bean
+    TareaArranque calentarImagenes() {
+        return TareaArranque.de("calentar-imagenes", Set.of(), () -> registrandoErrores("imágenes", () -> {
+            for (int i = 0; i < repeticiones; i++) {
+                ciclarImagen();
+            }
+        }));
+    }
+
+    @Bean
+    TareaArranque calentarJwt(JwtTokenService jwtTokenService) {
+        UserDetails usuario = User.withUsername("calentamiento@swapify.local").password("").roles("CLIENTE").build();
+        List<String> roles = List.of("ROLE_CLIENTE");
+        return TareaArranque.de("calentar-jwt", Set.of(), () -> registrandoErrores("JWT", () -> {
+            for (int i = 0; i < repeticiones * 100; i++) {
+                jwtTokenService.leerClaims(jwtTokenService.generarToken(usuario, roles));
+            }
+        }));
+    }
+
+    @Bean
+    TareaArranque calentarVistas(Environment environment,
+                                 @Value("${swapify.arranque.calentamiento.vistas:/web/publicaciones,/web/acerca,/web/login,/web/registro}")
+                                 List<String> vistas) {
+        return TareaArranque.de("calentar-vistas", Set.of("datos-iniciales", "imagenes-heredadas"),
+                () -> registrandoErrores("vistas", () -> pedirVistas(environment, vistas)));
+    }
+
+    private void pedirVistas(Environment environment, List<String> vistas) throws Exception {
+        Integer puerto = environment.getProperty("local.server.port", Integer.class);
+        if (puerto == null || puerto <= 0) {
+            return;
+        }
+        String base = "http://" + environment.getProperty("server.address", "127.0.0.1") + ":" + puerto
+                + environment.getProperty("server.servlet.context-path", "");
+        try (HttpClient cliente = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(2)).build()) {
+            for (int i = 0; i < repeticiones; i++) {
+                for (String vista : vistas) {
+                    HttpRequest pedido = HttpRequest.newBuilder(URI.create(base + vista))
+                            .timeout(Duration.ofSeconds(10))
+                            .header("Accept", "text/html")
+                            .GET()
+                            .build();
+                    HttpResponse<Void> respuesta = cliente.send(pedido, HttpResponse.BodyHandlers.discarding());
+                    if (respuesta.statusCode() >= 500) {
+                        log.warn("La vista {} respondió {} durante el calentamiento", vista, respuesta.statusCode());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Codifica y decodifica una imagen en JPEG y PNG y la reescala como lo
+     * hace el procesamiento de publicaciones.
+     */
+    private static void ciclarImagen() throws IOException {
+        BufferedImage imagen = new BufferedImage(1600, 1200, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = imagen.createGraphics();
+        try {
+            g2d.setPaint(new GradientPaint(0, 0, Color.ORANGE, 1600, 1200, Color.BLUE));
+            g2d.fillRect(0, 0, 1600, 1200);
+        } finally {
+            g2d.dispose();
+        }
+
+        for (String formato : List.of("png", "jpg")) {
+            ByteArrayOutputStream salida = new ByteArrayOutputStream();
+            ImageIO.write(imagen, formato, salida);
+            BufferedImage leida = ImageIO.read(new ByteArrayInputStream(salida.toByteArray()));
+            if (leida == null) {
+                throw new IOException("ImageIO no pudo leer la imagen " + formato + " que acaba de escribir");
+            }
+            escribirJpeg(escalar(leida, 800, 600));
+        }
+    }
+
+    private static BufferedImage escalar(BufferedImage original, int ancho, int alto) {
+        BufferedImage escalada = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = escalada.createGraphics();
+        try {
+            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+            g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g2d.drawImage(original, 0, 0, ancho, alto, null);
+        } finally {
+            g2d.dispose();
+        }
+        return escalada;
+    }
+
+    private static void escribirJpeg(BufferedImage imagen) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(new ByteArrayOutputStream())) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(0.82f);
+            writer.write(null, new IIOImage(imagen, null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    private static void registrandoErrores(String que, TareaArranque.Paso paso) {
+        try {
+            paso.ejecutar();
+        } catch (Exception e) {
+            log.warn("No se pudo calentar {} durante el arranque", que, e);
+        }
+    }
+}
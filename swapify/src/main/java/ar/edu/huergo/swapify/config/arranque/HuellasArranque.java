@@ -0,0 +1,61 @@
+package ar.edu.huergo.swapify.config.arranque;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Huellas de los datos que una tarea de arranque ya dejó en la base. Una
+ * tarea idempotente guarda la huella de su entrada al terminar y, si en el
+ * próximo arranque coincide, puede saltearse el trabajo. Viven en
+ * {@code SWAPIFY_ARRANQUE_HUELLA} para que las compartan todos los nodos que
+ * apuntan a la misma base.
+ */
+@Component
+@RequiredArgsConstructor
+public class HuellasArranque {
+
+    private static final String TABLA = "SWAPIFY_ARRANQUE_HUELLA";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Indica si la última huella registrada para {@code clave} es {@code huella}. */
+    public boolean coincide(String clave, String huella) {
+        asegurarTabla();
+        List<String> guardadas = jdbcTemplate.queryForList("SELECT HUELLA FROM " + TABLA + " WHERE CLAVE = ?",
+                String.class, clave);
+        return !guardadas.isEmpty() && huella.equals(guardadas.get(0));
+    }
+
+    public void registrar(String clave, String huella) {
+        asegurarTabla();
+        jdbcTemplate.update("MERGE INTO " + TABLA + " (CLAVE, HUELLA, ACTUALIZADA) KEY (CLAVE)"
+                + " VALUES (?, ?, CURRENT_TIMESTAMP)", clave, huella);
+    }
+
+    /** SHA-256 en hexadecimal de las partes, separadas para que no se confundan al concatenarlas. */
+    public static String calcular(Object... partes) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object parte : partes) {
+                digest.update(String.valueOf(parte).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0x1f);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no está disponible", e);
+        }
+    }
+
+    private void asegurarTabla() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + TABLA
+                + " (CLAVE VARCHAR(100) PRIMARY KEY, HUELLA VARCHAR(64) NOT NULL, ACTUALIZADA TIMESTAMP(6))");
+    }
+}
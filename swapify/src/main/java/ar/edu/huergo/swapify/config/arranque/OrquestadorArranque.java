@@ -0,0 +1,181 @@
+package ar.edu.huergo.swapify.config.arranque;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Ejecuta las {@link TareaArranque} entre que el contexto terminó de
+ * refrescarse y la aplicación se declara lista: migraciones, datos
+ * iniciales y calentamiento. Las tareas independientes corren en paralelo
+ * sobre {@code swapify.arranque.hilos} hilos y cada una espera a las que
+ * nombra como dependencias; si una falla, las que dependen de ella se omiten
+ * y el arranque se detiene al terminar las demás.
+ *
+ * <p>Al final deja en el log un informe con el momento de inicio y la
+ * duración de cada tarea, y publica la duración en
+ * {@code swapify.arranque.tarea}. Las fases internas de Spring se consultan
+ * en el endpoint {@code startup} de actuator.</p>
+ */
+@Component
+@Slf4j
+public class OrquestadorArranque implements ApplicationRunner {
+
+    private final List<TareaArranque> tareas;
+    private final MeterRegistry meterRegistry;
+    private final int hilos;
+    private volatile List<Resultado> informe = List.of();
+
+    @Autowired
+    public OrquestadorArranque(List<TareaArranque> tareas, MeterRegistry meterRegistry,
+                               @Value("${swapify.arranque.hilos:0}") int hilos) {
+        this.tareas = tareas;
+        this.meterRegistry = meterRegistry;
+        this.hilos = hilos > 0 ? hilos : Runtime.getRuntime().availableProcessors();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        long contextoMs = ManagementFactory.getRuntimeMXBean().getUptime();
+        List<TareaArranque> orden = ordenar();
+        int paralelismo = Math.max(1, Math.min(hilos, orden.size()));
+        AtomicInteger numero = new AtomicInteger();
+        ExecutorService ejecutor = Executors.newFixedThreadPool(paralelismo, tarea -> {
+            Thread hilo = new Thread(tarea, "arranque-" + numero.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        });
+
+        long inicio = System.nanoTime();
+        Map<String, CompletableFuture<Resultado>> futuros = new HashMap<>();
+        try {
+            for (TareaArranque tarea : orden) {
+                List<CompletableFuture<Resultado>> previas = tarea.dependeDe().stream().map(futuros::get).toList();
+                futuros.put(tarea.nombre(), CompletableFuture.allOf(previas.toArray(CompletableFuture[]::new))
+                        .thenApplyAsync(v -> correr(tarea, previas, inicio), ejecutor));
+            }
+            informe = orden.stream().map(tarea -> futuros.get(tarea.nombre()).join()).toList();
+        } finally {
+            ejecutor.shutdown();
+        }
+
+        registrarInforme(contextoMs, System.nanoTime() - inicio, paralelismo);
+        for (Resultado resultado : informe) {
+            if (resultado.error() != null) {
+                throw new IllegalStateException("Falló la tarea de arranque " + resultado.nombre(), resultado.error());
+            }
+        }
+    }
+
+    /** Resultados del último arranque, en orden de dependencias. */
+    public List<Resultado> informe() {
+        return informe;
+    }
+
+    private Resultado correr(TareaArranque tarea, List<CompletableFuture<Resultado>> previas, long origen) {
+        long inicio = System.nanoTime();
+        for (CompletableFuture<Resultado> previa : previas) {
+            Resultado resultado = previa.join();
+            if (resultado.error() != null || resultado.omitida()) {
+                log.warn("Se omite la tarea de arranque {} porque no terminó {}", tarea.nombre(), resultado.nombre());
+                return new Resultado(tarea.nombre(), Duration.ofNanos(inicio - origen), Duration.ZERO, true, null);
+            }
+        }
+        Exception error = null;
+        try {
+            tarea.ejecutar();
+        } catch (Exception e) {
+            log.error("Falló la tarea de arranque {}", tarea.nombre(), e);
+            error = e;
+        }
+        Duration duracion = Duration.ofNanos(System.nanoTime() - inicio);
+        meterRegistry.timer("swapify.arranque.tarea", "tarea", tarea.nombre(),
+                "resultado", error == null ? "ok" : "error").record(duracion);
+        return new Resultado(tarea.nombre(), Duration.ofNanos(inicio - origen), duracion, false, error);
+    }
+
+    /**
+     * Ordena las tareas de modo que cada una aparezca después de sus
+     * dependencias.
+     *
+     * @throws IllegalStateException si hay nombres repetidos, dependencias
+     *         inexistentes o ciclos
+     */
+    private List<TareaArranque> ordenar() {
+        Map<String, TareaArranque> porNombre = new LinkedHashMap<>();
+        for (TareaArranque tarea : tareas) {
+            if (porNombre.put(tarea.nombre(), tarea) != null) {
+                throw new IllegalStateException("Tarea de arranque repetida: " + tarea.nombre());
+            }
+        }
+        List<TareaArranque> orden = new ArrayList<>();
+        Set<String> visitadas = new HashSet<>();
+        for (TareaArranque tarea : porNombre.values()) {
+            visitar(tarea, porNombre, visitadas, new HashSet<>(), orden);
+        }
+        return orden;
+    }
+
+    private void visitar(TareaArranque tarea, Map<String, TareaArranque> porNombre, Set<String> visitadas,
+                         Set<String> enCurso, List<TareaArranque> orden) {
+        if (visitadas.contains(tarea.nombre())) {
+            return;
+        }
+        if (!enCurso.add(tarea.nombre())) {
+            throw new IllegalStateException("Dependencia circular entre tareas de arranque: " + enCurso);
+        }
+        for (String dependencia : tarea.dependeDe()) {
+            TareaArranque previa = porNombre.get(dependencia);
+            if (previa == null) {
+                throw new IllegalStateException("La tarea de arranque " + tarea.nombre()
+                        + " depende de " + dependencia + ", que no existe");
+            }
+            visitar(previa, porNombre, visitadas, enCurso, orden);
+        }
+        enCurso.remove(tarea.nombre());
+        visitadas.add(tarea.nombre());
+        orden.add(tarea);
+    }
+
+    private void registrarInforme(long contextoMs, long totalNanos, int paralelismo) {
+        long secuencialMs = informe.stream().mapToLong(r -> r.duracion().toMillis()).sum();
+        StringBuilder texto = new StringBuilder()
+                .append(String.format("Arranque: contexto listo a los %d ms; %d tareas en %d ms con %d hilos"
+                                + " (%d ms sumadas)", contextoMs, informe.size(), Duration.ofNanos(totalNanos).toMillis(),
+                        paralelismo, secuencialMs));
+        for (Resultado resultado : informe) {
+            texto.append(String.format("%n  %-24s +%6d ms %6d ms%s", resultado.nombre(),
+                    resultado.desde().toMillis(), resultado.duracion().toMillis(),
+                    resultado.omitida() ? "  omitida" : resultado.error() != null ? "  error" : ""));
+        }
+        log.info(texto.toString());
+    }
+
+    /**
+     * Resultado de una tarea.
+     *
+     * @param desde    cuánto después del inicio de la orquestación empezó
+     * @param duracion cuánto tardó; cero si se omitió
+     */
+    public record Resultado(String nombre, Duration desde, Duration duracion, boolean omitida, Exception error) {
+    }
+}
@@ -0,0 +1,50 @@
+package ar.edu.huergo.swapify.config.arranque;
+
+import java.util.Set;
+
+/**
+ * Paso de inicialización que {@link OrquestadorArranque} ejecuta antes de que
+ * la aplicación quede lista. Las tareas sin dependencias entre sí corren en
+ * paralelo; una tarea empieza recién cuando terminaron todas las que nombra
+ * en {@link #dependeDe()}.
+ */
+public interface TareaArranque {
+
+    /** Nombre único, usado en dependencias, logs y métricas. */
+    String nombre();
+
+    /** Nombres de las tareas que tienen que terminar antes que esta. */
+    default Set<String> dependeDe() {
+        return Set.of();
+    }
+
+    /**
+     * Ejecuta la tarea. Una excepción detiene el arranque una vez que
+     * terminaron las demás tareas en curso.
+     */
+    void ejecutar() throws Exception;
+
+    static TareaArranque de(String nombre, Set<String> dependeDe, Paso paso) {
+        return new TareaArranque() {
+            @Override
+            public String nombre() {
+                return nombre;
+            }
+
+            @Override
+            public Set<String> dependeDe() {
+                return dependeDe;
+            }
+
+            @Override
+            public void ejecutar() throws Exception {
+                paso.ejecutar();
+            }
+        };
+    }
+
+    @FunctionalInterface
+    interface Paso {
+        void ejecutar() throws Exception;
+    }
+}
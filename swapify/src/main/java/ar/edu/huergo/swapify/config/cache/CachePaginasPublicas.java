@@ -0,0 +1,166 @@
+package ar.edu.huergo.swapify.config.cache;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import ar.edu.huergo.swapify.service.publicacion.CatalogoModificadoEvent;
+import jakarta.servlet.ServletException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cache en memoria de respuestas completas para visitantes anónimos.
+ * Coalesce los renders concurrentes de una misma clave para que un pico de
+ * tráfico sobre una entrada vencida dispare un único render.
+ */
+@Component
+@Slf4j
+public class CachePaginasPublicas {
+
+    private final boolean habilitada;
+    private final long ttlNanos;
+    private final int maxEntradas;
+    private final long esperaMaximaMillis;
+
+    private final Map<String, Entrada> entradas = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<PaginaCacheada>> enCurso = new ConcurrentHashMap<>();
+    private final AtomicLong generacion = new AtomicLong();
+
+    public CachePaginasPublicas(@Value("${swapify.cache.paginas-publicas.habilitada:true}") boolean habilitada,
+                                @Value("${swapify.cache.paginas-publicas.ttl:5s}") Duration ttl,
+                                @Value("${swapify.cache.paginas-publicas.max-entradas:256}") int maxEntradas,
+                                @Value("${swapify.cache.paginas-publicas.espera-maxima:10s}") Duration esperaMaxima) {
+        this.habilitada = habilitada;
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntradas = maxEntradas;
+        this.esperaMaximaMillis = esperaMaxima.toMillis();
+    }
+
+    public boolean estaHabilitada() {
+        return habilitada && ttlNanos > 0;
+    }
+
+    /**
+     * Devuelve la página a servir desde cache o delega el render. Cuando otro
+     * request ya está renderizando la misma clave, espera su resultado en
+     * lugar de repetir el trabajo.
+     *
+     * @return la página que debe escribirse en la respuesta, o {@code null} si
+     *         el renderizador ya escribió la respuesta por su cuenta.
+     */
+    public PaginaCacheada resolver(String clave, Renderizador renderizador) throws IOException, ServletException {
+        PaginaCacheada vigente = obtenerVigente(clave);
+        if (vigente != null) {
+            return vigente;
+        }
+
+        CompletableFuture<PaginaCacheada> propio = new CompletableFuture<>();
+        CompletableFuture<PaginaCacheada> existente = enCurso.putIfAbsent(clave, propio);
+        if (existente != null) {
+            PaginaCacheada compartida = esperar(clave, existente);
+            if (compartida != null) {
+                return compartida;
+            }
+            renderizador.renderizar();
+            return null;
+        }
+
+        PaginaCacheada renderizada = null;
+        try {
+            long generacionInicial = generacion.get();
+            renderizada = renderizador.renderizar();
+            if (renderizada != null && generacionInicial == generacion.get()) {
+                guardar(clave, renderizada);
+            }
+            return null;
+        } finally {
+            propio.complete(renderizada);
+            enCurso.remove(clave, propio);
+        }
+    }
+
+    /**
+     * Descarta todas las entradas luego de que una escritura sobre el catálogo
+     * se confirma. Los renders en curso iniciados antes del cambio no se
+     * guardan.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void alModificarCatalogo(CatalogoModificadoEvent evento) {
+        invalidar();
+    }
+
+    public void invalidar() {
+        generacion.incrementAndGet();
+        entradas.clear();
+    }
+
+    int cantidadEntradas() {
+        return entradas.size();
+    }
+
+    private PaginaCacheada obtenerVigente(String clave) {
+        Entrada entrada = entradas.get(clave);
+        if (entrada == null) {
+            return null;
+        }
+        if (entrada.vencida(System.nanoTime())) {
+            entradas.remove(clave, entrada);
+            return null;
+        }
+        return entrada.pagina();
+    }
+
+    private void guardar(String clave, PaginaCacheada pagina) {
+        long ahora = System.nanoTime();
+        if (entradas.size() >= maxEntradas) {
+            entradas.values().removeIf(entrada -> entrada.vencida(ahora));
+            if (entradas.size() >= maxEntradas) {
+                return;
+            }
+        }
+        entradas.put(clave, new Entrada(pagina, ahora + ttlNanos));
+    }
+
+    private PaginaCacheada esperar(String clave, CompletableFuture<PaginaCacheada> futuro) {
+        try {
+            return futuro.get(esperaMaximaMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            log.debug("No se pudo reutilizar el render en curso de {}", clave, e);
+            return null;
+        }
+    }
+
+    /**
+     * Render de una página que escribe sobre la respuesta real y devuelve la
+     * copia a cachear, o {@code null} si la respuesta no es cacheable.
+     */
+    @FunctionalInterface
+    public interface Renderizador {
+        PaginaCacheada renderizar() throws IOException, ServletException;
+    }
+
+    /**
+     * Respuesta capturada lista para reenviarse a otros visitantes anónimos.
+     */
+    public record PaginaCacheada(byte[] cuerpo, String contentType) {
+    }
+
+    private record Entrada(PaginaCacheada pagina, long venceEnNanos) {
+        boolean vencida(long ahora) {
+            return ahora - venceEnNanos >= 0;
+        }
+    }
+}
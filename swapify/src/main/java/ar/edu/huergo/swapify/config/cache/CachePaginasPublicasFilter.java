@@ -0,0 +1,115 @@
+package ar.edu.huergo.swapify.config.cache;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import ar.edu.huergo.swapify.config.cache.CachePaginasPublicas.PaginaCacheada;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Sirve desde {@link CachePaginasPublicas} las páginas públicas solicitadas
+ * por visitantes anónimos. Se registra después de la cadena de Spring
+ * Security para conocer el estado de autenticación del request.
+ */
+@Component
+public class CachePaginasPublicasFilter extends OncePerRequestFilter {
+
+    static final String HEADER_CACHE = "X-Swapify-Cache";
+
+    private final CachePaginasPublicas cache;
+    private final Set<String> rutas;
+
+    public CachePaginasPublicasFilter(CachePaginasPublicas cache,
+                                      @Value("${swapify.cache.paginas-publicas.rutas:/,/web,/web/,/web/publicaciones,/web/acerca}")
+                                      Set<String> rutas) {
+        this.cache = cache;
+        this.rutas = Set.copyOf(rutas);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !cache.estaHabilitada()
+                || !"GET".equals(request.getMethod())
+                || !rutas.contains(request.getRequestURI());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+        String clave = construirClave(request);
+        if (clave == null || !esAnonimo() || request.getSession(false) != null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        PaginaCacheada pagina = cache.resolver(clave, () -> renderizar(request, response, filterChain));
+        if (pagina != null) {
+            response.setStatus(HttpStatus.OK.value());
+            response.setContentType(pagina.contentType());
+            response.setContentLength(pagina.cuerpo().length);
+            response.setHeader(HEADER_CACHE, "HIT");
+            response.getOutputStream().write(pagina.cuerpo());
+        }
+    }
+
+    /**
+     * Ejecuta la cadena capturando el cuerpo para decidir si la respuesta puede
+     * compartirse con otros visitantes.
+     */
+    private PaginaCacheada renderizar(HttpServletRequest request, HttpServletResponse response,
+            FilterChain filterChain) throws IOException, ServletException {
+        response.setHeader(HEADER_CACHE, "MISS");
+        ContentCachingResponseWrapper captura = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, captura);
+            return esCacheable(request, captura)
+                    ? new PaginaCacheada(captura.getContentAsByteArray(), captura.getContentType())
+                    : null;
+        } finally {
+            captura.copyBodyToResponse();
+        }
+    }
+
+    private boolean esCacheable(HttpServletRequest request, ContentCachingResponseWrapper respuesta) {
+        String contentType = respuesta.getContentType();
+        return respuesta.getStatus() == HttpStatus.OK.value()
+                && contentType != null && contentType.startsWith("text/html")
+                && respuesta.getHeaders(HttpHeaders.SET_COOKIE).isEmpty()
+                && request.getSession(false) == null;
+    }
+
+    /**
+     * La clave combina la ruta con la consulta {@code q}. Cualquier otro
+     * parámetro deja el request fuera de la cache.
+     */
+    private String construirClave(HttpServletRequest request) {
+        Map<String, String[]> parametros = request.getParameterMap();
+        if (parametros.isEmpty()) {
+            return request.getRequestURI();
+        }
+        String[] consulta = parametros.get("q");
+        if (parametros.size() != 1 || consulta == null || consulta.length != 1) {
+            return null;
+        }
+        return request.getRequestURI() + "?q=" + consulta[0];
+    }
+
+    private boolean esAnonimo() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth == null || auth instanceof AnonymousAuthenticationToken || !auth.isAuthenticated();
+    }
+}
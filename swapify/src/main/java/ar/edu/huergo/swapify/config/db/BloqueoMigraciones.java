@@ -0,0 +1,160 @@
+package ar.edu.huergo.swapify.config.db;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import ar.edu.huergo.swapify.config.arranque.TareaArranque;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bloqueo compartido para las migraciones de esquema cuando varios nodos
+ * arrancan contra la misma base (perfil {@code servidor}). H2 no tiene
+ * bloqueos advisory, así que se usa una fila en
+ * {@code SWAPIFY_MIGRACION_BLOQUEO}: un nodo la toma con un {@code UPDATE}
+ * condicional y los demás esperan. Si el nodo dueño se cae, el bloqueo
+ * vence pasado {@code swapify.migraciones.bloqueo.vencimiento}.
+ *
+ * <p>Cada nodo lo toma antes de que Hibernate actualice el esquema
+ * ({@link EsquemaDependeDeBloqueo}) y lo suelta como tarea de arranque apenas
+ * terminan las migraciones y los datos iniciales, de modo que el
+ * {@code ddl-auto=update}, las migraciones y los datos iniciales de un nodo no
+ * se cruzan con los de otro, pero el calentamiento y los datos de carga ya no
+ * lo retienen. Si el arranque falla antes, se suelta al cerrar el contexto. Es
+ * reentrante dentro del nodo: {@link #ejecutar} solo toca la base si el
+ * bloqueo no estaba tomado.</p>
+ */
+@Component
+@Slf4j
+public class BloqueoMigraciones implements InitializingBean, TareaArranque, DisposableBean {
+
+    private static final String TABLA = "SWAPIFY_MIGRACION_BLOQUEO";
+    private static final long PAUSA_MS = 250;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration espera;
+    private final Duration vencimiento;
+    private final String propietario;
+    private int tomas;
+
+    public BloqueoMigraciones(JdbcTemplate jdbcTemplate,
+                              @Value("${swapify.migraciones.bloqueo.espera:60s}") Duration espera,
+                              @Value("${swapify.migraciones.bloqueo.vencimiento:5m}") Duration vencimiento) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.espera = espera;
+        this.vencimiento = vencimiento;
+        this.propietario = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        adquirir("esquema");
+    }
+
+    @Override
+    public String nombre() {
+        return "bloqueo-migraciones";
+    }
+
+    @Override
+    public Set<String> dependeDe() {
+        return Set.of("esquema-publicaciones", "esquema-ofertas", "imagenes-heredadas", "datos-iniciales");
+    }
+
+    /** Suelta el bloqueo que se tomó para el {@code ddl-auto=update}. */
+    @Override
+    public void ejecutar() {
+        liberar();
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (tomas > 0) {
+            tomas = 1;
+            liberar();
+        }
+    }
+
+    /**
+     * Ejecuta la migración con el bloqueo tomado.
+     *
+     * @throws IllegalStateException si otro nodo no lo libera dentro de la espera configurada
+     */
+    public void ejecutar(String migracion, Runnable pasos) {
+        adquirir(migracion);
+        try {
+            pasos.run();
+        } finally {
+            liberar();
+        }
+    }
+
+    synchronized void adquirir(String migracion) {
+        if (tomas++ > 0) {
+            return;
+        }
+        try {
+            asegurarTabla();
+            esperar(migracion);
+        } catch (RuntimeException e) {
+            tomas = 0;
+            throw e;
+        }
+    }
+
+    synchronized void liberar() {
+        if (tomas == 0 || --tomas > 0) {
+            return;
+        }
+        jdbcTemplate.update("UPDATE " + TABLA + " SET PROPIETARIO = NULL, DESDE = NULL WHERE ID = 1 AND PROPIETARIO = ?",
+                propietario);
+    }
+
+    private void asegurarTabla() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + TABLA
+                + " (ID INT PRIMARY KEY, PROPIETARIO VARCHAR(255), DESDE TIMESTAMP(6))");
+        try {
+            jdbcTemplate.update("INSERT INTO " + TABLA + " (ID) SELECT 1 WHERE NOT EXISTS (SELECT 1 FROM " + TABLA
+                    + " WHERE ID = 1)");
+        } catch (DuplicateKeyException e) {
+            log.debug("Otro nodo creó la fila de bloqueo de migraciones");
+        }
+    }
+
+    private void esperar(String migracion) {
+        long limite = System.nanoTime() + espera.toNanos();
+        boolean avisado = false;
+        while (!intentarAdquirir()) {
+            if (System.nanoTime() > limite) {
+                throw new IllegalStateException("No se obtuvo el bloqueo de migraciones para " + migracion
+                        + " en " + espera.toSeconds() + " s");
+            }
+            if (!avisado) {
+                log.info("Esperando a que otro nodo termine las migraciones de esquema ({})", migracion);
+                avisado = true;
+            }
+            try {
+                Thread.sleep(PAUSA_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrumpido esperando el bloqueo de migraciones", e);
+            }
+        }
+    }
+
+    private boolean intentarAdquirir() {
+        int filas = jdbcTemplate.update("UPDATE " + TABLA
+                        + " SET PROPIETARIO = ?, DESDE = CURRENT_TIMESTAMP"
+                        + " WHERE ID = 1 AND (PROPIETARIO IS NULL OR DESDE < DATEADD(SECOND, ?, CURRENT_TIMESTAMP))",
+                propietario, -vencimiento.toSeconds());
+        return filas == 1;
+    }
+}
@@ -0,0 +1,184 @@
+package ar.edu.huergo.swapify.config.db;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Destino de las transacciones de solo lectura cuando hay réplicas
+ * configuradas. Reparte las conexiones en round-robin entre las réplicas al
+ * día y, si ninguna lo está, usa el pool de lectura de la primaria.
+ *
+ * <p>Una réplica está al día si su última sincronización incluye todas las
+ * escrituras confirmadas en la primaria, o si es más reciente que
+ * {@code swapify.datasource.replicas.retraso-maximo}. Con el valor por
+ * defecto (cero) nunca se leen datos viejos: después de una escritura las
+ * lecturas vuelven a la primaria hasta la próxima sincronización.</p>
+ *
+ * <p>La réplica se elige y su conexión se toma en un mismo paso
+ * ({@link Replica#prestar}), así el {@link ReplicadorH2} puede saber si
+ * alguien la está usando antes de recargarla.</p>
+ */
+public class EnrutadorReplicas extends AbstractRoutingDataSource implements DisposableBean {
+
+    static final String PRIMARIA = "primaria";
+
+    private final DataSource lecturaPrimaria;
+    private final List<Replica> replicas;
+    private final long retrasoMaximoNanos;
+    private final AtomicLong escrituras = new AtomicLong();
+    private final AtomicInteger siguiente = new AtomicInteger();
+
+    EnrutadorReplicas(DataSource lecturaPrimaria, List<Replica> replicas, Duration retrasoMaximo) {
+        this.lecturaPrimaria = lecturaPrimaria;
+        this.replicas = List.copyOf(replicas);
+        this.retrasoMaximoNanos = retrasoMaximo.toNanos();
+        Map<Object, Object> destinos = new HashMap<>();
+        destinos.put(PRIMARIA, lecturaPrimaria);
+        for (Replica replica : this.replicas) {
+            destinos.put(replica.nombre(), replica.pool());
+        }
+        setTargetDataSources(destinos);
+        setDefaultTargetDataSource(lecturaPrimaria);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        int cantidad = replicas.size();
+        int inicio = Math.floorMod(siguiente.getAndIncrement(), cantidad);
+        long version = escrituras.get();
+        for (int i = 0; i < cantidad; i++) {
+            Connection conexion = replicas.get((inicio + i) % cantidad).prestar(version, retrasoMaximoNanos);
+            if (conexion != null) {
+                return conexion;
+            }
+        }
+        return lecturaPrimaria.getConnection();
+    }
+
+    /** Solo lo usa {@code getConnection(usuario, password)}, que los pools de la aplicación no llaman. */
+    @Override
+    protected Object determineCurrentLookupKey() {
+        int cantidad = replicas.size();
+        int inicio = Math.floorMod(siguiente.getAndIncrement(), cantidad);
+        long version = escrituras.get();
+        for (int i = 0; i < cantidad; i++) {
+            Replica replica = replicas.get((inicio + i) % cantidad);
+            if (replica.alDia(version, retrasoMaximoNanos)) {
+                return replica.nombre();
+            }
+        }
+        return PRIMARIA;
+    }
+
+    /**
+     * Se invoca después de cada commit de escritura en la primaria.
+     */
+    void registrarEscritura() {
+        escrituras.incrementAndGet();
+    }
+
+    long versionPrimaria() {
+        return escrituras.get();
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    public void destroy() {
+        replicas.forEach(replica -> replica.pool().close());
+    }
+
+    /**
+     * Réplica con su pool de lectura y el estado de su última sincronización.
+     */
+    public static final class Replica {
+
+        private final String nombre;
+        private final String url;
+        private final HikariDataSource pool;
+        private volatile boolean enServicio;
+        private volatile long version = -1;
+        private volatile long sincronizadaNanos;
+        private final AtomicInteger prestando = new AtomicInteger();
+
+        Replica(String nombre, String url, HikariDataSource pool) {
+            this.nombre = nombre;
+            this.url = url;
+            this.pool = pool;
+        }
+
+        boolean alDia(long versionPrimaria, long retrasoMaximoNanos) {
+            return enServicio && (version == versionPrimaria
+                    || System.nanoTime() - sincronizadaNanos <= retrasoMaximoNanos);
+        }
+
+        /**
+         * Presta una conexión si la réplica está al día. El contador cubre
+         * desde el chequeo hasta que el pool entrega la conexión, de modo que
+         * una réplica retirada con {@link #ociosa()} verdadero no recibe
+         * lecturas nuevas.
+         *
+         * @return la conexión, o {@code null} si la réplica no está al día
+         */
+        Connection prestar(long versionPrimaria, long retrasoMaximoNanos) throws SQLException {
+            prestando.incrementAndGet();
+            try {
+                return alDia(versionPrimaria, retrasoMaximoNanos) ? pool.getConnection() : null;
+            } finally {
+                prestando.decrementAndGet();
+            }
+        }
+
+        /** Saca la réplica de la rotación, por ejemplo mientras se recarga. */
+        void retirar() {
+            enServicio = false;
+        }
+
+        /** Sin préstamos en curso ni conexiones abiertas. */
+        boolean ociosa() {
+            return prestando.get() == 0 && (pool.getHikariPoolMXBean() == null
+                    || pool.getHikariPoolMXBean().getActiveConnections() == 0);
+        }
+
+        void sincronizada(long version, long instanteNanos) {
+            this.version = version;
+            this.sincronizadaNanos = instanteNanos;
+            this.enServicio = true;
+        }
+
+        public String nombre() {
+            return nombre;
+        }
+
+        public String url() {
+            return url;
+        }
+
+        public HikariDataSource pool() {
+            return pool;
+        }
+
+        public boolean enServicio() {
+            return enServicio;
+        }
+
+        public long version() {
+            return version;
+        }
+    }
+}
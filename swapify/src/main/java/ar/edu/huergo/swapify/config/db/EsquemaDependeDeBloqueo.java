@@ -0,0 +1,16 @@
+package ar.edu.huergo.swapify.config.db;
+
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hace que el {@code EntityManagerFactory} (y con él el
+ * {@code ddl-auto=update} de Hibernate) espere al {@link BloqueoMigraciones}.
+ */
+@Component
+public class EsquemaDependeDeBloqueo extends EntityManagerFactoryDependsOnPostProcessor {
+
+    public EsquemaDependeDeBloqueo() {
+        super(BloqueoMigraciones.class);
+    }
+}
@@ -0,0 +1,349 @@
+package ar.edu.huergo.swapify.config.db;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+import javax.imageio.ImageIO;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ar.edu.huergo.swapify.config.arranque.TareaArranque;
+import ar.edu.huergo.swapify.entity.publicacion.ContenidoImagen;
+import ar.edu.huergo.swapify.service.imagen.HuellaPerceptual;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Carga un catálogo de volumen realista para pruebas de rendimiento. Se activa
+ * con el perfil {@code semilla} e inserta usuarios, publicaciones con 1 a 5
+ * imágenes, ofertas y notificaciones mediante inserciones JDBC por lotes.
+ * Las imágenes se guardan como en producción: un {@code contenido_imagen}
+ * por foto distinta, con su hash, huella y conteo de referencias, y las filas
+ * de {@code publicacion_imagen} apuntándolo.
+ *
+ * <p>Los usuarios generados comparten la contraseña
+ * {@code swapify.semilla.password} para que el escenario de carga HTTP pueda
+ * iniciar sesión con cualquiera de ellos.</p>
+ */
+@Component
+@Profile("semilla")
+@Slf4j
+public class GeneradorDatosCarga implements TareaArranque {
+
+    private static final String DOMINIO = "@carga.swapify.test";
+
+    private static final String[] ARTICULOS = {
+            "Bicicleta", "Guitarra criolla", "Auriculares", "Libro de álgebra", "Calculadora científica",
+            "Campera de jean", "Zapatillas", "Monitor 24\"", "Teclado mecánico", "Mochila", "Cámara réflex",
+            "Patineta", "Consola retro", "Set de pinceles", "Raqueta de tenis", "Lámpara de escritorio"};
+    private static final String[] ESTADOS = {"como nuevo", "poco uso", "usado", "con detalles", "impecable"};
+    private static final String[] BUSCADOS = {
+            "libros", "ropa", "algo de música", "electrónica", "artículos de deporte", "útiles escolares"};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+
+    @Value("${swapify.semilla.usuarios:1000}")
+    private int cantidadUsuarios;
+
+    @Value("${swapify.semilla.publicaciones:10000}")
+    private int cantidadPublicaciones;
+
+    @Value("${swapify.semilla.ofertas:20000}")
+    private int cantidadOfertas;
+
+    @Value("${swapify.semilla.notificaciones:20000}")
+    private int cantidadNotificaciones;
+
+    @Value("${swapify.semilla.imagen-lado:480}")
+    private int ladoImagen;
+
+    @Value("${swapify.semilla.lote:500}")
+    private int tamanioLote;
+
+    @Value("${swapify.semilla.password:CargaSegura@123}")
+    private String password;
+
+    @Value("${swapify.semilla.semilla-aleatoria:20240501}")
+    private long semillaAleatoria;
+
+    public GeneradorDatosCarga(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               PasswordEncoder passwordEncoder) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.passwordEncoder = passwordEncoder;
+    }
+
+    @Override
+    public String nombre() {
+        return "datos-carga";
+    }
+
+    @Override
+    public Set<String> dependeDe() {
+        return Set.of("esquema-publicaciones", "esquema-ofertas", "datos-iniciales");
+    }
+
+    @Override
+    public void ejecutar() throws IOException {
+        Integer existentes = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM usuarios WHERE username LIKE ?", Integer.class, "%" + DOMINIO);
+        if (existentes != null && existentes > 0) {
+            log.info("Ya existen {} usuarios de carga; no se generan datos nuevamente", existentes);
+            return;
+        }
+
+        long inicio = System.nanoTime();
+        SplittableRandom random = new SplittableRandom(semillaAleatoria);
+        List<ImagenSemilla> imagenes = generarImagenes(24, new Random(semillaAleatoria));
+
+        long primerUsuario = insertarUsuarios();
+        long primeraPublicacion = insertarPublicaciones(primerUsuario, random);
+        long primerContenido = insertarContenidos(imagenes);
+        insertarImagenes(primeraPublicacion, primerContenido, imagenes.size(), random);
+        contarReferencias(primerContenido);
+        insertarOfertas(primerUsuario, primeraPublicacion, random);
+        insertarNotificaciones(primerUsuario, primeraPublicacion, random);
+        reiniciarIdentidades();
+
+        log.info("Datos de carga generados en {} s: {} usuarios, {} publicaciones, {} ofertas, {} notificaciones",
+                (System.nanoTime() - inicio) / 1_000_000_000, cantidadUsuarios, cantidadPublicaciones,
+                cantidadOfertas, cantidadNotificaciones);
+    }
+
+    private long insertarUsuarios() {
+        long primerId = siguienteId("usuarios");
+        Long rolCliente = obtenerRolCliente();
+        String hash = passwordEncoder.encode(password);
+
+        insertarPorLotes("INSERT INTO usuarios (id, username, nombre, password) VALUES (?, ?, ?, ?)",
+                cantidadUsuarios, (i, fila) -> {
+                    long id = primerId + i;
+                    fila.add(new Object[] {id, "usuario" + i + DOMINIO, "Carga " + i, hash});
+                });
+        insertarPorLotes("INSERT INTO usuario_roles (usuario_id, rol_id) VALUES (?, ?)",
+                cantidadUsuarios, (i, fila) -> fila.add(new Object[] {primerId + i, rolCliente}));
+        return primerId;
+    }
+
+    /**
+     * El orden entre este runner y {@code DataInitializer} no está garantizado,
+     * así que el rol se crea si todavía no existe.
+     */
+    private Long obtenerRolCliente() {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM roles WHERE nombre = 'CLIENTE'", Long.class);
+        if (ids.isEmpty()) {
+            jdbcTemplate.update("INSERT INTO roles (nombre) VALUES ('CLIENTE')");
+            ids = jdbcTemplate.queryForList("SELECT id FROM roles WHERE nombre = 'CLIENTE'", Long.class);
+        }
+        return ids.get(0);
+    }
+
+    private long insertarPublicaciones(long primerUsuario, SplittableRandom random) {
+        long primerId = siguienteId("Publicacion");
+        LocalDateTime ahora = LocalDateTime.now();
+        insertarPorLotes("INSERT INTO Publicacion (id, nombre, precio, descripcion, objeto_a_cambiar, "
+                        + "fecha_publicacion, usuario_id, estado, es_oficial) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                cantidadPublicaciones, (i, fila) -> {
+                    String articulo = ARTICULOS[random.nextInt(ARTICULOS.length)];
+                    String estado = ESTADOS[random.nextInt(ESTADOS.length)];
+                    fila.add(new Object[] {
+                            primerId + i,
+                            articulo + " " + estado + " #" + i,
+                            BigDecimal.valueOf(random.nextInt(1_000, 500_000), 2),
+                            articulo + " en estado " + estado + ". Se entrega en la escuela, a convenir horario.",
+                            BUSCADOS[random.nextInt(BUSCADOS.length)],
+                            Timestamp.valueOf(ahora.minusMinutes(random.nextLong(0, 60L * 24 * 365))),
+                            primerUsuario + random.nextInt(cantidadUsuarios),
+                            random.nextInt(10) == 0 ? "PAUSADA" : "ACTIVA",
+                            false});
+                });
+        return primerId;
+    }
+
+    /** Un contenido por foto sintética; las referencias se cuentan al final. */
+    private long insertarContenidos(List<ImagenSemilla> imagenes) {
+        long primerId = siguienteId("contenido_imagen");
+        insertarPorLotes("INSERT INTO contenido_imagen (id, hash, datos, tamanio, referencias, huella_perceptual) "
+                        + "VALUES (?, ?, ?, ?, 0, ?)",
+                imagenes.size(), (i, fila) -> {
+                    ImagenSemilla imagen = imagenes.get(i);
+                    fila.add(new Object[] {
+                            primerId + i,
+                            ContenidoImagen.sha256(imagen.datos()),
+                            imagen.datos(),
+                            (long) imagen.datos().length,
+                            imagen.huella()});
+                });
+        return primerId;
+    }
+
+    private void insertarImagenes(long primeraPublicacion, long primerContenido, int contenidos,
+                                  SplittableRandom random) {
+        long primerId = siguienteId("publicacion_imagen");
+        long[] siguiente = {primerId};
+        insertarPorLotes("INSERT INTO publicacion_imagen (id, publicacion_id, orden, contenido_id, content_type) "
+                        + "VALUES (?, ?, ?, ?, ?)",
+                cantidadPublicaciones, (i, fila) -> {
+                    int cantidad = random.nextInt(1, 6);
+                    for (int orden = 0; orden < cantidad; orden++) {
+                        fila.add(new Object[] {
+                                siguiente[0]++,
+                                primeraPublicacion + i,
+                                orden,
+                                primerContenido + random.nextInt(contenidos),
+                                "image/jpeg"});
+                    }
+                });
+    }
+
+    private void contarReferencias(long primerContenido) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.update(
+                "UPDATE contenido_imagen c SET referencias = "
+                        + "(SELECT COUNT(*) FROM publicacion_imagen i WHERE i.contenido_id = c.id) WHERE c.id >= ?",
+                primerContenido));
+    }
+
+    private void insertarOfertas(long primerUsuario, long primeraPublicacion, SplittableRandom random) {
+        long primerId = siguienteId("Oferta");
+        LocalDateTime ahora = LocalDateTime.now();
+        insertarPorLotes("INSERT INTO Oferta (id, publicacion_id, usuario_id, mensaje, articulo_nombre, "
+                        + "articulo_precio, articulo_descripcion, fecha_oferta, estado) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                cantidadOfertas, (i, fila) -> {
+                    String articulo = ARTICULOS[random.nextInt(ARTICULOS.length)];
+                    fila.add(new Object[] {
+                            primerId + i,
+                            primeraPublicacion + random.nextInt(cantidadPublicaciones),
+                            primerUsuario + random.nextInt(cantidadUsuarios),
+                            "Te propongo cambiarlo por mi " + articulo.toLowerCase() + ".",
+                            articulo,
+                            BigDecimal.valueOf(random.nextInt(1_000, 300_000), 2),
+                            articulo + " " + ESTADOS[random.nextInt(ESTADOS.length)],
+                            Timestamp.valueOf(ahora.minusMinutes(random.nextLong(0, 60L * 24 * 30))),
+                            "PENDIENTE"});
+                });
+    }
+
+    private void insertarNotificaciones(long primerUsuario, long primeraPublicacion, SplittableRandom random) {
+        long primerId = siguienteId("notificaciones");
+        LocalDateTime ahora = LocalDateTime.now();
+        insertarPorLotes("INSERT INTO notificaciones (id, usuario_id, titulo, mensaje, tipo, leida, "
+                        + "fecha_creacion, enlace, icono) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                cantidadNotificaciones, (i, fila) -> {
+                    long publicacion = primeraPublicacion + random.nextInt(cantidadPublicaciones);
+                    fila.add(new Object[] {
+                            primerId + i,
+                            primerUsuario + random.nextInt(cantidadUsuarios),
+                            "Nueva oferta recibida",
+                            "Recibiste una propuesta para tu publicación.",
+                            "OFERTA",
+                            random.nextInt(3) == 0,
+                            Timestamp.valueOf(ahora.minusMinutes(random.nextLong(0, 60L * 24 * 30))),
+                            "/web/publicaciones/" + publicacion,
+                            "bi-chat-dots"});
+                });
+    }
+
+    /**
+     * Inserta {@code cantidad} elementos en transacciones de
+     * {@code swapify.semilla.lote} filas lógicas. Un elemento puede aportar
+     * varias filas (por ejemplo, las imágenes de una publicación).
+     */
+    private void insertarPorLotes(String sql, int cantidad, GeneradorFilas generador) {
+        int lote = Math.max(1, tamanioLote);
+        for (int desde = 0; desde < cantidad; desde += lote) {
+            int hasta = Math.min(cantidad, desde + lote);
+            List<Object[]> filas = new ArrayList<>(hasta - desde);
+            for (int i = desde; i < hasta; i++) {
+                generador.generar(i, filas);
+            }
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, filas));
+        }
+    }
+
+    private long siguienteId(String tabla) {
+        Long maximo = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + tabla, Long.class);
+        return (maximo != null ? maximo : 0L) + 1;
+    }
+
+    /**
+     * Las filas se insertan con identificadores explícitos; la identidad de
+     * cada tabla se adelanta para que Hibernate no genere claves repetidas.
+     */
+    private void reiniciarIdentidades() {
+        for (String tabla : List.of("usuarios", "Publicacion", "contenido_imagen", "publicacion_imagen", "Oferta",
+                "notificaciones")) {
+            long siguiente = siguienteId(tabla);
+            jdbcTemplate.execute("ALTER TABLE " + tabla + " ALTER COLUMN id RESTART WITH " + siguiente);
+        }
+    }
+
+    /**
+     * Conjunto de fotos sintéticas (degradé, formas y ruido) que se reparten
+     * entre las publicaciones para no multiplicar el costo de codificación.
+     */
+    private List<ImagenSemilla> generarImagenes(int cantidad, Random random) throws IOException {
+        List<ImagenSemilla> imagenes = new ArrayList<>(cantidad);
+        int alto = ladoImagen * 3 / 4;
+        for (int n = 0; n < cantidad; n++) {
+            BufferedImage imagen = new BufferedImage(ladoImagen, alto, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = imagen.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                g.setPaint(new GradientPaint(0, 0, new Color(random.nextInt(0xFFFFFF)),
+                        ladoImagen, alto, new Color(random.nextInt(0xFFFFFF))));
+                g.fillRect(0, 0, ladoImagen, alto);
+                for (int i = 0; i < 60; i++) {
+                    g.setColor(new Color(random.nextInt(256), random.nextInt(256), random.nextInt(256), 150));
+                    g.fillOval(random.nextInt(ladoImagen), random.nextInt(alto),
+                            1 + random.nextInt(ladoImagen / 4), 1 + random.nextInt(alto / 4));
+                }
+            } finally {
+                g.dispose();
+            }
+            for (int y = 0; y < alto; y++) {
+                for (int x = 0; x < ladoImagen; x++) {
+                    int rgb = imagen.getRGB(x, y);
+                    int delta = random.nextInt(9) - 4;
+                    int r = Math.max(0, Math.min(255, ((rgb >> 16) & 0xFF) + delta));
+                    int v = Math.max(0, Math.min(255, ((rgb >> 8) & 0xFF) + delta));
+                    int b = Math.max(0, Math.min(255, (rgb & 0xFF) + delta));
+                    imagen.setRGB(x, y, (r << 16) | (v << 8) | b);
+                }
+            }
+            try (ByteArrayOutputStream salida = new ByteArrayOutputStream()) {
+                ImageIO.write(imagen, "jpg", salida);
+                imagenes.add(new ImagenSemilla(salida.toByteArray(), HuellaPerceptual.calcular(imagen)));
+            }
+        }
+        return imagenes;
+    }
+
+    private record ImagenSemilla(byte[] datos, long huella) {
+    }
+
+    @FunctionalInterface
+    private interface GeneradorFilas {
+        void generar(int indice, List<Object[]> filas);
+    }
+}
@@ -0,0 +1,137 @@
+package ar.edu.huergo.swapify.config.db;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import ar.edu.huergo.swapify.config.trazas.Trazas;
+
+/**
+ * Cuenta las sentencias SQL que Hibernate prepara en el hilo actual. Se
+ * registra como {@code hibernate.session_factory.statement_inspector} y no
+ * modifica las sentencias; la medición la abre y cierra
+ * {@link PresupuestoConsultasFilter} alrededor de cada request.
+ *
+ * <p>Cada sentencia se agrega además como evento de la traza actual. Por
+ * defecto el evento lleva sólo la operación y la primera tabla
+ * ({@code select publicacion}); el texto completo se exporta únicamente con
+ * {@code swapify.trazas.sql-completo=true}, porque las trazas salen del nodo
+ * y el SQL revela el esquema.</p>
+ */
+@Component
+public class InspectorConsultasSql implements StatementInspector, HibernatePropertiesCustomizer {
+
+    /** Sentencias distintas que se conservan por medición para el diagnóstico. */
+    private static final int MAX_SENTENCIAS_DISTINTAS = 64;
+
+    private static final ThreadLocal<Medicion> MEDICION_ACTUAL = new ThreadLocal<>();
+
+    private static final Pattern OPERACION = Pattern.compile("^\\s*(\\w+)");
+    private static final Pattern TABLA = Pattern.compile("\\b(?:from|into|update)\\s+(\\w+)",
+            Pattern.CASE_INSENSITIVE);
+
+    private final boolean sqlCompleto;
+
+    public InspectorConsultasSql(@Value("${swapify.trazas.sql-completo:false}") boolean sqlCompleto) {
+        this.sqlCompleto = sqlCompleto;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Medicion medicion = MEDICION_ACTUAL.get();
+        if (medicion != null) {
+            medicion.registrar(sql);
+        }
+        if (Trazas.activa()) {
+            Trazas.evento("sql", sqlCompleto ? sql : resumir(sql));
+        }
+        return sql;
+    }
+
+    /** Operación y primera tabla de la sentencia, sin columnas ni condiciones. */
+    static String resumir(String sql) {
+        Matcher operacion = OPERACION.matcher(sql);
+        if (!operacion.find()) {
+            return "sql";
+        }
+        String resumen = operacion.group(1).toLowerCase(Locale.ROOT);
+        Matcher tabla = TABLA.matcher(sql);
+        return tabla.find() ? resumen + " " + tabla.group(1) : resumen;
+    }
+
+    /**
+     * Inicia una medición en el hilo actual. Las mediciones no se anidan: si
+     * ya había una abierta se devuelve {@code null} y la externa sigue
+     * contando.
+     */
+    public Medicion iniciar() {
+        if (MEDICION_ACTUAL.get() != null) {
+            return null;
+        }
+        Medicion medicion = new Medicion();
+        MEDICION_ACTUAL.set(medicion);
+        return medicion;
+    }
+
+    public void finalizar(Medicion medicion) {
+        if (medicion != null && MEDICION_ACTUAL.get() == medicion) {
+            MEDICION_ACTUAL.remove();
+        }
+    }
+
+    /**
+     * Consultas ejecutadas durante una medición, agrupadas por texto SQL. Como
+     * los parámetros llegan como {@code ?}, un N+1 aparece como la misma
+     * sentencia repetida.
+     */
+    public static final class Medicion {
+
+        private final Map<String, Integer> repeticiones = new LinkedHashMap<>();
+        private int total;
+
+        private void registrar(String sql) {
+            total++;
+            if (repeticiones.containsKey(sql) || repeticiones.size() < MAX_SENTENCIAS_DISTINTAS) {
+                repeticiones.merge(sql, 1, Integer::sum);
+            }
+        }
+
+        public int total() {
+            return total;
+        }
+
+        /**
+         * Sentencias ejecutadas al menos {@code umbral} veces, en orden de
+         * aparición.
+         */
+        public Map<String, Integer> repetidas(int umbral) {
+            Map<String, Integer> repetidas = new LinkedHashMap<>();
+            repeticiones.forEach((sql, veces) -> {
+                if (veces >= umbral) {
+                    repetidas.put(sql, veces);
+                }
+            });
+            return repetidas;
+        }
+
+        public String resumen() {
+            StringBuilder sb = new StringBuilder();
+            repeticiones.forEach((sql, veces) -> sb.append(System.lineSeparator())
+                    .append("  ").append(veces).append("x ").append(sql));
+            return sb.toString();
+        }
+    }
+}
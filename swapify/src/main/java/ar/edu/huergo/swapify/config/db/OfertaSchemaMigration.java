@@ -2,12 +2,12 @@ package ar.edu.huergo.swapify.config.db;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.boot.ApplicationArguments;
-import org.springframework.boot.ApplicationRunner;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
+import ar.edu.huergo.swapify.config.arranque.TareaArranque;
+
 /**
  * Ajusta la tabla OFERTA para garantizar que existan las columnas necesarias
  * para el flujo de aceptación/rechazo y normaliza los valores legacy.
@@ -15,29 +15,39 @@ import org.springframework.stereotype.Component;
 @Component
 @RequiredArgsConstructor
 @Slf4j
-public class OfertaSchemaMigration implements ApplicationRunner {
+public class OfertaSchemaMigration implements TareaArranque {
 
     private static final String TABLA_OFERTA = "OFERTA";
     private static final String COL_ESTADO = "ESTADO";
     private static final String COL_FECHA_RESPUESTA = "FECHA_RESPUESTA";
 
     private final JdbcTemplate jdbcTemplate;
+    private final BloqueoMigraciones bloqueoMigraciones;
+
+    @Override
+    public String nombre() {
+        return "esquema-ofertas";
+    }
 
     @Override
-    public void run(ApplicationArguments args) {
+    public void ejecutar() {
         try {
-            if (!tablaOfertaExiste()) {
-                log.debug("La tabla OFERTA aún no existe. Hibernate la creará con el nuevo esquema.");
-                return;
-            }
-            asegurarColumnaEstado();
-            asegurarColumnaFechaRespuesta();
-            normalizarEstadosInconsistentes();
+            bloqueoMigraciones.ejecutar("ofertas", this::migrar);
         } catch (Exception e) {
             log.error("No se pudo preparar el esquema de ofertas", e);
         }
     }
 
+    private void migrar() {
+        if (!tablaOfertaExiste()) {
+            log.debug("La tabla OFERTA aún no existe. Hibernate la creará con el nuevo esquema.");
+            return;
+        }
+        asegurarColumnaEstado();
+        asegurarColumnaFechaRespuesta();
+        normalizarEstadosInconsistentes();
+    }
+
     private boolean tablaOfertaExiste() {
         Integer count = jdbcTemplate.queryForObject(
                 "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE UPPER(TABLE_NAME) = ?",
@@ -0,0 +1,63 @@
+package ar.edu.huergo.swapify.config.db;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Dos pools Hikari sobre la misma base: uno de escritura y otro de lectura.
+ * El {@code DataSource} principal es un {@link LazyConnectionDataSourceProxy}
+ * que pide la conexión física recién en la primera sentencia, cuando ya se
+ * sabe si la transacción es {@code @Transactional(readOnly = true)}; en ese
+ * caso la toma del pool de lectura.
+ *
+ * <p>Así las lecturas del catálogo no compiten por conexiones con los
+ * {@code @Transactional} de escritura que procesan imágenes. Ambos pools son
+ * beans para que el actuator publique sus métricas
+ * ({@code hikaricp.connections.*}, incluido el tiempo de espera).</p>
+ *
+ * <p>Si hay réplicas ({@link ReplicasConfig}) las lecturas van al
+ * {@link EnrutadorReplicas} en lugar del pool de lectura.</p>
+ */
+@Configuration
+public class PoolConexionesConfig {
+
+    @Bean
+    @ConfigurationProperties("swapify.datasource.escritura")
+    HikariDataSource poolEscritura(DataSourceProperties propiedades) {
+        HikariDataSource pool = crearPool(propiedades);
+        pool.setPoolName("swapify-escritura");
+        return pool;
+    }
+
+    @Bean
+    @ConfigurationProperties("swapify.datasource.lectura")
+    HikariDataSource poolLectura(DataSourceProperties propiedades) {
+        HikariDataSource pool = crearPool(propiedades);
+        pool.setPoolName("swapify-lectura");
+        pool.setReadOnly(true);
+        return pool;
+    }
+
+    @Bean
+    @Primary
+    DataSource dataSource(HikariDataSource poolEscritura, HikariDataSource poolLectura,
+                          ObjectProvider<EnrutadorReplicas> replicas) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(poolEscritura);
+        DataSource enrutador = replicas.getIfAvailable();
+        proxy.setReadOnlyDataSource(enrutador != null ? enrutador : poolLectura);
+        return proxy;
+    }
+
+    private HikariDataSource crearPool(DataSourceProperties propiedades) {
+        return propiedades.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+}
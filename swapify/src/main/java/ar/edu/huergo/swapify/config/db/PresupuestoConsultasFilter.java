@@ -0,0 +1,113 @@
+package ar.edu.huergo.swapify.config.db;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import ar.edu.huergo.swapify.config.db.InspectorConsultasSql.Medicion;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Mide cuántas consultas SQL dispara cada request y las compara con el
+ * presupuesto configurado para la ruta. Se ubica antes de Spring Security
+ * para incluir la carga del usuario autenticado.
+ *
+ * <p>Los presupuestos se declaran como {@code patrón=máximo} usando el mismo
+ * patrón del mapping MVC (por ejemplo {@code /web/publicaciones/{id}=5}).
+ * Al excederse se registra un warning con las sentencias repetidas, que es
+ * como se manifiesta un N+1; en modo estricto (pensado para los tests) el
+ * request además falla.</p>
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 1)
+@Slf4j
+public class PresupuestoConsultasFilter extends OncePerRequestFilter {
+
+    private final InspectorConsultasSql inspector;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Integer> presupuestos;
+    private final boolean estricto;
+    private final int umbralRepeticiones;
+
+    public PresupuestoConsultasFilter(InspectorConsultasSql inspector, MeterRegistry meterRegistry,
+                                      @Value("${swapify.sql.presupuestos:}") List<String> presupuestos,
+                                      @Value("${swapify.sql.presupuestos.estricto:false}") boolean estricto,
+                                      @Value("${swapify.sql.repeticiones.umbral:3}") int umbralRepeticiones) {
+        this.inspector = inspector;
+        this.meterRegistry = meterRegistry;
+        this.presupuestos = parsear(presupuestos);
+        this.estricto = estricto;
+        this.umbralRepeticiones = umbralRepeticiones;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+        Medicion medicion = inspector.iniciar();
+        if (medicion == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            inspector.finalizar(medicion);
+        }
+        evaluar(request, medicion);
+    }
+
+    private void evaluar(HttpServletRequest request, Medicion medicion) {
+        Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String ruta = patron != null ? patron.toString() : "desconocida";
+        DistributionSummary.builder("swapify.sql.consultas")
+                .description("Consultas SQL ejecutadas por request")
+                .tag("ruta", ruta)
+                .register(meterRegistry)
+                .record(medicion.total());
+
+        Map<String, Integer> repetidas = medicion.repetidas(umbralRepeticiones);
+        Integer maximo = patron != null ? presupuestos.get(ruta) : null;
+        if (maximo != null && medicion.total() > maximo) {
+            String mensaje = String.format("%s %s ejecutó %d consultas (presupuesto %d):%s",
+                    request.getMethod(), ruta, medicion.total(), maximo, medicion.resumen());
+            if (estricto) {
+                throw new IllegalStateException(mensaje);
+            }
+            log.warn(mensaje);
+        } else if (!repetidas.isEmpty()) {
+            log.warn("{} {} repitió consultas, posible N+1: {}", request.getMethod(), ruta, repetidas);
+        } else if (log.isDebugEnabled()) {
+            log.debug("{} {} ejecutó {} consultas", request.getMethod(), ruta, medicion.total());
+        }
+    }
+
+    private static Map<String, Integer> parsear(List<String> presupuestos) {
+        Map<String, Integer> resultado = new LinkedHashMap<>();
+        for (String presupuesto : presupuestos) {
+            if (presupuesto == null || presupuesto.isBlank()) {
+                continue;
+            }
+            int separador = presupuesto.lastIndexOf('=');
+            if (separador <= 0) {
+                throw new IllegalArgumentException("Presupuesto de consultas inválido: " + presupuesto);
+            }
+            resultado.put(presupuesto.substring(0, separador).trim(),
+                    Integer.parseInt(presupuesto.substring(separador + 1).trim()));
+        }
+        return resultado;
+    }
+}
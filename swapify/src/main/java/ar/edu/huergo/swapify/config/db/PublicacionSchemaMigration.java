@@ -2,41 +2,54 @@ package ar.edu.huergo.swapify.config.db;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.boot.ApplicationArguments;
-import org.springframework.boot.ApplicationRunner;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
+import ar.edu.huergo.swapify.config.arranque.TareaArranque;
+
 @Component
 @RequiredArgsConstructor
 @Slf4j
-public class PublicacionSchemaMigration implements ApplicationRunner {
+public class PublicacionSchemaMigration implements TareaArranque {
 
     private static final String TABLA_PUBLICACION = "PUBLICACION";
     private static final String COL_ESTADO = "ESTADO";
     private static final String COL_ES_OFICIAL = "ES_OFICIAL";
     private static final String COL_FECHA_RESERVA = "FECHA_RESERVA";
     private static final String COL_FECHA_CIERRE = "FECHA_CIERRE";
+    private static final String TABLA_PUBLICACION_IMAGEN = "PUBLICACION_IMAGEN";
+    private static final String COL_DATOS = "DATOS";
 
     private final JdbcTemplate jdbcTemplate;
+    private final BloqueoMigraciones bloqueoMigraciones;
 
     @Override
-    public void run(ApplicationArguments args) {
+    public String nombre() {
+        return "esquema-publicaciones";
+    }
+
+    @Override
+    public void ejecutar() {
         try {
-            if (!tablaPublicacionExiste()) {
-                log.debug("La tabla PUBLICACION aún no existe. Hibernate se encargará de crearla con el nuevo esquema.");
-                return;
-            }
-            asegurarColumnaEstado();
-            asegurarColumnaEsOficial();
-            asegurarColumnaFechaReserva();
-            asegurarColumnaFechaCierre();
+            bloqueoMigraciones.ejecutar("publicaciones", this::migrar);
         } catch (Exception e) {
             log.error("No se pudo preparar el esquema de publicaciones", e);
         }
     }
 
+    private void migrar() {
+        if (!tablaPublicacionExiste()) {
+            log.debug("La tabla PUBLICACION aún no existe. Hibernate se encargará de crearla con el nuevo esquema.");
+            return;
+        }
+        asegurarColumnaEstado();
+        asegurarColumnaEsOficial();
+        asegurarColumnaFechaReserva();
+        asegurarColumnaFechaCierre();
+        permitirDatosImagenVacios();
+    }
+
     private boolean tablaPublicacionExiste() {
         Integer count = jdbcTemplate.queryForObject(
                 "SELECT COUNT(*) FROM INFORMATION_SCHEMA.TABLES WHERE UPPER(TABLE_NAME) = ?",
@@ -79,6 +92,27 @@ public class PublicacionSchemaMigration implements ApplicationRunner {
         jdbcTemplate.execute("ALTER TABLE PUBLICACION ADD COLUMN FECHA_CIERRE TIMESTAMP(6)");
     }
 
+    /**
+     * Las imágenes nuevas guardan los bytes en {@code CONTENIDO_IMAGEN}, así
+     * que la columna heredada deja de ser obligatoria.
+     */
+    private void permitirDatosImagenVacios() {
+        try {
+            String nullable = jdbcTemplate.query(
+                    "SELECT IS_NULLABLE FROM INFORMATION_SCHEMA.COLUMNS WHERE UPPER(TABLE_NAME) = ? AND UPPER(COLUMN_NAME) = ?",
+                    rs -> rs.next() ? rs.getString(1) : null,
+                    TABLA_PUBLICACION_IMAGEN,
+                    COL_DATOS);
+            if (!"NO".equalsIgnoreCase(nullable)) {
+                return;
+            }
+            log.info("Quitando la restricción NOT NULL de PUBLICACION_IMAGEN.DATOS");
+            jdbcTemplate.execute("ALTER TABLE PUBLICACION_IMAGEN ALTER COLUMN DATOS SET NULL");
+        } catch (DataAccessException e) {
+            log.warn("No se pudo actualizar la columna DATOS de PUBLICACION_IMAGEN", e);
+        }
+    }
+
     private boolean columnaExiste(String nombreColumna) {
         try {
             Integer count = jdbcTemplate.queryForObject(
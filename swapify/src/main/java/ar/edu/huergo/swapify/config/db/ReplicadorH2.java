@@ -0,0 +1,151 @@
+package ar.edu.huergo.swapify.config.db;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import ar.edu.huergo.swapify.config.db.EnrutadorReplicas.Replica;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sustituto local de la replicación para probar las réplicas con varias
+ * instancias H2. Cada {@code swapify.datasource.replicas.intervalo} exporta
+ * la primaria con {@code SCRIPT} y la recarga en cada réplica con
+ * {@code RUNSCRIPT}. Mientras una réplica se recarga queda fuera de la
+ * rotación y sus lecturas van a la primaria. Si al retirarla todavía tiene
+ * lecturas en curso, esa pasada no la recarga y la deja retirada hasta una
+ * pasada en la que esté ociosa, en lugar de vaciar su esquema bajo una
+ * lectura.
+ *
+ * <p>Con réplicas reales (replicación del motor) se desactiva con
+ * {@code swapify.datasource.replicas.replicacion-h2=false}.</p>
+ */
+@Slf4j
+public class ReplicadorH2 implements SmartLifecycle {
+
+    private static final Duration ESPERA_LECTURAS_EN_CURSO = Duration.ofSeconds(5);
+
+    private final EnrutadorReplicas enrutador;
+    private final HikariDataSource primaria;
+    private final String usuario;
+    private final String password;
+    private final Duration intervalo;
+    private ScheduledExecutorService programador;
+
+    ReplicadorH2(EnrutadorReplicas enrutador, HikariDataSource primaria, DataSourceProperties propiedades,
+                 Duration intervalo) {
+        this.enrutador = enrutador;
+        this.primaria = primaria;
+        this.usuario = propiedades.determineUsername();
+        this.password = propiedades.determinePassword();
+        this.intervalo = intervalo;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (programador != null) {
+            return;
+        }
+        programador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "replicador-h2");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        programador.scheduleWithFixedDelay(this::sincronizarRegistrandoErrores,
+                0, intervalo.toMillis(), TimeUnit.MILLISECONDS);
+        log.info("Replicación H2 cada {} s hacia {} réplica(s)", intervalo.toSeconds(), enrutador.getReplicas().size());
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (programador != null) {
+            programador.shutdownNow();
+            programador = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return programador != null;
+    }
+
+    /**
+     * Copia el estado actual de la primaria a todas las réplicas. Las
+     * escrituras confirmadas durante la copia dejan a las réplicas atrasadas
+     * hasta la siguiente pasada.
+     */
+    public synchronized void sincronizar() throws IOException, SQLException {
+        long version = enrutador.versionPrimaria();
+        long instante = System.nanoTime();
+        Path script = Files.createTempFile("swapify-replica-", ".sql");
+        try {
+            try (Connection conexion = primaria.getConnection(); Statement sentencia = conexion.createStatement()) {
+                sentencia.execute("SCRIPT TO " + literal(script));
+            }
+            for (Replica replica : enrutador.getReplicas()) {
+                if (recargar(replica, script)) {
+                    replica.sincronizada(version, instante);
+                }
+            }
+        } finally {
+            Files.deleteIfExists(script);
+        }
+    }
+
+    /** @return {@code false} si la réplica siguió ocupada y no se recargó */
+    private boolean recargar(Replica replica, Path script) throws SQLException {
+        replica.retirar();
+        if (!esperarLecturasEnCurso(replica)) {
+            log.info("La réplica {} sigue con lecturas en curso; queda retirada hasta la próxima pasada",
+                    replica.nombre());
+            return false;
+        }
+        try (Connection conexion = DriverManager.getConnection(replica.url(), usuario, password);
+                Statement sentencia = conexion.createStatement()) {
+            sentencia.execute("DROP ALL OBJECTS");
+            sentencia.execute("RUNSCRIPT FROM " + literal(script));
+        }
+        return true;
+    }
+
+    private boolean esperarLecturasEnCurso(Replica replica) {
+        long limite = System.nanoTime() + ESPERA_LECTURAS_EN_CURSO.toNanos();
+        while (!replica.ociosa()) {
+            if (System.nanoTime() >= limite) {
+                return false;
+            }
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void sincronizarRegistrandoErrores() {
+        try {
+            sincronizar();
+        } catch (Exception e) {
+            log.warn("No se pudo sincronizar las réplicas; las lecturas siguen en la primaria", e);
+        }
+    }
+
+    private static String literal(Path archivo) {
+        return "'" + archivo.toAbsolutePath().toString().replace("'", "''") + "'";
+    }
+}
@@ -0,0 +1,89 @@
+package ar.edu.huergo.swapify.config.db;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.transaction.TransactionExecution;
+import org.springframework.transaction.TransactionExecutionListener;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+
+import ar.edu.huergo.swapify.config.db.EnrutadorReplicas.Replica;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Réplicas de lectura declaradas en {@code swapify.datasource.replicas.urls}.
+ * Cada réplica tiene su propio pool, con la misma configuración que el pool
+ * de lectura de la primaria ({@code swapify.datasource.lectura.*}). Sin
+ * réplicas configuradas esta configuración no se carga y las lecturas usan
+ * la primaria.
+ */
+@Configuration
+@ConditionalOnProperty("swapify.datasource.replicas.urls")
+public class ReplicasConfig {
+
+    @Bean
+    EnrutadorReplicas enrutadorReplicas(HikariDataSource poolLectura, DataSourceProperties propiedades,
+                                        Environment entorno, MeterRegistry meterRegistry,
+                                        @Value("${swapify.datasource.replicas.urls}") List<String> urls,
+                                        @Value("${swapify.datasource.replicas.retraso-maximo:0s}") Duration retrasoMaximo) {
+        List<Replica> replicas = new ArrayList<>(urls.size());
+        for (int i = 0; i < urls.size(); i++) {
+            String url = urls.get(i).trim();
+            HikariDataSource pool = propiedades.initializeDataSourceBuilder()
+                    .type(HikariDataSource.class)
+                    .url(url)
+                    .build();
+            Binder.get(entorno).bind("swapify.datasource.lectura", Bindable.ofInstance(pool));
+            pool.setPoolName("swapify-replica-" + i);
+            pool.setReadOnly(true);
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            Replica replica = new Replica("replica-" + i, url, pool);
+            replicas.add(replica);
+        }
+        EnrutadorReplicas enrutador = new EnrutadorReplicas(poolLectura, replicas, retrasoMaximo);
+        for (Replica replica : replicas) {
+            Gauge.builder("swapify.replicas.escrituras.pendientes", replica,
+                            r -> r.version() < 0 ? Double.NaN : enrutador.versionPrimaria() - r.version())
+                    .description("Escrituras confirmadas en la primaria que la réplica todavía no tiene")
+                    .tag("replica", replica.nombre())
+                    .register(meterRegistry);
+        }
+        return enrutador;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "swapify.datasource.replicas.replicacion-h2", havingValue = "true", matchIfMissing = true)
+    ReplicadorH2 replicadorH2(EnrutadorReplicas enrutadorReplicas, HikariDataSource poolLectura,
+                              DataSourceProperties propiedades,
+                              @Value("${swapify.datasource.replicas.intervalo:5s}") Duration intervalo) {
+        return new ReplicadorH2(enrutadorReplicas, poolLectura, propiedades, intervalo);
+    }
+
+    /**
+     * Avisa al enrutador de cada commit de escritura para saber qué réplicas
+     * quedaron atrasadas.
+     */
+    @Bean
+    TransactionExecutionListener registroEscrituras(EnrutadorReplicas enrutadorReplicas) {
+        return new TransactionExecutionListener() {
+            @Override
+            public void afterCommit(TransactionExecution transaction, Throwable commitFailure) {
+                if (commitFailure == null && !transaction.isReadOnly()) {
+                    enrutadorReplicas.registrarEscritura();
+                }
+            }
+        };
+    }
+}
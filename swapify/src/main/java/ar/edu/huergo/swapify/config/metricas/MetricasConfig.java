@@ -0,0 +1,47 @@
+package ar.edu.huergo.swapify.config.metricas;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import ar.edu.huergo.swapify.entity.publicacion.EstadoOferta;
+import ar.edu.huergo.swapify.entity.publicacion.EstadoPublicacion;
+import ar.edu.huergo.swapify.repository.publicacion.OfertaRepository;
+import ar.edu.huergo.swapify.repository.publicacion.PublicacionRepository;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Métricas de negocio expuestas en {@code /actuator/prometheus}. Los
+ * servicios anotados con {@code @Timed} se miden mediante
+ * {@link TimedAspect}.
+ */
+@Configuration
+public class MetricasConfig {
+
+    public static final String TIMER_SERVICIOS = "swapify.servicio";
+
+    @Bean
+    TimedAspect timedAspect(MeterRegistry registry) {
+        return new TimedAspect(registry);
+    }
+
+    /**
+     * Tamaño del catálogo y ofertas pendientes. Se consultan en cada lectura
+     * del registro, es decir, una vez por scrape.
+     */
+    @Bean
+    MeterBinder metricasCatalogo(PublicacionRepository publicacionRepository, OfertaRepository ofertaRepository) {
+        return registry -> {
+            Gauge.builder("swapify.catalogo.publicaciones", publicacionRepository,
+                            repo -> repo.countByEstado(EstadoPublicacion.ACTIVA))
+                    .description("Publicaciones activas en el catálogo")
+                    .register(registry);
+            Gauge.builder("swapify.ofertas.pendientes", ofertaRepository,
+                            repo -> repo.countByEstado(EstadoOferta.PENDIENTE))
+                    .description("Ofertas a la espera de respuesta")
+                    .register(registry);
+        };
+    }
+}
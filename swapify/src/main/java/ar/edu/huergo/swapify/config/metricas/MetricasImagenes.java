@@ -0,0 +1,63 @@
+package ar.edu.huergo.swapify.config.metricas;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Contadores de bytes de imagen recibidos y almacenados, y la relación de
+ * compresión lograda por el pipeline de optimización, más los bytes que no
+ * se guardaron por reutilizar un contenido idéntico ya almacenado.
+ */
+@Component
+public class MetricasImagenes {
+
+    private final MeterRegistry registry;
+
+    public MetricasImagenes(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Registra una imagen procesada. La relación de compresión es
+     * {@code salida / entrada}: valores menores a 1 indican ahorro.
+     */
+    public void registrar(String origen, long bytesEntrada, long bytesSalida) {
+        if (bytesEntrada <= 0) {
+            return;
+        }
+        Counter.builder("swapify.imagenes.bytes.entrada")
+                .description("Bytes de imagen recibidos antes de optimizar")
+                .baseUnit("bytes")
+                .tag("origen", origen)
+                .register(registry)
+                .increment(bytesEntrada);
+        Counter.builder("swapify.imagenes.bytes.salida")
+                .description("Bytes de imagen almacenados luego de optimizar")
+                .baseUnit("bytes")
+                .tag("origen", origen)
+                .register(registry)
+                .increment(bytesSalida);
+        DistributionSummary.builder("swapify.imagenes.compresion")
+                .description("Relación entre bytes almacenados y recibidos por imagen")
+                .tag("origen", origen)
+                .publishPercentiles(0.5, 0.95)
+                .register(registry)
+                .record((double) bytesSalida / bytesEntrada);
+    }
+
+    /** Registra bytes que no se almacenaron porque el mismo contenido ya existía. */
+    public void registrarDeduplicado(String origen, long bytes) {
+        if (bytes <= 0) {
+            return;
+        }
+        Counter.builder("swapify.imagenes.bytes.deduplicados")
+                .description("Bytes de imagen no almacenados por coincidir con un contenido existente")
+                .baseUnit("bytes")
+                .tag("origen", origen)
+                .register(registry)
+                .increment(bytes);
+    }
+}
@@ -0,0 +1,40 @@
+package ar.edu.huergo.swapify.config.security;
+
+import java.time.Duration;
+
+import org.springframework.http.ResponseCookie;
+
+/**
+ * Cookie que guarda el JWT de la sesión web. El login, la renovación tras
+ * cambiar la contraseña y el logout la arman acá para que nombre, ruta,
+ * duración y flags no se desalineen; {@link JwtAuthenticationFilter} la lee
+ * por {@link #NOMBRE}.
+ */
+public final class CookieSesion {
+
+    public static final String NOMBRE = "jwtToken";
+
+    /** Duración del token persistido en el navegador. */
+    private static final Duration DURACION = Duration.ofDays(1);
+
+    private CookieSesion() {
+    }
+
+    /** Cookie con el token para el header {@code Set-Cookie}. */
+    public static ResponseCookie emitir(String token) {
+        return armar(token, DURACION);
+    }
+
+    /** Cookie vacía y vencida que borra la sesión del navegador. */
+    public static ResponseCookie borrar() {
+        return armar("", Duration.ZERO);
+    }
+
+    private static ResponseCookie armar(String valor, Duration duracion) {
+        return ResponseCookie.from(NOMBRE, valor)
+                .path("/")
+                .maxAge(duracion)
+                .httpOnly(true)
+                .build();
+    }
+}
@@ -0,0 +1,12 @@
+package ar.edu.huergo.swapify.config.security;
+
+/**
+ * El ejecutor de hashing de contraseñas está lleno o no respondió a tiempo.
+ * Se responde 503 en lugar de encolar más trabajo de CPU.
+ */
+public class HashingSaturadoException extends RuntimeException {
+
+    public HashingSaturadoException(String mensaje, Throwable causa) {
+        super(mensaje, causa);
+    }
+}
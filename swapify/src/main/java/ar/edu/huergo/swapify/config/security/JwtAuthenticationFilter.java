@@ -1,16 +1,21 @@
 package ar.edu.huergo.swapify.config.security;
 
 import java.io.IOException;
+import java.util.List;
 
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import ar.edu.huergo.swapify.service.security.JwtTokenService;
+import ar.edu.huergo.swapify.service.security.RevocacionTokensService;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -19,14 +24,17 @@ import lombok.RequiredArgsConstructor;
 
 /**
  * Filtro que integra autenticación basada en JWT al contexto de Spring Security
- * resolviendo el token tanto del header como de la cookie de sesión.
+ * resolviendo el token tanto del header como de la cookie de sesión. No carga
+ * el usuario de la base: valida firma y expiración y consulta la marca de
+ * revocación del usuario en memoria ({@link RevocacionTokensService}).
  */
 @Component
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenService jwtTokenService;
-    private final UserDetailsService userDetailsService;
+    private final RevocacionTokensService revocacionTokensService;
+    private final MeterRegistry meterRegistry;
 
     /**
      * Resuelve el token JWT presente en el request y construye la autenticación
@@ -36,6 +44,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
             FilterChain filterChain) throws ServletException, IOException {
 
+        Timer.Sample muestra = Timer.start(meterRegistry);
         String token = null;
 
         String authHeader = request.getHeader("Authorization");
@@ -47,7 +56,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             jakarta.servlet.http.Cookie[] cookies = request.getCookies();
             if (cookies != null) {
                 for (jakarta.servlet.http.Cookie cookie : cookies) {
-                    if ("jwtToken".equals(cookie.getName())) {
+                    if (CookieSesion.NOMBRE.equals(cookie.getName())) {
                         token = cookie.getValue();
                         break;
                     }
@@ -55,20 +64,43 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             }
         }
 
+        String resultado = "sin_token";
         if (token != null) {
+            resultado = "rechazado";
             try {
-                String username = jwtTokenService.extraerUsername(token);
+                Claims claims = jwtTokenService.leerClaims(token);
+                String username = claims.getSubject();
                 if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                    if (jwtTokenService.esTokenValido(token, userDetails)) {
+                    if (revocacionTokensService.estaRevocado(username, JwtTokenService.emitidoEn(claims))) {
+                        resultado = "revocado";
+                    } else {
+                        UserDetails userDetails = usuarioDesdeClaims(username, claims);
                         UsernamePasswordAuthenticationToken authToken =
                                 new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                         authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                         SecurityContextHolder.getContext().setAuthentication(authToken);
+                        resultado = "autenticado";
                     }
                 }
             } catch (Exception ignored) { }
         }
+        muestra.stop(Timer.builder("swapify.seguridad.jwt")
+                .description("Resolución del token JWT por request, sin incluir el resto de la cadena")
+                .tag("resultado", resultado)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Arma el principal con el usuario y los roles firmados en el token. Los
+     * cambios que deben invalidar esos datos (ban, contraseña, baja) revocan
+     * los tokens emitidos hasta el momento.
+     */
+    private UserDetails usuarioDesdeClaims(String username, Claims claims) {
+        List<?> roles = claims.get("roles", List.class);
+        String[] autoridades = roles == null ? new String[0]
+                : roles.stream().map(String::valueOf).toArray(String[]::new);
+        return User.withUsername(username).password("").authorities(autoridades).build();
+    }
 }
@@ -0,0 +1,147 @@
+package ar.edu.huergo.swapify.config.security;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Limita los intentos de inicio de sesión con tres token buckets: uno por IP,
+ * uno estricto por IP y cuenta, y uno holgado por cuenta. Cada intento
+ * consume una ficha de los tres antes de calcular el BCrypt, así una ráfaga
+ * de credential stuffing se corta sin gastar CPU; las fichas se reponen de a
+ * una cada {@code recarga}.
+ *
+ * <p>El balde estricto se indexa por IP y cuenta para que un atacante no
+ * pueda bloquear a la víctima desde otra IP con unos pocos intentos. El de
+ * cuenta sola frena el ataque distribuido sobre una cuenta desde muchas IPs;
+ * ese sí lo puede vaciar un tercero, por eso tiene una capacidad bastante
+ * mayor y el bloqueo dura lo que tarda en reponerse una ficha.</p>
+ *
+ * <p>Los baldes viven en memoria de cada nodo, en mapas LRU de a lo sumo
+ * {@code security.login.max-claves} entradas: al llenarse se descarta el
+ * balde usado hace más tiempo, en O(1) por intento.</p>
+ */
+@Component
+public class LimitadorIntentosLogin {
+
+    private final Map<String, Balde> porIp;
+    private final Map<String, Balde> porIpYCuenta;
+    private final Map<String, Balde> porCuenta;
+    private final Limite limiteIp;
+    private final Limite limiteIpYCuenta;
+    private final Limite limiteCuenta;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier relojNanos;
+
+    @Autowired
+    public LimitadorIntentosLogin(@Value("${security.login.ip.capacidad:30}") int capacidadIp,
+                                  @Value("${security.login.ip.recarga:2s}") Duration recargaIp,
+                                  @Value("${security.login.cuenta.capacidad:10}") int capacidadCuenta,
+                                  @Value("${security.login.cuenta.recarga:6s}") Duration recargaCuenta,
+                                  @Value("${security.login.cuenta-global.capacidad:100}") int capacidadCuentaGlobal,
+                                  @Value("${security.login.cuenta-global.recarga:10s}") Duration recargaCuentaGlobal,
+                                  @Value("${security.login.max-claves:50000}") int maxClaves,
+                                  MeterRegistry meterRegistry) {
+        this(new Limite(capacidadIp, recargaIp), new Limite(capacidadCuenta, recargaCuenta),
+                new Limite(capacidadCuentaGlobal, recargaCuentaGlobal), maxClaves, meterRegistry, System::nanoTime);
+    }
+
+    LimitadorIntentosLogin(Limite limiteIp, Limite limiteIpYCuenta, Limite limiteCuenta, int maxClaves,
+                           MeterRegistry meterRegistry, LongSupplier relojNanos) {
+        this.limiteIp = limiteIp;
+        this.limiteIpYCuenta = limiteIpYCuenta;
+        this.limiteCuenta = limiteCuenta;
+        this.porIp = lru(maxClaves);
+        this.porIpYCuenta = lru(maxClaves);
+        this.porCuenta = lru(maxClaves);
+        this.meterRegistry = meterRegistry;
+        this.relojNanos = relojNanos;
+    }
+
+    /**
+     * Registra un intento de la IP sobre la cuenta.
+     *
+     * @throws LoginLimitadoException si alguno de los baldes está vacío
+     */
+    public void consumir(String ip, String cuenta) {
+        long ahora = relojNanos.getAsLong();
+        String origen = ip == null ? "" : ip;
+        long esperaIp = consumir(porIp, origen, limiteIp, ahora);
+        if (esperaIp > 0) {
+            rechazar("ip", esperaIp);
+        }
+        String clave = cuenta == null ? "" : cuenta.trim().toLowerCase(Locale.ROOT);
+        long esperaIpYCuenta = consumir(porIpYCuenta, origen + '\n' + clave, limiteIpYCuenta, ahora);
+        if (esperaIpYCuenta > 0) {
+            rechazar("cuenta", esperaIpYCuenta);
+        }
+        long esperaCuenta = consumir(porCuenta, clave, limiteCuenta, ahora);
+        if (esperaCuenta > 0) {
+            rechazar("cuenta-global", esperaCuenta);
+        }
+    }
+
+    private static long consumir(Map<String, Balde> baldes, String clave, Limite limite, long ahora) {
+        Balde balde;
+        synchronized (baldes) {
+            balde = baldes.computeIfAbsent(clave, c -> new Balde(limite.capacidad(), ahora));
+        }
+        return balde.consumir(limite, ahora);
+    }
+
+    /** Mapa en orden de acceso que descarta la entrada menos usada al superar {@code maxClaves}. */
+    private static Map<String, Balde> lru(int maxClaves) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Balde> masVieja) {
+                return size() > maxClaves;
+            }
+        };
+    }
+
+    private void rechazar(String motivo, long esperaNanos) {
+        meterRegistry.counter("swapify.seguridad.login.limitados", "motivo", motivo).increment();
+        throw new LoginLimitadoException(Math.max(1, Duration.ofNanos(esperaNanos).toSeconds()));
+    }
+
+    record Limite(int capacidad, Duration recarga) {
+    }
+
+    /**
+     * Fichas disponibles y el instante de la última reposición.
+     */
+    private static final class Balde {
+
+        private double fichas;
+        private long ultimaNanos;
+
+        Balde(int fichas, long ahora) {
+            this.fichas = fichas;
+            this.ultimaNanos = ahora;
+        }
+
+        /** Devuelve 0 si pudo consumir, o los nanos hasta la próxima ficha. */
+        synchronized long consumir(Limite limite, long ahora) {
+            reponer(limite, ahora);
+            if (fichas >= 1) {
+                fichas -= 1;
+                return 0;
+            }
+            return (long) ((1 - fichas) * limite.recarga().toNanos());
+        }
+
+        private void reponer(Limite limite, long ahora) {
+            double repuestas = (double) (ahora - ultimaNanos) / limite.recarga().toNanos();
+            fichas = Math.min(limite.capacidad(), fichas + repuestas);
+            ultimaNanos = ahora;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package ar.edu.huergo.swapify.config.security;
+
+import lombok.Getter;
+
+/**
+ * Se lanza cuando una IP o una cuenta agotó sus intentos de inicio de sesión.
+ * Los controladores lo traducen a un 429 con {@code Retry-After}.
+ */
+@Getter
+public class LoginLimitadoException extends RuntimeException {
+
+    private final long reintentarEnSegundos;
+
+    public LoginLimitadoException(long reintentarEnSegundos) {
+        super("Demasiados intentos de inicio de sesión; reintentá en " + reintentarEnSegundos + " s");
+        this.reintentarEnSegundos = reintentarEnSegundos;
+    }
+}
@@ -0,0 +1,71 @@
+package ar.edu.huergo.swapify.config.security;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Ejecuta el hashing de contraseñas (BCrypt) en un ejecutor acotado para que
+ * una ráfaga de logins no ocupe todos los núcleos y deje sin CPU al catálogo.
+ * Cuando la cola está llena o el resultado no llega en
+ * {@code security.password.hashing.espera} se lanza
+ * {@link HashingSaturadoException}.
+ */
+public class PasswordEncoderAcotado implements PasswordEncoder {
+
+    private final PasswordEncoder delegado;
+    private final AsyncTaskExecutor ejecutor;
+    private final long esperaMillis;
+
+    public PasswordEncoderAcotado(PasswordEncoder delegado, AsyncTaskExecutor ejecutor, Duration espera) {
+        this.delegado = delegado;
+        this.ejecutor = ejecutor;
+        this.esperaMillis = espera.toMillis();
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return ejecutar(() -> delegado.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return ejecutar(() -> delegado.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegado.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T ejecutar(Callable<T> hashing) {
+        Future<T> resultado;
+        try {
+            resultado = ejecutor.submit(hashing);
+        } catch (TaskRejectedException e) {
+            throw new HashingSaturadoException("Cola de hashing de contraseñas llena", e);
+        }
+        try {
+            return resultado.get(esperaMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            resultado.cancel(true);
+            throw new HashingSaturadoException("El hashing de la contraseña no terminó a tiempo", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            resultado.cancel(true);
+            throw new HashingSaturadoException("Interrumpido esperando el hashing de la contraseña", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -1,7 +1,12 @@
 package ar.edu.huergo.swapify.config.security;
 
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -11,6 +16,7 @@ import org.springframework.security.config.annotation.authentication.configurati
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -22,6 +28,7 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import ar.edu.huergo.swapify.config.ConcurrenciaConfig;
 import ar.edu.huergo.swapify.repository.security.UsuarioRepository;
 
 /**
@@ -46,7 +53,8 @@ public class SecurityConfig {
             .logout(logout -> logout.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.IF_REQUIRED))
             .authorizeHttpRequests(auth -> auth
-                .requestMatchers("/", "/web/publicaciones", "/web/publicaciones/{id}", "/web/acerca",
+                .requestMatchers("/", "/web/publicaciones", "/web/publicaciones/{id}",
+                                 "/web/publicaciones/{id}/imagenes/{orden}", "/web/acerca",
                                  "/css/**", "/js/**", "/images/**", "/favicon.ico").permitAll()
                 .requestMatchers(HttpMethod.POST, "/api/auth/login").permitAll()
                 .requestMatchers(HttpMethod.POST, "/api/usuarios/registrar").permitAll()
@@ -74,11 +82,33 @@ public class SecurityConfig {
     }
 
     /**
-     * Proveedor de hashing para las credenciales persistidas.
+     * Proveedor de hashing para las credenciales persistidas. El costo de
+     * BCrypt es configurable ({@code security.password.bcrypt.costo}) y el
+     * cálculo corre en el ejecutor acotado de hashing.
      */
     @Bean
-    PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    PasswordEncoder passwordEncoder(@Qualifier(ConcurrenciaConfig.EJECUTOR_HASHING) AsyncTaskExecutor ejecutorHashing,
+                                    @Value("${security.password.bcrypt.costo:10}") int costo,
+                                    @Value("${security.password.hashing.espera:5s}") Duration espera) {
+        return new PasswordEncoderAcotado(new BCryptPasswordEncoder(costo), ejecutorHashing, espera);
+    }
+
+    /**
+     * Rehash al iniciar sesión: si el hash guardado tiene un costo menor al
+     * configurado, el proveedor DAO lo recalcula con la contraseña recién
+     * verificada y lo persiste por acá.
+     */
+    @Bean
+    UserDetailsPasswordService userDetailsPasswordService(UsuarioRepository usuarioRepository) {
+        return (user, newPassword) -> {
+            usuarioRepository.findByUsernameIgnoreCase(user.getUsername()).ifPresent(usuario -> {
+                usuario.setPassword(newPassword);
+                usuarioRepository.save(usuario);
+            });
+            return org.springframework.security.core.userdetails.User.withUserDetails(user)
+                    .password(newPassword)
+                    .build();
+        };
     }
 
     /**
@@ -146,14 +176,16 @@ public class SecurityConfig {
     }
 
     /**
-     * Configura el proveedor de autenticación DAO reutilizando el encoder y el
-     * servicio de usuarios.
+     * Configura el proveedor de autenticación DAO reutilizando el encoder, el
+     * servicio de usuarios y el rehash de contraseñas.
      */
     @Bean
     DaoAuthenticationProvider daoAuthenticationProvider(UserDetailsService userDetailsService,
-                                                        PasswordEncoder passwordEncoder) {
+                                                        PasswordEncoder passwordEncoder,
+                                                        UserDetailsPasswordService userDetailsPasswordService) {
         DaoAuthenticationProvider provider = new DaoAuthenticationProvider(userDetailsService);
         provider.setPasswordEncoder(passwordEncoder);
+        provider.setUserDetailsPasswordService(userDetailsPasswordService);
         return provider;
     }
 
@@ -0,0 +1,197 @@
+package ar.edu.huergo.swapify.config.trazas;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Guarda en memoria las últimas trazas para el panel de administración y las
+ * escribe en un archivo en formato OTLP/JSON (una línea
+ * {@code ExportTraceServiceRequest} por traza), que puede importarse en
+ * Jaeger, Tempo o cualquier collector de OpenTelemetry.
+ *
+ * <p>La escritura se hace en un hilo propio con una cola acotada: si el disco
+ * no da abasto se descartan trazas en lugar de frenar los requests. Al
+ * superar {@code swapify.trazas.archivo-max} el archivo rota a
+ * {@code <archivo>.1}, {@code <archivo>.2}, … y se conservan como mucho
+ * {@code swapify.trazas.archivos-rotados}, así que el disco ocupado queda
+ * acotado.</p>
+ */
+@Component
+@Slf4j
+public class ExportadorTrazas {
+
+    private static final int COLA_ESCRITURA = 1_000;
+
+    private final ObjectMapper objectMapper;
+    private final int maxRecientes;
+    private final Deque<Traza> recientes = new ConcurrentLinkedDeque<>();
+    private final ThreadPoolExecutor escritor;
+    private final Path destino;
+    private final long maxBytes;
+    private final int archivosRotados;
+    private BufferedWriter archivo;
+    private long escritos;
+
+    public ExportadorTrazas(ObjectMapper objectMapper,
+                            @Value("${swapify.trazas.recientes:100}") int maxRecientes,
+                            @Value("${swapify.trazas.archivo:}") String archivo,
+                            @Value("${swapify.trazas.archivo-max:10MB}") DataSize archivoMax,
+                            @Value("${swapify.trazas.archivos-rotados:3}") int archivosRotados) throws IOException {
+        this.objectMapper = objectMapper;
+        this.maxRecientes = maxRecientes;
+        this.maxBytes = archivoMax.toBytes();
+        this.archivosRotados = Math.max(0, archivosRotados);
+        if (archivo == null || archivo.isBlank()) {
+            this.destino = null;
+            this.escritor = null;
+            return;
+        }
+        this.destino = Path.of(archivo).toAbsolutePath();
+        Files.createDirectories(destino.getParent());
+        abrir();
+        this.escritor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(COLA_ESCRITURA),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "exportador-trazas");
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    public void registrar(Traza traza) {
+        recientes.addFirst(traza);
+        while (recientes.size() > maxRecientes) {
+            recientes.pollLast();
+        }
+        if (escritor != null) {
+            escritor.execute(() -> escribir(traza));
+        }
+    }
+
+    public List<Traza> recientes() {
+        return new ArrayList<>(recientes);
+    }
+
+    public Optional<Traza> buscar(String traceId) {
+        return recientes.stream().filter(traza -> traza.getId().equals(traceId)).findFirst();
+    }
+
+    private void escribir(Traza traza) {
+        try {
+            byte[] linea = objectMapper.writeValueAsBytes(aOtlp(traza));
+            if (escritos > 0 && escritos + linea.length + 1 > maxBytes) {
+                rotar();
+            }
+            archivo.write(new String(linea, StandardCharsets.UTF_8));
+            archivo.newLine();
+            archivo.flush();
+            escritos += linea.length + 1;
+        } catch (IOException e) {
+            log.warn("No se pudo exportar la traza {}", traza.getId(), e);
+        }
+    }
+
+    private void abrir() throws IOException {
+        archivo = Files.newBufferedWriter(destino, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        escritos = Files.size(destino);
+    }
+
+    /** Corre {@code archivo.n} a {@code archivo.n+1}, descarta el más viejo y empieza uno vacío. */
+    private void rotar() throws IOException {
+        archivo.close();
+        if (archivosRotados == 0) {
+            Files.delete(destino);
+        } else {
+            Files.deleteIfExists(rotado(archivosRotados));
+            for (int i = archivosRotados - 1; i >= 1; i--) {
+                if (Files.exists(rotado(i))) {
+                    Files.move(rotado(i), rotado(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(destino, rotado(1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        abrir();
+    }
+
+    private Path rotado(int numero) {
+        return destino.resolveSibling(destino.getFileName() + "." + numero);
+    }
+
+    @PreDestroy
+    void cerrar() throws IOException, InterruptedException {
+        if (escritor != null) {
+            escritor.shutdown();
+            escritor.awaitTermination(5, TimeUnit.SECONDS);
+            archivo.close();
+        }
+    }
+
+    /**
+     * Codificación JSON de OTLP: ids en hexadecimal y tiempos en
+     * nanosegundos como cadenas.
+     */
+    static Map<String, Object> aOtlp(Traza traza) {
+        List<Map<String, Object>> spans = new ArrayList<>(traza.getSpans().size());
+        for (Span span : traza.getSpans()) {
+            Map<String, Object> otlp = new LinkedHashMap<>();
+            otlp.put("traceId", traza.getId());
+            otlp.put("spanId", span.getId());
+            if (span.getPadre() != null) {
+                otlp.put("parentSpanId", span.getPadre().getId());
+            }
+            otlp.put("name", span.getNombre());
+            otlp.put("kind", span.getTipo().getKind());
+            otlp.put("startTimeUnixNano", Long.toString(traza.aEpochNanos(span.getInicioNanos())));
+            otlp.put("endTimeUnixNano", Long.toString(traza.aEpochNanos(span.getFinNanos())));
+            Map<String, String> atributos = new LinkedHashMap<>(span.getAtributos());
+            atributos.put("swapify.capa", span.getTipo().name());
+            otlp.put("attributes", atributos(atributos));
+            if (!span.getEventos().isEmpty()) {
+                otlp.put("events", span.getEventos().stream()
+                        .map(evento -> Map.of(
+                                "timeUnixNano", Long.toString(traza.aEpochNanos(evento.instanteNanos())),
+                                "name", evento.nombre(),
+                                "attributes", atributos(Map.of("detalle", evento.detalle()))))
+                        .toList());
+            }
+            spans.add(otlp);
+        }
+        Map<String, Object> recurso = Map.of("attributes", atributos(Map.of("service.name", "swapify")));
+        Map<String, Object> alcance = Map.of(
+                "scope", Map.of("name", "ar.edu.huergo.swapify.trazas"),
+                "spans", spans);
+        return Map.of("resourceSpans", List.of(Map.of("resource", recurso, "scopeSpans", List.of(alcance))));
+    }
+
+    private static List<Map<String, Object>> atributos(Map<String, String> valores) {
+        return valores.entrySet().stream()
+                .map(e -> Map.<String, Object>of("key", e.getKey(), "value", Map.of("stringValue", e.getValue())))
+                .toList();
+    }
+}
@@ -0,0 +1,109 @@
+package ar.edu.huergo.swapify.config.trazas;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tramo medido dentro de una {@link Traza}. Se abre con
+ * {@link Trazas#abrir(String, TipoSpan)} y se cierra con {@link #close()},
+ * normalmente en un try-with-resources.
+ */
+public final class Span implements AutoCloseable {
+
+    /** Span que se devuelve cuando el hilo no tiene una traza activa. */
+    static final Span NINGUNO = new Span(null, null, null, null, null);
+
+    private final Traza traza;
+    private final String id;
+    private final Span padre;
+    private String nombre;
+    private final TipoSpan tipo;
+    private final long inicioNanos;
+    private long finNanos;
+    private final Map<String, String> atributos = new LinkedHashMap<>();
+    private final List<Evento> eventos = new ArrayList<>();
+
+    Span(Traza traza, String id, Span padre, String nombre, TipoSpan tipo) {
+        this.traza = traza;
+        this.id = id;
+        this.padre = padre;
+        this.nombre = nombre;
+        this.tipo = tipo;
+        this.inicioNanos = System.nanoTime();
+    }
+
+    public Span atributo(String clave, Object valor) {
+        if (traza != null && valor != null) {
+            atributos.put(clave, valor.toString());
+        }
+        return this;
+    }
+
+    void renombrar(String nombre) {
+        this.nombre = nombre;
+    }
+
+    void agregarEvento(String nombre, String detalle) {
+        if (traza != null) {
+            eventos.add(new Evento(nombre, detalle, System.nanoTime()));
+        }
+    }
+
+    @Override
+    public void close() {
+        if (traza != null && finNanos == 0) {
+            finNanos = System.nanoTime();
+            Trazas.cerrar(this);
+        }
+    }
+
+    Traza getTraza() {
+        return traza;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Span getPadre() {
+        return padre;
+    }
+
+    public String getNombre() {
+        return nombre;
+    }
+
+    public TipoSpan getTipo() {
+        return tipo;
+    }
+
+    public long getInicioNanos() {
+        return inicioNanos;
+    }
+
+    public long getFinNanos() {
+        return finNanos != 0 ? finNanos : System.nanoTime();
+    }
+
+    public long getDuracionNanos() {
+        return getFinNanos() - inicioNanos;
+    }
+
+    public Map<String, String> getAtributos() {
+        return Collections.unmodifiableMap(atributos);
+    }
+
+    public List<Evento> getEventos() {
+        return Collections.unmodifiableList(eventos);
+    }
+
+    /**
+     * Marca puntual dentro de un span, por ejemplo cada sentencia SQL
+     * preparada durante una llamada al repositorio.
+     */
+    public record Evento(String nombre, String detalle, long instanteNanos) {
+    }
+}
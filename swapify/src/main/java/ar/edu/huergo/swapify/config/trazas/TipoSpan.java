@@ -0,0 +1,24 @@
+package ar.edu.huergo.swapify.config.trazas;
+
+/**
+ * Capa de la aplicación a la que pertenece un span. El {@code kind} es el
+ * valor numérico de {@code SpanKind} en el formato OTLP.
+ */
+public enum TipoSpan {
+    HTTP(2),
+    CONTROLADOR(1),
+    SERVICIO(1),
+    REPOSITORIO(3),
+    VISTA(1),
+    INTERNO(1);
+
+    private final int kind;
+
+    TipoSpan(int kind) {
+        this.kind = kind;
+    }
+
+    public int getKind() {
+        return kind;
+    }
+}
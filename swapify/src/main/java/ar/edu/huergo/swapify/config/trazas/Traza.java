@@ -0,0 +1,111 @@
+package ar.edu.huergo.swapify.config.trazas;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Conjunto de spans de un request. Se construye en un único hilo (el del
+ * request) y una vez finalizada sólo se lee.
+ */
+public final class Traza {
+
+    /** Límite de spans por traza; los siguientes sólo se cuentan. */
+    static final int MAX_SPANS = 500;
+
+    private final String id;
+    private final Instant inicio;
+    private final long inicioNanos;
+    private final List<Span> spans = new ArrayList<>();
+    private int descartados;
+
+    Traza() {
+        this.id = hex(16);
+        this.inicio = Instant.now();
+        this.inicioNanos = System.nanoTime();
+    }
+
+    Span nuevoSpan(Span padre, String nombre, TipoSpan tipo) {
+        if (spans.size() >= MAX_SPANS) {
+            descartados++;
+            return null;
+        }
+        Span span = new Span(this, hex(8), padre, nombre, tipo);
+        spans.add(span);
+        return span;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Instant getInicio() {
+        return inicio;
+    }
+
+    /**
+     * Convierte un instante de {@link System#nanoTime()} tomado durante la
+     * traza a nanosegundos desde la época Unix.
+     */
+    public long aEpochNanos(long nanos) {
+        return inicio.getEpochSecond() * 1_000_000_000L + inicio.getNano() + (nanos - inicioNanos);
+    }
+
+    public List<Span> getSpans() {
+        return Collections.unmodifiableList(spans);
+    }
+
+    public Span getRaiz() {
+        return spans.isEmpty() ? null : spans.get(0);
+    }
+
+    public int getDescartados() {
+        return descartados;
+    }
+
+    public String getNombre() {
+        Span raiz = getRaiz();
+        return raiz != null ? raiz.getNombre() : "";
+    }
+
+    public double getDuracionMs() {
+        Span raiz = getRaiz();
+        return raiz != null ? raiz.getDuracionNanos() / 1_000_000.0 : 0;
+    }
+
+    /**
+     * Filas de la cascada en orden de apertura, con la profundidad y la
+     * posición relativa a la duración total del request.
+     */
+    public List<FilaCascada> getCascada() {
+        Span raiz = getRaiz();
+        if (raiz == null) {
+            return List.of();
+        }
+        double total = Math.max(1, raiz.getDuracionNanos());
+        List<FilaCascada> filas = new ArrayList<>(spans.size());
+        for (Span span : spans) {
+            int profundidad = 0;
+            for (Span p = span.getPadre(); p != null; p = p.getPadre()) {
+                profundidad++;
+            }
+            filas.add(new FilaCascada(span, profundidad,
+                    (span.getInicioNanos() - raiz.getInicioNanos()) * 100 / total,
+                    Math.max(0.2, span.getDuracionNanos() * 100 / total),
+                    span.getDuracionNanos() / 1_000_000.0));
+        }
+        return filas;
+    }
+
+    private static String hex(int bytes) {
+        byte[] aleatorios = new byte[bytes];
+        ThreadLocalRandom.current().nextBytes(aleatorios);
+        return HexFormat.of().formatHex(aleatorios);
+    }
+
+    public record FilaCascada(Span span, int profundidad, double desplazamiento, double ancho, double duracionMs) {
+    }
+}
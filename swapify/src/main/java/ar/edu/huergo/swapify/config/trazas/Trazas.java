@@ -0,0 +1,58 @@
+package ar.edu.huergo.swapify.config.trazas;
+
+/**
+ * Punto de acceso a la traza del hilo actual. {@link TrazasFilter} la inicia
+ * por request; el resto del código sólo abre spans o agrega eventos, que no
+ * hacen nada si el request no está siendo trazado.
+ */
+public final class Trazas {
+
+    private static final ThreadLocal<Span> SPAN_ACTUAL = new ThreadLocal<>();
+
+    private Trazas() {
+    }
+
+    static Span iniciar(String nombre) {
+        Traza traza = new Traza();
+        Span raiz = traza.nuevoSpan(null, nombre, TipoSpan.HTTP);
+        SPAN_ACTUAL.set(raiz);
+        return raiz;
+    }
+
+    static void finalizar() {
+        SPAN_ACTUAL.remove();
+    }
+
+    public static boolean activa() {
+        return SPAN_ACTUAL.get() != null;
+    }
+
+    /**
+     * Abre un span hijo del actual. Sin traza activa devuelve un span inerte.
+     */
+    public static Span abrir(String nombre, TipoSpan tipo) {
+        Span padre = SPAN_ACTUAL.get();
+        if (padre == null) {
+            return Span.NINGUNO;
+        }
+        Span span = padre.getTraza().nuevoSpan(padre, nombre, tipo);
+        if (span == null) {
+            return Span.NINGUNO;
+        }
+        SPAN_ACTUAL.set(span);
+        return span;
+    }
+
+    public static void evento(String nombre, String detalle) {
+        Span actual = SPAN_ACTUAL.get();
+        if (actual != null) {
+            actual.agregarEvento(nombre, detalle);
+        }
+    }
+
+    static void cerrar(Span span) {
+        if (SPAN_ACTUAL.get() == span) {
+            SPAN_ACTUAL.set(span.getPadre());
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package ar.edu.huergo.swapify.config.trazas;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.stereotype.Component;
+
+/**
+ * Abre un span por cada llamada a controladores, servicios y repositorios
+ * mientras haya una traza activa. Sin traza, el costo es una lectura de
+ * {@code ThreadLocal}.
+ */
+@Aspect
+@Component
+public class TrazasAspect {
+
+    @Around("within(@org.springframework.stereotype.Controller *) "
+            + "|| within(@org.springframework.web.bind.annotation.RestController *)")
+    public Object controlador(ProceedingJoinPoint punto) throws Throwable {
+        return trazar(punto, TipoSpan.CONTROLADOR, punto.getSignature().getDeclaringType());
+    }
+
+    @Around("within(@org.springframework.stereotype.Service *)")
+    public Object servicio(ProceedingJoinPoint punto) throws Throwable {
+        return trazar(punto, TipoSpan.SERVICIO, punto.getSignature().getDeclaringType());
+    }
+
+    /**
+     * Los repositorios de Spring Data son proxies de interfaz: se usa la
+     * interfaz propia de la aplicación para nombrar el span, aunque el método
+     * venga heredado de {@code JpaRepository}.
+     */
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object repositorio(ProceedingJoinPoint punto) throws Throwable {
+        if (!Trazas.activa()) {
+            return punto.proceed();
+        }
+        Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(punto.getThis());
+        Class<?> tipo = interfaces.length > 0 ? interfaces[0] : punto.getSignature().getDeclaringType();
+        return trazar(punto, TipoSpan.REPOSITORIO, tipo);
+    }
+
+    private Object trazar(ProceedingJoinPoint punto, TipoSpan tipoSpan, Class<?> tipo) throws Throwable {
+        if (!Trazas.activa()) {
+            return punto.proceed();
+        }
+        try (Span span = Trazas.abrir(tipo.getSimpleName() + "." + punto.getSignature().getName(), tipoSpan)) {
+            try {
+                return punto.proceed();
+            } catch (Throwable e) {
+                span.atributo("exception.type", e.getClass().getName());
+                throw e;
+            }
+        }
+    }
+}
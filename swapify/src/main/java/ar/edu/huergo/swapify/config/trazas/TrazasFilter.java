@@ -0,0 +1,76 @@
+package ar.edu.huergo.swapify.config.trazas;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Abre la traza de cada request muestreado y la entrega a
+ * {@link ExportadorTrazas} al terminar. El id se devuelve en el header
+ * {@code X-Trace-Id} y queda en el MDC como {@code traceId} para los logs.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class TrazasFilter extends OncePerRequestFilter {
+
+    static final String HEADER_TRAZA = "X-Trace-Id";
+
+    private final ExportadorTrazas exportador;
+    private final boolean habilitadas;
+    private final double muestreo;
+
+    public TrazasFilter(ExportadorTrazas exportador,
+                        @Value("${swapify.trazas.habilitadas:true}") boolean habilitadas,
+                        @Value("${swapify.trazas.muestreo:0.05}") double muestreo) {
+        this.exportador = exportador;
+        this.habilitadas = habilitadas;
+        this.muestreo = muestreo;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        if (!habilitadas || (muestreo < 1.0 && ThreadLocalRandom.current().nextDouble() >= muestreo)) {
+            return true;
+        }
+        String uri = request.getRequestURI();
+        return uri.startsWith("/css/") || uri.startsWith("/js/") || uri.startsWith("/images/")
+                || uri.equals("/favicon.ico");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+        Span raiz = Trazas.iniciar(request.getMethod() + " " + request.getRequestURI());
+        String traceId = raiz.getTraza().getId();
+        response.setHeader(HEADER_TRAZA, traceId);
+        MDC.put("traceId", traceId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            Object patron = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            if (patron != null) {
+                raiz.renombrar(request.getMethod() + " " + patron);
+                raiz.atributo("http.route", patron);
+            }
+            raiz.atributo("http.request.method", request.getMethod())
+                    .atributo("url.path", request.getRequestURI())
+                    .atributo("http.response.status_code", response.getStatus());
+            raiz.close();
+            Trazas.finalizar();
+            MDC.remove("traceId");
+            exportador.registrar(raiz.getTraza());
+        }
+    }
+}
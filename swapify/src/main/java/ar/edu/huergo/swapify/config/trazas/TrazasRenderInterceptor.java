@@ -0,0 +1,44 @@
+package ar.edu.huergo.swapify.config.trazas;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Mide el render de la vista: el span se abre entre {@code postHandle} (el
+ * controlador ya devolvió el modelo) y {@code afterCompletion}. Las cargas
+ * diferidas que dispare la plantilla quedan anidadas en este span.
+ */
+@Configuration
+public class TrazasRenderInterceptor implements HandlerInterceptor, WebMvcConfigurer {
+
+    private static final String ATRIBUTO_SPAN = TrazasRenderInterceptor.class.getName() + ".span";
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(this);
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+            ModelAndView modelAndView) {
+        if (modelAndView != null && Trazas.activa()) {
+            String vista = modelAndView.getViewName() != null ? modelAndView.getViewName() : "vista";
+            request.setAttribute(ATRIBUTO_SPAN, Trazas.abrir("render " + vista, TipoSpan.VISTA));
+        }
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+            Exception ex) {
+        if (request.getAttribute(ATRIBUTO_SPAN) instanceof Span span) {
+            request.removeAttribute(ATRIBUTO_SPAN);
+            span.close();
+        }
+    }
+}
@@ -6,8 +6,10 @@ import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.validation.FieldError;
@@ -17,6 +19,10 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 
+import ar.edu.huergo.swapify.config.security.HashingSaturadoException;
+import ar.edu.huergo.swapify.config.security.LoginLimitadoException;
+import ar.edu.huergo.swapify.service.imagen.DecodificacionSaturadaException;
+import ar.edu.huergo.swapify.util.DecodificadorBase64;
 import jakarta.persistence.EntityNotFoundException;
 import jakarta.validation.ConstraintViolationException;
 import lombok.extern.slf4j.Slf4j;
@@ -100,6 +106,23 @@ public class GlobalExceptionHandler {
                 problem.setProperty("limite", MAX_JSON_STRING_LENGTH);
                 return problem;
             }
+            if (root instanceof DecodificadorBase64.LimiteExcedidoException limiteEx) {
+                log.warn("Imagen Base64 rechazada al decodificar: {}", limiteEx.getMessage());
+                ProblemDetail problem = ProblemDetail.forStatus(HttpStatus.PAYLOAD_TOO_LARGE);
+                problem.setTitle("Imagen demasiado grande");
+                problem.setDetail(limiteEx.getMessage());
+                problem.setType(URI.create("https://http.dev/problems/file-too-large"));
+                problem.setProperty("limite", limiteEx.getLimite());
+                return problem;
+            }
+            if (root instanceof IllegalArgumentException argumentoEx) {
+                ProblemDetail problem = ProblemDetail.forStatus(HttpStatus.BAD_REQUEST);
+                problem.setTitle("Cuerpo de la solicitud inválido");
+                problem.setDetail(argumentoEx.getMessage());
+                problem.setType(URI.create("https://http.dev/problems/unreadable-body"));
+                log.warn("Dato inválido en el cuerpo de la solicitud: {}", argumentoEx.getMessage());
+                return problem;
+            }
         }
 
         ProblemDetail problem = ProblemDetail.forStatus(HttpStatus.BAD_REQUEST);
@@ -163,6 +186,50 @@ public class GlobalExceptionHandler {
         return problem;
     }
 
+    /**
+     * Devuelve un 429 con {@code Retry-After} cuando se agotaron los intentos
+     * de inicio de sesión de la IP o de la cuenta.
+     */
+    @ExceptionHandler(LoginLimitadoException.class)
+    public ResponseEntity<ProblemDetail> handleLoginLimitado(LoginLimitadoException ex) {
+        ProblemDetail problem = ProblemDetail.forStatus(HttpStatus.TOO_MANY_REQUESTS);
+        problem.setTitle("Demasiados intentos");
+        problem.setDetail(ex.getMessage());
+        problem.setType(URI.create("https://http.dev/problems/too-many-requests"));
+        log.warn("Inicio de sesión limitado: {}", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getReintentarEnSegundos()))
+                .body(problem);
+    }
+
+    /**
+     * Devuelve un 503 cuando el ejecutor de hashing de contraseñas está
+     * saturado.
+     */
+    @ExceptionHandler(HashingSaturadoException.class)
+    public ProblemDetail handleHashingSaturado(HashingSaturadoException ex) {
+        ProblemDetail problem = ProblemDetail.forStatus(HttpStatus.SERVICE_UNAVAILABLE);
+        problem.setTitle("Servicio ocupado");
+        problem.setDetail("No se pudo verificar la contraseña en este momento, reintentá en unos segundos");
+        problem.setType(URI.create("https://http.dev/problems/service-unavailable"));
+        log.warn("Hashing de contraseñas saturado: {}", ex.getMessage());
+        return problem;
+    }
+
+    /**
+     * Devuelve un 503 cuando no hay memoria de decodificación de imágenes
+     * disponible.
+     */
+    @ExceptionHandler(DecodificacionSaturadaException.class)
+    public ProblemDetail handleDecodificacionSaturada(DecodificacionSaturadaException ex) {
+        ProblemDetail problem = ProblemDetail.forStatus(HttpStatus.SERVICE_UNAVAILABLE);
+        problem.setTitle("Servicio ocupado");
+        problem.setDetail("No se pudieron procesar las imágenes en este momento, reintentá en unos segundos");
+        problem.setType(URI.create("https://http.dev/problems/service-unavailable"));
+        log.warn("Decodificación de imágenes saturada: {}", ex.getMessage());
+        return problem;
+    }
+
     /**
      * Envía un 403 cuando la persona autenticada intenta acceder a recursos sin
      * permisos suficientes.
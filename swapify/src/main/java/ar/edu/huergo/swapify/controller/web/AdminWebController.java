@@ -20,14 +20,19 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import ar.edu.huergo.swapify.config.trazas.ExportadorTrazas;
 import ar.edu.huergo.swapify.entity.publicacion.EstadoOferta;
 import ar.edu.huergo.swapify.entity.publicacion.Publicacion;
 import ar.edu.huergo.swapify.entity.security.Rol;
 import ar.edu.huergo.swapify.entity.security.Usuario;
+import ar.edu.huergo.swapify.service.imagen.AlmacenImagenes;
+import ar.edu.huergo.swapify.service.imagen.CasiDuplicados;
 import ar.edu.huergo.swapify.service.publicacion.OfertaService;
 import ar.edu.huergo.swapify.service.publicacion.PublicacionService;
+import ar.edu.huergo.swapify.service.publicacion.ReoptimizadorImagenes;
 import ar.edu.huergo.swapify.service.security.UsuarioService;
 import ar.edu.huergo.swapify.util.PasswordValidator;
 import jakarta.persistence.EntityNotFoundException;
@@ -42,6 +47,9 @@ public class AdminWebController {
     private final PublicacionService publicacionService;
     private final OfertaService ofertaService;
     private final UsuarioService usuarioService;
+    private final ExportadorTrazas exportadorTrazas;
+    private final AlmacenImagenes almacenImagenes;
+    private final ReoptimizadorImagenes reoptimizadorImagenes;
 
     @GetMapping
     public String panel(Model model) {
@@ -199,4 +207,82 @@ public class AdminWebController {
         }
         return "redirect:/web/admin";
     }
+
+    /**
+     * Últimas trazas registradas en memoria, de la más reciente a la más
+     * antigua.
+     */
+    @GetMapping("/trazas")
+    public String trazas(Model model) {
+        model.addAttribute("trazas", exportadorTrazas.recientes());
+        return "admin/trazas";
+    }
+
+    /**
+     * Cascada de spans de un request puntual.
+     */
+    @GetMapping("/trazas/{traceId}")
+    public String traza(@PathVariable("traceId") String traceId, Model model, RedirectAttributes ra) {
+        var traza = exportadorTrazas.buscar(traceId);
+        if (traza.isEmpty()) {
+            ra.addFlashAttribute("error", "La traza ya no está disponible en memoria");
+            return "redirect:/web/admin/trazas";
+        }
+        model.addAttribute("traza", traza.get());
+        return "admin/traza";
+    }
+
+    /**
+     * Publicaciones distintas con imágenes idénticas o casi iguales, para
+     * detectar relistados. {@code umbral} es la distancia de Hamming máxima
+     * entre huellas perceptuales.
+     */
+    @GetMapping("/imagenes-duplicadas")
+    public String imagenesDuplicadas(@RequestParam(name = "umbral", defaultValue = "5") int umbral, Model model) {
+        int umbralAcotado = Math.max(0, Math.min(umbral, CasiDuplicados.UMBRAL_MAXIMO));
+        model.addAttribute("umbral", umbralAcotado);
+        model.addAttribute("umbralMaximo", CasiDuplicados.UMBRAL_MAXIMO);
+        model.addAttribute("grupos", almacenImagenes.buscarCasiDuplicados(umbralAcotado));
+        model.addAttribute("resumen", almacenImagenes.resumen());
+        return "admin/imagenes-duplicadas";
+    }
+
+    /**
+     * Avance de la reoptimización de las imágenes ya almacenadas.
+     */
+    @GetMapping("/reoptimizacion")
+    public String reoptimizacion(Model model) {
+        model.addAttribute("reoptimizacion", reoptimizadorImagenes.resumen());
+        return "admin/reoptimizacion";
+    }
+
+    /**
+     * El mismo avance en JSON, para seguirlo sin recargar la página.
+     */
+    @GetMapping("/reoptimizacion/estado")
+    @ResponseBody
+    public ReoptimizadorImagenes.Resumen estadoReoptimizacion() {
+        return reoptimizadorImagenes.resumen();
+    }
+
+    @PostMapping("/reoptimizacion/iniciar")
+    public String iniciarReoptimizacion(RedirectAttributes ra) {
+        try {
+            reoptimizadorImagenes.iniciar();
+            ra.addFlashAttribute("success", "La reoptimización de imágenes está en curso");
+        } catch (IllegalStateException e) {
+            ra.addFlashAttribute("error", e.getMessage());
+        } catch (Exception e) {
+            log.error("No se pudo iniciar la reoptimización de imágenes", e);
+            ra.addFlashAttribute("error", "No pudimos iniciar la reoptimización: " + e.getMessage());
+        }
+        return "redirect:/web/admin/reoptimizacion";
+    }
+
+    @PostMapping("/reoptimizacion/pausar")
+    public String pausarReoptimizacion(RedirectAttributes ra) {
+        reoptimizadorImagenes.pausar();
+        ra.addFlashAttribute("success", "La reoptimización quedó pausada; el lote en curso se revisará al reanudar");
+        return "redirect:/web/admin/reoptimizacion";
+    }
 }
@@ -3,19 +3,16 @@ package ar.edu.huergo.swapify.controller.web;
 import java.util.List;
 import java.util.Map;
 
-import java.time.Duration;
-
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseCookie;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.DisabledException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -28,13 +25,16 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import ar.edu.huergo.swapify.config.security.CookieSesion;
+import ar.edu.huergo.swapify.config.security.HashingSaturadoException;
+import ar.edu.huergo.swapify.config.security.LimitadorIntentosLogin;
+import ar.edu.huergo.swapify.config.security.LoginLimitadoException;
 import ar.edu.huergo.swapify.dto.security.LoginDTO;
 import ar.edu.huergo.swapify.entity.security.Usuario;
 import ar.edu.huergo.swapify.service.security.JwtTokenService;
 import ar.edu.huergo.swapify.service.security.UsuarioService;
 import lombok.RequiredArgsConstructor;
 
-import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
@@ -52,10 +52,7 @@ public class AuthWebController {
     private final UsuarioService usuarioService;
     private final AuthenticationManager authenticationManager;
     private final JwtTokenService jwtTokenService;
-    private final UserDetailsService userDetailsService;
-
-    /** Duración en segundos del token persistido en la cookie del navegador. */
-    private static final int COOKIE_MAX_AGE_SECONDS = 86400;
+    private final LimitadorIntentosLogin limitadorIntentosLogin;
 
     /**
      * Renderiza el formulario de inicio de sesión.
@@ -111,25 +108,32 @@ public class AuthWebController {
     public String loginDesdeFormulario(@RequestParam String username,
                                        @RequestParam String password,
                                        RedirectAttributes ra,
+                                       HttpServletRequest request,
                                        HttpServletResponse response) {
         try {
             String usuarioNormalizado = normalizarEmail(username);
-            authenticationManager.authenticate(new UsernamePasswordAuthenticationToken(usuarioNormalizado, password));
-            UserDetails userDetails = userDetailsService.loadUserByUsername(usuarioNormalizado);
+            limitadorIntentosLogin.consumir(request.getRemoteAddr(), usuarioNormalizado);
+            Authentication autenticacion = authenticationManager.authenticate(
+                    new UsernamePasswordAuthenticationToken(usuarioNormalizado, password));
+            UserDetails userDetails = (UserDetails) autenticacion.getPrincipal();
             List<String> roles = userDetails.getAuthorities().stream().map(a -> a.getAuthority()).toList();
 
             String token = jwtTokenService.generarToken(userDetails, roles);
-            Cookie cookie = new Cookie("jwtToken", token);
-            cookie.setMaxAge(COOKIE_MAX_AGE_SECONDS);
-            cookie.setPath("/");
-            cookie.setHttpOnly(true);
-            response.addCookie(cookie);
+            response.addHeader(HttpHeaders.SET_COOKIE, CookieSesion.emitir(token).toString());
 
             ra.addFlashAttribute("success", "Sesión iniciada correctamente");
             return "redirect:/web/publicaciones";
         } catch (DisabledException e) {
             ra.addFlashAttribute("error", "Tu cuenta está suspendida temporalmente. Revisá tus notificaciones.");
             return "redirect:/web/login";
+        } catch (LoginLimitadoException e) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getReintentarEnSegundos()));
+            ra.addFlashAttribute("error", "Demasiados intentos. Esperá " + e.getReintentarEnSegundos()
+                    + " segundos antes de volver a intentar.");
+            return "redirect:/web/login";
+        } catch (HashingSaturadoException e) {
+            ra.addFlashAttribute("error", "El servicio está ocupado, intentá nuevamente en unos segundos.");
+            return "redirect:/web/login";
         } catch (Exception e) {
             ra.addFlashAttribute("error", "Credenciales inválidas");
             return "redirect:/web/login";
@@ -142,7 +146,8 @@ public class AuthWebController {
      */
     @PostMapping(value = "/login", consumes = MediaType.APPLICATION_JSON_VALUE, produces = MediaType.APPLICATION_JSON_VALUE)
     @ResponseBody
-    public ResponseEntity<Map<String, String>> loginAjax(@RequestBody @Valid LoginDTO payload) {
+    public ResponseEntity<Map<String, String>> loginAjax(@RequestBody @Valid LoginDTO payload,
+                                                         HttpServletRequest request) {
         try {
             if (payload == null || payload.username() == null || payload.username().isBlank()
                     || payload.password() == null || payload.password().isBlank()) {
@@ -150,25 +155,27 @@ public class AuthWebController {
             }
 
             String usuarioNormalizado = normalizarEmail(payload.username());
-            authenticationManager.authenticate(
+            limitadorIntentosLogin.consumir(request.getRemoteAddr(), usuarioNormalizado);
+            Authentication autenticacion = authenticationManager.authenticate(
                     new UsernamePasswordAuthenticationToken(usuarioNormalizado, payload.password()));
 
-            UserDetails userDetails = userDetailsService.loadUserByUsername(usuarioNormalizado);
+            UserDetails userDetails = (UserDetails) autenticacion.getPrincipal();
             List<String> roles = userDetails.getAuthorities().stream().map(a -> a.getAuthority()).toList();
 
             String token = jwtTokenService.generarToken(userDetails, roles);
 
-            ResponseCookie cookie = ResponseCookie.from("jwtToken", token)
-                .path("/")
-                .maxAge(Duration.ofSeconds(COOKIE_MAX_AGE_SECONDS))
-                .httpOnly(true)
-                .build();
-
             return ResponseEntity.ok()
-                .header(HttpHeaders.SET_COOKIE, cookie.toString())
+                .header(HttpHeaders.SET_COOKIE, CookieSesion.emitir(token).toString())
                 .body(Map.of("token", token));
         } catch (DisabledException e) {
             return ResponseEntity.status(423).body(Map.of("error", "Tu cuenta está suspendida temporalmente"));
+        } catch (LoginLimitadoException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getReintentarEnSegundos()))
+                .body(Map.of("error", "Demasiados intentos de inicio de sesión"));
+        } catch (HashingSaturadoException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(Map.of("error", "El servicio está ocupado, intentá nuevamente en unos segundos"));
         } catch (Exception e) {
             return ResponseEntity.status(401).body(Map.of("error", "Credenciales inválidas"));
         }
@@ -192,11 +199,7 @@ public class AuthWebController {
     public String logout(HttpServletRequest request,
                          HttpServletResponse response,
                          RedirectAttributes ra) {
-        Cookie cookie = new Cookie("jwtToken", "");
-        cookie.setMaxAge(0);
-        cookie.setPath("/");
-        cookie.setHttpOnly(true);
-        response.addCookie(cookie);
+        response.addHeader(HttpHeaders.SET_COOKIE, CookieSesion.borrar().toString());
 
         var session = request.getSession(false);
         if (session != null) {
@@ -1,9 +1,13 @@
 package ar.edu.huergo.swapify.controller.web;
 
+import java.util.List;
+
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,7 +16,10 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import ar.edu.huergo.swapify.config.security.CookieSesion;
+import ar.edu.huergo.swapify.service.security.JwtTokenService;
 import ar.edu.huergo.swapify.service.security.UsuarioService;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 
 @Controller
@@ -22,6 +29,7 @@ import lombok.RequiredArgsConstructor;
 public class CuentaWebController {
 
     private final UsuarioService usuarioService;
+    private final JwtTokenService jwtTokenService;
 
     @GetMapping("/seguridad")
     public String seguridad(Model model) {
@@ -33,7 +41,8 @@ public class CuentaWebController {
     public String cambiarPassword(@RequestParam("actual") String actual,
                                   @RequestParam("nueva") String nueva,
                                   @RequestParam("confirmacion") String confirmacion,
-                                  RedirectAttributes ra) {
+                                  RedirectAttributes ra,
+                                  HttpServletResponse response) {
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
         if (auth == null || auth instanceof AnonymousAuthenticationToken || !auth.isAuthenticated()) {
             ra.addFlashAttribute("error", "Necesitás iniciar sesión nuevamente");
@@ -41,6 +50,7 @@ public class CuentaWebController {
         }
         try {
             usuarioService.cambiarPasswordPropia(auth.getName(), actual, nueva, confirmacion);
+            renovarSesion(auth, response);
             ra.addFlashAttribute("success", "Actualizaste tu contraseña correctamente");
         } catch (IllegalArgumentException e) {
             ra.addFlashAttribute("error", e.getMessage());
@@ -68,4 +78,17 @@ public class CuentaWebController {
         }
         return "redirect:/web/mi-cuenta/seguridad";
     }
+
+    /**
+     * El cambio de contraseña revoca los tokens emitidos hasta ese momento;
+     * esta sesión recibe uno nuevo para no tener que volver a iniciarla.
+     */
+    private void renovarSesion(Authentication auth, HttpServletResponse response) {
+        if (!(auth.getPrincipal() instanceof UserDetails userDetails)) {
+            return;
+        }
+        List<String> roles = auth.getAuthorities().stream().map(a -> a.getAuthority()).toList();
+        response.addHeader(HttpHeaders.SET_COOKIE,
+                CookieSesion.emitir(jwtTokenService.generarToken(userDetails, roles)).toString());
+    }
 }
@@ -1,9 +1,15 @@
 package ar.edu.huergo.swapify.controller.web;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AnonymousAuthenticationToken;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -19,6 +25,7 @@ import ar.edu.huergo.swapify.entity.publicacion.Oferta;
 import ar.edu.huergo.swapify.entity.security.Usuario;
 import ar.edu.huergo.swapify.entity.publicacion.EstadoOferta;
 import ar.edu.huergo.swapify.entity.publicacion.EstadoPublicacion;
+import ar.edu.huergo.swapify.service.imagen.ImagenServida;
 import ar.edu.huergo.swapify.service.publicacion.PublicacionService;
 import ar.edu.huergo.swapify.service.publicacion.OfertaService;
 import jakarta.persistence.EntityNotFoundException;
@@ -126,7 +133,7 @@ public class PublicacionWebController {
                     .anyMatch(a -> "ROLE_ADMIN".equals(a.getAuthority()));
             boolean esPropietario = autenticado && p.getUsuario() != null
                     && auth.getName().equals(p.getUsuario().getUsername());
-            var ofertaAceptada = ofertaService.obtenerOfertaAceptada(id);
+            var ofertaAceptada = ofertaService.obtenerOfertaAceptada(ofertas);
             boolean esPostulanteAceptado = autenticado && ofertaAceptada.isPresent()
                     && ofertaAceptada.get().getUsuario() != null
                     && auth.getName().equals(ofertaAceptada.get().getUsuario().getUsername());
@@ -150,6 +157,43 @@ public class PublicacionWebController {
         }
     }
 
+    /**
+     * Entrega una imagen de la publicación. Si la imagen tiene variante y el
+     * {@code Accept} lista su tipo, se envía esa variante; la respuesta varía
+     * según ese encabezado. Hoy la única variante es WebP sin pérdida y solo
+     * la tienen las imágenes guardadas en PNG; las fotos JPEG se sirven
+     * siempre como JPEG. Las
+     * imágenes solo cambian si se reoptimizan, así que se cachean y el ETag,
+     * que incluye la versión del contenido, permite responder 304 a las
+     * revalidaciones.
+     */
+    @GetMapping("/publicaciones/{id}/imagenes/{orden}")
+    public ResponseEntity<byte[]> imagen(@PathVariable("id") Long id, @PathVariable("orden") int orden,
+                                         @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept) {
+        try {
+            ImagenServida imagen = publicacionService.obtenerImagen(id, orden, tiposAceptados(accept));
+            return ResponseEntity.ok()
+                    .contentType(MediaType.parseMediaType(imagen.contentType()))
+                    .cacheControl(CacheControl.maxAge(Duration.ofDays(1)).cachePublic())
+                    .varyBy(HttpHeaders.ACCEPT)
+                    .eTag(imagen.id() + "-" + imagen.version() + (imagen.variante() ? "-v" : ""))
+                    .body(imagen.datos());
+        } catch (EntityNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    private static List<MediaType> tiposAceptados(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return List.of();
+        }
+        try {
+            return MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return List.of();
+        }
+    }
+
     /**
      * Panel para que la persona propietaria gestione las ofertas recibidas.
      */
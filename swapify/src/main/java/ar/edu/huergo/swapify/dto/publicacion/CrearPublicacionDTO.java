@@ -5,6 +5,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.PositiveOrZero;
@@ -34,8 +36,17 @@ public class CrearPublicacionDTO {
     @NotBlank(message = "Debe indicar el objeto a cambiar")
     private String objetoACambiar;
 
+    /**
+     * Imágenes Base64 de formularios o llamadas directas al servicio. Por JSON
+     * llegan ya decodificadas en {@link #imagenesDecodificadas}.
+     */
+    @JsonIgnore
     private List<String> imagenesBase64 = new ArrayList<>();
 
+    @JsonProperty(value = "imagenesBase64", access = JsonProperty.Access.WRITE_ONLY)
+    @JsonDeserialize(using = ImagenesBase64Deserializer.class)
+    private List<ImagenBase64> imagenesDecodificadas = new ArrayList<>();
+
     private List<String> imagenesContentType = new ArrayList<>();
 
     @JsonIgnore
@@ -52,6 +63,7 @@ public class CrearPublicacionDTO {
     public boolean isImagenPresente() {
         boolean hayArchivos = imagenesArchivos != null && imagenesArchivos.stream().anyMatch(f -> f != null && !f.isEmpty());
         boolean hayBase64 = imagenesBase64 != null && imagenesBase64.stream().anyMatch(cadena -> cadena != null && !cadena.isBlank());
-        return hayArchivos || hayBase64;
+        boolean hayDecodificadas = imagenesDecodificadas != null && imagenesDecodificadas.stream().anyMatch(i -> i != null);
+        return hayArchivos || hayBase64 || hayDecodificadas;
     }
 }
@@ -0,0 +1,21 @@
+package ar.edu.huergo.swapify.dto.publicacion;
+
+/**
+ * Imagen recibida como Base64 en el JSON, ya decodificada por
+ * {@link ImagenesBase64Deserializer}.
+ *
+ * @param datos       bytes de la imagen original
+ * @param contentType tipo declarado junto con la imagen, o {@code null}
+ */
+public record ImagenBase64(byte[] datos, String contentType) {
+
+    /**
+     * Máximo de una imagen original antes de escalarla y recomprimirla; el
+     * mismo que {@code spring.servlet.multipart.max-file-size}, así un
+     * archivo tiene el mismo límite subido como parte o como Base64.
+     */
+    public static final long MAX_BYTES = 20_000_000L;
+
+    /** Imágenes que se procesan por publicación; las demás se descartan. */
+    public static final int MAX_IMAGENES = 5;
+}
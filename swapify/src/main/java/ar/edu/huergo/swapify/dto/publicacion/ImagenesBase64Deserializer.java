@@ -0,0 +1,116 @@
+package ar.edu.huergo.swapify.dto.publicacion;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.core.Base64Variant;
+import com.fasterxml.jackson.core.Base64Variants;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.exc.StreamReadException;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import ar.edu.huergo.swapify.util.DecodificadorBase64;
+
+/**
+ * Lee el arreglo {@code imagenesBase64} con
+ * {@link JsonParser#readBinaryValue(Base64Variant, java.io.OutputStream)}:
+ * Jackson decodifica cada cadena directamente desde su buffer de entrada, sin
+ * acumular el texto en su {@code TextBuffer}, así que no aplica
+ * {@code StreamReadConstraints.maxStringLength} y el único límite es
+ * {@link ImagenBase64#MAX_BYTES}, que corta la lectura apenas se supera.
+ *
+ * <p>Se acepta Base64 estándar con saltos de línea y relleno opcional. Los
+ * espacios no se convierten en {@code +} como en {@link DecodificadorBase64}
+ * (que atiende cadenas que pasaron por codificación de formulario): Jackson
+ * rechaza un espacio dentro de un grupo de cuatro caracteres y saltea uno
+ * entre grupos, así que una imagen con los {@code +} cambiados por espacios
+ * se rechaza en lugar de decodificarse a medias. El
+ * tipo de cada imagen va en {@code imagenesContentType} o se detecta por sus
+ * bytes; un prefijo data URI no es Base64 y se rechaza. Las posiciones vacías
+ * quedan en {@code null} para conservar la correspondencia con
+ * {@code imagenesContentType}, y a partir de {@link ImagenBase64#MAX_IMAGENES}
+ * imágenes el resto se saltea sin decodificar.</p>
+ */
+public class ImagenesBase64Deserializer extends StdDeserializer<List<ImagenBase64>> {
+
+    private static final Base64Variant VARIANTE = Base64Variants.getDefaultVariant().withPaddingAllowed();
+    private static final String MENSAJE_INVALIDO = "Los datos de la imagen no están en formato Base64 válido";
+
+    public ImagenesBase64Deserializer() {
+        super(List.class);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<ImagenBase64> deserialize(JsonParser parser, DeserializationContext contexto) throws IOException {
+        if (!parser.isExpectedStartArrayToken()) {
+            return (List<ImagenBase64>) contexto.handleUnexpectedToken(List.class, parser);
+        }
+        List<ImagenBase64> imagenes = new ArrayList<>();
+        int decodificadas = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == JsonToken.VALUE_NULL || decodificadas >= ImagenBase64.MAX_IMAGENES) {
+                parser.skipChildren();
+                imagenes.add(null);
+                continue;
+            }
+            if (token != JsonToken.VALUE_STRING) {
+                return (List<ImagenBase64>) contexto.handleUnexpectedToken(String.class, parser);
+            }
+            SalidaLimitada salida = new SalidaLimitada(ImagenBase64.MAX_BYTES);
+            try {
+                parser.readBinaryValue(VARIANTE, salida);
+            } catch (DecodificadorBase64.LimiteExcedidoException e) {
+                throw e;
+            } catch (StreamReadException | IllegalArgumentException e) {
+                throw new IllegalArgumentException(MENSAJE_INVALIDO, e);
+            }
+            if (salida.size() == 0) {
+                imagenes.add(null);
+                continue;
+            }
+            imagenes.add(new ImagenBase64(salida.toByteArray(), null));
+            decodificadas++;
+        }
+        return imagenes;
+    }
+
+    @Override
+    public List<ImagenBase64> getNullValue(DeserializationContext contexto) {
+        return new ArrayList<>();
+    }
+
+    /** Buffer que falla en cuanto recibe más de {@code maxBytes}. */
+    private static final class SalidaLimitada extends ByteArrayOutputStream {
+
+        private final long maxBytes;
+
+        private SalidaLimitada(long maxBytes) {
+            super(64 * 1024);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public synchronized void write(int b) {
+            verificar(1);
+            super.write(b);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            verificar(len);
+            super.write(b, off, len);
+        }
+
+        private void verificar(int cantidad) {
+            if ((long) count + cantidad > maxBytes) {
+                throw new DecodificadorBase64.LimiteExcedidoException(maxBytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package ar.edu.huergo.swapify.entity.publicacion;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+import org.hibernate.annotations.BatchSize;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Bytes de una imagen almacenados una sola vez y compartidos por todas las
+ * imágenes de publicaciones y ofertas con el mismo contenido. El hash
+ * SHA-256 identifica copias idénticas; {@code referencias} cuenta cuántas
+ * filas apuntan a este contenido y, al llegar a cero, la fila se elimina.
+ *
+ * <p>El hash no es único a propósito: si dos subidas idénticas se guardan a
+ * la vez, cada una crea su fila y ambas quedan con su propio conteo, en
+ * lugar de fallar por la restricción.</p>
+ *
+ * <p>Las imágenes lo referencian de forma perezosa; cuando la API sí necesita
+ * los bytes de un listado, {@link BatchSize} los inicializa por tandas en
+ * lugar de con un select por imagen.</p>
+ */
+@Entity
+@BatchSize(size = 32)
+@Table(name = "contenido_imagen", indexes = {
+        @Index(name = "idx_contenido_imagen_hash", columnList = "hash")
+})
+@Getter
+@NoArgsConstructor
+@ToString(exclude = {"datos", "varianteDatos"})
+public class ContenidoImagen {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "hash", nullable = false, length = 64)
+    private String hash;
+
+    @Lob
+    @Basic(fetch = FetchType.LAZY)
+    @Column(name = "datos", nullable = false, columnDefinition = "LONGBLOB")
+    private byte[] datos;
+
+    @Column(name = "tamanio", nullable = false)
+    private long tamanio;
+
+    @Setter
+    @Column(name = "referencias", nullable = false)
+    private int referencias = 1;
+
+    /** dHash de 64 bits para detectar imágenes casi iguales; {@code null} si no se calculó. */
+    @Setter
+    @Column(name = "huella_perceptual")
+    private Long huellaPerceptual;
+
+    /**
+     * Versión alternativa en un formato más compacto que se entrega solo a
+     * los navegadores que la aceptan. Es opcional; hoy solo se genera WebP sin
+     * pérdida para las imágenes PNG.
+     */
+    @Lob
+    @Basic(fetch = FetchType.LAZY)
+    @Column(name = "variante_datos", columnDefinition = "LONGBLOB")
+    private byte[] varianteDatos;
+
+    @Column(name = "variante_content_type", length = 100)
+    private String varianteContentType;
+
+    public ContenidoImagen(byte[] datos) {
+        if (datos == null || datos.length == 0) {
+            throw new IllegalArgumentException("La imagen es obligatoria");
+        }
+        this.datos = Arrays.copyOf(datos, datos.length);
+        this.tamanio = datos.length;
+        this.hash = sha256(datos);
+    }
+
+    public byte[] getDatos() {
+        return datos != null ? Arrays.copyOf(datos, datos.length) : null;
+    }
+
+    public byte[] getVarianteDatos() {
+        return varianteDatos != null ? Arrays.copyOf(varianteDatos, varianteDatos.length) : null;
+    }
+
+    public void setVariante(byte[] datos, String contentType) {
+        this.varianteDatos = datos != null ? Arrays.copyOf(datos, datos.length) : null;
+        this.varianteContentType = datos != null ? contentType : null;
+    }
+
+    /** Hash SHA-256 en hexadecimal, el mismo que se guarda en {@code hash}. */
+    public static String sha256(byte[] datos) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(datos));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no está disponible en esta JVM", e);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package ar.edu.huergo.swapify.entity.publicacion;
+
+public enum EstadoReoptimizacion {
+    PENDIENTE,
+    EN_CURSO,
+    PAUSADA,
+    FINALIZADA
+}
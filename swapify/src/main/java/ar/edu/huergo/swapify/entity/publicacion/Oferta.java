@@ -17,7 +17,7 @@ import java.util.Arrays;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@ToString(exclude = {"publicacion", "usuario", "imagen", "imagenBase64", "imagenDataUri"})
+@ToString(exclude = {"publicacion", "usuario", "imagen", "contenidoImagen", "imagenBase64", "imagenDataUri"})
 public class Oferta {
 
     @Id
@@ -54,11 +54,16 @@ public class Oferta {
     @Column(name = "fecha_respuesta")
     private LocalDateTime fechaRespuesta;
 
+    /** Bytes guardados en la propia fila por versiones anteriores a {@link ContenidoImagen}. */
     @Lob
     @Basic(fetch = FetchType.LAZY)
     @Column(name = "imagen", columnDefinition = "LONGBLOB")
     private byte[] imagen;
 
+    @ManyToOne(fetch = FetchType.LAZY, cascade = CascadeType.PERSIST)
+    @JoinColumn(name = "contenido_id")
+    private ContenidoImagen contenidoImagen;
+
     @Column(name = "imagen_content_type", length = 100)
     private String imagenContentType;
 
@@ -78,16 +83,21 @@ public class Oferta {
         }
     }
 
+    /** Guarda los bytes en un {@link ContenidoImagen} propio, todavía sin compartir. */
     public void setImagen(byte[] imagen) {
-        this.imagen = (imagen != null) ? Arrays.copyOf(imagen, imagen.length) : null;
+        this.contenidoImagen = (imagen != null && imagen.length > 0) ? new ContenidoImagen(imagen) : null;
+        this.imagen = null;
     }
 
     public byte[] getImagen() {
+        if (contenidoImagen != null) {
+            return contenidoImagen.getDatos();
+        }
         return imagen != null ? Arrays.copyOf(imagen, imagen.length) : null;
     }
 
     public boolean tieneImagen() {
-        return imagen != null && imagen.length > 0;
+        return contenidoImagen != null || (imagen != null && imagen.length > 0);
     }
 
     public boolean estaPendiente() {
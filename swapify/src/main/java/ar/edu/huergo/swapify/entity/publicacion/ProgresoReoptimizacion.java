@@ -0,0 +1,101 @@
+package ar.edu.huergo.swapify.entity.publicacion;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Avance de la reoptimización de las imágenes ya almacenadas. Hay una sola
+ * fila: guarda hasta qué identificador se recorrió cada tabla, de modo que
+ * un trabajo pausado o interrumpido retoma desde el último lote confirmado.
+ *
+ * <p>También es el reclamo entre nodos: {@code propietario} identifica al
+ * nodo que está corriendo el trabajo y {@code latidoEn} se renueva con cada
+ * lote; otro nodo solo puede tomarlo cuando el latido venció.</p>
+ */
+@Entity
+@Table(name = "reoptimizacion_imagenes")
+@Getter
+@Setter
+@NoArgsConstructor
+public class ProgresoReoptimizacion {
+
+    public static final int ID = 1;
+
+    @Id
+    private Integer id = ID;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "estado", nullable = false, length = 20)
+    private EstadoReoptimizacion estado = EstadoReoptimizacion.PENDIENTE;
+
+    /** Último {@code PublicacionImagen.id} revisado. */
+    @Column(name = "ultima_imagen_id", nullable = false)
+    private long ultimaImagenId;
+
+    /** Último {@code Oferta.id} revisado; las ofertas se recorren después de las imágenes. */
+    @Column(name = "ultima_oferta_id", nullable = false)
+    private long ultimaOfertaId;
+
+    @Column(name = "revisadas", nullable = false)
+    private long revisadas;
+
+    @Column(name = "reemplazadas", nullable = false)
+    private long reemplazadas;
+
+    /** Bytes de las imágenes reemplazadas, antes y después de reoptimizarlas. */
+    @Column(name = "bytes_antes", nullable = false)
+    private long bytesAntes;
+
+    @Column(name = "bytes_despues", nullable = false)
+    private long bytesDespues;
+
+    @Column(name = "iniciada_en")
+    private LocalDateTime iniciadaEn;
+
+    @Column(name = "actualizada_en")
+    private LocalDateTime actualizadaEn;
+
+    @Column(name = "finalizada_en")
+    private LocalDateTime finalizadaEn;
+
+    /** Nodo que tiene tomado el trabajo; {@code null} si nadie lo está corriendo. */
+    @Column(name = "propietario", length = 255)
+    private String propietario;
+
+    @Column(name = "latido_en")
+    private LocalDateTime latidoEn;
+
+    @Column(name = "ultimo_error", length = 500)
+    private String ultimoError;
+
+    /** Vuelve al principio de ambas tablas para una nueva pasada. */
+    public void reiniciar() {
+        ultimaImagenId = 0;
+        ultimaOfertaId = 0;
+        revisadas = 0;
+        reemplazadas = 0;
+        bytesAntes = 0;
+        bytesDespues = 0;
+        iniciadaEn = LocalDateTime.now();
+        finalizadaEn = null;
+        ultimoError = null;
+    }
+
+    public void registrarRevisadas(long cantidad) {
+        revisadas += cantidad;
+    }
+
+    public void registrarReemplazo(long antes, long despues) {
+        reemplazadas++;
+        bytesAntes += antes;
+        bytesDespues += despues;
+    }
+
+    public long getBytesAhorrados() {
+        return bytesAntes - bytesDespues;
+    }
+}
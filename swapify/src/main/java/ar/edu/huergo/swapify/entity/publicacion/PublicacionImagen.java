@@ -18,7 +18,7 @@ import lombok.ToString;
 @Getter
 @Setter
 @NoArgsConstructor
-@ToString(exclude = {"publicacion", "datos", "base64", "dataUri"})
+@ToString(exclude = {"publicacion", "datos", "contenido"})
 public class PublicacionImagen {
 
     @Id
@@ -32,25 +32,44 @@ public class PublicacionImagen {
     @Column(name = "orden", nullable = false)
     private int orden;
 
+    /**
+     * Bytes guardados en la propia fila por versiones anteriores a
+     * {@link ContenidoImagen}. Las imágenes nuevas dejan la columna vacía.
+     */
     @Lob
     @Basic(fetch = FetchType.LAZY)
-    @Column(name = "datos", nullable = false, columnDefinition = "LONGBLOB")
+    @Column(name = "datos", columnDefinition = "LONGBLOB")
     private byte[] datos;
 
+    /**
+     * Perezoso: las vistas solo arman la URL de la imagen, así que los listados
+     * no traen los bytes; los lee {@code findImagen} al servir cada imagen.
+     */
+    @ManyToOne(fetch = FetchType.LAZY, cascade = CascadeType.PERSIST)
+    @JoinColumn(name = "contenido_id")
+    private ContenidoImagen contenido;
+
     @Column(name = "content_type", nullable = false, length = 100)
     private String contentType;
 
-    @Transient
-    private String base64;
-
-    @Transient
-    private String dataUri;
-
+    /** Guarda los bytes en un {@link ContenidoImagen} propio, todavía sin compartir. */
     public void setDatos(byte[] datos) {
-        this.datos = datos != null ? Arrays.copyOf(datos, datos.length) : null;
+        this.contenido = datos != null && datos.length > 0 ? new ContenidoImagen(datos) : null;
+        this.datos = null;
     }
 
     public byte[] getDatos() {
+        if (contenido != null) {
+            return contenido.getDatos();
+        }
         return datos != null ? Arrays.copyOf(datos, datos.length) : null;
     }
+
+    public byte[] getVarianteDatos() {
+        return contenido != null ? contenido.getVarianteDatos() : null;
+    }
+
+    public String getVarianteContentType() {
+        return contenido != null ? contenido.getVarianteContentType() : null;
+    }
 }
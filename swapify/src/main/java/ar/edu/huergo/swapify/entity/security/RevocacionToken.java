@@ -0,0 +1,31 @@
+package ar.edu.huergo.swapify.entity.security;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Marca de revocación de tokens de una persona usuaria: todo JWT emitido
+ * antes de {@code revocadosAntes} deja de ser válido. Hay a lo sumo una fila
+ * por usuario y se usa también para propagar las revocaciones entre nodos.
+ */
+@Entity
+@Table(name = "revocaciones_token")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevocacionToken {
+
+    @Id
+    @Column(length = 100)
+    private String username;
+
+    @Column(name = "revocados_antes", nullable = false)
+    private Instant revocadosAntes;
+}
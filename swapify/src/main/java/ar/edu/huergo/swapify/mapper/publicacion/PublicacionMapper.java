@@ -41,8 +41,6 @@ public class PublicacionMapper {
                 String contentType = imagen.getContentType() != null ? imagen.getContentType() : "image/jpeg";
                 String base64 = Base64.getEncoder().encodeToString(datos);
                 String dataUri = "data:" + contentType + ";base64," + base64;
-                imagen.setBase64(base64);
-                imagen.setDataUri(dataUri);
                 imagenes.add(dataUri);
                 if (principal == null) {
                     principal = dataUri;
@@ -0,0 +1,125 @@
+package ar.edu.huergo.swapify.repository.publicacion;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import ar.edu.huergo.swapify.entity.publicacion.ContenidoImagen;
+
+/**
+ * Acceso a los contenidos de imagen compartidos. Las consultas devuelven
+ * identificadores o proyecciones para no traer los bytes cuando no hacen
+ * falta, y el conteo de referencias se actualiza con sentencias atómicas.
+ */
+@Repository
+public interface ContenidoImagenRepository extends JpaRepository<ContenidoImagen, Long> {
+
+    @Query("select min(c.id) from ContenidoImagen c where c.hash = :hash")
+    Long buscarIdPorHash(@Param("hash") String hash);
+
+    /**
+     * Suma referencias a un contenido existente y, si no tenía huella
+     * perceptual, le asigna la recibida.
+     *
+     * @return filas actualizadas: 0 si el contenido se eliminó entretanto
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("""
+           update ContenidoImagen c
+           set c.referencias = c.referencias + :cantidad,
+               c.huellaPerceptual = coalesce(c.huellaPerceptual, :huella)
+           where c.id = :id
+           """)
+    int sumarReferencias(@Param("id") Long id, @Param("cantidad") int cantidad, @Param("huella") Long huella);
+
+    @Modifying(flushAutomatically = true)
+    @Query("""
+           update ContenidoImagen c
+           set c.varianteDatos = :datos, c.varianteContentType = :contentType
+           where c.id = :id and c.varianteDatos is null
+           """)
+    int completarVariante(@Param("id") Long id, @Param("datos") byte[] datos,
+                          @Param("contentType") String contentType);
+
+    @Modifying(flushAutomatically = true)
+    @Query("update ContenidoImagen c set c.referencias = c.referencias - :cantidad where c.id = :id")
+    int restarReferencias(@Param("id") Long id, @Param("cantidad") int cantidad);
+
+    @Modifying(flushAutomatically = true)
+    @Query("delete from ContenidoImagen c where c.id in :ids and c.referencias <= 0")
+    int eliminarSinReferencias(@Param("ids") Collection<Long> ids);
+
+    @Query("select i.contenido.id from PublicacionImagen i where i.publicacion.id = :publicacionId and i.contenido is not null")
+    List<Long> idsDePublicacion(@Param("publicacionId") Long publicacionId);
+
+    @Query("select o.contenidoImagen.id from Oferta o where o.publicacion.id = :publicacionId and o.contenidoImagen is not null")
+    List<Long> idsDeOfertasDePublicacion(@Param("publicacionId") Long publicacionId);
+
+    @Query("select o.contenidoImagen.id from Oferta o where o.usuario.id = :usuarioId and o.contenidoImagen is not null")
+    List<Long> idsDeOfertasDeUsuario(@Param("usuarioId") Long usuarioId);
+
+    @Query("select o.contenidoImagen.id from Oferta o where o.id = :ofertaId and o.contenidoImagen is not null")
+    List<Long> idsDeOferta(@Param("ofertaId") Long ofertaId);
+
+    @Query("select c.id as id, c.huellaPerceptual as huella from ContenidoImagen c where c.huellaPerceptual is not null")
+    List<Huella> huellas();
+
+    /** Contenidos que aparecen en más de una publicación: relistados exactos. */
+    @Query("""
+           select i.contenido.id from PublicacionImagen i
+           where i.contenido is not null
+           group by i.contenido.id
+           having count(distinct i.publicacion.id) > 1
+           """)
+    List<Long> idsCompartidosEntrePublicaciones();
+
+    @Query("""
+           select c.id as contenidoId, p.id as publicacionId, i.orden as orden,
+                  p.articulo.nombre as titulo, u.username as autor
+           from PublicacionImagen i join i.contenido c join i.publicacion p join p.usuario u
+           where c.id in :ids
+           order by p.id, i.orden
+           """)
+    List<Uso> usosEnPublicaciones(@Param("ids") Collection<Long> ids);
+
+    @Query("""
+           select count(c) as contenidos, coalesce(sum(c.referencias), 0) as referencias,
+                  coalesce(sum(c.tamanio), 0) as bytesAlmacenados,
+                  coalesce(sum(c.tamanio * c.referencias), 0) as bytesReferenciados
+           from ContenidoImagen c
+           """)
+    Resumen resumen();
+
+    interface Huella {
+        Long getId();
+
+        Long getHuella();
+    }
+
+    interface Uso {
+        Long getContenidoId();
+
+        Long getPublicacionId();
+
+        Integer getOrden();
+
+        String getTitulo();
+
+        String getAutor();
+    }
+
+    interface Resumen {
+        Long getContenidos();
+
+        Long getReferencias();
+
+        Long getBytesAlmacenados();
+
+        Long getBytesReferenciados();
+    }
+}
@@ -2,6 +2,7 @@ package ar.edu.huergo.swapify.repository.publicacion;
 
 import ar.edu.huergo.swapify.entity.publicacion.EstadoOferta;
 import ar.edu.huergo.swapify.entity.publicacion.Oferta;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -11,6 +12,7 @@ import java.util.Optional;
 @Repository
 public interface OfertaRepository extends JpaRepository<Oferta, Long> {
 
+    @EntityGraph(attributePaths = {"usuario", "usuario.roles", "contenidoImagen"})
     List<Oferta> findByPublicacionIdOrderByFechaOfertaDesc(Long publicacionId);
 
     boolean existsByPublicacionIdAndUsuarioUsernameIgnoreCase(Long publicacionId, String username);
@@ -19,6 +21,7 @@ public interface OfertaRepository extends JpaRepository<Oferta, Long> {
 
     List<Oferta> findByPublicacionIdAndIdNot(Long publicacionId, Long ofertaId);
 
+    @EntityGraph(attributePaths = {"usuario", "usuario.roles"})
     Optional<Oferta> findFirstByPublicacionIdAndEstadoOrderByFechaRespuestaDesc(Long publicacionId, EstadoOferta estado);
 
     long countByEstado(EstadoOferta estado);
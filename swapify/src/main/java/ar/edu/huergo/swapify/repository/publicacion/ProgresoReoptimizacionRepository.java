@@ -0,0 +1,113 @@
+package ar.edu.huergo.swapify.repository.publicacion;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+
+import ar.edu.huergo.swapify.entity.publicacion.EstadoReoptimizacion;
+import ar.edu.huergo.swapify.entity.publicacion.Oferta;
+import ar.edu.huergo.swapify.entity.publicacion.ProgresoReoptimizacion;
+import ar.edu.huergo.swapify.entity.publicacion.PublicacionImagen;
+
+/**
+ * Progreso de la reoptimización y los recorridos por lotes que usa: cada
+ * consulta trae las filas siguientes a un identificador, en orden, así que
+ * el costo por lote no crece con lo ya recorrido. El reclamo entre nodos se
+ * toma y se renueva con {@code UPDATE} condicionales sobre la fila de
+ * progreso.
+ */
+@Repository
+public interface ProgresoReoptimizacionRepository extends JpaRepository<ProgresoReoptimizacion, Integer> {
+
+    @Query("select i from PublicacionImagen i left join fetch i.contenido where i.id > :desde order by i.id")
+    List<PublicacionImagen> imagenesDesde(@Param("desde") long desde, Pageable lote);
+
+    @Query("""
+           select o from Oferta o join fetch o.usuario left join fetch o.contenidoImagen
+           where o.id > :desde and (o.contenidoImagen is not null or o.imagen is not null)
+           order by o.id
+           """)
+    List<Oferta> ofertasConImagenDesde(@Param("desde") long desde, Pageable lote);
+
+    /**
+     * Toma el trabajo para {@code propietario} si nadie lo tiene o si el
+     * latido del nodo que lo tenía es anterior a {@code vencidoAntes}.
+     *
+     * @return 1 si se tomó
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+           update ProgresoReoptimizacion p set p.propietario = :propietario, p.latidoEn = :ahora
+           where p.id = :id and (p.propietario is null or p.latidoEn is null or p.latidoEn < :vencidoAntes)
+           """)
+    int reclamar(@Param("id") Integer id, @Param("propietario") String propietario,
+                 @Param("ahora") LocalDateTime ahora, @Param("vencidoAntes") LocalDateTime vencidoAntes);
+
+    /**
+     * Avanza el cursor de un lote y renueva el latido, solo si el trabajo
+     * sigue en curso, tomado por {@code propietario} y con el cursor en el
+     * punto desde el que se leyó el lote.
+     *
+     * @return 1 si el lote se puede confirmar; 0 si otro nodo tomó el trabajo o se pausó
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+           update ProgresoReoptimizacion p
+           set p.ultimaImagenId = :imagenHasta, p.ultimaOfertaId = :ofertaHasta,
+               p.latidoEn = :ahora, p.actualizadaEn = :ahora
+           where p.id = :id and p.propietario = :propietario and p.estado = :enCurso
+             and p.ultimaImagenId = :imagenDesde and p.ultimaOfertaId = :ofertaDesde
+           """)
+    int avanzar(@Param("id") Integer id, @Param("propietario") String propietario,
+                @Param("enCurso") EstadoReoptimizacion enCurso,
+                @Param("imagenDesde") long imagenDesde, @Param("ofertaDesde") long ofertaDesde,
+                @Param("imagenHasta") long imagenHasta, @Param("ofertaHasta") long ofertaHasta,
+                @Param("ahora") LocalDateTime ahora);
+
+    /** Deja el trabajo en {@code estado} y lo suelta, si lo tiene {@code propietario}. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+           update ProgresoReoptimizacion p
+           set p.estado = :estado, p.propietario = null, p.actualizadaEn = :ahora,
+               p.finalizadaEn = coalesce(:finalizadaEn, p.finalizadaEn),
+               p.ultimoError = coalesce(:error, p.ultimoError)
+           where p.id = :id and p.propietario = :propietario
+           """)
+    int soltar(@Param("id") Integer id, @Param("propietario") String propietario,
+               @Param("estado") EstadoReoptimizacion estado, @Param("ahora") LocalDateTime ahora,
+               @Param("finalizadaEn") LocalDateTime finalizadaEn, @Param("error") String error);
+
+    /** Pausa el trabajo esté en el nodo que esté; ese nodo se detiene al confirmar su lote. */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+           update ProgresoReoptimizacion p
+           set p.estado = :pausada, p.propietario = null, p.actualizadaEn = :ahora
+           where p.id = :id and p.estado = :enCurso
+           """)
+    int pausarEnCurso(@Param("id") Integer id, @Param("enCurso") EstadoReoptimizacion enCurso,
+                      @Param("pausada") EstadoReoptimizacion pausada, @Param("ahora") LocalDateTime ahora);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from PublicacionImagen i where i.id in :ids")
+    List<PublicacionImagen> bloquearImagenes(@Param("ids") Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select o from Oferta o where o.id in :ids")
+    List<Oferta> bloquearOfertas(@Param("ids") Collection<Long> ids);
+
+    @Query("select count(i) from PublicacionImagen i where i.id > :desde")
+    long contarImagenesDesde(@Param("desde") long desde);
+
+    @Query("select count(o) from Oferta o where o.id > :desde and (o.contenidoImagen is not null or o.imagen is not null)")
+    long contarOfertasConImagenDesde(@Param("desde") long desde);
+}
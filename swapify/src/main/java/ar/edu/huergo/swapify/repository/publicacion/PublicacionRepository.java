@@ -3,17 +3,35 @@ package ar.edu.huergo.swapify.repository.publicacion;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import ar.edu.huergo.swapify.entity.publicacion.EstadoPublicacion;
 import ar.edu.huergo.swapify.entity.publicacion.Publicacion;
+import ar.edu.huergo.swapify.entity.publicacion.PublicacionImagen;
 
 @Repository
 public interface PublicacionRepository extends JpaRepository<Publicacion, Long> {
 
+    /*
+     * Las lecturas traen en la misma consulta el autor (con sus roles) y las
+     * imágenes, que las vistas recorren siempre; de otro modo las relaciones
+     * EAGER disparan un select adicional por publicación (N+1). Los bytes de
+     * las imágenes no: solo los lee findImagen.
+     */
+
+    @Override
+    @EntityGraph(attributePaths = {"usuario", "usuario.roles", "imagenes"})
+    Optional<Publicacion> findById(Long id);
+
+    long countByEstado(EstadoPublicacion estado);
+
+    @EntityGraph(attributePaths = {"usuario", "usuario.roles", "imagenes"})
     List<Publicacion> findByFechaPublicacionBetween(LocalDateTime inicio, LocalDateTime fin);
 
     @Query("""
@@ -24,12 +42,25 @@ public interface PublicacionRepository extends JpaRepository<Publicacion, Long>
     BigDecimal sumaPreciosEntre(@Param("inicio") LocalDateTime inicio,
                                 @Param("fin") LocalDateTime fin);
 
+    @EntityGraph(attributePaths = {"usuario", "usuario.roles", "imagenes"})
     List<Publicacion> findByUsuarioId(Long usuarioId);
 
+    @EntityGraph(attributePaths = {"usuario", "usuario.roles", "imagenes"})
     List<Publicacion> findByUsuarioUsernameOrderByFechaPublicacionDesc(String username);
 
+    @EntityGraph(attributePaths = {"usuario", "usuario.roles", "imagenes"})
     List<Publicacion> findAllByOrderByFechaPublicacionDesc();
 
+    @EntityGraph(attributePaths = {"usuario", "usuario.roles", "imagenes"})
     List<Publicacion> findDistinctByArticuloNombreContainingIgnoreCaseOrArticuloDescripcionContainingIgnoreCaseOrObjetoACambiarContainingIgnoreCase(
             String nombre, String descripcion, String objetoACambiar);
+
+    /** Publicaciones anteriores a {@code PublicacionImagen} que todavía guardan la imagen en la propia fila. */
+    @EntityGraph(attributePaths = {"usuario", "usuario.roles", "imagenes"})
+    @Query("select p from Publicacion p where p.legacyImagen is not null and p.imagenes is empty")
+    List<Publicacion> findConImagenHeredadaSinMigrar();
+
+    /** Una imagen puntual, sin cargar la publicación ni sus otras imágenes. */
+    @Query("select i from PublicacionImagen i left join fetch i.contenido where i.publicacion.id = :publicacionId and i.orden = :orden")
+    Optional<PublicacionImagen> findImagen(@Param("publicacionId") Long publicacionId, @Param("orden") int orden);
 }
@@ -14,5 +14,7 @@ public interface NotificacionRepository extends JpaRepository<Notificacion, Long
 
     long countByUsuarioIdAndLeidaFalse(Long usuarioId);
 
+    long countByUsuarioUsernameIgnoreCaseAndLeidaFalse(String username);
+
     void deleteByUsuarioId(Long usuarioId);
 }
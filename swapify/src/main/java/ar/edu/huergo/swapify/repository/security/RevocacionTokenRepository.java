@@ -0,0 +1,23 @@
+package ar.edu.huergo.swapify.repository.security;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import ar.edu.huergo.swapify.entity.security.RevocacionToken;
+
+@Repository
+public interface RevocacionTokenRepository extends JpaRepository<RevocacionToken, String> {
+
+    List<RevocacionToken> findByRevocadosAntesAfter(Instant desde);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RevocacionToken r where r.revocadosAntes < :limite")
+    int eliminarAnterioresA(Instant limite);
+}
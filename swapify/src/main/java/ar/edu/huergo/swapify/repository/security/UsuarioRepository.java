@@ -1,20 +1,26 @@
 package ar.edu.huergo.swapify.repository.security;
 
+import java.util.Collection;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import ar.edu.huergo.swapify.entity.security.Usuario;
 
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
+    @EntityGraph(attributePaths = "roles")
     Optional<Usuario> findByUsername(String username);
 
+    @EntityGraph(attributePaths = "roles")
     Optional<Usuario> findByUsernameIgnoreCase(String username);
 
     boolean existsByUsername(String username);
 
     boolean existsByUsernameIgnoreCase(String username);
 
+    long countByUsernameIn(Collection<String> usernames);
+
     Optional<Usuario> findByNombre(String nombre);
 
     Optional<Usuario> findByNombreIgnoreCase(String nombre);
@@ -0,0 +1,173 @@
+package ar.edu.huergo.swapify.service.imagen;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import ar.edu.huergo.swapify.config.metricas.MetricasImagenes;
+import ar.edu.huergo.swapify.entity.publicacion.ContenidoImagen;
+import ar.edu.huergo.swapify.repository.publicacion.ContenidoImagenRepository;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Administra los {@link ContenidoImagen} compartidos: reutiliza el contenido
+ * ya almacenado cuando llega una imagen idéntica, descuenta referencias al
+ * eliminar publicaciones u ofertas y ofrece la búsqueda de imágenes casi
+ * iguales para detectar publicaciones repetidas.
+ */
+@Service
+@RequiredArgsConstructor
+public class AlmacenImagenes {
+
+    private final ContenidoImagenRepository contenidoImagenRepository;
+    private final MetricasImagenes metricasImagenes;
+
+    /**
+     * Reemplaza cada contenido nuevo por uno ya almacenado con el mismo hash,
+     * si existe, sumándole las referencias. Los repetidos dentro de la misma
+     * lista comparten una única instancia nueva. Debe llamarse antes de
+     * guardar las entidades que apuntan a los contenidos.
+     *
+     * @return una lista del mismo tamaño y orden que la recibida
+     */
+    @Transactional
+    public List<ContenidoImagen> compartir(List<ContenidoImagen> contenidos, String origen) {
+        Map<String, ContenidoImagen> porHash = new LinkedHashMap<>();
+        Map<String, Integer> usos = new HashMap<>();
+        for (ContenidoImagen contenido : contenidos) {
+            if (contenido == null || contenido.getId() != null) {
+                continue;
+            }
+            porHash.putIfAbsent(contenido.getHash(), contenido);
+            usos.merge(contenido.getHash(), 1, Integer::sum);
+        }
+
+        Map<String, ContenidoImagen> elegidos = new HashMap<>();
+        for (Map.Entry<String, ContenidoImagen> entrada : porHash.entrySet()) {
+            ContenidoImagen nuevo = entrada.getValue();
+            int cantidad = usos.get(entrada.getKey());
+            ContenidoImagen existente = buscarExistente(nuevo, cantidad);
+            if (existente != null) {
+                metricasImagenes.registrarDeduplicado(origen, nuevo.getTamanio() * cantidad);
+                elegidos.put(entrada.getKey(), existente);
+            } else {
+                nuevo.setReferencias(cantidad);
+                metricasImagenes.registrarDeduplicado(origen, nuevo.getTamanio() * (cantidad - 1));
+                elegidos.put(entrada.getKey(), nuevo);
+            }
+        }
+
+        List<ContenidoImagen> resultado = new ArrayList<>(contenidos.size());
+        for (ContenidoImagen contenido : contenidos) {
+            resultado.add(contenido == null || contenido.getId() != null
+                    ? contenido : elegidos.get(contenido.getHash()));
+        }
+        return resultado;
+    }
+
+    /**
+     * Descuenta una referencia por cada identificador recibido (un mismo id
+     * puede repetirse) y elimina los contenidos que quedan sin uso. Debe
+     * llamarse después de eliminar las filas que los referenciaban.
+     */
+    @Transactional
+    public void liberar(Collection<Long> contenidoIds) {
+        if (contenidoIds == null || contenidoIds.isEmpty()) {
+            return;
+        }
+        Map<Long, Long> cantidades = contenidoIds.stream()
+                .collect(Collectors.groupingBy(id -> id, Collectors.counting()));
+        cantidades.forEach((id, cantidad) -> contenidoImagenRepository.restarReferencias(id, cantidad.intValue()));
+        contenidoImagenRepository.eliminarSinReferencias(cantidades.keySet());
+    }
+
+    @Transactional(readOnly = true)
+    public List<Long> contenidosDePublicacion(Long publicacionId) {
+        List<Long> ids = new ArrayList<>(contenidoImagenRepository.idsDePublicacion(publicacionId));
+        ids.addAll(contenidoImagenRepository.idsDeOfertasDePublicacion(publicacionId));
+        return ids;
+    }
+
+    @Transactional(readOnly = true)
+    public List<Long> contenidosDeOfertasDeUsuario(Long usuarioId) {
+        return contenidoImagenRepository.idsDeOfertasDeUsuario(usuarioId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Long> contenidosDeOferta(Long ofertaId) {
+        return contenidoImagenRepository.idsDeOferta(ofertaId);
+    }
+
+    /**
+     * Agrupa las imágenes de publicaciones idénticas o con huellas
+     * perceptuales a distancia {@code umbral} o menor. Solo se devuelven los
+     * grupos que abarcan más de una publicación: varias fotos parecidas del
+     * mismo artículo dentro de una publicación no son un relistado.
+     */
+    @Transactional(readOnly = true)
+    public List<GrupoDuplicados> buscarCasiDuplicados(int umbral) {
+        Map<Long, Long> huellas = new LinkedHashMap<>();
+        for (ContenidoImagenRepository.Huella huella : contenidoImagenRepository.huellas()) {
+            huellas.put(huella.getId(), huella.getHuella());
+        }
+        List<List<Long>> grupos = new ArrayList<>(CasiDuplicados.agrupar(huellas, umbral));
+        Set<Long> agrupados = grupos.stream().flatMap(List::stream).collect(Collectors.toSet());
+        for (Long id : contenidoImagenRepository.idsCompartidosEntrePublicaciones()) {
+            if (agrupados.add(id)) {
+                grupos.add(List.of(id));
+            }
+        }
+        if (grupos.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, List<ContenidoImagenRepository.Uso>> usosPorContenido = contenidoImagenRepository
+                .usosEnPublicaciones(agrupados).stream()
+                .collect(Collectors.groupingBy(ContenidoImagenRepository.Uso::getContenidoId));
+        List<GrupoDuplicados> resultado = new ArrayList<>();
+        for (List<Long> grupo : grupos) {
+            List<ContenidoImagenRepository.Uso> usos = grupo.stream()
+                    .flatMap(id -> usosPorContenido.getOrDefault(id, List.of()).stream())
+                    .toList();
+            Set<Long> publicaciones = new HashSet<>();
+            usos.forEach(uso -> publicaciones.add(uso.getPublicacionId()));
+            if (publicaciones.size() > 1) {
+                resultado.add(new GrupoDuplicados(usos, grupo.size() == 1));
+            }
+        }
+        return resultado;
+    }
+
+    @Transactional(readOnly = true)
+    public ContenidoImagenRepository.Resumen resumen() {
+        return contenidoImagenRepository.resumen();
+    }
+
+    private ContenidoImagen buscarExistente(ContenidoImagen nuevo, int cantidad) {
+        Long id = contenidoImagenRepository.buscarIdPorHash(nuevo.getHash());
+        if (id == null || contenidoImagenRepository.sumarReferencias(id, cantidad, nuevo.getHuellaPerceptual()) == 0) {
+            return null;
+        }
+        if (nuevo.getVarianteContentType() != null) {
+            contenidoImagenRepository.completarVariante(id, nuevo.getVarianteDatos(), nuevo.getVarianteContentType());
+        }
+        return contenidoImagenRepository.getReferenceById(id);
+    }
+
+    /**
+     * Imágenes de distintas publicaciones que se consideran la misma.
+     *
+     * @param exactos {@code true} si todas comparten el mismo contenido byte a byte
+     */
+    public record GrupoDuplicados(List<ContenidoImagenRepository.Uso> usos, boolean exactos) {
+    }
+}
@@ -0,0 +1,27 @@
+package ar.edu.huergo.swapify.service.imagen;
+
+/**
+ * Datos de una imagen leídos de su cabecera, sin decodificar los píxeles.
+ *
+ * @param formato     nombre del formato según el lector de {@code ImageIO}
+ *                    ({@code png}, {@code JPEG}, ...)
+ * @param contentType tipo MIME que corresponde al formato detectado
+ * @param ancho       ancho en píxeles, o {@code -1} si la cabecera no se pudo leer
+ * @param alto        alto en píxeles, o {@code -1} si la cabecera no se pudo leer
+ * @param bytes       tamaño del archivo
+ */
+public record CabeceraImagen(String formato, String contentType, int ancho, int alto, long bytes) {
+
+    /**
+     * {@code false} cuando los bytes mágicos corresponden a un formato
+     * conocido pero la cabecera está dañada: el decodificador tampoco va a
+     * poder leerla, así que no llega a reservar memoria para los píxeles.
+     */
+    public boolean dimensionesConocidas() {
+        return ancho >= 0 && alto >= 0;
+    }
+
+    public long pixeles() {
+        return (long) ancho * alto;
+    }
+}
@@ -0,0 +1,74 @@
+package ar.edu.huergo.swapify.service.imagen;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Agrupa huellas perceptuales a una distancia de Hamming de a lo sumo
+ * {@code umbral}. Para no comparar todos contra todos, cada huella se parte
+ * en 8 bandas de 8 bits: dos huellas a menos de 8 bits de distancia
+ * coinciden por fuerza en alguna banda, así que solo se comparan las que
+ * comparten un balde. Los grupos se arman por transitividad.
+ */
+public final class CasiDuplicados {
+
+    /** Umbral máximo que garantiza encontrar todos los pares con 8 bandas. */
+    public static final int UMBRAL_MAXIMO = 7;
+    private static final int BANDAS = 8;
+
+    private CasiDuplicados() {
+    }
+
+    /**
+     * @param huellas identificador → huella
+     * @return grupos de dos o más identificadores, en el orden de entrada
+     */
+    public static List<List<Long>> agrupar(Map<Long, Long> huellas, int umbral) {
+        if (umbral < 0 || umbral > UMBRAL_MAXIMO) {
+            throw new IllegalArgumentException("El umbral tiene que estar entre 0 y " + UMBRAL_MAXIMO);
+        }
+        List<Long> ids = new ArrayList<>(huellas.keySet());
+        long[] valores = new long[ids.size()];
+        for (int i = 0; i < valores.length; i++) {
+            valores[i] = huellas.get(ids.get(i));
+        }
+        int[] padres = new int[ids.size()];
+        for (int i = 0; i < padres.length; i++) {
+            padres[i] = i;
+        }
+        for (int banda = 0; banda < BANDAS; banda++) {
+            Map<Integer, List<Integer>> baldes = new HashMap<>();
+            for (int i = 0; i < valores.length; i++) {
+                int clave = (int) (valores[i] >>> (banda * 8)) & 0xff;
+                baldes.computeIfAbsent(clave, k -> new ArrayList<>()).add(i);
+            }
+            for (List<Integer> balde : baldes.values()) {
+                for (int a = 0; a < balde.size(); a++) {
+                    for (int b = a + 1; b < balde.size(); b++) {
+                        int i = balde.get(a);
+                        int j = balde.get(b);
+                        if (HuellaPerceptual.distancia(valores[i], valores[j]) <= umbral) {
+                            padres[raiz(padres, i)] = raiz(padres, j);
+                        }
+                    }
+                }
+            }
+        }
+        Map<Integer, List<Long>> grupos = new LinkedHashMap<>();
+        for (int i = 0; i < padres.length; i++) {
+            grupos.computeIfAbsent(raiz(padres, i), k -> new ArrayList<>()).add(ids.get(i));
+        }
+        return grupos.values().stream().filter(grupo -> grupo.size() > 1).toList();
+    }
+
+    private static int raiz(int[] padres, int i) {
+        while (padres[i] != i) {
+            padres[i] = padres[padres[i]];
+            i = padres[i];
+        }
+        return i;
+    }
+}
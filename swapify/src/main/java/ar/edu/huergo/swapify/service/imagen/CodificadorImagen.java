@@ -0,0 +1,30 @@
+package ar.edu.huergo.swapify.service.imagen;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+
+/**
+ * Codificador de una variante adicional de las imágenes de publicaciones,
+ * en un formato que solo algunos navegadores aceptan. Cada implementación
+ * registrada como bean se prueba después de optimizar la imagen principal;
+ * se guarda la variante más chica, siempre que pese menos que la principal,
+ * y se sirve cuando el {@code Accept} del pedido incluye su tipo.
+ */
+public interface CodificadorImagen {
+
+    /** Tipo MIME de lo que produce, por ejemplo {@code image/webp}. */
+    String contentType();
+
+    /**
+     * Indica si vale la pena probar con una imagen cuya versión principal
+     * quedó en {@code formatoPrincipal} ({@code jpg} o {@code png}).
+     */
+    boolean admite(String formatoPrincipal);
+
+    /**
+     * Codifica la imagen ya optimizada.
+     *
+     * @return los bytes, o {@code null} si esta imagen no se puede representar
+     */
+    byte[] codificar(BufferedImage imagen) throws IOException;
+}
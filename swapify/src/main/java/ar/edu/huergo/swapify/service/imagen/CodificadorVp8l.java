@@ -0,0 +1,652 @@
+package ar.edu.huergo.swapify.service.imagen;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Codificador del flujo WebP sin pérdida (VP8L) según RFC 9649.
+ *
+ * <p>Aplica las transformaciones "restar verde" y de predicción (un modo
+ * por bloque de 32 × 32, el de menor residuo entre los 14 del formato),
+ * busca repeticiones con LZ77 y codifica el resultado con un único grupo de
+ * códigos de Huffman. No usa caché de colores ni índice de paleta: el
+ * objetivo es un codificador corto y predecible, no igualar a libwebp.</p>
+ */
+final class CodificadorVp8l {
+
+    /** Lado máximo que admite la cabecera VP8L (14 bits). */
+    static final int LADO_MAXIMO = 16384;
+
+    private static final int BITS_BLOQUE = 5;
+    private static final int MODOS = 14;
+    private static final int LONGITUD_MINIMA = 3;
+    private static final int LONGITUD_MAXIMA = 4096;
+    private static final int CANDIDATOS = 8;
+    private static final int BITS_HASH = 16;
+    /** Código de distancia máximo representable con los 40 prefijos. */
+    private static final int DISTANCIA_MAXIMA = (1 << 20) - 120;
+    private static final int SIMBOLOS_VERDE = 256 + 24;
+    private static final int SIMBOLOS_DISTANCIA = 40;
+    private static final int BITS_CODIGO_MAXIMO = 15;
+    private static final int BITS_LONGITUDES_MAXIMO = 7;
+    private static final int[] ORDEN_LONGITUDES = {17, 18, 0, 1, 2, 3, 4, 5, 16, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15};
+
+    private CodificadorVp8l() {
+    }
+
+    /**
+     * Codifica píxeles ARGB (no premultiplicados) en un flujo VP8L, sin el
+     * contenedor RIFF.
+     */
+    static byte[] codificar(int[] argb, int ancho, int alto) {
+        if (ancho < 1 || alto < 1 || ancho > LADO_MAXIMO || alto > LADO_MAXIMO || argb.length != ancho * alto) {
+            throw new IllegalArgumentException("Dimensiones inválidas para VP8L: " + ancho + " × " + alto);
+        }
+        EscritorBits bits = new EscritorBits(argb.length);
+        bits.escribir(0x2f, 8);
+        bits.escribir(ancho - 1, 14);
+        bits.escribir(alto - 1, 14);
+        bits.escribir(usaAlfa(argb) ? 1 : 0, 1);
+        bits.escribir(0, 3);
+
+        int[] pixeles = argb.clone();
+        restarVerde(pixeles);
+        bits.escribir(1, 1);
+        bits.escribir(2, 2);
+
+        int anchoModos = subdividir(ancho);
+        int[] modos = elegirModos(pixeles, ancho, alto, anchoModos);
+        bits.escribir(1, 1);
+        bits.escribir(0, 2);
+        bits.escribir(BITS_BLOQUE - 2, 3);
+        int[] imagenModos = new int[modos.length];
+        for (int i = 0; i < modos.length; i++) {
+            imagenModos[i] = 0xff000000 | (modos[i] << 8);
+        }
+        escribirImagen(bits, imagenModos, anchoModos, false);
+        bits.escribir(0, 1);
+
+        escribirImagen(bits, residuos(pixeles, ancho, alto, anchoModos, modos), ancho, true);
+        return bits.bytes();
+    }
+
+    private static boolean usaAlfa(int[] argb) {
+        for (int pixel : argb) {
+            if ((pixel >>> 24) != 0xff) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void restarVerde(int[] pixeles) {
+        for (int i = 0; i < pixeles.length; i++) {
+            int p = pixeles[i];
+            int verde = (p >> 8) & 0xff;
+            int rojo = (((p >> 16) & 0xff) - verde) & 0xff;
+            int azul = ((p & 0xff) - verde) & 0xff;
+            pixeles[i] = (p & 0xff00ff00) | (rojo << 16) | azul;
+        }
+    }
+
+    private static int subdividir(int lado) {
+        return (lado + (1 << BITS_BLOQUE) - 1) >> BITS_BLOQUE;
+    }
+
+    // ---------------------------------------------------------------------
+    // Transformación de predicción
+
+    private static int[] elegirModos(int[] p, int ancho, int alto, int anchoModos) {
+        int altoModos = subdividir(alto);
+        int[] modos = new int[anchoModos * altoModos];
+        long[] costos = new long[MODOS];
+        for (int by = 0; by < altoModos; by++) {
+            for (int bx = 0; bx < anchoModos; bx++) {
+                Arrays.fill(costos, 0);
+                int yFin = Math.min(alto, (by + 1) << BITS_BLOQUE);
+                int xFin = Math.min(ancho, (bx + 1) << BITS_BLOQUE);
+                for (int y = Math.max(1, by << BITS_BLOQUE); y < yFin; y++) {
+                    for (int x = Math.max(1, bx << BITS_BLOQUE); x < xFin; x++) {
+                        int pos = y * ancho + x;
+                        for (int modo = 0; modo < MODOS; modo++) {
+                            costos[modo] += costo(restar(p[pos], predecir(modo, p, pos, ancho)));
+                        }
+                    }
+                }
+                int mejor = 11;
+                for (int modo = 0; modo < MODOS; modo++) {
+                    if (costos[modo] < costos[mejor]) {
+                        mejor = modo;
+                    }
+                }
+                modos[by * anchoModos + bx] = mejor;
+            }
+        }
+        return modos;
+    }
+
+    private static int[] residuos(int[] p, int ancho, int alto, int anchoModos, int[] modos) {
+        int[] r = new int[p.length];
+        for (int y = 0; y < alto; y++) {
+            for (int x = 0; x < ancho; x++) {
+                int pos = y * ancho + x;
+                int prediccion;
+                if (pos == 0) {
+                    prediccion = 0xff000000;
+                } else if (y == 0) {
+                    prediccion = p[pos - 1];
+                } else if (x == 0) {
+                    prediccion = p[pos - ancho];
+                } else {
+                    prediccion = predecir(modos[(y >> BITS_BLOQUE) * anchoModos + (x >> BITS_BLOQUE)], p, pos, ancho);
+                }
+                r[pos] = restar(p[pos], prediccion);
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Predicción para un píxel que no está en la primera fila ni columna. En
+     * la última columna el vecino superior derecho es, como indica el
+     * formato, el primer píxel de la fila actual: coincide con
+     * {@code pos - ancho + 1}.
+     */
+    private static int predecir(int modo, int[] p, int pos, int ancho) {
+        int l = p[pos - 1];
+        int t = p[pos - ancho];
+        int tl = p[pos - ancho - 1];
+        int tr = p[pos - ancho + 1];
+        return switch (modo) {
+            case 0 -> 0xff000000;
+            case 1 -> l;
+            case 2 -> t;
+            case 3 -> tr;
+            case 4 -> tl;
+            case 5 -> promedio(promedio(l, tr), t);
+            case 6 -> promedio(l, tl);
+            case 7 -> promedio(l, t);
+            case 8 -> promedio(tl, t);
+            case 9 -> promedio(t, tr);
+            case 10 -> promedio(promedio(l, tl), promedio(t, tr));
+            case 11 -> seleccionar(l, t, tl);
+            case 12 -> sumarRestarCompleto(l, t, tl);
+            default -> sumarRestarMitad(promedio(l, t), tl);
+        };
+    }
+
+    private static int promedio(int a, int b) {
+        return (((a ^ b) & 0xfefefefe) >>> 1) + (a & b);
+    }
+
+    private static int seleccionar(int l, int t, int tl) {
+        int distanciaIzquierda = 0;
+        int distanciaArriba = 0;
+        for (int desplazamiento = 0; desplazamiento < 32; desplazamiento += 8) {
+            int cl = (l >>> desplazamiento) & 0xff;
+            int ct = (t >>> desplazamiento) & 0xff;
+            int ctl = (tl >>> desplazamiento) & 0xff;
+            distanciaIzquierda += Math.abs(ct - ctl);
+            distanciaArriba += Math.abs(cl - ctl);
+        }
+        return distanciaIzquierda < distanciaArriba ? l : t;
+    }
+
+    private static int sumarRestarCompleto(int a, int b, int c) {
+        int resultado = 0;
+        for (int desplazamiento = 0; desplazamiento < 32; desplazamiento += 8) {
+            int valor = ((a >>> desplazamiento) & 0xff) + ((b >>> desplazamiento) & 0xff)
+                    - ((c >>> desplazamiento) & 0xff);
+            resultado |= acotar(valor) << desplazamiento;
+        }
+        return resultado;
+    }
+
+    private static int sumarRestarMitad(int a, int b) {
+        int resultado = 0;
+        for (int desplazamiento = 0; desplazamiento < 32; desplazamiento += 8) {
+            int ca = (a >>> desplazamiento) & 0xff;
+            int cb = (b >>> desplazamiento) & 0xff;
+            resultado |= acotar(ca + (ca - cb) / 2) << desplazamiento;
+        }
+        return resultado;
+    }
+
+    private static int acotar(int valor) {
+        return valor < 0 ? 0 : Math.min(valor, 255);
+    }
+
+    /** Resta canal por canal, módulo 256. */
+    private static int restar(int a, int b) {
+        int resultado = 0;
+        for (int desplazamiento = 0; desplazamiento < 32; desplazamiento += 8) {
+            resultado |= ((((a >>> desplazamiento) & 0xff) - ((b >>> desplazamiento) & 0xff)) & 0xff) << desplazamiento;
+        }
+        return resultado;
+    }
+
+    /** Magnitud de un residuo: cada canal cuenta como su distancia a cero. */
+    private static int costo(int residuo) {
+        int total = 0;
+        for (int desplazamiento = 0; desplazamiento < 32; desplazamiento += 8) {
+            int c = (residuo >>> desplazamiento) & 0xff;
+            total += Math.min(c, 256 - c);
+        }
+        return total;
+    }
+
+    // ---------------------------------------------------------------------
+    // Imagen con codificación de entropía
+
+    private static void escribirImagen(EscritorBits bits, int[] pixeles, int ancho, boolean principal) {
+        bits.escribir(0, 1);
+        if (principal) {
+            bits.escribir(0, 1);
+        }
+        int[] tokens = tokenizar(pixeles, ancho);
+        int[] verde = new int[SIMBOLOS_VERDE];
+        int[] rojo = new int[256];
+        int[] azul = new int[256];
+        int[] alfa = new int[256];
+        int[] distancia = new int[SIMBOLOS_DISTANCIA];
+        int cantidad = tokens[tokens.length - 1];
+        for (int i = 0; i < cantidad; i += 2) {
+            int longitud = tokens[i];
+            int valor = tokens[i + 1];
+            if (longitud == 0) {
+                verde[(valor >> 8) & 0xff]++;
+                rojo[(valor >> 16) & 0xff]++;
+                azul[valor & 0xff]++;
+                alfa[valor >>> 24]++;
+            } else {
+                verde[256 + prefijo(longitud)]++;
+                distancia[prefijo(valor)]++;
+            }
+        }
+        Codigo codigoVerde = escribirCodigo(bits, verde);
+        Codigo codigoRojo = escribirCodigo(bits, rojo);
+        Codigo codigoAzul = escribirCodigo(bits, azul);
+        Codigo codigoAlfa = escribirCodigo(bits, alfa);
+        Codigo codigoDistancia = escribirCodigo(bits, distancia);
+
+        for (int i = 0; i < cantidad; i += 2) {
+            int longitud = tokens[i];
+            int valor = tokens[i + 1];
+            if (longitud == 0) {
+                codigoVerde.escribir(bits, (valor >> 8) & 0xff);
+                codigoRojo.escribir(bits, (valor >> 16) & 0xff);
+                codigoAzul.escribir(bits, valor & 0xff);
+                codigoAlfa.escribir(bits, valor >>> 24);
+            } else {
+                int prefijoLongitud = prefijo(longitud);
+                codigoVerde.escribir(bits, 256 + prefijoLongitud);
+                escribirExtra(bits, prefijoLongitud, longitud);
+                int prefijoDistancia = prefijo(valor);
+                codigoDistancia.escribir(bits, prefijoDistancia);
+                escribirExtra(bits, prefijoDistancia, valor);
+            }
+        }
+    }
+
+    /**
+     * LZ77 voraz sobre los píxeles. Devuelve pares (longitud, valor): un
+     * literal tiene longitud 0 y el píxel como valor; una referencia, su
+     * longitud y el código de distancia. El último elemento del arreglo es
+     * la cantidad de enteros usados.
+     */
+    private static int[] tokenizar(int[] p, int ancho) {
+        int n = p.length;
+        int[] tokens = new int[2 * n + 1];
+        int usados = 0;
+        int[] cabezas = new int[1 << BITS_HASH];
+        Arrays.fill(cabezas, -1);
+        int[] anteriores = new int[n];
+        int i = 0;
+        while (i < n) {
+            int mejorLongitud = 0;
+            int mejorDistancia = 0;
+            if (i + 1 < n) {
+                int maximo = Math.min(LONGITUD_MAXIMA, n - i);
+                for (int distancia : new int[] {1, ancho}) {
+                    if (distancia <= i) {
+                        int longitud = coincidencia(p, i - distancia, i, maximo);
+                        if (longitud > mejorLongitud) {
+                            mejorLongitud = longitud;
+                            mejorDistancia = distancia;
+                        }
+                    }
+                }
+                int candidato = cabezas[hash(p, i)];
+                for (int intentos = 0; candidato >= 0 && intentos < CANDIDATOS && mejorLongitud < maximo; intentos++) {
+                    int distancia = i - candidato;
+                    if (distancia > DISTANCIA_MAXIMA) {
+                        break;
+                    }
+                    int longitud = coincidencia(p, candidato, i, maximo);
+                    if (longitud > mejorLongitud) {
+                        mejorLongitud = longitud;
+                        mejorDistancia = distancia;
+                    }
+                    candidato = anteriores[candidato];
+                }
+            }
+            int avance;
+            if (mejorLongitud >= LONGITUD_MINIMA) {
+                tokens[usados++] = mejorLongitud;
+                tokens[usados++] = codigoDistancia(mejorDistancia, ancho);
+                avance = mejorLongitud;
+            } else {
+                tokens[usados++] = 0;
+                tokens[usados++] = p[i];
+                avance = 1;
+            }
+            for (int fin = i + avance; i < fin; i++) {
+                if (i + 1 < n) {
+                    int h = hash(p, i);
+                    anteriores[i] = cabezas[h];
+                    cabezas[h] = i;
+                }
+            }
+        }
+        tokens[tokens.length - 1] = usados;
+        return tokens;
+    }
+
+    private static int hash(int[] p, int i) {
+        long clave = ((long) p[i] << 32) ^ (p[i + 1] & 0xffffffffL);
+        return (int) ((clave * 0x9E3779B97F4A7C15L) >>> (64 - BITS_HASH));
+    }
+
+    private static int coincidencia(int[] p, int desde, int actual, int maximo) {
+        int longitud = 0;
+        while (longitud < maximo && p[desde + longitud] == p[actual + longitud]) {
+            longitud++;
+        }
+        return longitud;
+    }
+
+    /**
+     * Los dos primeros códigos del mapa de distancias 2D son el píxel de
+     * arriba y el de la izquierda; el resto se envía como distancia lineal
+     * desplazada en 120.
+     */
+    private static int codigoDistancia(int distancia, int ancho) {
+        if (distancia == ancho) {
+            return 1;
+        }
+        if (distancia == 1) {
+            return 2;
+        }
+        return distancia + 120;
+    }
+
+    /** Prefijo del código de un valor (longitud o distancia) mayor o igual a 1. */
+    private static int prefijo(int valor) {
+        int d = valor - 1;
+        if (d < 4) {
+            return d;
+        }
+        int alto = 31 - Integer.numberOfLeadingZeros(d);
+        return 2 * alto + ((d >>> (alto - 1)) & 1);
+    }
+
+    private static void escribirExtra(EscritorBits bits, int prefijo, int valor) {
+        if (prefijo < 4) {
+            return;
+        }
+        int extra = (prefijo - 2) >> 1;
+        bits.escribir((valor - 1) & ((1 << extra) - 1), extra);
+    }
+
+    // ---------------------------------------------------------------------
+    // Códigos de Huffman
+
+    /**
+     * Escribe la definición del código para el histograma y devuelve el
+     * código. Con hasta dos símbolos menores a 256 usa la forma simple del
+     * formato; si no, las longitudes comprimidas con el código de longitudes.
+     */
+    private static Codigo escribirCodigo(EscritorBits bits, int[] frecuencias) {
+        int usados = 0;
+        int primero = -1;
+        int segundo = -1;
+        for (int s = 0; s < frecuencias.length; s++) {
+            if (frecuencias[s] > 0) {
+                if (usados == 0) {
+                    primero = s;
+                } else if (usados == 1) {
+                    segundo = s;
+                }
+                usados++;
+            }
+        }
+        int[] largos = new int[frecuencias.length];
+        if (usados <= 2 && primero < 256 && segundo < 256) {
+            int simbolo = Math.max(primero, 0);
+            bits.escribir(1, 1);
+            bits.escribir(usados == 2 ? 1 : 0, 1);
+            if (simbolo < 2) {
+                bits.escribir(0, 1);
+                bits.escribir(simbolo, 1);
+            } else {
+                bits.escribir(1, 1);
+                bits.escribir(simbolo, 8);
+            }
+            if (usados == 2) {
+                bits.escribir(segundo, 8);
+                largos[primero] = 1;
+                largos[segundo] = 1;
+            }
+            return new Codigo(largos);
+        }
+
+        largos = longitudes(conDosSimbolos(frecuencias, usados, primero), BITS_CODIGO_MAXIMO);
+        bits.escribir(0, 1);
+        escribirLongitudes(bits, largos);
+        return new Codigo(largos);
+    }
+
+    private static void escribirLongitudes(EscritorBits bits, int[] largos) {
+        int[] simbolos = new int[largos.length];
+        int[] extras = new int[largos.length];
+        int cantidad = 0;
+        int previo = 8;
+        for (int i = 0; i < largos.length; ) {
+            int largo = largos[i];
+            int repeticiones = 1;
+            while (i + repeticiones < largos.length && largos[i + repeticiones] == largo) {
+                repeticiones++;
+            }
+            if (largo == 0 && repeticiones >= 3) {
+                int r = Math.min(repeticiones, 138);
+                simbolos[cantidad] = r >= 11 ? 18 : 17;
+                extras[cantidad++] = r >= 11 ? r - 11 : r - 3;
+                i += r;
+            } else if (largo != 0 && largo == previo && repeticiones >= 3) {
+                int r = Math.min(repeticiones, 6);
+                simbolos[cantidad] = 16;
+                extras[cantidad++] = r - 3;
+                i += r;
+            } else {
+                simbolos[cantidad] = largo;
+                extras[cantidad++] = 0;
+                if (largo != 0) {
+                    previo = largo;
+                }
+                i++;
+            }
+        }
+
+        int[] frecuencias = new int[19];
+        int usados = 0;
+        int primero = -1;
+        for (int k = 0; k < cantidad; k++) {
+            if (frecuencias[simbolos[k]]++ == 0) {
+                if (usados++ == 0) {
+                    primero = simbolos[k];
+                }
+            }
+        }
+        Codigo codigoLongitudes = new Codigo(longitudes(conDosSimbolos(frecuencias, usados, primero),
+                BITS_LONGITUDES_MAXIMO));
+        int escritas = 4;
+        for (int k = 0; k < ORDEN_LONGITUDES.length; k++) {
+            if (codigoLongitudes.largos[ORDEN_LONGITUDES[k]] != 0) {
+                escritas = Math.max(escritas, k + 1);
+            }
+        }
+        bits.escribir(escritas - 4, 4);
+        for (int k = 0; k < escritas; k++) {
+            bits.escribir(codigoLongitudes.largos[ORDEN_LONGITUDES[k]], 3);
+        }
+        bits.escribir(0, 1);
+        for (int k = 0; k < cantidad; k++) {
+            codigoLongitudes.escribir(bits, simbolos[k]);
+            switch (simbolos[k]) {
+                case 16 -> bits.escribir(extras[k], 2);
+                case 17 -> bits.escribir(extras[k], 3);
+                case 18 -> bits.escribir(extras[k], 7);
+                default -> { }
+            }
+        }
+    }
+
+    /**
+     * Un árbol de Huffman completo necesita al menos dos hojas: si el
+     * histograma tiene un solo símbolo se agrega otro que nunca se emite.
+     */
+    private static int[] conDosSimbolos(int[] frecuencias, int usados, int primero) {
+        if (usados >= 2) {
+            return frecuencias;
+        }
+        int[] copia = frecuencias.clone();
+        copia[primero == 0 ? 1 : 0] = 1;
+        if (usados == 0) {
+            copia[1] = 1;
+        }
+        return copia;
+    }
+
+    /**
+     * Longitudes de Huffman acotadas a {@code maximo} bits: si el árbol
+     * resulta más profundo se reducen las frecuencias a la mitad y se
+     * reconstruye, lo que siempre converge a un árbol balanceado.
+     */
+    static int[] longitudes(int[] frecuencias, int maximo) {
+        int[] cuentas = frecuencias.clone();
+        while (true) {
+            int[] largos = huffman(cuentas);
+            if (Arrays.stream(largos).max().orElse(0) <= maximo) {
+                return largos;
+            }
+            for (int i = 0; i < cuentas.length; i++) {
+                if (cuentas[i] > 0) {
+                    cuentas[i] = Math.max(1, cuentas[i] >> 1);
+                }
+            }
+        }
+    }
+
+    private static int[] huffman(int[] cuentas) {
+        int n = cuentas.length;
+        int[] padres = new int[2 * n];
+        PriorityQueue<Long> cola = new PriorityQueue<>();
+        for (int s = 0; s < n; s++) {
+            if (cuentas[s] > 0) {
+                cola.add(((long) cuentas[s] << 16) | s);
+            }
+        }
+        int siguiente = n;
+        while (cola.size() > 1) {
+            long a = cola.poll();
+            long b = cola.poll();
+            int nodo = siguiente++;
+            padres[(int) (a & 0xffff)] = nodo;
+            padres[(int) (b & 0xffff)] = nodo;
+            cola.add((((a >>> 16) + (b >>> 16)) << 16) | nodo);
+        }
+        int raiz = siguiente - 1;
+        int[] largos = new int[n];
+        for (int s = 0; s < n; s++) {
+            if (cuentas[s] > 0) {
+                int largo = 0;
+                for (int nodo = s; nodo != raiz; nodo = padres[nodo]) {
+                    largo++;
+                }
+                largos[s] = largo;
+            }
+        }
+        return largos;
+    }
+
+    /** Código canónico: los bits de cada símbolo ya invertidos para escribirse LSB primero. */
+    private static final class Codigo {
+
+        private final int[] largos;
+        private final int[] codigos;
+
+        Codigo(int[] largos) {
+            this.largos = largos;
+            this.codigos = new int[largos.length];
+            int[] cuenta = new int[BITS_CODIGO_MAXIMO + 1];
+            for (int largo : largos) {
+                cuenta[largo]++;
+            }
+            cuenta[0] = 0;
+            int[] proximo = new int[BITS_CODIGO_MAXIMO + 1];
+            int codigo = 0;
+            for (int b = 1; b <= BITS_CODIGO_MAXIMO; b++) {
+                codigo = (codigo + cuenta[b - 1]) << 1;
+                proximo[b] = codigo;
+            }
+            for (int s = 0; s < largos.length; s++) {
+                if (largos[s] != 0) {
+                    codigos[s] = Integer.reverse(proximo[largos[s]]++) >>> (32 - largos[s]);
+                }
+            }
+        }
+
+        void escribir(EscritorBits bits, int simbolo) {
+            bits.escribir(codigos[simbolo], largos[simbolo]);
+        }
+    }
+
+    /** Escritor de bits, del menos significativo al más significativo. */
+    private static final class EscritorBits {
+
+        private byte[] buffer;
+        private int tamanio;
+        private long acumulador;
+        private int pendientes;
+
+        EscritorBits(int capacidad) {
+            this.buffer = new byte[Math.max(64, capacidad)];
+        }
+
+        void escribir(int valor, int cantidad) {
+            acumulador |= (valor & ((1L << cantidad) - 1)) << pendientes;
+            pendientes += cantidad;
+            while (pendientes >= 8) {
+                agregar((byte) acumulador);
+                acumulador >>>= 8;
+                pendientes -= 8;
+            }
+        }
+
+        byte[] bytes() {
+            if (pendientes > 0) {
+                agregar((byte) acumulador);
+                acumulador = 0;
+                pendientes = 0;
+            }
+            return Arrays.copyOf(buffer, tamanio);
+        }
+
+        private void agregar(byte b) {
+            if (tamanio == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            buffer[tamanio++] = b;
+        }
+    }
+}
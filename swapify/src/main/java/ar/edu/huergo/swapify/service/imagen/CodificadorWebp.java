@@ -0,0 +1,58 @@
+package ar.edu.huergo.swapify.service.imagen;
+
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Variante WebP sin pérdida, escrita en Java puro con {@link CodificadorVp8l}.
+ * Solo se prueba para las imágenes que quedaron en PNG (gráficos, capturas,
+ * transparencias), que es donde VP8L le gana al PNG; para fotos haría falta
+ * el modo con pérdida (VP8), que no está implementado. Se apaga con
+ * {@code swapify.imagenes.variante-webp=false}.
+ */
+@Component
+@ConditionalOnProperty(name = "swapify.imagenes.variante-webp", havingValue = "true", matchIfMissing = true)
+public class CodificadorWebp implements CodificadorImagen {
+
+    public static final String CONTENT_TYPE = "image/webp";
+
+    @Override
+    public String contentType() {
+        return CONTENT_TYPE;
+    }
+
+    @Override
+    public boolean admite(String formatoPrincipal) {
+        return "png".equals(formatoPrincipal);
+    }
+
+    @Override
+    public byte[] codificar(BufferedImage imagen) {
+        int ancho = imagen.getWidth();
+        int alto = imagen.getHeight();
+        if (ancho > CodificadorVp8l.LADO_MAXIMO || alto > CodificadorVp8l.LADO_MAXIMO) {
+            return null;
+        }
+        int[] argb = imagen.getRGB(0, 0, ancho, alto, null, 0, ancho);
+        return contenedor(CodificadorVp8l.codificar(argb, ancho, alto));
+    }
+
+    /** Envuelve el flujo VP8L en el contenedor RIFF de WebP. */
+    private static byte[] contenedor(byte[] vp8l) {
+        int relleno = vp8l.length & 1;
+        int tamanioFragmento = 8 + vp8l.length + relleno;
+        ByteBuffer salida = ByteBuffer.allocate(12 + tamanioFragmento).order(ByteOrder.LITTLE_ENDIAN);
+        salida.put("RIFF".getBytes(StandardCharsets.US_ASCII));
+        salida.putInt(4 + tamanioFragmento);
+        salida.put("WEBP".getBytes(StandardCharsets.US_ASCII));
+        salida.put("VP8L".getBytes(StandardCharsets.US_ASCII));
+        salida.putInt(vp8l.length);
+        salida.put(vp8l);
+        return salida.array();
+    }
+}
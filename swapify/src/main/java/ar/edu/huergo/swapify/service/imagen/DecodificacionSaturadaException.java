@@ -0,0 +1,17 @@
+package ar.edu.huergo.swapify.service.imagen;
+
+/**
+ * No hubo memoria de decodificación disponible a tiempo porque otras imágenes
+ * la están ocupando. Se responde 503 en lugar de decodificar igual y arriesgar
+ * el heap del nodo.
+ */
+public class DecodificacionSaturadaException extends RuntimeException {
+
+    public DecodificacionSaturadaException(String mensaje) {
+        super(mensaje);
+    }
+
+    public DecodificacionSaturadaException(String mensaje, Throwable causa) {
+        super(mensaje, causa);
+    }
+}
@@ -0,0 +1,266 @@
+package ar.edu.huergo.swapify.service.imagen;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntBinaryOperator;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.event.IIOReadProgressListener;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Decodifica imágenes no confiables con recursos acotados. Antes de leer un
+ * solo píxel valida las dimensiones declaradas contra {@link LimitesImagen} y
+ * estima la memoria que va a ocupar la imagen en el pipeline; esa memoria se
+ * reserva de un presupuesto del nodo (un semáforo en KiB) que comparten todas
+ * las imágenes en proceso, así que muchas imágenes grandes a la vez esperan
+ * su turno en lugar de agotar el heap. La reserva dura hasta que se cierra la
+ * {@link ImagenDecodificada}, no solo mientras se decodifica.
+ *
+ * <p>Cada decodificación tiene además un tiempo máximo: un oyente de progreso
+ * del {@link ImageReader} la aborta al vencer, y una imagen abortada se
+ * rechaza en lugar de devolverse a medias.</p>
+ */
+@Component
+public class DecodificadorImagenes {
+
+    private static final long BYTES_POR_PERMISO = 1024;
+
+    /** Fracción del heap máximo que se usa si no se configura un presupuesto. */
+    private static final int FRACCION_HEAP = 4;
+
+    /** Copia ARGB que hace el pipeline (conversión, escalado, orientación o variante). */
+    private static final int BYTES_POR_PIXEL_CONVERTIDO = 4;
+
+    private final Semaphore memoria;
+    private final int permisosTotales;
+    private final long esperaNanos;
+    private final long limiteNanos;
+
+    /**
+     * @param memoria presupuesto de las imágenes en proceso; {@code 0} usa un cuarto del heap máximo
+     * @param espera  tiempo máximo para conseguir memoria antes de rechazar
+     * @param limite  tiempo máximo de una decodificación
+     */
+    @Autowired
+    public DecodificadorImagenes(@Value("${swapify.imagenes.decodificacion.memoria:0}") DataSize memoria,
+                                 @Value("${swapify.imagenes.decodificacion.espera:3s}") Duration espera,
+                                 @Value("${swapify.imagenes.decodificacion.limite:10s}") Duration limite) {
+        this(memoria.toBytes() > 0 ? memoria.toBytes() : Runtime.getRuntime().maxMemory() / FRACCION_HEAP,
+                espera, limite);
+    }
+
+    /**
+     * @param memoriaMaxima bytes que pueden ocupar a la vez las imágenes en proceso
+     * @param espera        tiempo máximo para conseguir memoria antes de rechazar
+     * @param limite        tiempo máximo de una decodificación
+     */
+    public DecodificadorImagenes(long memoriaMaxima, Duration espera, Duration limite) {
+        this.permisosTotales = (int) Math.min(Integer.MAX_VALUE, Math.max(1, memoriaMaxima / BYTES_POR_PERMISO));
+        this.memoria = new Semaphore(permisosTotales, true);
+        this.esperaNanos = espera.toNanos();
+        this.limiteNanos = limite.toNanos();
+    }
+
+    /**
+     * Decodifica la primera imagen de {@code datos} y deja reservada su
+     * memoria hasta que se cierre el resultado; quien la usa debe cerrarlo
+     * (con try-with-resources) al terminar de procesarla.
+     *
+     * @param submuestreo paso de submuestreo en función del ancho y alto declarados;
+     *                    {@code 1} lee la imagen completa
+     * @return la imagen con su reserva, o {@code null} si ningún lector reconoce el formato
+     * @throws IllegalArgumentException        si la imagen no cumple los límites, no entra en
+     *                                         el presupuesto o no terminó a tiempo
+     * @throws DecodificacionSaturadaException si no se liberó memoria suficiente a tiempo
+     * @throws IOException                     si la decodificación falla
+     */
+    public ImagenDecodificada leer(byte[] datos, LimitesImagen limites, IntBinaryOperator submuestreo)
+            throws IOException {
+        try (ImageInputStream iis = new MemoryCacheImageInputStream(new ByteArrayInputStream(datos))) {
+            Iterator<ImageReader> lectores = ImageIO.getImageReaders(iis);
+            if (!lectores.hasNext()) {
+                return null;
+            }
+            ImageReader lector = lectores.next();
+            try {
+                lector.setInput(iis, true, true);
+                int ancho = lector.getWidth(0);
+                int alto = lector.getHeight(0);
+                limites.validar(new CabeceraImagen(lector.getFormatName(), null, ancho, alto, datos.length));
+
+                ImageReadParam param = lector.getDefaultReadParam();
+                int paso = Math.max(1, submuestreo.applyAsInt(ancho, alto));
+                if (paso > 1) {
+                    param.setSourceSubsampling(paso, paso, 0, 0);
+                }
+                long bytes = memoriaNecesaria(lector, Math.ceilDiv(ancho, paso), Math.ceilDiv(alto, paso));
+                int permisos = reservar(bytes, ancho, alto);
+                try {
+                    return new ImagenDecodificada(leerConLimite(lector, param), permisos);
+                } catch (IOException | RuntimeException | Error e) {
+                    memoria.release(permisos);
+                    throw e;
+                }
+            } finally {
+                lector.dispose();
+            }
+        }
+    }
+
+    /** Memoria que todavía se puede reservar, en bytes. */
+    public long memoriaDisponible() {
+        return memoria.availablePermits() * BYTES_POR_PERMISO;
+    }
+
+    /**
+     * Bytes del raster decodificado según el tipo que informa el lector (si
+     * no informa ninguno, ARGB) más la copia ARGB de 4 bytes por píxel que el
+     * pipeline hace siempre: una imagen con paleta ocupa 1 byte por píxel al
+     * decodificarse, pero se procesa convertida.
+     */
+    static long memoriaNecesaria(ImageReader lector, int ancho, int alto) throws IOException {
+        int bytesPorPixel = BYTES_POR_PIXEL_CONVERTIDO;
+        Iterator<ImageTypeSpecifier> tipos = lector.getImageTypes(0);
+        if (tipos != null && tipos.hasNext()) {
+            int bits = 0;
+            for (int tamanio : tipos.next().getSampleModel().getSampleSize()) {
+                bits += tamanio;
+            }
+            bytesPorPixel = Math.max(1, (bits + 7) / 8);
+        }
+        return (long) ancho * alto * (bytesPorPixel + BYTES_POR_PIXEL_CONVERTIDO);
+    }
+
+    private int reservar(long bytes, int ancho, int alto) {
+        long permisos = Math.max(1, Math.ceilDiv(bytes, BYTES_POR_PERMISO));
+        if (permisos > permisosTotales) {
+            throw new IllegalArgumentException(String.format(
+                    "La imagen es demasiado grande para procesarla (%d × %d px). Reducila e intentá nuevamente.",
+                    ancho, alto));
+        }
+        try {
+            if (!memoria.tryAcquire((int) permisos, esperaNanos, TimeUnit.NANOSECONDS)) {
+                throw new DecodificacionSaturadaException(
+                        "Estamos procesando muchas imágenes, reintentá en unos segundos");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DecodificacionSaturadaException("Interrumpido esperando memoria para decodificar la imagen", e);
+        }
+        return (int) permisos;
+    }
+
+    private BufferedImage leerConLimite(ImageReader lector, ImageReadParam param) throws IOException {
+        Vigilancia vigilancia = new Vigilancia(System.nanoTime() + limiteNanos);
+        lector.addIIOReadProgressListener(vigilancia);
+        BufferedImage imagen = lector.read(0, param);
+        if (vigilancia.vencida) {
+            throw new IllegalArgumentException(
+                    "La imagen tardó demasiado en decodificarse. Reducila e intentá nuevamente.");
+        }
+        return imagen;
+    }
+
+    /**
+     * Imagen decodificada con la memoria que tiene reservada. Cerrarla
+     * devuelve la reserva; cerrarla más de una vez no tiene efecto.
+     */
+    public final class ImagenDecodificada implements AutoCloseable {
+
+        private final BufferedImage imagen;
+        private final AtomicInteger permisos;
+
+        private ImagenDecodificada(BufferedImage imagen, int permisos) {
+            this.imagen = imagen;
+            this.permisos = new AtomicInteger(permisos);
+        }
+
+        public BufferedImage imagen() {
+            return imagen;
+        }
+
+        @Override
+        public void close() {
+            int reservados = permisos.getAndSet(0);
+            if (reservados > 0) {
+                memoria.release(reservados);
+            }
+        }
+    }
+
+    /**
+     * Aborta la lectura cuando vence el plazo. Los lectores limpian el pedido
+     * de aborto al empezar cada imagen, por eso se revisa también en
+     * {@code imageStarted} y no solo en el progreso.
+     */
+    private static final class Vigilancia implements IIOReadProgressListener {
+
+        private final long vence;
+        private boolean vencida;
+
+        private Vigilancia(long vence) {
+            this.vence = vence;
+        }
+
+        private void revisar(ImageReader lector) {
+            if (!vencida && System.nanoTime() - vence >= 0) {
+                vencida = true;
+                lector.abort();
+            }
+        }
+
+        @Override
+        public void imageStarted(ImageReader source, int imageIndex) {
+            revisar(source);
+        }
+
+        @Override
+        public void imageProgress(ImageReader source, float percentageDone) {
+            revisar(source);
+        }
+
+        @Override
+        public void imageComplete(ImageReader source) {
+        }
+
+        @Override
+        public void sequenceStarted(ImageReader source, int minIndex) {
+        }
+
+        @Override
+        public void sequenceComplete(ImageReader source) {
+        }
+
+        @Override
+        public void thumbnailStarted(ImageReader source, int imageIndex, int thumbnailIndex) {
+        }
+
+        @Override
+        public void thumbnailProgress(ImageReader source, float percentageDone) {
+        }
+
+        @Override
+        public void thumbnailComplete(ImageReader source) {
+        }
+
+        @Override
+        public void readAborted(ImageReader source) {
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package ar.edu.huergo.swapify.service.imagen;
+
+import java.awt.image.RenderedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.stream.MemoryCacheImageOutputStream;
+
+/**
+ * Pool de {@link ImageWriter} por formato. Buscar el escritor en el registro
+ * de {@code ImageIO} y crearlo (el de JPEG arma sus tablas nativas) cuesta
+ * más que codificar una miniatura, así que se reutilizan: cada codificación
+ * toma uno, lo usa con un stream en memoria (sin la caché en disco de
+ * {@code ImageIO.createImageOutputStream}) y lo devuelve reiniciado. Un
+ * escritor que falló a mitad de la escritura se descarta.
+ */
+public final class EscritoresImagen {
+
+    private final int porFormato;
+    private final ConcurrentMap<String, BlockingQueue<ImageWriter>> libres = new ConcurrentHashMap<>();
+
+    /**
+     * @param porFormato escritores ociosos que se conservan por formato
+     */
+    public EscritoresImagen(int porFormato) {
+        this.porFormato = porFormato;
+    }
+
+    /**
+     * Codifica la imagen.
+     *
+     * @param formato    nombre de formato de {@code ImageIO} ({@code jpg}, {@code png}, ...)
+     * @param configurar ajusta los parámetros de escritura (calidad, modo progresivo); puede ser {@code null}
+     * @throws IOException si no hay escritor para el formato o la codificación falla
+     */
+    public byte[] escribir(RenderedImage imagen, String formato, Consumer<ImageWriteParam> configurar)
+            throws IOException {
+        ImageWriter writer = tomar(formato);
+        boolean reutilizable = false;
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
+             ImageOutputStream ios = new MemoryCacheImageOutputStream(baos)) {
+            writer.setOutput(ios);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            if (configurar != null) {
+                configurar.accept(param);
+            }
+            writer.write(null, new IIOImage(imagen, null, null), param);
+            ios.flush();
+            reutilizable = true;
+            return baos.toByteArray();
+        } finally {
+            devolver(formato, writer, reutilizable);
+        }
+    }
+
+    private ImageWriter tomar(String formato) throws IOException {
+        ImageWriter writer = cola(formato).poll();
+        if (writer != null) {
+            return writer;
+        }
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(formato);
+        if (!writers.hasNext()) {
+            throw new IOException("No hay un escritor de imágenes para el formato " + formato);
+        }
+        return writers.next();
+    }
+
+    private void devolver(String formato, ImageWriter writer, boolean reutilizable) {
+        if (reutilizable) {
+            writer.reset();
+            if (cola(formato).offer(writer)) {
+                return;
+            }
+        }
+        writer.dispose();
+    }
+
+    private BlockingQueue<ImageWriter> cola(String formato) {
+        return libres.computeIfAbsent(formato, f -> new ArrayBlockingQueue<>(porFormato));
+    }
+}
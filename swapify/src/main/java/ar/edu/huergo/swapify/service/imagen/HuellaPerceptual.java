@@ -0,0 +1,58 @@
+package ar.edu.huergo.swapify.service.imagen;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Huella perceptual (dHash) de 64 bits: la imagen se reduce a una grilla de
+ * 9 × 8 celdas de luminancia promedio y cada bit indica si una celda es más
+ * clara que su vecina de la derecha. Recortes leves, recompresiones y
+ * cambios de tamaño mueven pocos bits, así que dos fotos del mismo objeto
+ * quedan a poca distancia de Hamming.
+ */
+public final class HuellaPerceptual {
+
+    private static final int COLUMNAS = 9;
+    private static final int FILAS = 8;
+    /** Muestras por lado de cada celda; alcanza para promediar sin recorrer todos los píxeles. */
+    private static final int MUESTRAS = 8;
+
+    private HuellaPerceptual() {
+    }
+
+    public static long calcular(BufferedImage imagen) {
+        double[] celdas = new double[COLUMNAS * FILAS];
+        int ancho = imagen.getWidth();
+        int alto = imagen.getHeight();
+        for (int fila = 0; fila < FILAS; fila++) {
+            for (int columna = 0; columna < COLUMNAS; columna++) {
+                double suma = 0;
+                for (int my = 0; my < MUESTRAS; my++) {
+                    int y = (int) (((fila * MUESTRAS + my + 0.5) * alto) / (FILAS * MUESTRAS));
+                    for (int mx = 0; mx < MUESTRAS; mx++) {
+                        int x = (int) (((columna * MUESTRAS + mx + 0.5) * ancho) / (COLUMNAS * MUESTRAS));
+                        suma += luminancia(imagen.getRGB(x, y));
+                    }
+                }
+                celdas[fila * COLUMNAS + columna] = suma;
+            }
+        }
+        long huella = 0;
+        for (int fila = 0; fila < FILAS; fila++) {
+            for (int columna = 0; columna < COLUMNAS - 1; columna++) {
+                huella <<= 1;
+                if (celdas[fila * COLUMNAS + columna] > celdas[fila * COLUMNAS + columna + 1]) {
+                    huella |= 1;
+                }
+            }
+        }
+        return huella;
+    }
+
+    public static int distancia(long a, long b) {
+        return Long.bitCount(a ^ b);
+    }
+
+    private static double luminancia(int argb) {
+        return 0.299 * ((argb >> 16) & 0xff) + 0.587 * ((argb >> 8) & 0xff) + 0.114 * (argb & 0xff);
+    }
+}
@@ -0,0 +1,10 @@
+package ar.edu.huergo.swapify.service.imagen;
+
+/**
+ * Imagen que pasó la validación de cabecera.
+ *
+ * @param datos    bytes del archivo original
+ * @param cabecera formato y dimensiones detectados
+ */
+public record ImagenRecibida(byte[] datos, CabeceraImagen cabecera) {
+}
@@ -0,0 +1,13 @@
+package ar.edu.huergo.swapify.service.imagen;
+
+/**
+ * Imagen lista para enviar al cliente.
+ *
+ * @param id          identificador de la imagen almacenada
+ * @param version     cambia cuando se reemplazan los bytes de la imagen
+ * @param datos       bytes a entregar
+ * @param contentType tipo de {@code datos}
+ * @param variante    si se eligió la variante en lugar de la imagen principal
+ */
+public record ImagenServida(Long id, String version, byte[] datos, String contentType, boolean variante) {
+}
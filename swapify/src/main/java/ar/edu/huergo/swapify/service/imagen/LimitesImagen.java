@@ -0,0 +1,59 @@
+package ar.edu.huergo.swapify.service.imagen;
+
+import ar.edu.huergo.swapify.util.DecodificadorBase64;
+
+/**
+ * Límites que una imagen recibida tiene que cumplir antes de decodificarla.
+ * El de píxeles es el que protege la memoria: un PNG de pocos KB puede
+ * declarar 50.000 × 50.000 px y pedir 10 GB al armar el
+ * {@code BufferedImage}.
+ *
+ * @param maxBytes    tamaño máximo del archivo
+ * @param ladoMinimo  mínimo de píxeles por lado
+ * @param ladoMaximo  máximo de píxeles por lado
+ * @param maxPixeles  máximo de ancho × alto
+ */
+public record LimitesImagen(long maxBytes, int ladoMinimo, int ladoMaximo, long maxPixeles) {
+
+    /** Lado máximo por defecto: holgado para fotos de cámara y panorámicas. */
+    public static final int LADO_MAXIMO = 12_000;
+
+    /** Píxeles máximos por defecto (30 MP, unos 120 MB decodificada en ARGB). */
+    public static final long MAX_PIXELES = 30_000_000L;
+
+    /** Límites por defecto para archivos de hasta {@code maxBytes}. */
+    public static LimitesImagen hasta(long maxBytes) {
+        return new LimitesImagen(maxBytes, 1, LADO_MAXIMO, MAX_PIXELES);
+    }
+
+    /**
+     * @throws DecodificadorBase64.LimiteExcedidoException si el archivo supera {@code maxBytes}
+     */
+    public void validarBytes(long bytes) {
+        if (bytes > maxBytes) {
+            throw new DecodificadorBase64.LimiteExcedidoException(maxBytes);
+        }
+    }
+
+    /**
+     * @throws IllegalArgumentException si la imagen no cumple alguno de los límites
+     */
+    public void validar(CabeceraImagen cabecera) {
+        validarBytes(cabecera.bytes());
+        if (!cabecera.dimensionesConocidas()) {
+            return;
+        }
+        int ancho = cabecera.ancho();
+        int alto = cabecera.alto();
+        if (Math.max(ancho, alto) > ladoMaximo || cabecera.pixeles() > maxPixeles) {
+            throw new IllegalArgumentException(String.format(
+                    "La imagen es demasiado grande para procesarla (%d × %d px). Reducila e intentá nuevamente.",
+                    ancho, alto));
+        }
+        if (Math.min(ancho, alto) < ladoMinimo) {
+            throw new IllegalArgumentException(String.format(
+                    "La imagen es demasiado chica (%d × %d px); cada lado tiene que tener al menos %d px",
+                    ancho, alto, ladoMinimo));
+        }
+    }
+}
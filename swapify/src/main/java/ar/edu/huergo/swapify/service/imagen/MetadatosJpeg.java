@@ -0,0 +1,206 @@
+package ar.edu.huergo.swapify.service.imagen;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Lectura y limpieza de los segmentos de metadatos de un JPEG sin
+ * decodificar la imagen. Las cámaras y los teléfonos agregan EXIF (con una
+ * miniatura), XMP, IPTC y comentarios que pueden sumar decenas de KB y
+ * exponer la ubicación de quien publica; el navegador no los necesita.
+ */
+public final class MetadatosJpeg {
+
+    /** Orientación EXIF que no requiere transformar la imagen. */
+    public static final int ORIENTACION_NORMAL = 1;
+
+    private static final int SOI = 0xD8;
+    private static final int SOS = 0xDA;
+    private static final int EOI = 0xD9;
+    private static final int APP0 = 0xE0;
+    private static final int APP1 = 0xE1;
+    private static final int APP2 = 0xE2;
+    private static final int APP14 = 0xEE;
+    private static final int APP15 = 0xEF;
+    private static final int COM = 0xFE;
+    private static final int TAG_ORIENTACION = 0x0112;
+
+    private MetadatosJpeg() {
+    }
+
+    /**
+     * Orientación declarada en el EXIF (1 a 8), o {@link #ORIENTACION_NORMAL}
+     * si no hay EXIF o no se puede leer.
+     */
+    public static int orientacion(byte[] jpeg) {
+        int pos = inicioSegmentos(jpeg);
+        while (pos > 0 && pos + 4 <= jpeg.length) {
+            int marcador = jpeg[pos + 1] & 0xFF;
+            if (marcador == SOS || marcador == EOI) {
+                break;
+            }
+            int largo = u16(jpeg, pos + 2, false);
+            if (marcador == APP1 && largo >= 8 && pos + 2 + largo <= jpeg.length
+                    && empiezaCon(jpeg, pos + 4, "Exif\0\0")) {
+                int orientacion = orientacionTiff(jpeg, pos + 10, pos + 2 + largo);
+                if (orientacion >= 1 && orientacion <= 8) {
+                    return orientacion;
+                }
+            }
+            pos = siguienteSegmento(jpeg, pos);
+        }
+        return ORIENTACION_NORMAL;
+    }
+
+    /**
+     * Copia el JPEG sin los segmentos APP1 (EXIF, XMP), APP3 a APP13, APP15
+     * ni comentarios. Se conservan JFIF (APP0), el perfil ICC (APP2), que
+     * define los colores, y Adobe (APP14), que indica la transformación de
+     * color. Los datos comprimidos no se tocan, así que no hay pérdida.
+     *
+     * @return los bytes sin metadatos, o los mismos bytes si no había nada que
+     *         quitar o la estructura no se pudo recorrer
+     */
+    public static byte[] sinMetadatos(byte[] jpeg) {
+        int pos = inicioSegmentos(jpeg);
+        if (pos < 0) {
+            return jpeg;
+        }
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(jpeg.length);
+        salida.write(jpeg, 0, pos);
+        boolean quitado = false;
+        while (true) {
+            if (pos + 4 > jpeg.length || (jpeg[pos] & 0xFF) != 0xFF) {
+                return jpeg;
+            }
+            int marcador = jpeg[pos + 1] & 0xFF;
+            if (marcador == SOS || marcador == EOI) {
+                salida.write(jpeg, pos, jpeg.length - pos);
+                break;
+            }
+            int siguiente = siguienteSegmento(jpeg, pos);
+            if (siguiente < 0) {
+                return jpeg;
+            }
+            if (descartable(marcador)) {
+                quitado = true;
+            } else {
+                salida.write(jpeg, pos, siguiente - pos);
+            }
+            pos = siguiente;
+        }
+        return quitado ? salida.toByteArray() : jpeg;
+    }
+
+    /**
+     * Aplica la orientación EXIF a los píxeles para que la imagen se vea
+     * derecha sin depender del metadato. Conviene llamarlo después de
+     * escalar: lee todos los píxeles de una vez, los reubica en un arreglo y
+     * los escribe de una vez en la imagen destino.
+     *
+     * @return la misma instancia si la orientación es normal o desconocida
+     */
+    public static BufferedImage orientar(BufferedImage imagen, int orientacion) {
+        if (orientacion < 2 || orientacion > 8) {
+            return imagen;
+        }
+        int ancho = imagen.getWidth();
+        int alto = imagen.getHeight();
+        boolean transpone = orientacion >= 5;
+        int anchoDestino = transpone ? alto : ancho;
+        int altoDestino = transpone ? ancho : alto;
+        int[] origen = imagen.getRGB(0, 0, ancho, alto, null, 0, ancho);
+        int[] girados = new int[origen.length];
+        for (int y = 0, i = 0; y < alto; y++) {
+            for (int x = 0; x < ancho; x++, i++) {
+                int destino = switch (orientacion) {
+                    case 2 -> y * anchoDestino + (ancho - 1 - x);
+                    case 3 -> (alto - 1 - y) * anchoDestino + (ancho - 1 - x);
+                    case 4 -> (alto - 1 - y) * anchoDestino + x;
+                    case 5 -> x * anchoDestino + y;
+                    case 6 -> x * anchoDestino + (alto - 1 - y);
+                    case 7 -> (ancho - 1 - x) * anchoDestino + (alto - 1 - y);
+                    default -> (ancho - 1 - x) * anchoDestino + y;
+                };
+                girados[destino] = origen[i];
+            }
+        }
+        int tipo = switch (imagen.getType()) {
+            case BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_BYTE_GRAY -> imagen.getType();
+            default -> imagen.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        };
+        BufferedImage resultado = new BufferedImage(anchoDestino, altoDestino, tipo);
+        resultado.setRGB(0, 0, anchoDestino, altoDestino, girados, 0, anchoDestino);
+        return resultado;
+    }
+
+    private static boolean descartable(int marcador) {
+        boolean app = marcador >= APP0 && marcador <= APP15;
+        return marcador == COM || (app && marcador != APP0 && marcador != APP2 && marcador != APP14);
+    }
+
+    /** Posición del primer segmento tras el SOI, o -1 si no es un JPEG. */
+    private static int inicioSegmentos(byte[] jpeg) {
+        if (jpeg == null || jpeg.length < 4 || (jpeg[0] & 0xFF) != 0xFF || (jpeg[1] & 0xFF) != SOI) {
+            return -1;
+        }
+        return 2;
+    }
+
+    /** Posición del marcador siguiente, o -1 si el segmento se sale del archivo. */
+    private static int siguienteSegmento(byte[] jpeg, int pos) {
+        int largo = u16(jpeg, pos + 2, false);
+        int siguiente = pos + 2 + largo;
+        return largo >= 2 && siguiente <= jpeg.length ? siguiente : -1;
+    }
+
+    private static int orientacionTiff(byte[] datos, int tiff, int fin) {
+        if (tiff + 8 > fin) {
+            return -1;
+        }
+        boolean littleEndian;
+        if (datos[tiff] == 'I' && datos[tiff + 1] == 'I') {
+            littleEndian = true;
+        } else if (datos[tiff] == 'M' && datos[tiff + 1] == 'M') {
+            littleEndian = false;
+        } else {
+            return -1;
+        }
+        long ifd = u32(datos, tiff + 4, littleEndian);
+        if (ifd < 8 || tiff + ifd + 2 > fin) {
+            return -1;
+        }
+        int entradas = u16(datos, (int) (tiff + ifd), littleEndian);
+        int entrada = (int) (tiff + ifd + 2);
+        for (int i = 0; i < entradas && entrada + 12 <= fin; i++, entrada += 12) {
+            if (u16(datos, entrada, littleEndian) == TAG_ORIENTACION) {
+                return u16(datos, entrada + 8, littleEndian);
+            }
+        }
+        return -1;
+    }
+
+    private static boolean empiezaCon(byte[] datos, int pos, String prefijo) {
+        if (pos + prefijo.length() > datos.length) {
+            return false;
+        }
+        for (int i = 0; i < prefijo.length(); i++) {
+            if (datos[pos + i] != prefijo.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int u16(byte[] datos, int pos, boolean littleEndian) {
+        int a = datos[pos] & 0xFF;
+        int b = datos[pos + 1] & 0xFF;
+        return littleEndian ? (b << 8) | a : (a << 8) | b;
+    }
+
+    private static long u32(byte[] datos, int pos, boolean littleEndian) {
+        long alta = u16(datos, littleEndian ? pos + 2 : pos, littleEndian);
+        long baja = u16(datos, littleEndian ? pos : pos + 2, littleEndian);
+        return (alta << 16) | baja;
+    }
+}
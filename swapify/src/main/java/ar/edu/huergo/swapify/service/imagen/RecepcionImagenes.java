@@ -0,0 +1,105 @@
+package ar.edu.huergo.swapify.service.imagen;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+import javax.imageio.IIOException;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * Primera etapa de toda imagen que llega al backend: identifica el formato
+ * por sus bytes mágicos y lee ancho y alto de la cabecera con el
+ * {@link ImageReader} correspondiente, sin decodificar píxeles. Lo que no es
+ * una imagen o no cumple los {@link LimitesImagen} se rechaza antes de
+ * reservar memoria para el {@code BufferedImage}.
+ *
+ * <p>Los archivos multipart no pasan por {@link MultipartFile#getBytes()}:
+ * el contenedor ya dejó cada parte en un archivo temporal
+ * ({@code spring.servlet.multipart.file-size-threshold=0}), la cabecera se
+ * lee de ese archivo como stream y recién cuando la imagen es aceptada se
+ * cargan sus bytes.</p>
+ */
+public final class RecepcionImagenes {
+
+    static final String MENSAJE_FORMATO = "El archivo adjunto no es una imagen válida";
+
+    private RecepcionImagenes() {
+    }
+
+    /**
+     * Valida un archivo subido y devuelve sus bytes.
+     *
+     * @throws IllegalArgumentException si no es una imagen reconocible o no cumple los límites
+     */
+    public static ImagenRecibida recibir(MultipartFile archivo, LimitesImagen limites) {
+        long tamanio = archivo.getSize();
+        limites.validarBytes(tamanio);
+        try {
+            CabeceraImagen cabecera;
+            try (InputStream entrada = archivo.getInputStream()) {
+                cabecera = leerCabecera(entrada, tamanio);
+            }
+            limites.validar(cabecera);
+            try (InputStream entrada = archivo.getInputStream()) {
+                return new ImagenRecibida(entrada.readNBytes((int) tamanio), cabecera);
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("No se pudo leer la imagen: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Valida una imagen que ya está en memoria (por ejemplo, decodificada de
+     * Base64).
+     *
+     * @throws IllegalArgumentException si no es una imagen reconocible o no cumple los límites
+     */
+    public static ImagenRecibida recibir(byte[] datos, LimitesImagen limites) {
+        limites.validarBytes(datos.length);
+        try {
+            CabeceraImagen cabecera = leerCabecera(new ByteArrayInputStream(datos), datos.length);
+            limites.validar(cabecera);
+            return new ImagenRecibida(datos, cabecera);
+        } catch (IOException e) {
+            throw new IllegalArgumentException(MENSAJE_FORMATO, e);
+        }
+    }
+
+    /**
+     * Lee formato y dimensiones de la primera imagen del stream. Solo se
+     * consumen los bytes de la cabecera.
+     *
+     * @throws IllegalArgumentException si ningún lector reconoce el formato
+     */
+    static CabeceraImagen leerCabecera(InputStream entrada, long bytes) throws IOException {
+        try (ImageInputStream iis = new MemoryCacheImageInputStream(entrada)) {
+            Iterator<ImageReader> lectores = ImageIO.getImageReaders(iis);
+            if (!lectores.hasNext()) {
+                throw new IllegalArgumentException(MENSAJE_FORMATO);
+            }
+            ImageReader lector = lectores.next();
+            try {
+                lector.setInput(iis, true, true);
+                int ancho = lector.getWidth(0);
+                int alto = lector.getHeight(0);
+                return new CabeceraImagen(lector.getFormatName(), contentType(lector), ancho, alto, bytes);
+            } catch (IIOException e) {
+                return new CabeceraImagen(lector.getFormatName(), contentType(lector), -1, -1, bytes);
+            } finally {
+                lector.dispose();
+            }
+        }
+    }
+
+    private static String contentType(ImageReader lector) {
+        String[] tipos = lector.getOriginatingProvider().getMIMETypes();
+        return tipos != null && tipos.length > 0 ? tipos[0] : null;
+    }
+}
@@ -0,0 +1,97 @@
+package ar.edu.huergo.swapify.service.imagen;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Índice de similitud estructural (SSIM) sobre la luminancia, en ventanas
+ * de 8 × 8 sin solapamiento. Vale 1 para imágenes idénticas; por encima de
+ * 0,98 las diferencias de una recompresión JPEG no se distinguen a simple
+ * vista. La referencia se prepara una vez y se compara contra varias
+ * candidatas.
+ */
+public final class Ssim {
+
+    private static final int VENTANA = 8;
+    private static final double C1 = Math.pow(0.01 * 255, 2);
+    private static final double C2 = Math.pow(0.03 * 255, 2);
+
+    private final int ancho;
+    private final int alto;
+    private final float[] luminancia;
+
+    private Ssim(BufferedImage referencia) {
+        this.ancho = referencia.getWidth();
+        this.alto = referencia.getHeight();
+        this.luminancia = luminancia(referencia);
+    }
+
+    public static Ssim de(BufferedImage referencia) {
+        return new Ssim(referencia);
+    }
+
+    /**
+     * @throws IllegalArgumentException si la candidata no tiene las mismas dimensiones
+     */
+    public double comparar(BufferedImage candidata) {
+        if (candidata.getWidth() != ancho || candidata.getHeight() != alto) {
+            throw new IllegalArgumentException("Las imágenes a comparar deben tener el mismo tamaño");
+        }
+        float[] otra = luminancia(candidata);
+        if (ancho < VENTANA || alto < VENTANA) {
+            return ventana(luminancia, otra, 0, 0, ancho, alto);
+        }
+        double suma = 0;
+        int ventanas = 0;
+        for (int y = 0; y + VENTANA <= alto; y += VENTANA) {
+            for (int x = 0; x + VENTANA <= ancho; x += VENTANA) {
+                suma += ventana(luminancia, otra, x, y, VENTANA, VENTANA);
+                ventanas++;
+            }
+        }
+        return suma / ventanas;
+    }
+
+    private double ventana(float[] a, float[] b, int x0, int y0, int w, int h) {
+        double sumaA = 0;
+        double sumaB = 0;
+        double sumaAA = 0;
+        double sumaBB = 0;
+        double sumaAB = 0;
+        for (int y = y0; y < y0 + h; y++) {
+            int base = y * ancho;
+            for (int x = x0; x < x0 + w; x++) {
+                double va = a[base + x];
+                double vb = b[base + x];
+                sumaA += va;
+                sumaB += vb;
+                sumaAA += va * va;
+                sumaBB += vb * vb;
+                sumaAB += va * vb;
+            }
+        }
+        int n = w * h;
+        double mediaA = sumaA / n;
+        double mediaB = sumaB / n;
+        double varianzaA = sumaAA / n - mediaA * mediaA;
+        double varianzaB = sumaBB / n - mediaB * mediaB;
+        double covarianza = sumaAB / n - mediaA * mediaB;
+        return ((2 * mediaA * mediaB + C1) * (2 * covarianza + C2))
+                / ((mediaA * mediaA + mediaB * mediaB + C1) * (varianzaA + varianzaB + C2));
+    }
+
+    private static float[] luminancia(BufferedImage imagen) {
+        int ancho = imagen.getWidth();
+        int alto = imagen.getHeight();
+        float[] valores = new float[ancho * alto];
+        int[] fila = new int[ancho];
+        for (int y = 0; y < alto; y++) {
+            imagen.getRGB(0, y, ancho, 1, fila, 0, ancho);
+            for (int x = 0; x < ancho; x++) {
+                int argb = fila[x];
+                valores[y * ancho + x] = 0.299f * ((argb >> 16) & 0xFF) + 0.587f * ((argb >> 8) & 0xFF)
+                        + 0.114f * (argb & 0xFF);
+            }
+        }
+        return valores;
+    }
+}
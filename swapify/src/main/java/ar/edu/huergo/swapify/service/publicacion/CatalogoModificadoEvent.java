@@ -0,0 +1,11 @@
+package ar.edu.huergo.swapify.service.publicacion;
+
+/**
+ * Evento publicado cuando una escritura altera lo que muestra el catálogo
+ * público (altas, bajas, cambios de estado u oficialidad).
+ *
+ * @param publicacionId publicación afectada o {@code null} si el cambio es
+ *                      masivo.
+ */
+public record CatalogoModificadoEvent(Long publicacionId) {
+}
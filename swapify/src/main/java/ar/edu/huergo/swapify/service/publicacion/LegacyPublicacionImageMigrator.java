@@ -2,29 +2,48 @@ package ar.edu.huergo.swapify.service.publicacion;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
-import org.springframework.boot.context.event.ApplicationReadyEvent;
-import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import ar.edu.huergo.swapify.config.arranque.TareaArranque;
 import ar.edu.huergo.swapify.entity.publicacion.Publicacion;
 import ar.edu.huergo.swapify.entity.publicacion.PublicacionImagen;
 import ar.edu.huergo.swapify.repository.publicacion.PublicacionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Pasa a {@link PublicacionImagen} las imágenes que versiones anteriores
+ * guardaban en la propia publicación. Solo lee las filas pendientes, así que
+ * en una base ya migrada el arranque paga una única consulta.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
-public class LegacyPublicacionImageMigrator {
+public class LegacyPublicacionImageMigrator implements TareaArranque {
 
     private final PublicacionRepository publicacionRepository;
 
-    @EventListener(ApplicationReadyEvent.class)
+    @Override
+    public String nombre() {
+        return "imagenes-heredadas";
+    }
+
+    @Override
+    public Set<String> dependeDe() {
+        return Set.of("esquema-publicaciones");
+    }
+
+    @Override
     @Transactional
-    public void migrateLegacyImages() {
-        List<Publicacion> publicaciones = publicacionRepository.findAll();
+    public void ejecutar() {
+        migrateLegacyImages();
+    }
+
+    void migrateLegacyImages() {
+        List<Publicacion> publicaciones = publicacionRepository.findConImagenHeredadaSinMigrar();
         List<Publicacion> actualizadas = new ArrayList<>();
         for (Publicacion publicacion : publicaciones) {
             byte[] legacy = publicacion.getLegacyImagen();
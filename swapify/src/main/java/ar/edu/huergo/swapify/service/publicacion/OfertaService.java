@@ -1,5 +1,7 @@
 package ar.edu.huergo.swapify.service.publicacion;
 
+import ar.edu.huergo.swapify.config.metricas.MetricasConfig;
+import ar.edu.huergo.swapify.config.metricas.MetricasImagenes;
 import ar.edu.huergo.swapify.dto.publicacion.CrearOfertaDTO;
 import ar.edu.huergo.swapify.entity.publicacion.Articulo;
 import ar.edu.huergo.swapify.entity.publicacion.EstadoOferta;
@@ -10,38 +12,41 @@ import ar.edu.huergo.swapify.entity.security.Usuario;
 import ar.edu.huergo.swapify.repository.publicacion.OfertaRepository;
 import ar.edu.huergo.swapify.repository.publicacion.PublicacionRepository;
 import ar.edu.huergo.swapify.repository.security.UsuarioRepository;
+import ar.edu.huergo.swapify.service.imagen.AlmacenImagenes;
+import ar.edu.huergo.swapify.service.imagen.ImagenRecibida;
+import ar.edu.huergo.swapify.service.imagen.LimitesImagen;
+import ar.edu.huergo.swapify.service.imagen.RecepcionImagenes;
 import ar.edu.huergo.swapify.service.security.NotificacionService;
+import ar.edu.huergo.swapify.util.DecodificadorBase64;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.Base64;
 import java.util.Comparator;
 import java.util.List;
-import java.util.regex.Pattern;
-
-import javax.imageio.ImageIO;
 
 @Service
+@Timed(value = MetricasConfig.TIMER_SERVICIOS, histogram = true)
 @RequiredArgsConstructor
-@Slf4j
 public class OfertaService {
 
     private static final long MAX_IMAGE_BYTES = 3_000_000L;
-    private static final Pattern BASE64_WHITESPACE = Pattern.compile("\\s+");
-    private static final Pattern BASE64_ALLOWED = Pattern.compile("^[A-Za-z0-9+/]*={0,2}$");
+    private static final LimitesImagen LIMITES_IMAGEN = LimitesImagen.hasta(MAX_IMAGE_BYTES);
 
     private final OfertaRepository ofertaRepository;
     private final PublicacionRepository publicacionRepository;
     private final UsuarioRepository usuarioRepository;
     private final NotificacionService notificacionService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MetricasImagenes metricasImagenes;
+    private final AlmacenImagenes almacenImagenes;
 
     @Transactional
     public Oferta crearOferta(Long publicacionId, CrearOfertaDTO dto, String username) {
@@ -92,12 +97,19 @@ public class OfertaService {
     @Transactional
     public void eliminarPorPublicacion(Long publicacionId) {
         List<Oferta> ofertas = ofertaRepository.findByPublicacionIdOrderByFechaOfertaDesc(publicacionId);
+        List<Long> contenidos = ofertas.stream()
+                .filter(oferta -> oferta.getContenidoImagen() != null)
+                .map(oferta -> oferta.getContenidoImagen().getId())
+                .toList();
         ofertaRepository.deleteAll(ofertas);
+        almacenImagenes.liberar(contenidos);
     }
 
     @Transactional
     public void eliminar(Long ofertaId) {
+        List<Long> contenidos = almacenImagenes.contenidosDeOferta(ofertaId);
         ofertaRepository.deleteById(ofertaId);
+        almacenImagenes.liberar(contenidos);
     }
 
     @Transactional
@@ -145,6 +157,7 @@ public class OfertaService {
         if (publicacion != null) {
             publicacion.marcarEnNegociacion(ahora);
             publicacionRepository.save(publicacion);
+            eventPublisher.publishEvent(new CatalogoModificadoEvent(publicacion.getId()));
         }
 
         List<Oferta> otrasOfertas = ofertaRepository.findByPublicacionIdAndIdNot(publicacionId, ofertaId);
@@ -195,6 +208,16 @@ public class OfertaService {
         return oferta;
     }
 
+    /**
+     * Variante de {@link #obtenerOfertaAceptada(Long)} sobre las ofertas ya
+     * cargadas de la publicación, para no repetir la consulta en el detalle.
+     */
+    public java.util.Optional<Oferta> obtenerOfertaAceptada(List<Oferta> ofertas) {
+        return ofertas.stream()
+                .filter(Oferta::estaAceptada)
+                .max(Comparator.comparing(Oferta::getFechaRespuesta, Comparator.nullsFirst(Comparator.naturalOrder())));
+    }
+
     @Transactional(readOnly = true)
     public long contarPorEstado(EstadoOferta estado) {
         return ofertaRepository.countByEstado(estado);
@@ -233,62 +256,37 @@ public class OfertaService {
             oferta.setImagenContentType(null);
             return;
         }
-        byte[] datos = null;
-        String contentType = dto.getImagenContentType();
-        if (dto.getImagenArchivo() != null && !dto.getImagenArchivo().isEmpty()) {
-            MultipartFile archivo = dto.getImagenArchivo();
-            try {
-                datos = archivo.getBytes();
+        ImagenRecibida recibida;
+        String contentType;
+        try {
+            if (dto.getImagenArchivo() != null && !dto.getImagenArchivo().isEmpty()) {
+                MultipartFile archivo = dto.getImagenArchivo();
+                recibida = RecepcionImagenes.recibir(archivo, LIMITES_IMAGEN);
                 contentType = archivo.getContentType();
-            } catch (IOException e) {
-                throw new IllegalArgumentException("No pudimos leer la imagen adjunta: " + e.getMessage(), e);
-            }
-        } else if (dto.getImagenBase64() != null && !dto.getImagenBase64().isBlank()) {
-            String base64 = dto.getImagenBase64();
-            if (base64.contains(",")) {
-                base64 = base64.substring(base64.indexOf(',') + 1);
+            } else if (dto.getImagenBase64() != null && !dto.getImagenBase64().isBlank()) {
+                byte[] datos = DecodificadorBase64.decodificar(dto.getImagenBase64(), MAX_IMAGE_BYTES);
+                if (datos.length == 0) {
+                    return;
+                }
+                recibida = RecepcionImagenes.recibir(datos, LIMITES_IMAGEN);
+                contentType = dto.getImagenContentType();
+            } else {
+                return;
             }
-            datos = decodificarBase64(base64);
+        } catch (DecodificadorBase64.LimiteExcedidoException e) {
+            throw new IllegalArgumentException("La imagen de la oferta supera el tamaño permitido (3 MB)", e);
         }
-        if (datos == null || datos.length == 0) {
-            return;
-        }
-        if (datos.length > MAX_IMAGE_BYTES) {
-            throw new IllegalArgumentException("La imagen de la oferta supera el tamaño permitido (3 MB)");
-        }
-        if (!esImagenValida(datos)) {
+        if (!recibida.cabecera().dimensionesConocidas()) {
             throw new IllegalArgumentException("El archivo adjunto no es una imagen válida");
         }
+        byte[] datos = recibida.datos();
+        if (recibida.cabecera().contentType() != null) {
+            contentType = recibida.cabecera().contentType();
+        }
         oferta.setImagen(datos);
+        oferta.setContenidoImagen(almacenImagenes.compartir(List.of(oferta.getContenidoImagen()), "oferta").get(0));
         oferta.setImagenContentType(contentType != null ? contentType : "image/jpeg");
-    }
-
-    private boolean esImagenValida(byte[] datos) {
-        try (ByteArrayInputStream bais = new ByteArrayInputStream(datos)) {
-            return ImageIO.read(bais) != null;
-        } catch (IOException e) {
-            log.warn("No se pudo validar la imagen adjunta", e);
-            return false;
-        }
-    }
-
-    private byte[] decodificarBase64(String base64Data) {
-        if (base64Data == null) {
-            return new byte[0];
-        }
-        String normalizado = base64Data.replace(' ', '+');
-        String limpio = BASE64_WHITESPACE.matcher(normalizado).replaceAll("");
-        if (limpio.isEmpty()) {
-            return new byte[0];
-        }
-        if (!BASE64_ALLOWED.matcher(limpio).matches()) {
-            throw new IllegalArgumentException("Los datos de la imagen no están en formato Base64 válido");
-        }
-        try {
-            return Base64.getMimeDecoder().decode(limpio);
-        } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException("Los datos de la imagen no están en formato Base64 válido", e);
-        }
+        metricasImagenes.registrar("oferta", datos.length, datos.length);
     }
 
     private void prepararOfertaParaLectura(Oferta oferta) {
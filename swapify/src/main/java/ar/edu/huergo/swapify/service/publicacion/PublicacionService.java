@@ -3,68 +3,158 @@ package ar.edu.huergo.swapify.service.publicacion;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
+import java.awt.image.ColorModel;
+import java.awt.image.IndexColorModel;
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
-import java.util.Base64;
+import java.util.Arrays;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
-import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
 import javax.imageio.ImageWriteParam;
-import javax.imageio.ImageWriter;
-import javax.imageio.stream.ImageOutputStream;
+import javax.imageio.plugins.jpeg.JPEGImageWriteParam;
 
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.AccessDeniedException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import ar.edu.huergo.swapify.config.ConcurrenciaConfig;
+import ar.edu.huergo.swapify.config.metricas.MetricasConfig;
+import ar.edu.huergo.swapify.config.metricas.MetricasImagenes;
 import ar.edu.huergo.swapify.dto.publicacion.CrearPublicacionDTO;
+import ar.edu.huergo.swapify.dto.publicacion.ImagenBase64;
+import ar.edu.huergo.swapify.entity.publicacion.ContenidoImagen;
 import ar.edu.huergo.swapify.entity.publicacion.EstadoPublicacion;
 import ar.edu.huergo.swapify.entity.publicacion.Publicacion;
 import ar.edu.huergo.swapify.entity.publicacion.PublicacionImagen;
 import ar.edu.huergo.swapify.mapper.publicacion.PublicacionMapper;
 import ar.edu.huergo.swapify.repository.publicacion.PublicacionRepository;
 import ar.edu.huergo.swapify.repository.publicacion.OfertaRepository;
+import ar.edu.huergo.swapify.service.imagen.AlmacenImagenes;
+import ar.edu.huergo.swapify.service.imagen.CodificadorImagen;
+import ar.edu.huergo.swapify.service.imagen.DecodificacionSaturadaException;
+import ar.edu.huergo.swapify.service.imagen.DecodificadorImagenes;
+import ar.edu.huergo.swapify.service.imagen.EscritoresImagen;
+import ar.edu.huergo.swapify.service.imagen.HuellaPerceptual;
+import ar.edu.huergo.swapify.service.imagen.ImagenRecibida;
+import ar.edu.huergo.swapify.service.imagen.ImagenServida;
+import ar.edu.huergo.swapify.service.imagen.LimitesImagen;
+import ar.edu.huergo.swapify.service.imagen.MetadatosJpeg;
+import ar.edu.huergo.swapify.service.imagen.RecepcionImagenes;
+import ar.edu.huergo.swapify.service.imagen.Ssim;
+import ar.edu.huergo.swapify.util.DecodificadorBase64;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
 
 /**
  * Lógica de negocio para gestionar publicaciones y su contenido multimedia.
  */
 @Service
-@RequiredArgsConstructor
+@Timed(value = MetricasConfig.TIMER_SERVICIOS, histogram = true)
 @Slf4j
 public class PublicacionService {
 
     private static final int MAX_IMAGE_DIMENSION = 1280;
     private static final long MAX_IMAGE_BYTES = 5_000_000L;
-    private static final Pattern BASE64_WHITESPACE = Pattern.compile("\\s+");
-    private static final Pattern BASE64_ALLOWED = Pattern.compile("^[A-Za-z0-9+/]*={0,2}$");
+    private static final float JPEG_CALIDAD_MINIMA = 0.5f;
+    private static final float JPEG_CALIDAD_PASO = 0.05f;
+    private static final int JPEG_PASOS_CALIDAD = 8;
+    private static final float JPEG_CALIDAD_MAXIMA = JPEG_CALIDAD_MINIMA + JPEG_PASOS_CALIDAD * JPEG_CALIDAD_PASO;
+    /** SSIM mínimo contra la imagen de partida al elegir la calidad JPEG. */
+    private static final double SSIM_OBJETIVO = 0.985;
+    private static final int MAX_COLORES_GRAFICO = 256;
+    private static final LimitesImagen LIMITES_ENTRADA = LimitesImagen.hasta(ImagenBase64.MAX_BYTES);
+    private static final EscritoresImagen ESCRITORES = new EscritoresImagen(4);
+    private static final int IMAGENES_EN_PARALELO = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
 
     private final PublicacionRepository publicacionRepository;
     private final OfertaRepository ofertaRepository;
     private final PublicacionMapper publicacionMapper;
     private final ar.edu.huergo.swapify.repository.security.UsuarioRepository usuarioRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MetricasImagenes metricasImagenes;
+    private final AsyncTaskExecutor ejecutorImagenes;
+    /** Imágenes que se procesan a la vez en el nodo, contando el hilo de cada request. */
+    private final Semaphore cupoImagenes;
+    private final List<CodificadorImagen> codificadores;
+    private final AlmacenImagenes almacenImagenes;
+    private final TransactionTemplate transactionTemplate;
+    /** Compartido por todas las imágenes del nodo, incluida la reoptimización. */
+    private final DecodificadorImagenes decodificador;
+
+    public PublicacionService(PublicacionRepository publicacionRepository,
+                              OfertaRepository ofertaRepository,
+                              PublicacionMapper publicacionMapper,
+                              ar.edu.huergo.swapify.repository.security.UsuarioRepository usuarioRepository,
+                              ApplicationEventPublisher eventPublisher,
+                              MetricasImagenes metricasImagenes,
+                              @Qualifier(ConcurrenciaConfig.EJECUTOR_IMAGENES) AsyncTaskExecutor ejecutorImagenes,
+                              @Qualifier(ConcurrenciaConfig.CUPO_IMAGENES) Semaphore cupoImagenes,
+                              List<CodificadorImagen> codificadores,
+                              AlmacenImagenes almacenImagenes,
+                              PlatformTransactionManager transactionManager,
+                              DecodificadorImagenes decodificador) {
+        this.publicacionRepository = publicacionRepository;
+        this.ofertaRepository = ofertaRepository;
+        this.publicacionMapper = publicacionMapper;
+        this.usuarioRepository = usuarioRepository;
+        this.eventPublisher = eventPublisher;
+        this.metricasImagenes = metricasImagenes;
+        this.ejecutorImagenes = ejecutorImagenes;
+        this.cupoImagenes = cupoImagenes != null ? cupoImagenes : new Semaphore(Integer.MAX_VALUE);
+        this.codificadores = codificadores != null ? codificadores : List.of();
+        this.almacenImagenes = almacenImagenes;
+        this.transactionTemplate = transactionManager != null ? new TransactionTemplate(transactionManager) : null;
+        this.decodificador = decodificador;
+    }
 
     /**
      * Crea una publicación tomando los datos del DTO y asociándola al usuario
-     * autenticado.
+     * autenticado. Las imágenes se procesan antes de abrir la transacción (la
+     * búsqueda de calidad JPEG y las variantes tardan cientos de ms por foto),
+     * así que la conexión solo se toma para buscar al usuario, deduplicar el
+     * contenido y guardar.
      */
-    @Transactional
     public Publicacion crearPublicacion(CrearPublicacionDTO dto, ar.edu.huergo.swapify.entity.security.Usuario usuario) {
         if (dto == null) throw new IllegalArgumentException("Datos de publicación inválidos");
+        List<ImagenEntrada> imagenes = prepararEntradasImagen(dto);
+        if (imagenes.isEmpty()) {
+            throw new IllegalArgumentException("Debés adjuntar al menos una imagen");
+        }
+        List<PublicacionImagen> procesadas = procesarImagenes(imagenes);
+
+        Publicacion guardada = enTransaccion(() -> guardarPublicacion(dto, usuario, procesadas));
+        prepararPublicacionParaLectura(guardada);
+        return guardada;
+    }
+
+    private Publicacion guardarPublicacion(CrearPublicacionDTO dto, ar.edu.huergo.swapify.entity.security.Usuario usuario,
+                                           List<PublicacionImagen> procesadas) {
         var managedUsuario = usuarioRepository.findByUsername(usuario.getUsername())
                 .orElseThrow(() -> new EntityNotFoundException("Usuario no encontrado"));
         Publicacion p = publicacionMapper.toEntity(dto);
@@ -72,25 +162,22 @@ public class PublicacionService {
         p.setFechaPublicacion(LocalDateTime.now());
         p.setEstado(EstadoPublicacion.ACTIVA);
         p.setOficial(usuarioEsAdmin(managedUsuario));
-
-        List<ImagenEntrada> imagenes = prepararEntradasImagen(dto);
-        if (imagenes.isEmpty()) {
-            throw new IllegalArgumentException("Debés adjuntar al menos una imagen");
-        }
         p.limpiarImagenes();
         p.setLegacyImagen(null);
         p.setLegacyImagenContentType(null);
-        int orden = 0;
-        for (ImagenEntrada entrada : imagenes) {
-            PublicacionImagen imagen = procesarImagenPublicacion(entrada.datos(), entrada.contentType(), orden++);
-            p.agregarImagen(imagen);
-        }
+        compartirContenidos(procesadas);
+        procesadas.forEach(p::agregarImagen);
 
         Publicacion guardada = publicacionRepository.save(p);
-        prepararPublicacionParaLectura(guardada);
+        eventPublisher.publishEvent(new CatalogoModificadoEvent(guardada.getId()));
         return guardada;
     }
 
+    /** Sin gestor de transacciones (pruebas unitarias) la acción corre directo. */
+    private <T> T enTransaccion(Supplier<T> accion) {
+        return transactionTemplate != null ? transactionTemplate.execute(status -> accion.get()) : accion.get();
+    }
+
     /**
      * Devuelve todas las publicaciones ordenadas por fecha descendente.
      */
@@ -151,6 +238,44 @@ public class PublicacionService {
         return publicacion;
     }
 
+    /**
+     * Devuelve los bytes de una imagen de publicación. Si hay una variante
+     * guardada y el cliente lista su tipo en {@code Accept} (sin comodines y
+     * con q &gt; 0), se entrega la variante; si no, la imagen principal.
+     */
+    @Transactional(readOnly = true)
+    public ImagenServida obtenerImagen(Long publicacionId, int orden, List<MediaType> aceptados) {
+        PublicacionImagen imagen = publicacionRepository.findImagen(publicacionId, orden)
+                .orElseThrow(() -> new EntityNotFoundException("Imagen no encontrada"));
+        String variante = imagen.getVarianteContentType();
+        if (variante != null && aceptaExplicitamente(aceptados, MediaType.parseMediaType(variante))) {
+            byte[] datos = imagen.getVarianteDatos();
+            if (datos != null && datos.length > 0) {
+                return new ImagenServida(imagen.getId(), versionDe(imagen), datos, variante, true);
+            }
+        }
+        String contentType = imagen.getContentType();
+        return new ImagenServida(imagen.getId(), versionDe(imagen), imagen.getDatos(),
+                contentType != null && !contentType.isBlank() ? contentType : "image/jpeg", false);
+    }
+
+    /** Cambia si la imagen se reemplaza (por ejemplo al reoptimizarla). */
+    private static String versionDe(PublicacionImagen imagen) {
+        return imagen.getContenido() != null ? imagen.getContenido().getHash().substring(0, 16) : "0";
+    }
+
+    /**
+     * Los navegadores mandan {@code *}{@code /*} incluso sin soportar WebP,
+     * así que solo cuenta una mención explícita del tipo.
+     */
+    static boolean aceptaExplicitamente(List<MediaType> aceptados, MediaType tipo) {
+        if (aceptados == null) {
+            return false;
+        }
+        return aceptados.stream().anyMatch(aceptado -> !aceptado.isWildcardType() && !aceptado.isWildcardSubtype()
+                && aceptado.getQualityValue() > 0 && aceptado.equalsTypeAndSubtype(tipo));
+    }
+
     /**
      * Listado de publicaciones generadas durante una fecha específica.
      */
@@ -209,8 +334,11 @@ public class PublicacionService {
         if (!puedeGestionarPublicacion(publicacion, username, esAdmin)) {
             throw new AccessDeniedException("No tenés permiso para eliminar esta publicación");
         }
+        List<Long> contenidos = almacenImagenes.contenidosDePublicacion(publicacionId);
         ofertaRepository.deleteByPublicacionId(publicacionId);
         publicacionRepository.delete(publicacion);
+        almacenImagenes.liberar(contenidos);
+        eventPublisher.publishEvent(new CatalogoModificadoEvent(publicacionId));
     }
 
     @Transactional
@@ -232,6 +360,7 @@ public class PublicacionService {
             case FINALIZADA -> publicacion.marcarFinalizada(LocalDateTime.now());
             case PAUSADA -> publicacion.pausar();
         }
+        eventPublisher.publishEvent(new CatalogoModificadoEvent(publicacionId));
 
         return publicacion;
     }
@@ -246,6 +375,7 @@ public class PublicacionService {
         }
 
         publicacion.setOficial(oficial);
+        eventPublisher.publishEvent(new CatalogoModificadoEvent(publicacionId));
         return publicacion;
     }
 
@@ -256,15 +386,18 @@ public class PublicacionService {
                 if (archivo == null || archivo.isEmpty()) {
                     continue;
                 }
-                try {
-                    byte[] datos = archivo.getBytes();
-                    if (datos.length == 0) {
-                        continue;
-                    }
-                    entradas.add(new ImagenEntrada(datos, archivo.getContentType()));
-                } catch (IOException e) {
-                    throw new IllegalArgumentException("No se pudo leer la imagen: " + e.getMessage(), e);
+                entradas.add(entrada(RecepcionImagenes.recibir(archivo, LIMITES_ENTRADA), archivo.getContentType()));
+            }
+        }
+        if (dto.getImagenesDecodificadas() != null) {
+            for (int i = 0; i < dto.getImagenesDecodificadas().size(); i++) {
+                ImagenBase64 imagen = dto.getImagenesDecodificadas().get(i);
+                if (imagen == null) {
+                    continue;
                 }
+                String contentType = contentTypeDeclarado(dto, i);
+                entradas.add(entrada(RecepcionImagenes.recibir(imagen.datos(), LIMITES_ENTRADA),
+                        contentType != null ? contentType : imagen.contentType()));
             }
         }
         if (dto.getImagenesBase64() != null) {
@@ -273,18 +406,11 @@ public class PublicacionService {
                 if (base64Data == null || base64Data.isBlank()) {
                     continue;
                 }
-                if (base64Data.contains(",")) {
-                    base64Data = base64Data.substring(base64Data.indexOf(',') + 1);
-                }
-                byte[] datos = decodificarBase64(base64Data);
+                byte[] datos = DecodificadorBase64.decodificar(base64Data, ImagenBase64.MAX_BYTES);
                 if (datos.length == 0) {
                     continue;
                 }
-                String contentType = null;
-                if (dto.getImagenesContentType() != null && dto.getImagenesContentType().size() > i) {
-                    contentType = dto.getImagenesContentType().get(i);
-                }
-                entradas.add(new ImagenEntrada(datos, contentType));
+                entradas.add(entrada(RecepcionImagenes.recibir(datos, LIMITES_ENTRADA), contentTypeDeclarado(dto, i)));
             }
         }
         if (entradas.size() > 5) {
@@ -293,9 +419,125 @@ public class PublicacionService {
         return entradas;
     }
 
+    /**
+     * Procesa las imágenes de una publicación en paralelo y las devuelve en
+     * el orden de entrada. La concurrencia total del nodo la acota
+     * {@code cupoImagenes} (un permiso por núcleo por defecto), y el hilo del
+     * request también cuenta: espera su permiso antes de procesar. Los
+     * ayudantes en el ejecutor, a lo sumo {@link #IMAGENES_EN_PARALELO}, solo
+     * se suman si hay permisos libres en ese momento; si no, el request avanza
+     * solo, así que una publicación de 5 fotos no acapara el cupo.
+     */
+    private List<PublicacionImagen> procesarImagenes(List<ImagenEntrada> entradas) {
+        PublicacionImagen[] resultados = new PublicacionImagen[entradas.size()];
+        AtomicInteger siguiente = new AtomicInteger();
+        CountDownLatch pendientes = new CountDownLatch(entradas.size());
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        Runnable trabajador = () -> {
+            int i;
+            while ((i = siguiente.getAndIncrement()) < resultados.length) {
+                try {
+                    if (error.get() == null) {
+                        ImagenEntrada entrada = entradas.get(i);
+                        resultados[i] = procesarImagenPublicacion(entrada.datos(), entrada.contentType(), i);
+                    }
+                } catch (RuntimeException | Error e) {
+                    error.compareAndSet(null, e);
+                } finally {
+                    pendientes.countDown();
+                }
+            }
+        };
+
+        try {
+            cupoImagenes.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Se interrumpió la espera para procesar las imágenes", e);
+        }
+        List<Ayudante> ayudantes = new ArrayList<>();
+        try {
+            if (ejecutorImagenes != null) {
+                for (int t = 0; t < Math.min(entradas.size() - 1, IMAGENES_EN_PARALELO)
+                        && cupoImagenes.tryAcquire(); t++) {
+                    Ayudante ayudante = new Ayudante(trabajador);
+                    ayudantes.add(ayudante);
+                    ejecutorImagenes.execute(ayudante);
+                }
+            }
+            trabajador.run();
+        } catch (RuntimeException e) {
+            ayudantes.forEach(Ayudante::descartar);
+            throw e;
+        } finally {
+            cupoImagenes.release();
+        }
+        try {
+            pendientes.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Se interrumpió el procesamiento de las imágenes", e);
+        } finally {
+            ayudantes.forEach(Ayudante::descartar);
+        }
+
+        if (error.get() instanceof RuntimeException e) {
+            throw e;
+        }
+        if (error.get() instanceof Error e) {
+            throw e;
+        }
+        return Arrays.asList(resultados);
+    }
+
+    /**
+     * Tarea del ejecutor que ya tiene su permiso de {@code cupoImagenes}. El
+     * permiso lo devuelve quien la reclame primero: la tarea al terminar o,
+     * si todavía no había empezado, {@link #descartar()}, y entonces ya no
+     * corre.
+     */
+    private final class Ayudante implements Runnable {
+
+        private final Runnable trabajador;
+        private final AtomicBoolean reclamado = new AtomicBoolean();
+
+        private Ayudante(Runnable trabajador) {
+            this.trabajador = trabajador;
+        }
+
+        @Override
+        public void run() {
+            if (!reclamado.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                trabajador.run();
+            } finally {
+                cupoImagenes.release();
+            }
+        }
+
+        private void descartar() {
+            if (reclamado.compareAndSet(false, true)) {
+                cupoImagenes.release();
+            }
+        }
+    }
+
+    /**
+     * Arma la entrada con el tipo detectado en la cabecera; el declarado por
+     * el cliente solo se usa si el lector no informa uno.
+     */
+    private ImagenEntrada entrada(ImagenRecibida recibida, String contentTypeDeclarado) {
+        String detectado = recibida.cabecera().contentType();
+        return new ImagenEntrada(recibida.datos(), detectado != null ? detectado : contentTypeDeclarado);
+    }
+
     /**
      * Procesa y almacena la imagen asociada a una publicación aplicando
-     * validaciones y optimizaciones.
+     * validaciones y optimizaciones. La imagen ya pasó por
+     * {@link RecepcionImagenes}, así que sus dimensiones están acotadas antes
+     * de decodificarla.
      */
     private PublicacionImagen procesarImagenPublicacion(byte[] bytes, String contentType, int orden) {
         if (bytes == null || bytes.length == 0) {
@@ -305,30 +547,26 @@ public class PublicacionService {
         String tipoNormalizado = normalizarContentType(contentType);
         byte[] originales = bytes;
 
-        try {
-            BufferedImage original = leerImagen(bytes);
+        try (DecodificadorImagenes.ImagenDecodificada original = leerImagen(bytes)) {
             if (original == null) {
                 log.warn("No se reconoce el formato de la imagen, se almacenará sin procesar");
                 return crearImagenSinProcesar(originales, tipoNormalizado, orden);
             }
 
-            ImagenProcesada procesada = optimizarImagen(bytes, tipoNormalizado, original);
+            ImagenProcesada procesada = optimizarImagen(bytes, tipoNormalizado, original.imagen());
             byte[] optimizadas = procesada.datos();
             if (optimizadas != null && optimizadas.length > MAX_IMAGE_BYTES) {
                 throw new IllegalArgumentException("La imagen supera el tamaño máximo permitido (5 MB)");
             }
             PublicacionImagen imagen = new PublicacionImagen();
             imagen.setOrden(orden);
-            imagen.setDatos(optimizadas);
-            imagen.setContentType(procesada.contentType());
+            aplicarProcesamiento(imagen, completar(procesada));
+            metricasImagenes.registrar("publicacion", bytes.length, optimizadas != null ? optimizadas.length : 0);
             return imagen;
-        } catch (OutOfMemoryError e) {
-            log.error("Sin memoria para procesar la imagen ({} bytes)", bytes != null ? bytes.length : -1, e);
-            throw new IllegalArgumentException("La imagen es demasiado grande para procesarla. Reducila e intentá nuevamente.");
         } catch (IOException e) {
             log.warn("No se pudo procesar la imagen, se almacenará sin optimización", e);
             return crearImagenSinProcesar(originales, tipoNormalizado, orden);
-        } catch (IllegalArgumentException e) {
+        } catch (IllegalArgumentException | DecodificacionSaturadaException e) {
             throw e;
         } catch (Exception e) {
             log.warn("No se pudo optimizar la imagen, se almacenará el archivo original", e);
@@ -336,11 +574,54 @@ public class PublicacionService {
         }
     }
 
+    /**
+     * Calcula lo que se deriva de los píxeles (la huella perceptual y la
+     * variante) y devuelve el resultado sin la imagen decodificada, para que
+     * su memoria se pueda liberar antes de guardarlo.
+     */
+    ImagenProcesada completar(ImagenProcesada procesada) {
+        long huella = HuellaPerceptual.calcular(procesada.imagen());
+        byte[] mejor = null;
+        String tipo = null;
+        for (CodificadorImagen codificador : codificadores) {
+            if (!codificador.admite(procesada.formato())) {
+                continue;
+            }
+            try {
+                byte[] variante = codificador.codificar(procesada.imagen());
+                int limite = mejor != null ? mejor.length : procesada.datos().length;
+                if (variante != null && variante.length < limite) {
+                    mejor = variante;
+                    tipo = codificador.contentType();
+                }
+            } catch (IOException | RuntimeException e) {
+                log.warn("No se pudo generar la variante {} de la imagen", codificador.contentType(), e);
+            }
+        }
+        return new ImagenProcesada(procesada.datos(), procesada.contentType(), null, procesada.formato(),
+                huella, mejor, tipo);
+    }
+
+    /**
+     * Guarda en la imagen un resultado ya {@linkplain #completar completado}:
+     * un contenido nuevo (aún sin compartir) con su huella perceptual y la
+     * variante, si corresponde. No trabaja sobre píxeles, así que se puede
+     * llamar dentro de una transacción.
+     */
+    void aplicarProcesamiento(PublicacionImagen imagen, ImagenProcesada procesada) {
+        imagen.setDatos(procesada.datos());
+        imagen.setContentType(procesada.contentType());
+        imagen.getContenido().setHuellaPerceptual(procesada.huella());
+        imagen.getContenido().setVariante(procesada.varianteDatos(), procesada.varianteContentType());
+    }
+
     /**
      * Completa los datos derivados de una publicación para ser mostrados en
-     * vistas o respuestas.
+     * vistas o respuestas. Las imágenes no se tocan: las vistas las piden a
+     * {@code /web/publicaciones/{id}/imagenes/{orden}} y la API las codifica
+     * en {@link PublicacionMapper}.
      */
-    private void prepararPublicacionParaLectura(Publicacion publicacion) {
+    void prepararPublicacionParaLectura(Publicacion publicacion) {
         if (publicacion == null) {
             return;
         }
@@ -352,50 +633,13 @@ public class PublicacionService {
         if (publicacion.getUsuario() != null) {
             publicacion.getUsuario().getUsername();
         }
-
-        if (publicacion.getImagenesOrdenadas() != null) {
-            for (PublicacionImagen imagen : publicacion.getImagenesOrdenadas()) {
-                byte[] datos = imagen.getDatos();
-                if (datos != null && datos.length > 0) {
-                    String base64 = Base64.getEncoder().encodeToString(datos);
-                    String contentType = imagen.getContentType();
-                    if (contentType == null || contentType.isBlank()) {
-                        contentType = "image/jpeg";
-                    }
-                    imagen.setBase64(base64);
-                    imagen.setDataUri("data:" + contentType + ";base64," + base64);
-                } else {
-                    imagen.setBase64(null);
-                    imagen.setDataUri(null);
-                }
-            }
-        }
     }
 
-    /**
-     * Decodifica una cadena Base64 aceptando variantes con espacios o saltos de
-     * línea.
-     */
-    private byte[] decodificarBase64(String base64Data) {
-        if (base64Data == null) {
-            return new byte[0];
-        }
-
-        String normalizado = base64Data.replace(' ', '+');
-        String limpio = BASE64_WHITESPACE.matcher(normalizado).replaceAll("");
-
-        if (limpio.isEmpty()) {
-            return new byte[0];
-        }
-
-        try {
-            if (!BASE64_ALLOWED.matcher(limpio).matches()) {
-                throw new IllegalArgumentException("Los datos de la imagen no están en formato Base64 válido");
-            }
-            return Base64.getMimeDecoder().decode(limpio);
-        } catch (IllegalArgumentException e) {
-            throw new IllegalArgumentException("Los datos de la imagen no están en formato Base64 válido", e);
+    private String contentTypeDeclarado(CrearPublicacionDTO dto, int posicion) {
+        if (dto.getImagenesContentType() != null && dto.getImagenesContentType().size() > posicion) {
+            return dto.getImagenesContentType().get(posicion);
         }
+        return null;
     }
 
     /**
@@ -443,38 +687,88 @@ public class PublicacionService {
                 && publicacion.getUsuario().getUsername().equalsIgnoreCase(username.trim());
     }
 
-    private ImagenProcesada optimizarImagen(byte[] bytes, String contentType, BufferedImage original) throws IOException {
+    /**
+     * Escala la imagen si hace falta, endereza los JPEG según su orientación
+     * EXIF (después de escalar, sobre menos píxeles) y la codifica una sola vez en el formato que corresponde a su
+     * contenido (ver {@link #formatoDeSalida}). Los JPEG siempre se prueban
+     * recomprimidos; si la versión codificada no resulta más chica que la
+     * original (sin metadatos, en el caso de JPEG), se conservan los bytes
+     * originales.
+     */
+    ImagenProcesada optimizarImagen(byte[] bytes, String contentType, BufferedImage original) throws IOException {
         if (bytes == null || original == null) {
             throw new IllegalArgumentException("Imagen inválida");
         }
 
-        boolean esJpeg = contentType != null && (contentType.equalsIgnoreCase("image/jpeg")
-                || contentType.equalsIgnoreCase("image/jpg"));
-
-        EscaladoResult escalado = escalarSiEsNecesario(original, contentType);
-        BufferedImage imagenBase = original;
-        byte[] datos = bytes;
-        if (escalado != null) {
-            imagenBase = escalado.imagen();
-            datos = escalado.datos();
-        }
-
-        if (!esJpeg && (contentType == null || contentType.isBlank() || !contentType.contains("png"))) {
-            byte[] recomprimida = recomprimirComoJpeg(imagenBase);
-            if (recomprimida != null && recomprimida.length < datos.length) {
-                datos = recomprimida;
-                contentType = "image/jpeg";
+        String formatoOriginal = obtenerFormatoDesdeContentType(contentType);
+        boolean esJpeg = "jpg".equals(formatoOriginal);
+        BufferedImage escalada = escalarSiEsNecesario(original, contentType);
+        BufferedImage base = escalada != null ? escalada : original;
+        BufferedImage imagen = esJpeg ? MetadatosJpeg.orientar(base, MetadatosJpeg.orientacion(bytes)) : base;
+        String formato = formatoDeSalida(formatoOriginal, imagen);
+        // Si los píxeles cambiaron, los bytes originales ya no sirven.
+        boolean transformada = imagen != original;
+        byte[] datos = esJpeg && !transformada ? MetadatosJpeg.sinMetadatos(bytes) : bytes;
+        String tipo = contentType;
+        String formatoFinal = formatoOriginal;
+        if (transformada || !formato.equals(formatoOriginal) || esJpeg) {
+            byte[] codificada = codificar(imagen, formato);
+            if (transformada || codificada.length < datos.length) {
+                datos = codificada;
+                tipo = contentTypeDeFormato(formato);
+                formatoFinal = formato;
             }
         }
 
-        if (datos != null && datos.length > MAX_IMAGE_BYTES) {
+        if (datos.length > MAX_IMAGE_BYTES) {
             throw new IllegalArgumentException("La imagen supera el tamaño máximo permitido (5 MB)");
         }
 
-        return new ImagenProcesada(datos, contentType != null ? contentType : "image/jpeg");
+        return new ImagenProcesada(datos, tipo != null ? tipo : "image/jpeg", imagen, formatoFinal);
     }
 
-    private EscaladoResult escalarSiEsNecesario(BufferedImage original, String contentType) throws IOException {
+    /**
+     * Elige el formato de salida antes de codificar. JPEG y PNG se mantienen
+     * (el PNG puede traer transparencia que el cliente espera conservar). El
+     * resto pasa a PNG si tiene transparencia, paleta o pocos colores
+     * (capturas, ilustraciones), donde la compresión sin pérdida rinde más y
+     * JPEG deja artefactos, y a JPEG si parece una foto.
+     */
+    static String formatoDeSalida(String formatoOriginal, BufferedImage imagen) {
+        if ("jpg".equals(formatoOriginal) || "png".equals(formatoOriginal)) {
+            return formatoOriginal;
+        }
+        ColorModel colorModel = imagen.getColorModel();
+        if (colorModel.hasAlpha() || colorModel instanceof IndexColorModel || tienePocosColores(imagen)) {
+            return "png";
+        }
+        return "jpg";
+    }
+
+    /**
+     * Cuenta colores distintos sobre una grilla de hasta 64 × 64 puntos; con
+     * {@value #MAX_COLORES_GRAFICO} o menos la imagen se trata como gráfico.
+     */
+    private static boolean tienePocosColores(BufferedImage imagen) {
+        int pasoX = Math.max(1, imagen.getWidth() / 64);
+        int pasoY = Math.max(1, imagen.getHeight() / 64);
+        Set<Integer> colores = new HashSet<>();
+        for (int y = 0; y < imagen.getHeight(); y += pasoY) {
+            for (int x = 0; x < imagen.getWidth(); x += pasoX) {
+                if (colores.add(imagen.getRGB(x, y) & 0xFFFFFF) && colores.size() > MAX_COLORES_GRAFICO) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Reduce la imagen para que su lado más largo sea {@link #MAX_IMAGE_DIMENSION}.
+     *
+     * @return la imagen escalada, o {@code null} si ya entraba en el límite
+     */
+    BufferedImage escalarSiEsNecesario(BufferedImage original, String contentType) {
         int width = original.getWidth();
         int height = original.getHeight();
         int maxDimension = Math.max(width, height);
@@ -486,8 +780,9 @@ public class PublicacionService {
         int newWidth = (int) Math.round(width * scale);
         int newHeight = (int) Math.round(height * scale);
 
-        boolean formatoConTransparencia = contentType != null && (contentType.contains("png") || contentType.contains("gif"));
-        boolean requiereTransparencia = formatoConTransparencia && original.getColorModel() != null
+        // Solo JPEG descarta el canal alfa; los demás formatos de salida lo conservan.
+        boolean esJpeg = "jpg".equals(obtenerFormatoDesdeContentType(contentType));
+        boolean requiereTransparencia = !esJpeg && original.getColorModel() != null
                 && original.getColorModel().hasAlpha();
         int imageType = requiereTransparencia ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
 
@@ -501,66 +796,124 @@ public class PublicacionService {
         } finally {
             g2d.dispose();
         }
-
-        String format = obtenerFormatoDesdeContentType(contentType);
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            if (!ImageIO.write(escalada, format, baos)) {
-                return null;
-            }
-            return new EscaladoResult(baos.toByteArray(), escalada);
-        }
+        return escalada;
     }
 
-    private byte[] recomprimirComoJpeg(BufferedImage image) throws IOException {
-        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
-        Graphics2D g2d = rgb.createGraphics();
-        try {
-            g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
-            g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-            g2d.drawImage(image, 0, 0, null);
-        } finally {
-            g2d.dispose();
+    private byte[] codificar(BufferedImage imagen, String formato) throws IOException {
+        if ("jpg".equals(formato)) {
+            return recomprimirComoJpeg(imagen);
         }
+        return ESCRITORES.escribir(imagen, formato, null);
+    }
 
-        java.util.Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName("jpg");
-        if (!writers.hasNext()) {
-            try (ByteArrayOutputStream fallback = new ByteArrayOutputStream()) {
-                if (!ImageIO.write(rgb, "jpg", fallback)) {
-                    return convertirBufferedImageABytes(image, "jpg");
-                }
-                return fallback.toByteArray();
+    /**
+     * Codifica en JPEG con la menor calidad cuyo SSIM contra la imagen
+     * alcanza {@link #SSIM_OBJETIVO}. Busca en forma binaria entre
+     * {@link #JPEG_CALIDAD_MINIMA} y {@link #JPEG_CALIDAD_MAXIMA} en pasos de
+     * 0,05, así que cuesta tres o cuatro codificaciones: una foto con mucho
+     * detalle necesita más calidad que una de fondo liso para verse igual.
+     * Si ni la calidad máxima alcanza el objetivo, se usa esa.
+     */
+    byte[] recomprimirComoJpeg(BufferedImage image) throws IOException {
+        BufferedImage rgb = comoRgb(image);
+        Ssim referencia = Ssim.de(rgb);
+        byte[] elegida = null;
+        byte[] maxima = null;
+        int desde = 0;
+        int hasta = JPEG_PASOS_CALIDAD;
+        while (desde <= hasta) {
+            int paso = (desde + hasta) >>> 1;
+            byte[] candidata = recomprimirComoJpeg(rgb, JPEG_CALIDAD_MINIMA + paso * JPEG_CALIDAD_PASO);
+            if (paso == JPEG_PASOS_CALIDAD) {
+                maxima = candidata;
             }
+            BufferedImage decodificada = ImageIO.read(new ByteArrayInputStream(candidata));
+            if (decodificada != null && referencia.comparar(decodificada) >= SSIM_OBJETIVO) {
+                elegida = candidata;
+                hasta = paso - 1;
+            } else {
+                desde = paso + 1;
+            }
+        }
+        if (elegida != null) {
+            return elegida;
         }
+        return maxima != null ? maxima : recomprimirComoJpeg(rgb, JPEG_CALIDAD_MAXIMA);
+    }
 
-        ImageWriter writer = writers.next();
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
-             ImageOutputStream ios = ImageIO.createImageOutputStream(baos)) {
-            writer.setOutput(ios);
-            ImageWriteParam param = writer.getDefaultWriteParam();
+    /**
+     * Codifica en JPEG progresivo con tablas de Huffman optimizadas y sin
+     * metadatos. Las imágenes que ya son RGB o escala de grises se escriben
+     * tal cual; las que tienen alfa o paleta se pasan antes a RGB porque el
+     * escritor JPEG no las acepta.
+     */
+    byte[] recomprimirComoJpeg(BufferedImage image, float calidad) throws IOException {
+        return ESCRITORES.escribir(comoRgb(image), "jpg", param -> {
             if (param.canWriteCompressed()) {
                 param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
-                param.setCompressionQuality(0.8f);
+                param.setCompressionQuality(calidad);
             }
-            writer.write(null, new IIOImage(rgb, null, null), param);
-            ios.flush();
-            return baos.toByteArray();
-        } finally {
-            writer.dispose();
-        }
+            if (param.canWriteProgressive()) {
+                param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            }
+            if (param instanceof JPEGImageWriteParam jpeg) {
+                jpeg.setOptimizeHuffmanTables(true);
+            }
+        });
     }
 
-    private byte[] convertirBufferedImageABytes(BufferedImage image, String format) throws IOException {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            if (!ImageIO.write(image, format, baos)) {
-                return new byte[0];
+    private static BufferedImage comoRgb(BufferedImage image) {
+        switch (image.getType()) {
+            case BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_BGR, BufferedImage.TYPE_3BYTE_BGR,
+                 BufferedImage.TYPE_BYTE_GRAY -> {
+                return image;
+            }
+            default -> {
+                BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+                Graphics2D g2d = rgb.createGraphics();
+                try {
+                    g2d.drawImage(image, 0, 0, null);
+                } finally {
+                    g2d.dispose();
+                }
+                return rgb;
             }
-            return baos.toByteArray();
         }
     }
 
-    private BufferedImage leerImagen(byte[] data) throws IOException {
-        try (ByteArrayInputStream input = new ByteArrayInputStream(data)) {
-            return ImageIO.read(input);
+    /**
+     * Decodifica la imagen con el {@link DecodificadorImagenes} del nodo, que
+     * antes de leer píxeles valida las dimensiones declaradas y reserva la
+     * memoria de la imagen del presupuesto compartido hasta que se cierra el
+     * resultado. Si supera el doble de
+     * {@link #MAX_IMAGE_DIMENSION} se lee submuestreada
+     * ({@link ImageReadParam#setSourceSubsampling}) a un tamaño de entre 2 y 4
+     * veces el final: una foto de 6000 × 4000 queda en 3000 × 2000 sin llegar
+     * a reservar el buffer completo, y el escalado bicúbico posterior parte
+     * de una imagen cuatro veces más chica.
+     *
+     * @return la imagen con su reserva, o {@code null} si ningún lector reconoce el formato
+     * @throws IllegalArgumentException        si la imagen excede los límites o no se decodifica a tiempo
+     * @throws DecodificacionSaturadaException si otras imágenes ocupan la memoria disponible
+     */
+    DecodificadorImagenes.ImagenDecodificada leerImagen(byte[] data) throws IOException {
+        return decodificador.leer(data, LIMITES_ENTRADA, PublicacionService::pasoSubmuestreo);
+    }
+
+    /** Mayor paso que deja el lado más largo en al menos el doble del máximo final. */
+    static int pasoSubmuestreo(int ancho, int alto) {
+        return Math.max(1, Math.max(ancho, alto) / (2 * MAX_IMAGE_DIMENSION));
+    }
+
+    /**
+     * Reemplaza los contenidos recién procesados por los ya almacenados con
+     * los mismos bytes, para que una imagen repetida se guarde una sola vez.
+     */
+    private void compartirContenidos(List<PublicacionImagen> imagenes) {
+        List<ContenidoImagen> compartidos = almacenImagenes.compartir(
+                imagenes.stream().map(PublicacionImagen::getContenido).toList(), "publicacion");
+        for (int i = 0; i < imagenes.size(); i++) {
+            imagenes.get(i).setContenido(compartidos.get(i));
         }
     }
 
@@ -575,6 +928,7 @@ public class PublicacionService {
         imagen.setOrden(orden);
         imagen.setDatos(datosOriginales.clone());
         imagen.setContentType(contentType);
+        metricasImagenes.registrar("publicacion", datosOriginales.length, datosOriginales.length);
         return imagen;
     }
 
@@ -594,15 +948,39 @@ public class PublicacionService {
         return "jpg";
     }
 
+    private String contentTypeDeFormato(String formato) {
+        return switch (formato) {
+            case "png" -> "image/png";
+            case "gif" -> "image/gif";
+            case "bmp" -> "image/bmp";
+            default -> "image/jpeg";
+        };
+    }
+
     private record ImagenEntrada(byte[] datos, String contentType) {}
 
-    private static class ImagenProcesada {
+    static class ImagenProcesada {
         private final byte[] datos;
         private final String contentType;
+        private final BufferedImage imagen;
+        private final String formato;
+        private final Long huella;
+        private final byte[] varianteDatos;
+        private final String varianteContentType;
 
-        private ImagenProcesada(byte[] datos, String contentType) {
+        private ImagenProcesada(byte[] datos, String contentType, BufferedImage imagen, String formato) {
+            this(datos, contentType, imagen, formato, null, null, null);
+        }
+
+        private ImagenProcesada(byte[] datos, String contentType, BufferedImage imagen, String formato,
+                                Long huella, byte[] varianteDatos, String varianteContentType) {
             this.datos = datos;
             this.contentType = contentType;
+            this.imagen = imagen;
+            this.formato = formato;
+            this.huella = huella;
+            this.varianteDatos = varianteDatos;
+            this.varianteContentType = varianteContentType;
         }
 
         public byte[] datos() {
@@ -612,23 +990,30 @@ public class PublicacionService {
         public String contentType() {
             return contentType;
         }
-    }
 
-    private static class EscaladoResult {
-        private final byte[] datos;
-        private final BufferedImage imagen;
+        /**
+         * Imagen decodificada (y escalada si hizo falta) que representan los
+         * bytes; {@code null} una vez completado el resultado.
+         */
+        public BufferedImage imagen() {
+            return imagen;
+        }
 
-        private EscaladoResult(byte[] datos, BufferedImage imagen) {
-            this.datos = datos;
-            this.imagen = imagen;
+        /** Formato de los bytes: {@code jpg}, {@code png}, {@code gif} o {@code bmp}. */
+        public String formato() {
+            return formato;
         }
 
-        public byte[] datos() {
-            return datos;
+        public Long huella() {
+            return huella;
         }
 
-        public BufferedImage imagen() {
-            return imagen;
+        public byte[] varianteDatos() {
+            return varianteDatos;
+        }
+
+        public String varianteContentType() {
+            return varianteContentType;
         }
     }
 }
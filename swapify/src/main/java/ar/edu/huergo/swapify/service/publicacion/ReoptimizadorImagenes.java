@@ -0,0 +1,410 @@
+package ar.edu.huergo.swapify.service.publicacion;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ar.edu.huergo.swapify.config.ConcurrenciaConfig;
+import ar.edu.huergo.swapify.entity.publicacion.ContenidoImagen;
+import ar.edu.huergo.swapify.entity.publicacion.EstadoReoptimizacion;
+import ar.edu.huergo.swapify.entity.publicacion.Oferta;
+import ar.edu.huergo.swapify.entity.publicacion.ProgresoReoptimizacion;
+import ar.edu.huergo.swapify.entity.publicacion.PublicacionImagen;
+import ar.edu.huergo.swapify.repository.publicacion.ProgresoReoptimizacionRepository;
+import ar.edu.huergo.swapify.service.imagen.AlmacenImagenes;
+import ar.edu.huergo.swapify.service.imagen.DecodificadorImagenes;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Vuelve a pasar por el pipeline actual de {@link PublicacionService} las
+ * imágenes guardadas antes de cada mejora: primero las de publicaciones y
+ * después las de ofertas, en lotes ordenados por identificador. Una imagen
+ * se reemplaza solo si el resultado ahorra al menos
+ * {@code swapify.imagenes.reoptimizacion.ahorro-minimo}; así una segunda
+ * pasada no recomprime una y otra vez el mismo JPEG.
+ *
+ * <p>Cada lote se lee en una transacción corta, se procesa sin conexión
+ * tomada y se confirma en otra transacción junto con el avance del
+ * recorrido, de modo que pausar, reiniciar la aplicación o un error dejan el
+ * trabajo listo para retomar desde el último lote. Entre lotes el hilo
+ * duerme lo necesario para no usar más de
+ * {@code swapify.imagenes.reoptimizacion.presupuesto-cpu} de un núcleo.</p>
+ *
+ * <p>Con varios nodos (perfil {@code servidor}) el trabajo corre en uno solo:
+ * se reclama con un {@code UPDATE} condicional sobre la fila de
+ * {@link ProgresoReoptimizacion}, y cada lote se confirma solo si ese nodo
+ * sigue siendo el dueño y el cursor no se movió. Si el nodo se cae, otro
+ * puede retomarlo cuando vence {@code swapify.imagenes.reoptimizacion.vencimiento}.
+ * Al confirmar, cada fila se relee bloqueada y se reemplaza solo si todavía
+ * apunta al contenido que se procesó.</p>
+ */
+@Service
+@Slf4j
+public class ReoptimizadorImagenes {
+
+    private static final long PAUSA_MAXIMA_MS = 250;
+    private static final Integer ID = ProgresoReoptimizacion.ID;
+
+    private final ProgresoReoptimizacionRepository progresoRepository;
+    private final PublicacionService publicacionService;
+    private final AlmacenImagenes almacenImagenes;
+    private final TransactionTemplate transacciones;
+    private final AsyncTaskExecutor ejecutor;
+    private final int tamanioLote;
+    private final double presupuestoCpu;
+    private final double ahorroMinimo;
+    private final Duration vencimiento;
+    private final String propietario;
+    private final AtomicBoolean enCurso = new AtomicBoolean();
+    private volatile boolean pausaSolicitada;
+
+    public ReoptimizadorImagenes(ProgresoReoptimizacionRepository progresoRepository,
+                                 PublicacionService publicacionService,
+                                 AlmacenImagenes almacenImagenes,
+                                 PlatformTransactionManager transactionManager,
+                                 @Qualifier(ConcurrenciaConfig.EJECUTOR_REOPTIMIZACION) AsyncTaskExecutor ejecutor,
+                                 @Value("${swapify.imagenes.reoptimizacion.lote:20}") int tamanioLote,
+                                 @Value("${swapify.imagenes.reoptimizacion.presupuesto-cpu:0.25}") double presupuestoCpu,
+                                 @Value("${swapify.imagenes.reoptimizacion.ahorro-minimo:0.05}") double ahorroMinimo,
+                                 @Value("${swapify.imagenes.reoptimizacion.vencimiento:10m}") Duration vencimiento) {
+        this.progresoRepository = progresoRepository;
+        this.publicacionService = publicacionService;
+        this.almacenImagenes = almacenImagenes;
+        this.transacciones = new TransactionTemplate(transactionManager);
+        this.ejecutor = ejecutor;
+        this.tamanioLote = Math.max(1, tamanioLote);
+        this.presupuestoCpu = Math.min(1.0, Math.max(0.01, presupuestoCpu));
+        this.ahorroMinimo = Math.max(0, ahorroMinimo);
+        this.vencimiento = vencimiento;
+        this.propietario = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+    }
+
+    /**
+     * Reclama el trabajo para este nodo y lo inicia en segundo plano. Si
+     * estaba pausado o quedó interrumpido, continúa desde el último lote; si
+     * había terminado, empieza una pasada nueva.
+     *
+     * @throws IllegalStateException si ya está en curso en esta u otra instancia
+     */
+    public Resumen iniciar() {
+        if (!enCurso.compareAndSet(false, true)) {
+            throw new IllegalStateException("La reoptimización ya está en curso");
+        }
+        boolean reclamado = false;
+        try {
+            crearFilaSiFalta();
+            transacciones.executeWithoutResult(estado -> {
+                LocalDateTime ahora = LocalDateTime.now();
+                if (progresoRepository.reclamar(ID, propietario, ahora, ahora.minus(vencimiento)) == 0) {
+                    throw new IllegalStateException("La reoptimización ya está en curso en otro nodo");
+                }
+                ProgresoReoptimizacion progreso = progresoRepository.findById(ID).orElseThrow();
+                if (progreso.getEstado() == EstadoReoptimizacion.PENDIENTE
+                        || progreso.getEstado() == EstadoReoptimizacion.FINALIZADA) {
+                    progreso.reiniciar();
+                }
+                progreso.setEstado(EstadoReoptimizacion.EN_CURSO);
+                progreso.setUltimoError(null);
+                progreso.setActualizadaEn(ahora);
+            });
+            reclamado = true;
+            pausaSolicitada = false;
+            ejecutor.execute(this::ejecutar);
+        } catch (RuntimeException e) {
+            if (reclamado) {
+                cerrar(EstadoReoptimizacion.PAUSADA, e.getMessage());
+            }
+            enCurso.set(false);
+            throw e;
+        }
+        return resumen();
+    }
+
+    /**
+     * Pausa el trabajo, corra en este nodo o en otro. El lote que se esté
+     * procesando se descarta y se vuelve a revisar al reanudar.
+     */
+    public void pausar() {
+        pausaSolicitada = true;
+        transacciones.executeWithoutResult(estado -> progresoRepository.pausarEnCurso(ID,
+                EstadoReoptimizacion.EN_CURSO, EstadoReoptimizacion.PAUSADA, LocalDateTime.now()));
+    }
+
+    /** Al apagar el nodo se detiene el trabajo local, que queda pausado y libre para otro nodo. */
+    @PreDestroy
+    public void detener() {
+        pausaSolicitada = true;
+    }
+
+    public Resumen resumen() {
+        ProgresoReoptimizacion progreso = transacciones.execute(estado ->
+                progresoRepository.findById(ID).orElseGet(ProgresoReoptimizacion::new));
+        long pendientes = transacciones.execute(estado ->
+                progresoRepository.contarImagenesDesde(progreso.getUltimaImagenId())
+                        + progresoRepository.contarOfertasConImagenDesde(progreso.getUltimaOfertaId()));
+        boolean interrumpida = progreso.getEstado() == EstadoReoptimizacion.EN_CURSO && !enCurso.get()
+                && (progreso.getLatidoEn() == null
+                    || progreso.getLatidoEn().isBefore(LocalDateTime.now().minus(vencimiento)));
+        return new Resumen(progreso.getEstado(), interrumpida, progreso.getRevisadas(), progreso.getReemplazadas(),
+                progreso.getBytesAntes(), progreso.getBytesAhorrados(), pendientes, progreso.getIniciadaEn(),
+                progreso.getActualizadaEn(), progreso.getFinalizadaEn(), progreso.getUltimoError());
+    }
+
+    /** Recorre lotes hasta terminar, hasta que se pida la pausa o hasta perder el reclamo. */
+    void ejecutar() {
+        try {
+            ThreadMXBean hilos = ManagementFactory.getThreadMXBean();
+            boolean midoCpu = hilos.isCurrentThreadCpuTimeSupported();
+            while (!pausaSolicitada) {
+                long inicio = System.nanoTime();
+                long cpuInicial = midoCpu ? hilos.getCurrentThreadCpuTime() : 0;
+                if (!procesarLote()) {
+                    cerrar(EstadoReoptimizacion.FINALIZADA, null);
+                    log.info("Reoptimización de imágenes finalizada");
+                    return;
+                }
+                long transcurrido = System.nanoTime() - inicio;
+                long cpu = midoCpu ? hilos.getCurrentThreadCpuTime() - cpuInicial : transcurrido;
+                // El latido se renueva al confirmar cada lote: la espera no puede acercarse al vencimiento.
+                esperar(Math.min((long) (cpu / presupuestoCpu) - transcurrido, vencimiento.toNanos() / 2));
+            }
+            cerrar(EstadoReoptimizacion.PAUSADA, null);
+        } catch (ReclamoPerdidoException e) {
+            log.info("La reoptimización de imágenes se detuvo: se pausó o la tomó otro nodo");
+        } catch (RuntimeException e) {
+            log.error("La reoptimización de imágenes se detuvo por un error", e);
+            cerrar(EstadoReoptimizacion.PAUSADA, e.getMessage());
+        } finally {
+            enCurso.set(false);
+        }
+    }
+
+    /**
+     * Lee el siguiente lote, lo procesa fuera de toda transacción y confirma
+     * los reemplazos junto con el avance del cursor.
+     *
+     * @return {@code false} si ya no quedaban filas por revisar
+     * @throws ReclamoPerdidoException si el trabajo se pausó o lo tomó otro nodo
+     */
+    boolean procesarLote() {
+        Lote lote = transacciones.execute(estado -> leerLote());
+        if (lote == null) {
+            return false;
+        }
+        List<Reemplazo> reemplazos = new ArrayList<>();
+        for (Pendiente pendiente : lote.pendientes()) {
+            PublicacionService.ImagenProcesada procesada = procesar(pendiente.datos(), pendiente.contentType());
+            if (procesada != null) {
+                reemplazos.add(new Reemplazo(pendiente, procesada));
+            }
+        }
+        transacciones.executeWithoutResult(estado -> confirmar(lote, reemplazos));
+        return true;
+    }
+
+    /** Copia los bytes de las filas siguientes al cursor; {@code null} si no queda ninguna. */
+    private Lote leerLote() {
+        ProgresoReoptimizacion progreso = progresoRepository.findById(ID).orElseThrow();
+        long imagenDesde = progreso.getUltimaImagenId();
+        long ofertaDesde = progreso.getUltimaOfertaId();
+        Pageable pagina = PageRequest.of(0, tamanioLote);
+        List<PublicacionImagen> imagenes = progresoRepository.imagenesDesde(imagenDesde, pagina);
+        if (!imagenes.isEmpty()) {
+            List<Pendiente> pendientes = imagenes.stream()
+                    .map(imagen -> new Pendiente(imagen.getId(), idDe(imagen.getContenido()),
+                            imagen.getDatos(), imagen.getContentType()))
+                    .toList();
+            return new Lote(false, imagenDesde, ofertaDesde, imagenes.get(imagenes.size() - 1).getId(), pendientes);
+        }
+        List<Oferta> ofertas = progresoRepository.ofertasConImagenDesde(ofertaDesde, pagina);
+        if (ofertas.isEmpty()) {
+            return null;
+        }
+        List<Pendiente> pendientes = ofertas.stream()
+                .map(oferta -> new Pendiente(oferta.getId(), idDe(oferta.getContenidoImagen()),
+                        oferta.getImagen(), oferta.getImagenContentType()))
+                .toList();
+        return new Lote(true, imagenDesde, ofertaDesde, ofertas.get(ofertas.size() - 1).getId(), pendientes);
+    }
+
+    /**
+     * Avanza el cursor si este nodo sigue siendo el dueño y aplica los
+     * reemplazos cuyas filas no cambiaron mientras se procesaban.
+     */
+    private void confirmar(Lote lote, List<Reemplazo> reemplazos) {
+        long imagenHasta = lote.ofertas() ? lote.imagenDesde() : lote.hasta();
+        long ofertaHasta = lote.ofertas() ? lote.hasta() : lote.ofertaDesde();
+        if (progresoRepository.avanzar(ID, propietario, EstadoReoptimizacion.EN_CURSO, lote.imagenDesde(),
+                lote.ofertaDesde(), imagenHasta, ofertaHasta, LocalDateTime.now()) == 0) {
+            throw new ReclamoPerdidoException();
+        }
+        Map<Long, Reemplazo> porId = new HashMap<>();
+        reemplazos.forEach(reemplazo -> porId.put(reemplazo.pendiente().id(), reemplazo));
+        List<Reemplazo> aplicados = new ArrayList<>();
+        List<Long> liberados = new ArrayList<>();
+        if (!porId.isEmpty() && !lote.ofertas()) {
+            for (PublicacionImagen imagen : progresoRepository.bloquearImagenes(porId.keySet())) {
+                Reemplazo reemplazo = porId.get(imagen.getId());
+                if (!Objects.equals(idDe(imagen.getContenido()), reemplazo.pendiente().contenidoId())) {
+                    continue;
+                }
+                if (imagen.getContenido() != null) {
+                    liberados.add(imagen.getContenido().getId());
+                }
+                publicacionService.aplicarProcesamiento(imagen, reemplazo.procesada());
+                imagen.setContenido(almacenImagenes.compartir(List.of(imagen.getContenido()), "reoptimizacion").get(0));
+                aplicados.add(reemplazo);
+            }
+        } else if (!porId.isEmpty()) {
+            for (Oferta oferta : progresoRepository.bloquearOfertas(porId.keySet())) {
+                Reemplazo reemplazo = porId.get(oferta.getId());
+                if (!Objects.equals(idDe(oferta.getContenidoImagen()), reemplazo.pendiente().contenidoId())) {
+                    continue;
+                }
+                if (oferta.getContenidoImagen() != null) {
+                    liberados.add(oferta.getContenidoImagen().getId());
+                }
+                oferta.setImagen(reemplazo.procesada().datos());
+                oferta.setImagenContentType(reemplazo.procesada().contentType());
+                oferta.setContenidoImagen(almacenImagenes.compartir(List.of(oferta.getContenidoImagen()),
+                        "reoptimizacion").get(0));
+                aplicados.add(reemplazo);
+            }
+        }
+        almacenImagenes.liberar(liberados);
+
+        ProgresoReoptimizacion progreso = progresoRepository.findById(ID).orElseThrow();
+        progreso.registrarRevisadas(lote.pendientes().stream().filter(Pendiente::tieneDatos).count());
+        for (Reemplazo reemplazo : aplicados) {
+            progreso.registrarReemplazo(reemplazo.pendiente().datos().length, reemplazo.procesada().datos().length);
+        }
+    }
+
+    /**
+     * @return el resultado del pipeline, o {@code null} si la imagen no se
+     *         puede leer o no ahorra lo suficiente
+     */
+    private PublicacionService.ImagenProcesada procesar(byte[] actuales, String contentType) {
+        if (actuales == null || actuales.length == 0) {
+            return null;
+        }
+        try (DecodificadorImagenes.ImagenDecodificada decodificada = publicacionService.leerImagen(actuales)) {
+            if (decodificada == null) {
+                return null;
+            }
+            PublicacionService.ImagenProcesada procesada =
+                    publicacionService.optimizarImagen(actuales, contentType, decodificada.imagen());
+            boolean ahorra = procesada.datos().length <= actuales.length * (1 - ahorroMinimo)
+                    && procesada.datos().length < actuales.length;
+            return ahorra ? publicacionService.completar(procesada) : null;
+        } catch (IOException | IllegalArgumentException e) {
+            log.debug("Se conserva una imagen que no se pudo reoptimizar", e);
+            return null;
+        }
+    }
+
+    /** Crea la fila de progreso la primera vez; si otro nodo la creó a la vez, se usa esa. */
+    private void crearFilaSiFalta() {
+        try {
+            transacciones.executeWithoutResult(estado -> {
+                if (!progresoRepository.existsById(ID)) {
+                    progresoRepository.saveAndFlush(new ProgresoReoptimizacion());
+                }
+            });
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Otro nodo creó la fila de progreso de la reoptimización");
+        }
+    }
+
+    private void cerrar(EstadoReoptimizacion estadoFinal, String error) {
+        LocalDateTime ahora = LocalDateTime.now();
+        String mensaje = error != null && error.length() > 500 ? error.substring(0, 500) : error;
+        transacciones.executeWithoutResult(estado -> progresoRepository.soltar(ID, propietario, estadoFinal, ahora,
+                estadoFinal == EstadoReoptimizacion.FINALIZADA ? ahora : null, mensaje));
+    }
+
+    private static Long idDe(ContenidoImagen contenido) {
+        return contenido != null ? contenido.getId() : null;
+    }
+
+    /** Duerme en tramos cortos para atender una pausa pedida mientras tanto. */
+    private void esperar(long nanos) {
+        long limite = System.nanoTime() + nanos;
+        while (!pausaSolicitada) {
+            long restante = TimeUnit.NANOSECONDS.toMillis(limite - System.nanoTime());
+            if (restante <= 0) {
+                return;
+            }
+            try {
+                Thread.sleep(Math.min(restante, PAUSA_MAXIMA_MS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                pausaSolicitada = true;
+            }
+        }
+    }
+
+    /** Copia de una fila leída para procesarla fuera de la transacción. */
+    private record Pendiente(Long id, Long contenidoId, byte[] datos, String contentType) {
+
+        boolean tieneDatos() {
+            return datos != null && datos.length > 0;
+        }
+    }
+
+    /**
+     * @param ofertas si el lote es de ofertas; si no, de imágenes de publicaciones
+     * @param hasta   último identificador del lote
+     */
+    private record Lote(boolean ofertas, long imagenDesde, long ofertaDesde, long hasta, List<Pendiente> pendientes) {
+    }
+
+    private record Reemplazo(Pendiente pendiente, PublicacionService.ImagenProcesada procesada) {
+    }
+
+    /** El trabajo se pausó o lo tomó otro nodo mientras se procesaba un lote. */
+    static final class ReclamoPerdidoException extends RuntimeException {
+
+        ReclamoPerdidoException() {
+            super("El trabajo de reoptimización ya no pertenece a este nodo");
+        }
+    }
+
+    /**
+     * Estado para el panel de administración.
+     *
+     * @param interrumpida quedó en curso en la base pero ningún nodo renovó su
+     *                     latido a tiempo (por ejemplo, tras un reinicio)
+     * @param pendientes   filas que faltan revisar en esta pasada
+     */
+    public record Resumen(EstadoReoptimizacion estado, boolean interrumpida, long revisadas, long reemplazadas,
+                          long bytesAntes, long bytesAhorrados, long pendientes, LocalDateTime iniciadaEn,
+                          LocalDateTime actualizadaEn, LocalDateTime finalizadaEn, String ultimoError) {
+
+        public int porcentaje() {
+            long total = revisadas + pendientes;
+            return total == 0 ? 100 : (int) (100 * revisadas / total);
+        }
+    }
+}
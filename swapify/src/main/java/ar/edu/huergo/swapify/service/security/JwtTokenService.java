@@ -9,6 +9,7 @@ import javax.crypto.SecretKey;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 
@@ -18,6 +19,13 @@ import io.jsonwebtoken.security.Keys;
 @Service
 public class JwtTokenService {
 
+    /**
+     * Momento de emisión en milisegundos. El {@code iat} estándar tiene
+     * resolución de segundos y no alcanza para comparar con una revocación
+     * hecha en el mismo segundo.
+     */
+    public static final String CLAIM_EMITIDO_MS = "iat_ms";
+
     /**
      * Clave secreta usada para firmar y verificar tokens. Se crea en el constructor desde
      * application.properties (security.jwt.secret).
@@ -48,7 +56,7 @@ public class JwtTokenService {
         Instant expiry = now.plusMillis(expirationMillis);
 
         return Jwts.builder().subject(userDetails.getUsername()).issuedAt(Date.from(now))
-                .expiration(Date.from(expiry)).claims(Map.of("roles", roles)).signWith(signingKey)
+                .expiration(Date.from(expiry)).claims(Map.of("roles", roles, CLAIM_EMITIDO_MS, now.toEpochMilli())).signWith(signingKey)
                 .compact();
     }
 
@@ -61,6 +69,29 @@ public class JwtTokenService {
                 .getSubject();
     }
 
+    /**
+     * Verifica firma y expiración y devuelve los claims del token. Dispara una excepción si
+     * el token no es válido.
+     */
+    public Claims leerClaims(String token) {
+        return Jwts.parser().verifyWith(signingKey).build().parseSignedClaims(token).getPayload();
+    }
+
+    /**
+     * Momento de emisión del token con la mayor precisión disponible:
+     * {@value #CLAIM_EMITIDO_MS} si está, o el {@code iat} en segundos.
+     *
+     * @return el instante, o {@code null} si el token no informa ninguno
+     */
+    public static Instant emitidoEn(Claims claims) {
+        Number millis = claims.get(CLAIM_EMITIDO_MS, Number.class);
+        if (millis != null) {
+            return Instant.ofEpochMilli(millis.longValue());
+        }
+        Date emitido = claims.getIssuedAt();
+        return emitido != null ? emitido.toInstant() : null;
+    }
+
     /**
      * Verifica que el token sea válido para el usuario dado comprobando firma, sujeto y expiración.
      */
@@ -6,16 +6,25 @@ import java.util.List;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import ar.edu.huergo.swapify.config.metricas.MetricasConfig;
 import ar.edu.huergo.swapify.entity.publicacion.Oferta;
 import ar.edu.huergo.swapify.entity.publicacion.Publicacion;
 import ar.edu.huergo.swapify.entity.security.Notificacion;
 import ar.edu.huergo.swapify.entity.security.Usuario;
 import ar.edu.huergo.swapify.repository.security.NotificacionRepository;
 import ar.edu.huergo.swapify.repository.security.UsuarioRepository;
+import io.micrometer.core.annotation.Timed;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 
+/**
+ * Avisos para las personas usuarias. Cada notificación se guarda dentro de la
+ * transacción que la origina: confirma o se revierte junto con la oferta o la
+ * sanción, así que no quedan avisos huérfanos ni se pierden avisos de
+ * operaciones confirmadas.
+ */
 @Service
+@Timed(value = MetricasConfig.TIMER_SERVICIOS, histogram = true)
 @RequiredArgsConstructor
 public class NotificacionService {
 
@@ -98,9 +107,7 @@ public class NotificacionService {
         if (username == null || username.isBlank()) {
             return 0;
         }
-        return usuarioRepository.findByUsernameIgnoreCase(username)
-                .map(usuario -> notificacionRepository.countByUsuarioIdAndLeidaFalse(usuario.getId()))
-                .orElse(0L);
+        return notificacionRepository.countByUsuarioUsernameIgnoreCaseAndLeidaFalse(username);
     }
 
     @Transactional
@@ -133,7 +140,8 @@ public class NotificacionService {
             return;
         }
         Notificacion notificacion = new Notificacion();
-        notificacion.setUsuario(usuario);
+        // Referencia sin consulta: el alta es un único INSERT al hacer flush.
+        notificacion.setUsuario(usuarioRepository.getReferenceById(usuario.getId()));
         notificacion.setTitulo(titulo);
         notificacion.setMensaje(mensaje);
         notificacion.setTipo(tipo);
@@ -0,0 +1,155 @@
+package ar.edu.huergo.swapify.service.security;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import ar.edu.huergo.swapify.entity.security.RevocacionToken;
+import ar.edu.huergo.swapify.repository.security.RevocacionTokenRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Revocación de JWT por usuario. En lugar de una lista de tokens se guarda
+ * una marca por persona ("tokens emitidos antes de"), de modo que
+ * {@link ar.edu.huergo.swapify.config.security.JwtAuthenticationFilter}
+ * decide con una lectura de un mapa en memoria, sin ir a la base.
+ *
+ * <p>Las marcas se persisten en {@code revocaciones_token}. Cada nodo relee
+ * la tabla cada {@code security.jwt.revocaciones.intervalo} para tomar las
+ * revocaciones hechas en otros nodos, y descarta las marcas más viejas que
+ * la vida de un token porque ya no pueden afectar a ninguno.</p>
+ *
+ * <p>La marca tiene resolución de milisegundos y se compara con el claim
+ * {@value JwtTokenService#CLAIM_EMITIDO_MS} del token; los tokens viejos sin
+ * ese claim usan el {@code iat} en segundos, lo que solo puede revocarlos de
+ * más. La marca en memoria se publica recién cuando la transacción que revoca
+ * confirma, así que un rollback (por ejemplo, de un ban que falla) no deja a
+ * la persona sin sesión.</p>
+ */
+@Service
+@Slf4j
+public class RevocacionTokensService implements SmartLifecycle {
+
+    /** Margen para no perder filas escritas por nodos con el reloj algo atrasado. */
+    private static final Duration SOLAPAMIENTO = Duration.ofSeconds(30);
+
+    private final RevocacionTokenRepository revocacionTokenRepository;
+    private final Duration intervalo;
+    private final Duration vidaToken;
+    private final Map<String, Instant> marcas = new ConcurrentHashMap<>();
+    private volatile Instant ultimaLectura = Instant.EPOCH;
+    private ScheduledExecutorService programador;
+
+    public RevocacionTokensService(RevocacionTokenRepository revocacionTokenRepository,
+                                   @Value("${security.jwt.revocaciones.intervalo:5s}") Duration intervalo,
+                                   @Value("${security.jwt.expiration-ms}") long expirationMillis) {
+        this.revocacionTokenRepository = revocacionTokenRepository;
+        this.intervalo = intervalo;
+        this.vidaToken = Duration.ofMillis(expirationMillis);
+    }
+
+    /**
+     * Invalida todos los tokens emitidos hasta ahora para el usuario. Dentro
+     * de una transacción, la marca en memoria se aplica después del commit.
+     */
+    @Transactional
+    public void revocar(String username) {
+        String clave = clave(username);
+        Instant marca = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        revocacionTokenRepository.save(new RevocacionToken(clave, marca));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    marcas.merge(clave, marca, RevocacionTokensService::posterior);
+                }
+            });
+        } else {
+            marcas.merge(clave, marca, RevocacionTokensService::posterior);
+        }
+    }
+
+    /**
+     * Indica si un token del usuario emitido en {@code emitido} fue revocado.
+     * Un token emitido en el mismo milisegundo que la marca, o sin fecha de
+     * emisión, se considera revocado si el usuario tiene marca.
+     */
+    public boolean estaRevocado(String username, Instant emitido) {
+        Instant marca = marcas.get(clave(username));
+        return marca != null && (emitido == null || !emitido.isAfter(marca));
+    }
+
+    /**
+     * Incorpora las marcas escritas desde la última lectura (propias o de
+     * otros nodos) y descarta las vencidas.
+     */
+    public void sincronizar() {
+        Instant ahora = Instant.now();
+        for (RevocacionToken revocacion : revocacionTokenRepository.findByRevocadosAntesAfter(
+                ultimaLectura.minus(SOLAPAMIENTO))) {
+            marcas.merge(revocacion.getUsername(), revocacion.getRevocadosAntes(), RevocacionTokensService::posterior);
+        }
+        ultimaLectura = ahora;
+
+        Instant vencidas = ahora.minus(vidaToken);
+        marcas.values().removeIf(marca -> marca.isBefore(vencidas));
+        revocacionTokenRepository.eliminarAnterioresA(vencidas);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (programador != null) {
+            return;
+        }
+        programador = Executors.newSingleThreadScheduledExecutor(tarea -> {
+            Thread hilo = new Thread(tarea, "revocaciones-jwt");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        sincronizarRegistrandoErrores();
+        programador.scheduleWithFixedDelay(this::sincronizarRegistrandoErrores,
+                intervalo.toMillis(), intervalo.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (programador != null) {
+            programador.shutdownNow();
+            programador = null;
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return programador != null;
+    }
+
+    private void sincronizarRegistrandoErrores() {
+        try {
+            sincronizar();
+        } catch (Exception e) {
+            log.warn("No se pudieron leer las revocaciones de tokens", e);
+        }
+    }
+
+    private static String clave(String username) {
+        return username.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Instant posterior(Instant a, Instant b) {
+        return a.isAfter(b) ? a : b;
+    }
+}
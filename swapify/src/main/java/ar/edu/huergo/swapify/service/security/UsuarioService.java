@@ -1,10 +1,12 @@
 package ar.edu.huergo.swapify.service.security;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,6 +19,8 @@ import ar.edu.huergo.swapify.repository.publicacion.PublicacionRepository;
 import ar.edu.huergo.swapify.repository.security.NotificacionRepository;
 import ar.edu.huergo.swapify.repository.security.RolRepository;
 import ar.edu.huergo.swapify.repository.security.UsuarioRepository;
+import ar.edu.huergo.swapify.service.imagen.AlmacenImagenes;
+import ar.edu.huergo.swapify.service.publicacion.CatalogoModificadoEvent;
 import ar.edu.huergo.swapify.service.security.NotificacionService;
 import ar.edu.huergo.swapify.util.PasswordValidator;
 import jakarta.persistence.EntityNotFoundException;
@@ -32,6 +36,9 @@ public class UsuarioService {
     private final PublicacionRepository publicacionRepository;
     private final NotificacionRepository notificacionRepository;
     private final NotificacionService notificacionService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RevocacionTokensService revocacionTokensService;
+    private final AlmacenImagenes almacenImagenes;
 
     @Transactional(readOnly = true)
     public List<Usuario> getAllUsuarios() {
@@ -79,11 +86,13 @@ public class UsuarioService {
             throw new IllegalArgumentException("No se pueden eliminar cuentas administrativas desde este panel");
         }
 
+        List<Long> contenidos = new ArrayList<>(almacenImagenes.contenidosDeOfertasDeUsuario(usuarioId));
         ofertaRepository.deleteByUsuarioId(usuarioId);
 
         List<Publicacion> publicaciones = publicacionRepository.findByUsuarioId(usuarioId);
         for (Publicacion publicacion : publicaciones) {
             if (publicacion.getId() != null) {
+                contenidos.addAll(almacenImagenes.contenidosDePublicacion(publicacion.getId()));
                 ofertaRepository.deleteByPublicacionId(publicacion.getId());
             }
         }
@@ -92,12 +101,15 @@ public class UsuarioService {
         if (!publicaciones.isEmpty()) {
             publicacionRepository.deleteAll(publicaciones);
             publicacionRepository.flush();
+            eventPublisher.publishEvent(new CatalogoModificadoEvent(null));
         }
+        almacenImagenes.liberar(contenidos);
 
         notificacionRepository.deleteByUsuarioId(usuarioId);
         notificacionRepository.flush();
 
         usuarioRepository.delete(usuario);
+        revocacionTokensService.revocar(usuario.getUsername());
     }
 
     @Transactional
@@ -109,6 +121,7 @@ public class UsuarioService {
         }
         usuario.setBaneadoHasta(hasta);
         usuario.setMotivoBan(motivo);
+        revocacionTokensService.revocar(usuario.getUsername());
         notificacionService.notificarBan(usuario, hasta, motivo);
         return usuarioRepository.saveAndFlush(usuario);
     }
@@ -138,6 +151,7 @@ public class UsuarioService {
             throw new IllegalArgumentException("La contraseña actual no es válida");
         }
         usuario.setPassword(passwordEncoder.encode(nueva));
+        revocacionTokensService.revocar(usuario.getUsername());
     }
 
     @Transactional
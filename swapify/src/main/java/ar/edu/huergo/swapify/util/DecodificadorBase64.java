@@ -0,0 +1,217 @@
+package ar.edu.huergo.swapify.util;
+
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Decodificador Base64 incremental. Recibe el texto por partes (es un
+ * {@link Writer}, así Jackson puede volcarle el token sin armar un
+ * {@code String}) y escribe los bytes en un buffer que nunca pasa de
+ * {@code maxBytes}: valida cada carácter al recibirlo y corta apenas la
+ * imagen excede el límite.
+ *
+ * <p>Acepta lo mismo que aceptaban los servicios con expresiones regulares:
+ * un prefijo tipo data URI ({@code data:image/png;base64,}), espacios y
+ * saltos de línea intercalados, espacios en lugar de {@code +} (texto que
+ * pasó por una codificación de formulario) y relleno {@code =} opcional.</p>
+ */
+public final class DecodificadorBase64 extends Writer {
+
+    private static final String MENSAJE_INVALIDO = "Los datos de la imagen no están en formato Base64 válido";
+    private static final int MAX_CABECERA = 256;
+    private static final int CAPACIDAD_INICIAL = 64 * 1024;
+    private static final byte[] VALORES = new byte[128];
+
+    static {
+        Arrays.fill(VALORES, (byte) -1);
+        String alfabeto = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        for (int i = 0; i < alfabeto.length(); i++) {
+            VALORES[alfabeto.charAt(i)] = (byte) i;
+        }
+    }
+
+    private final long maxBytes;
+    private final StringBuilder cabecera = new StringBuilder();
+    private boolean enCabecera = true;
+    private String contentType;
+    private byte[] buffer;
+    private int tamanio;
+    private int acumulado;
+    private int pendientes;
+    private int relleno;
+    private boolean terminado;
+
+    public DecodificadorBase64(long maxBytes) {
+        this(maxBytes, CAPACIDAD_INICIAL);
+    }
+
+    private DecodificadorBase64(long maxBytes, int capacidadInicial) {
+        this.maxBytes = maxBytes;
+        this.buffer = new byte[(int) Math.min(Math.max(capacidadInicial, 3), Math.max(maxBytes, 3))];
+    }
+
+    /**
+     * Decodifica un texto completo.
+     *
+     * @throws IllegalArgumentException si no es Base64 válido
+     * @throws LimiteExcedidoException  si los datos superan {@code maxBytes}
+     */
+    public static byte[] decodificar(CharSequence texto, long maxBytes) {
+        if (texto == null || texto.isEmpty()) {
+            return new byte[0];
+        }
+        DecodificadorBase64 decodificador = new DecodificadorBase64(maxBytes, (int) ((texto.length() * 3L + 3) / 4));
+        for (int i = 0; i < texto.length(); i++) {
+            decodificador.recibir(texto.charAt(i));
+        }
+        return decodificador.bytes();
+    }
+
+    @Override
+    public void write(char[] caracteres, int desde, int cantidad) {
+        for (int i = desde; i < desde + cantidad; i++) {
+            recibir(caracteres[i]);
+        }
+    }
+
+    @Override
+    public void write(String texto, int desde, int cantidad) {
+        for (int i = desde; i < desde + cantidad; i++) {
+            recibir(texto.charAt(i));
+        }
+    }
+
+    @Override
+    public void write(int caracter) {
+        recibir((char) caracter);
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Termina la decodificación y devuelve los bytes.
+     *
+     * @throws IllegalArgumentException si el texto quedó truncado a mitad de un bloque
+     */
+    public byte[] bytes() {
+        if (!terminado) {
+            terminado = true;
+            if (enCabecera) {
+                enCabecera = false;
+                for (int i = 0; i < cabecera.length(); i++) {
+                    decodificar(cabecera.charAt(i));
+                }
+            }
+            switch (pendientes) {
+                case 0 -> { }
+                case 2 -> emitir(acumulado >> 4, 1);
+                case 3 -> emitir(acumulado >> 2, 2);
+                default -> throw new IllegalArgumentException(MENSAJE_INVALIDO);
+            }
+        }
+        return tamanio == buffer.length ? buffer : Arrays.copyOf(buffer, tamanio);
+    }
+
+    /** Tipo declarado en el prefijo data URI, si lo había. */
+    public String contentType() {
+        return contentType;
+    }
+
+    private void recibir(char caracter) {
+        if (terminado) {
+            throw new IllegalStateException("La decodificación ya terminó");
+        }
+        if (!enCabecera) {
+            decodificar(caracter);
+            return;
+        }
+        if (caracter == ',') {
+            enCabecera = false;
+            leerCabecera();
+            return;
+        }
+        cabecera.append(caracter);
+        if (cabecera.length() > MAX_CABECERA) {
+            enCabecera = false;
+            for (int i = 0; i < cabecera.length(); i++) {
+                decodificar(cabecera.charAt(i));
+            }
+        }
+    }
+
+    private void leerCabecera() {
+        String texto = cabecera.toString().trim();
+        if (texto.regionMatches(true, 0, "data:", 0, 5)) {
+            int fin = texto.indexOf(';');
+            String tipo = (fin < 0 ? texto.substring(5) : texto.substring(5, fin)).trim();
+            if (!tipo.isEmpty()) {
+                contentType = tipo.toLowerCase(Locale.ROOT);
+            }
+        }
+    }
+
+    private void decodificar(char caracter) {
+        if (caracter == ' ') {
+            caracter = '+';
+        } else if (Character.isWhitespace(caracter)) {
+            return;
+        }
+        if (caracter == '=') {
+            if (pendientes < 2 || ++relleno > 2) {
+                throw new IllegalArgumentException(MENSAJE_INVALIDO);
+            }
+            return;
+        }
+        int valor = caracter < 128 ? VALORES[caracter] : -1;
+        if (valor < 0 || relleno > 0) {
+            throw new IllegalArgumentException(MENSAJE_INVALIDO);
+        }
+        acumulado = (acumulado << 6) | valor;
+        if (++pendientes == 4) {
+            emitir(acumulado, 3);
+            acumulado = 0;
+            pendientes = 0;
+        }
+    }
+
+    private void emitir(int bits, int cantidad) {
+        if (tamanio + cantidad > buffer.length) {
+            crecer(tamanio + cantidad);
+        }
+        for (int i = cantidad - 1; i >= 0; i--) {
+            buffer[tamanio++] = (byte) (bits >> (8 * i));
+        }
+    }
+
+    private void crecer(int necesario) {
+        if (necesario > maxBytes) {
+            throw new LimiteExcedidoException(maxBytes);
+        }
+        long nuevo = Math.min(maxBytes, Math.max((long) buffer.length * 2, necesario));
+        buffer = Arrays.copyOf(buffer, (int) nuevo);
+    }
+
+    /**
+     * Los datos decodificados superan el máximo permitido.
+     */
+    public static class LimiteExcedidoException extends IllegalArgumentException {
+
+        private final long limite;
+
+        public LimiteExcedidoException(long limite) {
+            super(String.format("La imagen supera el tamaño máximo permitido (%d MB)", limite / 1_000_000));
+            this.limite = limite;
+        }
+
+        public long getLimite() {
+            return limite;
+        }
+    }
+}
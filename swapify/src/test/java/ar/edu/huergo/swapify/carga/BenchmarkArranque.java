@@ -0,0 +1,162 @@
+package ar.edu.huergo.swapify.carga;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide cuánto tarda en arrancar el jar extraído por {@code gradle cdsArranque}
+ * con cada variante de JVM: JIT solo, AppCDS, Spring AOT y AppCDS con AOT.
+ * Cada corrida levanta un proceso nuevo y registra dos tiempos desde el
+ * lanzamiento: el primer {@code GET /web/login} respondido con 200 y el
+ * momento en que {@code /actuator/health/readiness} pasa a UP, que incluye
+ * las tareas de arranque y el calentamiento.
+ *
+ * <p>Se ejecuta con {@code gradle benchmarkArranque [-Paot]}; sin
+ * {@code -Paot} el jar no tiene el código generado y se miden solo JIT y
+ * CDS. El reporte con la mediana y el mínimo por variante se imprime y se
+ * guarda en {@code build/reports/arranque/arranque.txt}, junto con el log de
+ * cada corrida.</p>
+ */
+public final class BenchmarkArranque {
+
+    private static final Duration LIMITE = Duration.ofMinutes(3);
+
+    private final String java;
+    private final String jar;
+    private final List<String> argumentos;
+    private final Path reportes;
+    private final HttpClient cliente = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    private BenchmarkArranque(String java, String jar, List<String> argumentos, Path reportes) {
+        this.java = java;
+        this.jar = jar;
+        this.argumentos = argumentos;
+        this.reportes = reportes;
+    }
+
+    public static void main(String[] args) throws Exception {
+        String jar = System.getProperty("arranque.jar");
+        String directorio = new File(jar).getParent();
+        boolean aot = Boolean.getBoolean("arranque.aot");
+        int repeticiones = Integer.getInteger("arranque.repeticiones", 3);
+        List<String> argumentos = Arrays.stream(System.getProperty("arranque.argumentos", "").split(" "))
+                .filter(a -> !a.isBlank() && !a.startsWith("--server.port=") && !a.startsWith("--management.server.port="))
+                .toList();
+        Path reportes = Path.of(System.getProperty("arranque.reporte", "build/reports/arranque"));
+        Files.createDirectories(reportes);
+
+        Map<String, List<String>> variantes = new LinkedHashMap<>();
+        variantes.put("jit", List.of());
+        variantes.put("cds", List.of("-XX:SharedArchiveFile=" + directorio + "/swapify.jsa"));
+        if (aot) {
+            variantes.put("aot", List.of("-Dspring.aot.enabled=true"));
+            variantes.put("cds+aot", List.of("-XX:SharedArchiveFile=" + directorio + "/swapify-aot.jsa",
+                    "-Dspring.aot.enabled=true"));
+        }
+
+        BenchmarkArranque benchmark = new BenchmarkArranque(System.getProperty("arranque.java", "java"), jar,
+                argumentos, reportes);
+        Map<String, List<Medicion>> resultados = new LinkedHashMap<>();
+        // Las variantes se alternan para que el ruido del equipo se reparta entre todas.
+        for (int i = 1; i <= repeticiones; i++) {
+            for (Map.Entry<String, List<String>> variante : variantes.entrySet()) {
+                Medicion medicion = benchmark.medir(variante.getKey(), variante.getValue(), i);
+                System.out.printf("%-8s #%d: primer request %5d ms, listo %5d ms%n", variante.getKey(), i,
+                        medicion.primerRequestMs(), medicion.listoMs());
+                resultados.computeIfAbsent(variante.getKey(), k -> new ArrayList<>()).add(medicion);
+            }
+        }
+
+        String reporte = reporte(resultados);
+        Files.writeString(reportes.resolve("arranque.txt"), reporte);
+        System.out.print(reporte);
+    }
+
+    private Medicion medir(String variante, List<String> opciones, int repeticion) throws Exception {
+        int puerto = puertoLibre();
+        int puertoGestion = puertoLibre();
+        List<String> comando = new ArrayList<>();
+        comando.add(java);
+        comando.addAll(opciones);
+        comando.addAll(List.of("-jar", jar, "--server.port=" + puerto, "--management.server.port=" + puertoGestion));
+        comando.addAll(argumentos);
+
+        File log = reportes.resolve(variante.replace('+', '-') + "-" + repeticion + ".log").toFile();
+        long inicio = System.nanoTime();
+        Process proceso = new ProcessBuilder(comando).redirectErrorStream(true).redirectOutput(log).start();
+        try {
+            long primerRequest = esperar(proceso, URI.create("http://127.0.0.1:" + puerto + "/web/login"), inicio);
+            long listo = esperar(proceso,
+                    URI.create("http://127.0.0.1:" + puertoGestion + "/actuator/health/readiness"), inicio);
+            return new Medicion(primerRequest, listo);
+        } finally {
+            proceso.destroy();
+            if (!proceso.waitFor(30, TimeUnit.SECONDS)) {
+                proceso.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    /** Reintenta el GET hasta recibir 200 y devuelve los milisegundos desde {@code inicio}. */
+    private long esperar(Process proceso, URI uri, long inicio) throws InterruptedException {
+        HttpRequest pedido = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(5)).GET().build();
+        long limite = inicio + LIMITE.toNanos();
+        while (System.nanoTime() < limite) {
+            if (!proceso.isAlive()) {
+                throw new IllegalStateException("El proceso terminó con código " + proceso.exitValue()
+                        + " antes de responder " + uri);
+            }
+            try {
+                if (cliente.send(pedido, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+                }
+            } catch (IOException e) {
+                // Todavía no escucha en el puerto.
+            }
+            Thread.sleep(10);
+        }
+        throw new IllegalStateException("Sin respuesta de " + uri + " en " + LIMITE.toSeconds() + " s");
+    }
+
+    private static String reporte(Map<String, List<Medicion>> resultados) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-8s %8s %14s %10s %14s %10s%n",
+                "variante", "corridas", "1er req p50", "1er req min", "listo p50", "listo min"));
+        long base = 0;
+        for (Map.Entry<String, List<Medicion>> variante : resultados.entrySet()) {
+            long[] primeros = variante.getValue().stream().mapToLong(Medicion::primerRequestMs).sorted().toArray();
+            long[] listos = variante.getValue().stream().mapToLong(Medicion::listoMs).sorted().toArray();
+            long mediana = primeros[(primeros.length - 1) / 2];
+            if (base == 0) {
+                base = mediana;
+            }
+            sb.append(String.format("%-8s %8d %11d ms %8d ms %11d ms %7d ms  (%+.0f%% 1er req)%n",
+                    variante.getKey(), primeros.length, mediana, primeros[0], listos[(listos.length - 1) / 2],
+                    listos[0], 100.0 * (mediana - base) / base));
+        }
+        return sb.toString();
+    }
+
+    private static int puertoLibre() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private record Medicion(long primerRequestMs, long listoMs) {
+    }
+}
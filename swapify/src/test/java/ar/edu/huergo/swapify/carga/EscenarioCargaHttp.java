@@ -0,0 +1,236 @@
+package ar.edu.huergo.swapify.carga;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Escenario de carga HTTP contra una instancia en ejecución (por ejemplo
+ * {@code gradle bootRun --args='--spring.profiles.active=semilla'}). Cada
+ * usuario virtual inicia sesión con una cuenta generada por
+ * {@code GeneradorDatosCarga} y recorre el catálogo: listado, búsqueda,
+ * detalle, oferta y, cada tanto, acepta una oferta sobre sus propias
+ * publicaciones.
+ *
+ * <p>Se ejecuta con {@code gradle escenarioCarga} y se configura con
+ * propiedades {@code -Pcarga.*}: {@code url}, {@code usuarios},
+ * {@code duracion} (segundos), {@code cuentas} y {@code password}. El
+ * reporte con p50/p95/p99 por endpoint se imprime y se guarda en
+ * {@code build/reports/carga/escenario.txt}.</p>
+ */
+public final class EscenarioCargaHttp {
+
+    private static final Pattern ENLACE_DETALLE = Pattern.compile("/web/publicaciones/(\\d+)\"");
+    private static final Pattern ACCION_ACEPTAR =
+            Pattern.compile("/web/publicaciones/(\\d+)/ofertas/(\\d+)/aceptar");
+    private static final String[] BUSQUEDAS = {"bicicleta", "libro", "guitarra", "zapatillas", "monitor", "mochila"};
+
+    private final URI base;
+    private final HttpClient cliente;
+    private final String password;
+    private final Map<String, ConcurrentLinkedQueue<Long>> latencias = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> errores = new ConcurrentHashMap<>();
+    private final List<Long> publicacionesConocidas = new CopyOnWriteArrayList<>();
+
+    private EscenarioCargaHttp(URI base, String password) {
+        this.base = base;
+        this.password = password;
+        this.cliente = HttpClient.newBuilder()
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        URI base = URI.create(System.getProperty("carga.url", "http://localhost:8080"));
+        int usuarios = Integer.getInteger("carga.usuarios", 50);
+        int duracion = Integer.getInteger("carga.duracion", 60);
+        int cuentas = Integer.getInteger("carga.cuentas", 1000);
+        String password = System.getProperty("carga.password", "CargaSegura@123");
+
+        EscenarioCargaHttp escenario = new EscenarioCargaHttp(base, password);
+        long fin = System.nanoTime() + TimeUnit.SECONDS.toNanos(duracion);
+        long inicio = System.nanoTime();
+        try (ExecutorService virtuales = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < usuarios; i++) {
+                String cuenta = "usuario" + (i % Math.max(1, cuentas)) + "@carga.swapify.test";
+                virtuales.submit(() -> escenario.recorrer(cuenta, fin));
+            }
+        }
+        String reporte = escenario.reporte(System.nanoTime() - inicio, usuarios);
+        Path destino = Path.of(System.getProperty("carga.reporte", "build/reports/carga/escenario.txt"));
+        Files.createDirectories(destino.toAbsolutePath().getParent());
+        Files.writeString(destino, reporte);
+        System.out.print(reporte);
+    }
+
+    private Void recorrer(String cuenta, long fin) {
+        String cookie = iniciarSesion(cuenta);
+        if (cookie == null) {
+            return null;
+        }
+        int iteracion = 0;
+        while (System.nanoTime() < fin) {
+            iteracion++;
+            HttpResponse<String> listado = get("listado", "/web/publicaciones", cookie);
+            registrarEnlaces(listado);
+            String termino = BUSQUEDAS[ThreadLocalRandom.current().nextInt(BUSQUEDAS.length)];
+            registrarEnlaces(get("busqueda", "/web/publicaciones?q=" + termino, cookie));
+
+            Long publicacion = publicacionAlAzar();
+            if (publicacion != null) {
+                get("detalle", "/web/publicaciones/" + publicacion, cookie);
+                post("ofertar", "/web/publicaciones/" + publicacion + "/ofertas", cookie, Map.of(
+                        "mensaje", "Te propongo un cambio",
+                        "nombreArticulo", "Auriculares",
+                        "precioArticulo", "15000",
+                        "descripcionArticulo", "Auriculares con poco uso"));
+            }
+            if (iteracion % 10 == 0) {
+                aceptarOfertaPropia(cookie);
+            }
+        }
+        return null;
+    }
+
+    private String iniciarSesion(String cuenta) {
+        HttpResponse<String> respuesta = post("login", "/web/login", null,
+                Map.of("username", cuenta, "password", password));
+        if (respuesta == null) {
+            return null;
+        }
+        return respuesta.headers().allValues("Set-Cookie").stream()
+                .filter(valor -> valor.startsWith("jwtToken=") && !valor.startsWith("jwtToken=;"))
+                .map(valor -> valor.substring(0, valor.indexOf(';') > 0 ? valor.indexOf(';') : valor.length()))
+                .findFirst()
+                .orElseGet(() -> {
+                    errores.computeIfAbsent("login", k -> new AtomicInteger()).incrementAndGet();
+                    return null;
+                });
+    }
+
+    private void aceptarOfertaPropia(String cookie) {
+        HttpResponse<String> mias = get("mias", "/web/publicaciones/mias", cookie);
+        if (mias == null) {
+            return;
+        }
+        Matcher enlaces = ENLACE_DETALLE.matcher(mias.body());
+        if (!enlaces.find()) {
+            return;
+        }
+        HttpResponse<String> gestion = get("gestionOfertas", "/web/publicaciones/" + enlaces.group(1) + "/ofertas", cookie);
+        if (gestion == null) {
+            return;
+        }
+        Matcher aceptar = ACCION_ACEPTAR.matcher(gestion.body());
+        if (aceptar.find()) {
+            post("aceptar", aceptar.group(), cookie, Map.of());
+        }
+    }
+
+    private void registrarEnlaces(HttpResponse<String> respuesta) {
+        if (respuesta == null || publicacionesConocidas.size() > 10_000) {
+            return;
+        }
+        Matcher matcher = ENLACE_DETALLE.matcher(respuesta.body());
+        int agregados = 0;
+        while (matcher.find() && agregados < 50) {
+            publicacionesConocidas.add(Long.parseLong(matcher.group(1)));
+            agregados++;
+        }
+    }
+
+    private Long publicacionAlAzar() {
+        int cantidad = publicacionesConocidas.size();
+        return cantidad == 0 ? null : publicacionesConocidas.get(ThreadLocalRandom.current().nextInt(cantidad));
+    }
+
+    private HttpResponse<String> get(String endpoint, String ruta, String cookie) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(base.resolve(ruta)).timeout(Duration.ofMinutes(1)).GET();
+        return enviar(endpoint, request, cookie);
+    }
+
+    private HttpResponse<String> post(String endpoint, String ruta, String cookie, Map<String, String> formulario) {
+        String cuerpo = formulario.entrySet().stream()
+                .map(e -> URLEncoder.encode(e.getKey(), StandardCharsets.UTF_8) + "="
+                        + URLEncoder.encode(e.getValue(), StandardCharsets.UTF_8))
+                .collect(Collectors.joining("&"));
+        HttpRequest.Builder request = HttpRequest.newBuilder(base.resolve(ruta))
+                .timeout(Duration.ofMinutes(1))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(cuerpo));
+        return enviar(endpoint, request, cookie);
+    }
+
+    private HttpResponse<String> enviar(String endpoint, HttpRequest.Builder request, String cookie) {
+        if (cookie != null) {
+            request.header("Cookie", cookie);
+        }
+        long inicio = System.nanoTime();
+        try {
+            HttpResponse<String> respuesta = cliente.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            latencias.computeIfAbsent(endpoint, k -> new ConcurrentLinkedQueue<>()).add(System.nanoTime() - inicio);
+            if (respuesta.statusCode() >= 400) {
+                errores.computeIfAbsent(endpoint, k -> new AtomicInteger()).incrementAndGet();
+                return null;
+            }
+            return respuesta;
+        } catch (IOException e) {
+            errores.computeIfAbsent(endpoint, k -> new AtomicInteger()).incrementAndGet();
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private String reporte(long totalNanos, int usuarios) {
+        double segundos = totalNanos / 1_000_000_000.0;
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Escenario contra %s: %d usuarios virtuales, %.0f s%n", base, usuarios, segundos));
+        sb.append(String.format("%-16s %8s %8s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errores", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms"));
+        List<String> endpoints = new ArrayList<>(latencias.keySet());
+        errores.keySet().stream().filter(e -> !endpoints.contains(e)).forEach(endpoints::add);
+        endpoints.sort(null);
+        for (String endpoint : endpoints) {
+            long[] valores = latencias.getOrDefault(endpoint, new ConcurrentLinkedQueue<>()).stream()
+                    .mapToLong(Long::longValue).sorted().toArray();
+            int fallidos = errores.getOrDefault(endpoint, new AtomicInteger()).get();
+            sb.append(String.format("%-16s %8d %8d %9.1f %9d %9d %9d %9d%n",
+                    endpoint, valores.length, fallidos, valores.length / segundos,
+                    percentil(valores, 50), percentil(valores, 95), percentil(valores, 99),
+                    valores.length == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(valores[valores.length - 1])));
+        }
+        return sb.toString();
+    }
+
+    private static long percentil(long[] ordenadas, int percentil) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int posicion = (int) Math.ceil(percentil / 100.0 * ordenadas.length) - 1;
+        return TimeUnit.NANOSECONDS.toMillis(ordenadas[Math.max(0, posicion)]);
+    }
+}
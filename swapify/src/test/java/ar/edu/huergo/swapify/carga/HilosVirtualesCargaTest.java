@@ -0,0 +1,156 @@
+package ar.edu.huergo.swapify.carga;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import ar.edu.huergo.swapify.SwapifyApplication;
+
+/**
+ * Compara el throughput de la aplicación con 1000 conexiones concurrentes en
+ * modo de hilos de plataforma y de hilos virtuales. No corre con
+ * {@code gradle test}; se ejecuta con {@code gradle cargaTest} y deja el
+ * resultado en {@code build/reports/carga}.
+ */
+@Tag("carga")
+class HilosVirtualesCargaTest {
+
+    private static final int CONEXIONES = 1_000;
+    private static final int REQUESTS_POR_CONEXION = 5;
+    private static final List<String> RUTAS = List.of("/web/publicaciones", "/web/acerca", "/web/publicaciones?q=libro");
+
+    @Test
+    void comparaThroughputPlataformaVsVirtual() throws Exception {
+        Resultado plataforma = medir(false);
+        Resultado virtual = medir(true);
+
+        String reporte = plataforma.resumen("plataforma") + System.lineSeparator()
+                + virtual.resumen("virtual") + System.lineSeparator()
+                + String.format("relación virtual/plataforma: %.2f%n", virtual.throughput() / plataforma.throughput());
+        Path destino = Path.of("build", "reports", "carga", "hilos-virtuales.txt");
+        Files.createDirectories(destino.getParent());
+        Files.writeString(destino, reporte);
+        System.out.print(reporte);
+
+        assertThat(plataforma.errores()).isZero();
+        assertThat(virtual.errores()).isZero();
+    }
+
+    private Resultado medir(boolean hilosVirtuales) throws Exception {
+        String modo = hilosVirtuales ? "virtual" : "plataforma";
+        try (ConfigurableApplicationContext contexto = iniciar(modo, hilosVirtuales)) {
+            int puerto = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+            try (HttpClient cliente = HttpClient.newBuilder()
+                    .connectTimeout(Duration.ofSeconds(30))
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build()) {
+                ejecutar(cliente, puerto, 100, 2);
+                return ejecutar(cliente, puerto, CONEXIONES, REQUESTS_POR_CONEXION);
+            }
+        }
+    }
+
+    private ConfigurableApplicationContext iniciar(String modo, boolean hilosVirtuales) {
+        return new SpringApplicationBuilder(SwapifyApplication.class)
+                .properties(
+                        "spring.profiles.active=carga",
+                        "server.port=0",
+                        "server.tomcat.max-connections=" + (CONEXIONES * 2),
+                        "server.tomcat.accept-count=" + CONEXIONES,
+                        "spring.threads.virtual.enabled=" + hilosVirtuales,
+                        "spring.datasource.url=jdbc:h2:mem:carga-" + modo + ";DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.jpa.show-sql=false",
+                        "management.server.port=0",
+                        "swapify.cache.paginas-publicas.habilitada=false")
+                .run();
+    }
+
+    private Resultado ejecutar(HttpClient cliente, int puerto, int conexiones, int requestsPorConexion)
+            throws Exception {
+        long[] latencias = new long[conexiones * requestsPorConexion];
+        AtomicInteger indice = new AtomicInteger();
+        AtomicInteger errores = new AtomicInteger();
+        CountDownLatch largada = new CountDownLatch(1);
+        List<Future<?>> tareas = new ArrayList<>(conexiones);
+
+        try (ExecutorService clientes = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < conexiones; c++) {
+                int conexion = c;
+                tareas.add(clientes.submit(() -> {
+                    largada.await();
+                    for (int r = 0; r < requestsPorConexion; r++) {
+                        String ruta = RUTAS.get((conexion + r) % RUTAS.size());
+                        long inicio = System.nanoTime();
+                        if (!pedir(cliente, puerto, ruta)) {
+                            errores.incrementAndGet();
+                        }
+                        latencias[indice.getAndIncrement()] = System.nanoTime() - inicio;
+                    }
+                    return null;
+                }));
+            }
+            long inicio = System.nanoTime();
+            largada.countDown();
+            for (Future<?> tarea : tareas) {
+                tarea.get(5, TimeUnit.MINUTES);
+            }
+            long total = System.nanoTime() - inicio;
+            return new Resultado(latencias, total, errores.get());
+        }
+    }
+
+    private boolean pedir(HttpClient cliente, int puerto, String ruta) throws InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + puerto + ruta))
+                .timeout(Duration.ofMinutes(1))
+                .GET()
+                .build();
+        try {
+            return cliente.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private record Resultado(long[] latencias, long totalNanos, int errores) {
+
+        double throughput() {
+            return latencias.length / (totalNanos / 1_000_000_000.0);
+        }
+
+        String resumen(String modo) {
+            long[] ordenadas = latencias.clone();
+            Arrays.sort(ordenadas);
+            return String.format("%-10s requests=%d errores=%d throughput=%.1f req/s p50=%d ms p95=%d ms p99=%d ms",
+                    modo, ordenadas.length, errores, throughput(),
+                    percentil(ordenadas, 50), percentil(ordenadas, 95), percentil(ordenadas, 99));
+        }
+
+        private static long percentil(long[] ordenadas, int percentil) {
+            int posicion = (int) Math.ceil(percentil / 100.0 * ordenadas.length) - 1;
+            return TimeUnit.NANOSECONDS.toMillis(ordenadas[Math.max(0, posicion)]);
+        }
+    }
+}
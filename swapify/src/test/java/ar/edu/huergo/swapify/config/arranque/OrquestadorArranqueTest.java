@@ -0,0 +1,68 @@
+package ar.edu.huergo.swapify.config.arranque;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class OrquestadorArranqueTest {
+
+    @Test
+    void tareasIndependientesCorrenEnParalelo_yLasDependientesEsperan() {
+        CountDownLatch ambas = new CountDownLatch(2);
+        AtomicBoolean simultaneas = new AtomicBoolean(true);
+        AtomicBoolean dependienteDespues = new AtomicBoolean();
+        TareaArranque.Paso esperarALaOtra = () -> {
+            ambas.countDown();
+            simultaneas.compareAndSet(true, ambas.await(5, TimeUnit.SECONDS));
+        };
+        List<TareaArranque> tareas = List.of(
+                TareaArranque.de("final", Set.of("a", "b"), () -> dependienteDespues.set(ambas.getCount() == 0)),
+                TareaArranque.de("a", Set.of(), esperarALaOtra),
+                TareaArranque.de("b", Set.of(), esperarALaOtra));
+
+        OrquestadorArranque orquestador = new OrquestadorArranque(tareas, new SimpleMeterRegistry(), 2);
+        orquestador.run(null);
+
+        assertThat(simultaneas).isTrue();
+        assertThat(dependienteDespues).isTrue();
+        assertThat(orquestador.informe()).last().extracting(OrquestadorArranque.Resultado::nombre)
+                .isEqualTo("final");
+    }
+
+    @Test
+    void tareaFallida_omiteSusDependientesYDetieneElArranque() {
+        AtomicBoolean dependienteCorrio = new AtomicBoolean();
+        AtomicBoolean independienteCorrio = new AtomicBoolean();
+        List<TareaArranque> tareas = List.of(
+                TareaArranque.de("esquema", Set.of(), () -> {
+                    throw new IllegalStateException("sin base");
+                }),
+                TareaArranque.de("datos", Set.of("esquema"), () -> dependienteCorrio.set(true)),
+                TareaArranque.de("calentar", Set.of(), () -> independienteCorrio.set(true)));
+
+        OrquestadorArranque orquestador = new OrquestadorArranque(tareas, new SimpleMeterRegistry(), 2);
+
+        assertThatThrownBy(() -> orquestador.run(null)).hasMessageContaining("esquema");
+        assertThat(dependienteCorrio).isFalse();
+        assertThat(independienteCorrio).isTrue();
+        assertThat(orquestador.informe()).filteredOn(OrquestadorArranque.Resultado::omitida)
+                .extracting(OrquestadorArranque.Resultado::nombre).containsExactly("datos");
+    }
+
+    @Test
+    void dependenciaInexistente_fallaAntesDeEjecutar() {
+        OrquestadorArranque orquestador = new OrquestadorArranque(
+                List.of(TareaArranque.de("datos", Set.of("esquema"), () -> { })), new SimpleMeterRegistry(), 1);
+
+        assertThatThrownBy(() -> orquestador.run(null)).hasMessageContaining("esquema");
+    }
+}
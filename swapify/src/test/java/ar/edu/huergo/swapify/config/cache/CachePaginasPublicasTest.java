@@ -0,0 +1,138 @@
+package ar.edu.huergo.swapify.config.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import ar.edu.huergo.swapify.config.cache.CachePaginasPublicas.PaginaCacheada;
+import ar.edu.huergo.swapify.service.publicacion.CatalogoModificadoEvent;
+
+class CachePaginasPublicasTest {
+
+    private static final PaginaCacheada PAGINA =
+            new PaginaCacheada("<html>catalogo</html>".getBytes(StandardCharsets.UTF_8), "text/html;charset=UTF-8");
+
+    @Test
+    void resolver_segundoRequestSeSirveDesdeCache() throws Exception {
+        CachePaginasPublicas cache = crearCache(Duration.ofMinutes(1));
+        AtomicInteger renders = new AtomicInteger();
+
+        PaginaCacheada primera = cache.resolver("/web/publicaciones", () -> {
+            renders.incrementAndGet();
+            return PAGINA;
+        });
+        PaginaCacheada segunda = cache.resolver("/web/publicaciones", () -> {
+            renders.incrementAndGet();
+            return PAGINA;
+        });
+
+        assertThat(primera).isNull();
+        assertThat(segunda).isSameAs(PAGINA);
+        assertThat(renders).hasValue(1);
+    }
+
+    @Test
+    void resolver_coalesceRendersConcurrentesDeLaMismaClave() throws Exception {
+        CachePaginasPublicas cache = crearCache(Duration.ofMinutes(1));
+        AtomicInteger renders = new AtomicInteger();
+        CountDownLatch renderIniciado = new CountDownLatch(1);
+        CountDownLatch liberarRender = new CountDownLatch(1);
+        int concurrentes = 32;
+        ExecutorService pool = Executors.newFixedThreadPool(concurrentes);
+        try {
+            List<Future<PaginaCacheada>> resultados = new ArrayList<>();
+            resultados.add(pool.submit(() -> cache.resolver("/web/acerca", () -> {
+                renders.incrementAndGet();
+                renderIniciado.countDown();
+                esperar(liberarRender);
+                return PAGINA;
+            })));
+            assertThat(renderIniciado.await(5, TimeUnit.SECONDS)).isTrue();
+            for (int i = 1; i < concurrentes; i++) {
+                resultados.add(pool.submit(() -> cache.resolver("/web/acerca", () -> {
+                    renders.incrementAndGet();
+                    return PAGINA;
+                })));
+            }
+            Thread.sleep(100);
+            liberarRender.countDown();
+
+            int servidasDesdeCache = 0;
+            for (Future<PaginaCacheada> resultado : resultados) {
+                if (resultado.get(5, TimeUnit.SECONDS) != null) {
+                    servidasDesdeCache++;
+                }
+            }
+            assertThat(renders).hasValue(1);
+            assertThat(servidasDesdeCache).isEqualTo(concurrentes - 1);
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void resolver_noGuardaRespuestasNoCacheables() throws Exception {
+        CachePaginasPublicas cache = crearCache(Duration.ofMinutes(1));
+
+        cache.resolver("/web/publicaciones?q=bici", () -> null);
+
+        assertThat(cache.cantidadEntradas()).isZero();
+    }
+
+    @Test
+    void alModificarCatalogo_descartaEntradasYRendersEnCurso() throws Exception {
+        CachePaginasPublicas cache = crearCache(Duration.ofMinutes(1));
+        cache.resolver("/web/publicaciones", () -> PAGINA);
+        assertThat(cache.cantidadEntradas()).isEqualTo(1);
+
+        cache.alModificarCatalogo(new CatalogoModificadoEvent(1L));
+        assertThat(cache.cantidadEntradas()).isZero();
+
+        cache.resolver("/web/acerca", () -> {
+            cache.alModificarCatalogo(new CatalogoModificadoEvent(2L));
+            return PAGINA;
+        });
+        assertThat(cache.cantidadEntradas()).isZero();
+    }
+
+    @Test
+    void resolver_vuelveARenderizarCuandoVenceElTtl() throws Exception {
+        CachePaginasPublicas cache = crearCache(Duration.ofMillis(20));
+        AtomicInteger renders = new AtomicInteger();
+
+        cache.resolver("/", () -> {
+            renders.incrementAndGet();
+            return PAGINA;
+        });
+        Thread.sleep(50);
+        cache.resolver("/", () -> {
+            renders.incrementAndGet();
+            return PAGINA;
+        });
+
+        assertThat(renders).hasValue(2);
+    }
+
+    private static void esperar(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private CachePaginasPublicas crearCache(Duration ttl) {
+        return new CachePaginasPublicas(true, ttl, 16, Duration.ofSeconds(5));
+    }
+}
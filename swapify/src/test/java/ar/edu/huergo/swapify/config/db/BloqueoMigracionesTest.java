@@ -0,0 +1,86 @@
+package ar.edu.huergo.swapify.config.db;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+class BloqueoMigracionesTest {
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(
+            new DriverManagerDataSource("jdbc:h2:mem:bloqueo-migraciones;DB_CLOSE_DELAY=-1", "sa", ""));
+
+    @Test
+    void variosNodos_ejecutanLasMigracionesDeAUno() throws Exception {
+        int nodos = 4;
+        AtomicInteger enCurso = new AtomicInteger();
+        AtomicInteger maximo = new AtomicInteger();
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService ejecutor = Executors.newFixedThreadPool(nodos);
+        try {
+            List<Future<?>> resultados = new ArrayList<>();
+            for (int i = 0; i < nodos; i++) {
+                BloqueoMigraciones nodo = new BloqueoMigraciones(jdbcTemplate, Duration.ofSeconds(30), Duration.ofMinutes(5));
+                resultados.add(ejecutor.submit(() -> {
+                    largada.await();
+                    nodo.ejecutar("prueba", () -> {
+                        maximo.accumulateAndGet(enCurso.incrementAndGet(), Math::max);
+                        dormir(50);
+                        enCurso.decrementAndGet();
+                    });
+                    return null;
+                }));
+            }
+            largada.countDown();
+            for (Future<?> resultado : resultados) {
+                resultado.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            ejecutor.shutdownNow();
+        }
+
+        assertThat(maximo.get()).isEqualTo(1);
+    }
+
+    @Test
+    void bloqueoTomado_fallaAlVencerLaEspera() {
+        BloqueoMigraciones dueno = new BloqueoMigraciones(jdbcTemplate, Duration.ofSeconds(5), Duration.ofMinutes(5));
+        BloqueoMigraciones otro = new BloqueoMigraciones(jdbcTemplate, Duration.ZERO, Duration.ofMinutes(5));
+
+        dueno.ejecutar("prueba", () -> assertThatThrownBy(() -> otro.ejecutar("prueba", () -> { }))
+                .isInstanceOf(IllegalStateException.class));
+    }
+
+    @Test
+    void seLiberaComoTareaDeArranqueAlTerminarElEsquema() {
+        BloqueoMigraciones dueno = new BloqueoMigraciones(jdbcTemplate, Duration.ZERO, Duration.ofMinutes(5));
+        BloqueoMigraciones otro = new BloqueoMigraciones(jdbcTemplate, Duration.ZERO, Duration.ofMinutes(5));
+        dueno.afterPropertiesSet();
+
+        assertThatThrownBy(() -> otro.ejecutar("prueba", () -> { })).isInstanceOf(IllegalStateException.class);
+        assertThat(dueno.dependeDe()).contains("esquema-publicaciones", "esquema-ofertas", "datos-iniciales");
+
+        dueno.ejecutar();
+        otro.ejecutar("prueba", () -> { });
+    }
+
+    private static void dormir(long milis) {
+        try {
+            Thread.sleep(milis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
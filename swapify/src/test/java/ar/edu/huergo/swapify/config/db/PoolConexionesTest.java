@@ -0,0 +1,55 @@
+package ar.edu.huergo.swapify.config.db;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import ar.edu.huergo.swapify.repository.publicacion.PublicacionRepository;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:pool-conexiones;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop"})
+class PoolConexionesTest {
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PublicacionRepository publicacionRepository;
+
+    @Autowired
+    @Qualifier("poolEscritura")
+    private HikariDataSource poolEscritura;
+
+    @Autowired
+    @Qualifier("poolLectura")
+    private HikariDataSource poolLectura;
+
+    @Test
+    void transaccionDeSoloLectura_usaElPoolDeLectura() {
+        TransactionTemplate lectura = new TransactionTemplate(transactionManager);
+        lectura.setReadOnly(true);
+
+        lectura.executeWithoutResult(estado -> {
+            publicacionRepository.count();
+            assertThat(poolLectura.getHikariPoolMXBean().getActiveConnections()).isEqualTo(1);
+            assertThat(poolEscritura.getHikariPoolMXBean().getActiveConnections()).isZero();
+        });
+    }
+
+    @Test
+    void transaccionDeEscritura_usaElPoolDeEscritura() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(estado -> {
+            publicacionRepository.count();
+            assertThat(poolEscritura.getHikariPoolMXBean().getActiveConnections()).isEqualTo(1);
+            assertThat(poolLectura.getHikariPoolMXBean().getActiveConnections()).isZero();
+        });
+    }
+}
@@ -0,0 +1,123 @@
+package ar.edu.huergo.swapify.config.db;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.web.servlet.MockMvc;
+
+import ar.edu.huergo.swapify.entity.publicacion.Oferta;
+import ar.edu.huergo.swapify.entity.publicacion.Publicacion;
+import ar.edu.huergo.swapify.entity.publicacion.PublicacionImagen;
+import ar.edu.huergo.swapify.entity.security.Usuario;
+import ar.edu.huergo.swapify.repository.publicacion.OfertaRepository;
+import ar.edu.huergo.swapify.repository.publicacion.PublicacionRepository;
+import ar.edu.huergo.swapify.repository.security.UsuarioRepository;
+import ar.edu.huergo.swapify.service.security.JwtTokenService;
+import jakarta.servlet.http.Cookie;
+
+/**
+ * Recorre el catálogo y el detalle con el modo estricto activado: si alguna
+ * vista supera su presupuesto de consultas (por ejemplo por volver a cargar
+ * el autor o las imágenes de cada publicación) el request falla.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:presupuesto-consultas;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "swapify.cache.paginas-publicas.habilitada=false",
+        "swapify.sql.presupuestos=/web/publicaciones=3,/web/publicaciones/{id}=5,/web/publicaciones/mias=1",
+        "swapify.sql.presupuestos.estricto=true"})
+@AutoConfigureMockMvc
+class PresupuestoConsultasTest {
+
+    private static final int PUBLICACIONES = 8;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private PublicacionRepository publicacionRepository;
+
+    @Autowired
+    private OfertaRepository ofertaRepository;
+
+    @Autowired
+    private JwtTokenService jwtTokenService;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    private Publicacion publicacionConOfertas;
+
+    @BeforeEach
+    void poblarCatalogo() {
+        Usuario admin = usuarioRepository.findByUsername("admin@huergo.edu.ar").orElseThrow();
+        Usuario cliente = usuarioRepository.findByUsername("cliente@huergo.edu.ar").orElseThrow();
+        ofertaRepository.deleteAll();
+        publicacionRepository.deleteAll();
+        for (int i = 0; i < PUBLICACIONES; i++) {
+            Usuario autor = i % 2 == 0 ? admin : cliente;
+            Publicacion publicacion = new Publicacion(null, "Artículo " + i, new BigDecimal("1000"),
+                    "Descripción " + i, "Algo a cambio", LocalDateTime.now().minusMinutes(i), autor,
+                    List.of(imagen(0), imagen(1)), null, null);
+            publicacionConOfertas = publicacionRepository.save(publicacion);
+        }
+        for (int i = 0; i < 3; i++) {
+            Oferta oferta = new Oferta();
+            oferta.setPublicacion(publicacionConOfertas);
+            oferta.setNombreArticulo("Auriculares");
+            oferta.setUsuario(i % 2 == 0 ? cliente : admin);
+            oferta.setMensaje("Propuesta " + i);
+            ofertaRepository.save(oferta);
+        }
+    }
+
+    @Test
+    void catalogo_respetaPresupuestoConAutoresEImagenes() throws Exception {
+        mockMvc.perform(get("/web/publicaciones")).andExpect(status().isOk());
+        mockMvc.perform(get("/web/publicaciones").param("q", "Artículo")).andExpect(status().isOk());
+    }
+
+    @Test
+    void detalle_respetaPresupuestoParaUnUsuarioAutenticado() throws Exception {
+        mockMvc.perform(get("/web/publicaciones/{id}", publicacionConOfertas.getId())
+                        .cookie(sesion("cliente@huergo.edu.ar")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void excederElPresupuestoHaceFallarElRequest() {
+        assertThatThrownBy(() -> mockMvc.perform(get("/web/publicaciones/mias")
+                        .cookie(sesion("admin@huergo.edu.ar"))))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("/web/publicaciones/mias")
+                .hasMessageContaining("presupuesto 1");
+    }
+
+    private Cookie sesion(String username) {
+        var usuario = userDetailsService.loadUserByUsername(username);
+        List<String> roles = usuario.getAuthorities().stream().map(a -> a.getAuthority()).toList();
+        return new Cookie("jwtToken", jwtTokenService.generarToken(usuario, roles));
+    }
+
+    private static PublicacionImagen imagen(int orden) {
+        PublicacionImagen imagen = new PublicacionImagen();
+        imagen.setOrden(orden);
+        imagen.setContentType("image/jpeg");
+        imagen.setDatos(new byte[] {1, 2, 3, (byte) orden});
+        return imagen;
+    }
+}
@@ -0,0 +1,113 @@
+package ar.edu.huergo.swapify.config.db;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:replicas-primaria;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "swapify.datasource.replicas.urls=jdbc:h2:mem:replicas-replica;DB_CLOSE_DELAY=-1",
+        "swapify.datasource.replicas.intervalo=1h"})
+@DirtiesContext
+class ReplicasTest {
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    @Qualifier("poolLectura")
+    private HikariDataSource poolLectura;
+
+    @Autowired
+    private EnrutadorReplicas enrutador;
+
+    @Autowired
+    private ReplicadorH2 replicador;
+
+    @Test
+    void replicaSincronizada_atiendeLasLecturasConLosDatosDeLaPrimaria() throws Exception {
+        insertarRol("REPLICA_A");
+        replicador.sincronizar();
+        HikariDataSource replica = enrutador.getReplicas().get(0).pool();
+
+        Integer roles = soloLectura().execute(estado -> {
+            Integer cantidad = contarRoles("REPLICA_A");
+            assertThat(replica.getHikariPoolMXBean().getActiveConnections()).isEqualTo(1);
+            assertThat(poolLectura.getHikariPoolMXBean().getActiveConnections()).isZero();
+            return cantidad;
+        });
+
+        assertThat(roles).isEqualTo(1);
+    }
+
+    @Test
+    void escrituraSinSincronizar_leeDeLaPrimaria() throws Exception {
+        replicador.sincronizar();
+        insertarRol("REPLICA_B");
+
+        Integer roles = soloLectura().execute(estado -> {
+            Integer cantidad = contarRoles("REPLICA_B");
+            assertThat(poolLectura.getHikariPoolMXBean().getActiveConnections()).isEqualTo(1);
+            return cantidad;
+        });
+
+        assertThat(roles).isEqualTo(1);
+    }
+
+    @Test
+    void replicaConLecturaEnCurso_noSeRecargaYQuedaRetirada() throws Exception {
+        insertarRol("REPLICA_C");
+        replicador.sincronizar();
+        EnrutadorReplicas.Replica replica = enrutador.getReplicas().get(0);
+
+        try (Connection conexion = enrutador.getConnection()) {
+            assertThat(replica.pool().getHikariPoolMXBean().getActiveConnections()).isEqualTo(1);
+            replicador.sincronizar();
+
+            assertThat(replica.enServicio()).isFalse();
+            try (Statement sentencia = conexion.createStatement();
+                 ResultSet filas = sentencia.executeQuery("SELECT COUNT(*) FROM roles WHERE nombre = 'REPLICA_C'")) {
+                filas.next();
+                assertThat(filas.getInt(1)).isEqualTo(1);
+            }
+        }
+
+        replicador.sincronizar();
+        assertThat(replica.enServicio()).isTrue();
+    }
+
+    private void insertarRol(String nombre) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(estado ->
+                new JdbcTemplate(dataSource).update("INSERT INTO roles (nombre) VALUES (?)", nombre));
+    }
+
+    private Integer contarRoles(String nombre) {
+        return new JdbcTemplate(dataSource)
+                .queryForObject("SELECT COUNT(*) FROM roles WHERE nombre = ?", Integer.class, nombre);
+    }
+
+    private TransactionTemplate soloLectura() {
+        TransactionTemplate plantilla = new TransactionTemplate(transactionManager);
+        plantilla.setReadOnly(true);
+        return plantilla;
+    }
+}
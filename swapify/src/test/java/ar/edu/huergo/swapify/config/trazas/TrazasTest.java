@@ -0,0 +1,92 @@
+package ar.edu.huergo.swapify.config.trazas;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class TrazasTest {
+
+    @AfterEach
+    void limpiar() {
+        Trazas.finalizar();
+    }
+
+    @Test
+    void abrir_anidaSpansYRestauraElPadreAlCerrar() {
+        Span raiz = Trazas.iniciar("GET /web/publicaciones/1");
+        Span servicio = Trazas.abrir("PublicacionService.obtenerPorId", TipoSpan.SERVICIO);
+        try (Span repositorio = Trazas.abrir("PublicacionRepository.findById", TipoSpan.REPOSITORIO)) {
+            Trazas.evento("sql", "select 1");
+            assertThat(repositorio.getPadre()).isSameAs(servicio);
+        }
+        servicio.close();
+        try (Span vista = Trazas.abrir("render publicaciones/detalle", TipoSpan.VISTA)) {
+            assertThat(vista.getPadre()).isSameAs(raiz);
+        }
+        raiz.close();
+
+        Traza traza = raiz.getTraza();
+        assertThat(traza.getSpans()).hasSize(4);
+        assertThat(traza.getCascada()).extracting(Traza.FilaCascada::profundidad).containsExactly(0, 1, 2, 1);
+        assertThat(traza.getSpans().get(2).getEventos()).extracting(Span.Evento::detalle).containsExactly("select 1");
+    }
+
+    @Test
+    void abrir_sinTrazaActivaDevuelveUnSpanInerte() {
+        try (Span span = Trazas.abrir("base64 imagenes", TipoSpan.INTERNO)) {
+            span.atributo("swapify.imagenes", 3);
+            assertThat(span.getAtributos()).isEmpty();
+        }
+        assertThat(Trazas.activa()).isFalse();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void aOtlp_respetaLaCodificacionJsonDeOpenTelemetry() {
+        Span raiz = Trazas.iniciar("GET /web/publicaciones");
+        Trazas.abrir("PublicacionService.listarDisponibles", TipoSpan.SERVICIO).close();
+        raiz.close();
+
+        Map<String, Object> otlp = ExportadorTrazas.aOtlp(raiz.getTraza());
+
+        Map<String, Object> recurso = ((List<Map<String, Object>>) otlp.get("resourceSpans")).get(0);
+        Map<String, Object> alcance = ((List<Map<String, Object>>) recurso.get("scopeSpans")).get(0);
+        List<Map<String, Object>> spans = (List<Map<String, Object>>) alcance.get("spans");
+        assertThat(spans).hasSize(2);
+        assertThat(spans.get(0)).containsEntry("kind", 2).doesNotContainKey("parentSpanId");
+        assertThat((String) spans.get(0).get("traceId")).hasSize(32);
+        assertThat(spans.get(1)).containsEntry("parentSpanId", spans.get(0).get("spanId"));
+        assertThat((String) spans.get(1).get("spanId")).hasSize(16);
+        assertThat(Long.parseLong((String) spans.get(1).get("endTimeUnixNano")))
+                .isGreaterThanOrEqualTo(Long.parseLong((String) spans.get(1).get("startTimeUnixNano")));
+    }
+
+    @Test
+    void exportador_rotaElArchivoYConservaSoloLasCopiasConfiguradas(@TempDir Path directorio) throws Exception {
+        Path archivo = directorio.resolve("trazas.otlp.jsonl");
+        ExportadorTrazas exportador = new ExportadorTrazas(new ObjectMapper(), 10, archivo.toString(),
+                DataSize.ofBytes(1), 2);
+        for (int i = 0; i < 5; i++) {
+            Span raiz = Trazas.iniciar("GET /web/publicaciones/" + i);
+            raiz.close();
+            Trazas.finalizar();
+            exportador.registrar(raiz.getTraza());
+        }
+        exportador.cerrar();
+
+        assertThat(Files.readAllLines(archivo)).hasSize(1);
+        assertThat(Files.readAllLines(directorio.resolve("trazas.otlp.jsonl.1"))).hasSize(1);
+        assertThat(Files.readAllLines(directorio.resolve("trazas.otlp.jsonl.2"))).hasSize(1);
+        assertThat(directorio.resolve("trazas.otlp.jsonl.3")).doesNotExist();
+    }
+}
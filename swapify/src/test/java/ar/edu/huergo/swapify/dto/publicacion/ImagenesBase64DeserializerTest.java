@@ -0,0 +1,118 @@
+package ar.edu.huergo.swapify.dto.publicacion;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Base64;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import ar.edu.huergo.swapify.controller.GlobalExceptionHandler;
+import ar.edu.huergo.swapify.controller.PublicacionController;
+import ar.edu.huergo.swapify.util.DecodificadorBase64;
+
+class ImagenesBase64DeserializerTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void decodificaBase64ConSaltosDeLineaYSinRelleno() throws Exception {
+        byte[] original = new byte[100_001];
+        new Random(7).nextBytes(original);
+        String base64 = Base64.getMimeEncoder().encodeToString(original).replace("\r\n", "\\n").replace("=", "");
+
+        CrearPublicacionDTO dto = leer("[\"" + base64 + "\", \"\", null]");
+
+        assertThat(dto.getImagenesDecodificadas()).hasSize(3);
+        ImagenBase64 imagen = dto.getImagenesDecodificadas().get(0);
+        assertThat(imagen.datos()).isEqualTo(original);
+        assertThat(dto.getImagenesDecodificadas().subList(1, 3)).containsOnlyNulls();
+        assertThat(dto.getImagenesBase64()).isEmpty();
+        assertThat(dto.isImagenPresente()).isTrue();
+    }
+
+    @Test
+    void caracterFueraDelAlfabeto_rechazaElCuerpo() {
+        assertThatThrownBy(() -> leer("[\"iVBORw0K_GgoAAAA\"]"))
+                .isInstanceOf(JsonMappingException.class)
+                .cause().isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Base64");
+        assertThatThrownBy(() -> leer("[\"data:image/png;base64,iVBORw0KGgo=\"]"))
+                .isInstanceOf(JsonMappingException.class)
+                .cause().isInstanceOf(IllegalArgumentException.class);
+    }
+
+    /** A diferencia de {@link DecodificadorBase64}, los espacios no se leen como {@code +}. */
+    @Test
+    void espaciosEnLugarDeMas_rechazaElCuerpo() {
+        byte[] original = new byte[30_000];
+        new Random(11).nextBytes(original);
+        String base64 = Base64.getEncoder().encodeToString(original);
+        assertThat(base64).contains("+");
+
+        assertThatThrownBy(() -> leer("[\"" + base64.replace('+', ' ') + "\"]"))
+                .isInstanceOf(JsonMappingException.class)
+                .cause().isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Base64");
+        assertThat(DecodificadorBase64.decodificar(base64.replace('+', ' '), original.length)).isEqualTo(original);
+    }
+
+    /**
+     * La imagen pasa el {@code maxStringLength} de Jackson (20 M caracteres)
+     * porque no se acumula como texto, y la corta el límite en bytes con 413.
+     */
+    @Test
+    void imagenPorEncimaDelMaximo_respondePayloadTooLarge() throws Exception {
+        MockMvc mockMvc = MockMvcBuilders
+                .standaloneSetup(new PublicacionController(null, null))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+        String base64 = Base64.getEncoder().encodeToString(new byte[(int) ImagenBase64.MAX_BYTES + 3]);
+
+        mockMvc.perform(post("/api/publicaciones")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(cuerpo("[\"" + base64 + "\"]")))
+                .andExpect(status().isPayloadTooLarge())
+                .andExpect(jsonPath("$.limite").value(ImagenBase64.MAX_BYTES));
+    }
+
+    @Test
+    void limiteSeVerificaMientrasDecodifica() {
+        String base64 = Base64.getEncoder().encodeToString(new byte[4_000]);
+
+        assertThatThrownBy(() -> DecodificadorBase64.decodificar(base64, 3_000))
+                .isInstanceOf(DecodificadorBase64.LimiteExcedidoException.class);
+        assertThat(DecodificadorBase64.decodificar(base64, 4_000)).hasSize(4_000);
+    }
+
+    @Test
+    void imagenesPorEncimaDelMaximo_seSalteanSinDecodificar() throws Exception {
+        String valida = "\"" + Base64.getEncoder().encodeToString(new byte[] {1, 2, 3}) + "\"";
+        String arreglo = "[" + String.join(",", java.util.Collections.nCopies(ImagenBase64.MAX_IMAGENES, valida))
+                + ",\"esto no es base64\"]";
+
+        CrearPublicacionDTO dto = leer(arreglo);
+
+        assertThat(dto.getImagenesDecodificadas()).hasSize(ImagenBase64.MAX_IMAGENES + 1);
+        assertThat(dto.getImagenesDecodificadas().get(ImagenBase64.MAX_IMAGENES)).isNull();
+    }
+
+    private CrearPublicacionDTO leer(String imagenes) throws Exception {
+        return mapper.readValue(cuerpo(imagenes), CrearPublicacionDTO.class);
+    }
+
+    private static String cuerpo(String imagenes) {
+        return "{\"nombre\":\"Bici\",\"descripcion\":\"Rodado 26\",\"objetoACambiar\":\"Libros\","
+                + "\"imagenesBase64\":" + imagenes + "}";
+    }
+}
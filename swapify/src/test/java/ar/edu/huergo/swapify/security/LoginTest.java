@@ -0,0 +1,87 @@
+package ar.edu.huergo.swapify.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import ar.edu.huergo.swapify.entity.security.Usuario;
+import ar.edu.huergo.swapify.repository.security.UsuarioRepository;
+
+/**
+ * Login por la API con un costo de BCrypt mayor al de los hashes guardados y
+ * con un límite chico de intentos por IP y cuenta.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:login;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "security.password.bcrypt.costo=5",
+        "security.login.cuenta.capacidad=3",
+        "security.login.cuenta.recarga=1h"})
+@AutoConfigureMockMvc
+class LoginTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Test
+    void loginConHashDeCostoMenor_loRecalculaConElCostoConfigurado() throws Exception {
+        Usuario cliente = usuarioRepository.findByUsernameIgnoreCase("cliente@huergo.edu.ar").orElseThrow();
+        cliente.setPassword(new BCryptPasswordEncoder(4).encode("ClienteSeguro@123"));
+        usuarioRepository.save(cliente);
+
+        login("cliente@huergo.edu.ar", "ClienteSeguro@123").andExpect(status().isOk());
+
+        String hash = usuarioRepository.findByUsernameIgnoreCase("cliente@huergo.edu.ar").orElseThrow().getPassword();
+        assertThat(hash).startsWith("$2a$05$");
+        assertThat(new BCryptPasswordEncoder().matches("ClienteSeguro@123", hash)).isTrue();
+    }
+
+    @Test
+    void intentosAgotadosDeUnaCuenta_respondenTooManyRequestsSinVerificarLaClave() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            login("admin@huergo.edu.ar", "incorrecta").andExpect(status().isUnauthorized());
+        }
+
+        login("admin@huergo.edu.ar", "AdminSuperSegura@123")
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().exists(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void intentosAgotadosDesdeOtraIp_noBloqueanAlDuenioDeLaCuenta() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            login("cliente@huergo.edu.ar", "incorrecta", "203.0.113.7").andExpect(status().isUnauthorized());
+        }
+        login("cliente@huergo.edu.ar", "incorrecta", "203.0.113.7").andExpect(status().isTooManyRequests());
+
+        login("cliente@huergo.edu.ar", "ClienteSeguro@123", "198.51.100.20").andExpect(status().isOk());
+    }
+
+    private ResultActions login(String username, String password) throws Exception {
+        return login(username, password, "127.0.0.1");
+    }
+
+    private ResultActions login(String username, String password, String ip) throws Exception {
+        return mockMvc.perform(post("/api/auth/login")
+                .with(request -> {
+                    request.setRemoteAddr(ip);
+                    return request;
+                })
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}"));
+    }
+}
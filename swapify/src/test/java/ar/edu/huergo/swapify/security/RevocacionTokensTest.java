@@ -0,0 +1,112 @@
+package ar.edu.huergo.swapify.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ar.edu.huergo.swapify.config.security.JwtAuthenticationFilter;
+import ar.edu.huergo.swapify.repository.security.RevocacionTokenRepository;
+import ar.edu.huergo.swapify.service.security.JwtTokenService;
+import ar.edu.huergo.swapify.service.security.RevocacionTokensService;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:revocaciones;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop"})
+class RevocacionTokensTest {
+
+    @Autowired
+    private JwtAuthenticationFilter jwtAuthenticationFilter;
+
+    @Autowired
+    private JwtTokenService jwtTokenService;
+
+    @Autowired
+    private RevocacionTokensService revocacionTokensService;
+
+    @Autowired
+    private RevocacionTokenRepository revocacionTokenRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void limpiarContexto() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void tokenEmitidoAntesDeLaRevocacion_dejaDeAutenticar() throws Exception {
+        String anterior = token("revocado@huergo.edu.ar");
+        assertThat(autentica(anterior)).isTrue();
+
+        revocacionTokensService.revocar("Revocado@huergo.edu.ar");
+
+        assertThat(autentica(anterior)).isFalse();
+        esperarMilisegundoPosterior(revocacionTokenRepository.findById("revocado@huergo.edu.ar")
+                .orElseThrow().getRevocadosAntes());
+        assertThat(autentica(token("revocado@huergo.edu.ar"))).isTrue();
+    }
+
+    @Test
+    void revocacionDentroDeUnaTransaccionRevertida_noRevocaNada() throws Exception {
+        String token = token("rollback@huergo.edu.ar");
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(estado -> {
+            revocacionTokensService.revocar("rollback@huergo.edu.ar");
+            assertThat(revocacionTokensService.estaRevocado("rollback@huergo.edu.ar", Instant.EPOCH)).isFalse();
+            estado.setRollbackOnly();
+        });
+
+        assertThat(autentica(token)).isTrue();
+        assertThat(revocacionTokenRepository.findById("rollback@huergo.edu.ar")).isEmpty();
+    }
+
+    @Test
+    void revocacionEnOtroNodo_llegaAlSincronizar() {
+        RevocacionTokensService otroNodo =
+                new RevocacionTokensService(revocacionTokenRepository, Duration.ofSeconds(5), 3_600_000L);
+        Instant emitido = Instant.now().minusSeconds(10);
+
+        revocacionTokensService.revocar("otro-nodo@huergo.edu.ar");
+        assertThat(otroNodo.estaRevocado("otro-nodo@huergo.edu.ar", emitido)).isFalse();
+
+        otroNodo.sincronizar();
+        assertThat(otroNodo.estaRevocado("otro-nodo@huergo.edu.ar", emitido)).isTrue();
+    }
+
+    /** Los tokens emitidos en el mismo milisegundo que la marca también quedan revocados. */
+    private static void esperarMilisegundoPosterior(Instant marca) {
+        while (!Instant.now().truncatedTo(ChronoUnit.MILLIS).isAfter(marca)) {
+            Thread.onSpinWait();
+        }
+    }
+
+    private String token(String username) {
+        UserDetails usuario = User.withUsername(username).password("x").roles("CLIENTE").build();
+        return jwtTokenService.generarToken(usuario, List.of("ROLE_CLIENTE"));
+    }
+
+    private boolean autentica(String token) throws Exception {
+        SecurityContextHolder.clearContext();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/web/publicaciones");
+        request.addHeader("Authorization", "Bearer " + token);
+        jwtAuthenticationFilter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+        return SecurityContextHolder.getContext().getAuthentication() != null;
+    }
+}
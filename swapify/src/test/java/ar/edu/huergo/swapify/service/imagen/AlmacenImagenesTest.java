@@ -0,0 +1,90 @@
+package ar.edu.huergo.swapify.service.imagen;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import ar.edu.huergo.swapify.config.metricas.MetricasImagenes;
+import ar.edu.huergo.swapify.entity.publicacion.ContenidoImagen;
+import ar.edu.huergo.swapify.entity.publicacion.Publicacion;
+import ar.edu.huergo.swapify.entity.publicacion.PublicacionImagen;
+import ar.edu.huergo.swapify.entity.security.Usuario;
+import ar.edu.huergo.swapify.repository.publicacion.ContenidoImagenRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DataJpaTest
+@Import({AlmacenImagenes.class, MetricasImagenes.class, SimpleMeterRegistry.class})
+class AlmacenImagenesTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private AlmacenImagenes almacenImagenes;
+
+    @Autowired
+    private ContenidoImagenRepository contenidoImagenRepository;
+
+    @Test
+    void guardaUnaSolaVezLaMismaImagenYLaEliminaAlLiberarLaUltimaReferencia() {
+        Usuario usuario = entityManager.persistAndFlush(new Usuario("relistador@example.com", "password"));
+        Publicacion primera = publicar(usuario, "Bicicleta", new byte[] {1, 2, 3}, new byte[] {1, 2, 3});
+        Publicacion segunda = publicar(usuario, "Bicicleta rodado 26", new byte[] {1, 2, 3});
+        publicar(usuario, "Lámpara", new byte[] {9, 9});
+        entityManager.clear();
+
+        assertThat(contenidoImagenRepository.count()).isEqualTo(2);
+        Long compartido = contenidoImagenRepository.buscarIdPorHash(ContenidoImagen.sha256(new byte[] {1, 2, 3}));
+        assertThat(contenidoImagenRepository.findById(compartido).orElseThrow().getReferencias()).isEqualTo(3);
+        assertThat(almacenImagenes.resumen().getBytesReferenciados()).isEqualTo(11);
+        assertThat(almacenImagenes.resumen().getBytesAlmacenados()).isEqualTo(5);
+        assertThat(almacenImagenes.buscarCasiDuplicados(0))
+                .singleElement()
+                .satisfies(grupo -> {
+                    assertThat(grupo.exactos()).isTrue();
+                    assertThat(grupo.usos()).extracting(ContenidoImagenRepository.Uso::getPublicacionId)
+                            .containsExactly(primera.getId(), primera.getId(), segunda.getId());
+                });
+
+        List<Long> deLaPrimera = almacenImagenes.contenidosDePublicacion(primera.getId());
+        entityManager.remove(entityManager.find(Publicacion.class, primera.getId()));
+        almacenImagenes.liberar(deLaPrimera);
+        entityManager.clear();
+        assertThat(contenidoImagenRepository.findById(compartido).orElseThrow().getReferencias()).isEqualTo(1);
+
+        List<Long> deLaSegunda = almacenImagenes.contenidosDePublicacion(segunda.getId());
+        entityManager.remove(entityManager.find(Publicacion.class, segunda.getId()));
+        almacenImagenes.liberar(deLaSegunda);
+        entityManager.clear();
+        assertThat(contenidoImagenRepository.findById(compartido)).isEmpty();
+        assertThat(contenidoImagenRepository.count()).isEqualTo(1);
+    }
+
+    private Publicacion publicar(Usuario usuario, String nombre, byte[]... fotos) {
+        Publicacion publicacion = new Publicacion(null, nombre, new BigDecimal("10.00"), "Descripción", "Cualquier cosa",
+                LocalDateTime.now(), usuario, List.of(), null, null);
+        List<PublicacionImagen> imagenes = new java.util.ArrayList<>();
+        for (int i = 0; i < fotos.length; i++) {
+            PublicacionImagen imagen = new PublicacionImagen();
+            imagen.setOrden(i);
+            imagen.setContentType("image/png");
+            imagen.setDatos(fotos[i]);
+            imagenes.add(imagen);
+        }
+        List<ContenidoImagen> compartidos = almacenImagenes.compartir(
+                imagenes.stream().map(PublicacionImagen::getContenido).toList(), "publicacion");
+        for (int i = 0; i < imagenes.size(); i++) {
+            imagenes.get(i).setContenido(compartidos.get(i));
+            publicacion.agregarImagen(imagenes.get(i));
+        }
+        return entityManager.persistAndFlush(publicacion);
+    }
+}
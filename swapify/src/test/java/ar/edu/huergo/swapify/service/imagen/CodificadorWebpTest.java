@@ -0,0 +1,77 @@
+package ar.edu.huergo.swapify.service.imagen;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+
+class CodificadorWebpTest {
+
+    private final CodificadorWebp codificador = new CodificadorWebp();
+
+    @Test
+    void conservaExactamenteLosPixeles() throws Exception {
+        BufferedImage degradado = new BufferedImage(77, 45, BufferedImage.TYPE_INT_ARGB);
+        for (int y = 0; y < degradado.getHeight(); y++) {
+            for (int x = 0; x < degradado.getWidth(); x++) {
+                degradado.setRGB(x, y, ((x * 3) << 24) | ((x * 3) << 16) | ((y * 5) << 8) | ((x + y) & 0xff));
+            }
+        }
+        BufferedImage ruido = new BufferedImage(150, 70, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(7);
+        for (int y = 0; y < ruido.getHeight(); y++) {
+            for (int x = 0; x < ruido.getWidth(); x++) {
+                ruido.setRGB(x, y, random.nextInt());
+            }
+        }
+
+        for (BufferedImage imagen : new BufferedImage[] {degradado, ruido, grafico(300, 200), grafico(1, 1)}) {
+            BufferedImage leida = ImageIO.read(new ByteArrayInputStream(codificador.codificar(imagen)));
+
+            assertThat(leida.getWidth()).isEqualTo(imagen.getWidth());
+            assertThat(leida.getHeight()).isEqualTo(imagen.getHeight());
+            assertThat(leida.getRGB(0, 0, leida.getWidth(), leida.getHeight(), null, 0, leida.getWidth()))
+                    .isEqualTo(imagen.getRGB(0, 0, imagen.getWidth(), imagen.getHeight(), null, 0,
+                            imagen.getWidth()));
+        }
+    }
+
+    @Test
+    void pesaMenosQueElPngParaUnGrafico() throws Exception {
+        BufferedImage imagen = grafico(800, 600);
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(imagen, "png", png);
+
+        byte[] webp = codificador.codificar(imagen);
+
+        assertThat(webp.length).isLessThan(png.size());
+    }
+
+    private static BufferedImage grafico(int ancho, int alto) {
+        BufferedImage imagen = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = imagen.createGraphics();
+        try {
+            g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2d.setColor(Color.WHITE);
+            g2d.fillRect(0, 0, ancho, alto);
+            g2d.setColor(new Color(30, 90, 200));
+            g2d.fillOval(ancho / 8, alto / 8, ancho / 2, alto / 2);
+            g2d.setColor(Color.DARK_GRAY);
+            g2d.setFont(new Font(Font.SANS_SERIF, Font.BOLD, Math.max(1, alto / 10)));
+            g2d.drawString("Swapify", ancho / 3, alto * 3 / 4);
+        } finally {
+            g2d.dispose();
+        }
+        return imagen;
+    }
+}
@@ -0,0 +1,112 @@
+package ar.edu.huergo.swapify.service.imagen;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.zip.CRC32;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+
+class DecodificadorImagenesTest {
+
+    private static final LimitesImagen LIMITES = LimitesImagen.hasta(1_000_000);
+
+    @Test
+    void rechazaPorLasDimensionesDeclaradasSinDecodificar() throws Exception {
+        DecodificadorImagenes decodificador = new DecodificadorImagenes(1_000_000, Duration.ZERO, Duration.ofSeconds(5));
+
+        assertThatThrownBy(() -> decodificador.leer(pngConDimensiones(50_000, 50_000), LIMITES, (ancho, alto) -> 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("demasiado grande para procesarla (50000 × 50000 px)");
+        assertThat(decodificador.memoriaDisponible()).isEqualTo(1_000_000 / 1024 * 1024);
+    }
+
+    @Test
+    void reservaLaMemoriaDelResultadoSubmuestreadoYLaLibera() throws Exception {
+        DecodificadorImagenes decodificador = new DecodificadorImagenes(100 * 1024, Duration.ZERO, Duration.ofSeconds(5));
+        long disponible = decodificador.memoriaDisponible();
+        byte[] datos = png(400, 400);
+
+        assertThatThrownBy(() -> decodificador.leer(datos, LIMITES, (ancho, alto) -> 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("demasiado grande");
+
+        try (DecodificadorImagenes.ImagenDecodificada leida = decodificador.leer(datos, LIMITES, (ancho, alto) -> 4)) {
+            assertThat(leida.imagen().getWidth()).isEqualTo(100);
+            assertThat(decodificador.memoriaDisponible()).isLessThan(disponible);
+        }
+        assertThat(decodificador.memoriaDisponible()).isEqualTo(disponible);
+    }
+
+    @Test
+    void mantieneLaReservaHastaCerrarLaImagen() throws Exception {
+        DecodificadorImagenes decodificador = new DecodificadorImagenes(100 * 1024, Duration.ZERO, Duration.ofSeconds(5));
+        long disponible = decodificador.memoriaDisponible();
+        byte[] datos = png(100, 100);
+
+        DecodificadorImagenes.ImagenDecodificada primera = decodificador.leer(datos, LIMITES, (ancho, alto) -> 1);
+        assertThatThrownBy(() -> decodificador.leer(datos, LIMITES, (ancho, alto) -> 1))
+                .isInstanceOf(DecodificacionSaturadaException.class);
+
+        primera.close();
+        primera.close();
+        assertThat(decodificador.memoriaDisponible()).isEqualTo(disponible);
+        decodificador.leer(datos, LIMITES, (ancho, alto) -> 1).close();
+    }
+
+    @Test
+    void estimaLasImagenesConPaletaSegunLaCopiaConvertida() throws Exception {
+        DecodificadorImagenes decodificador = new DecodificadorImagenes(1_000_000, Duration.ZERO, Duration.ofSeconds(5));
+        long disponible = decodificador.memoriaDisponible();
+
+        try (DecodificadorImagenes.ImagenDecodificada leida =
+                     decodificador.leer(png(100, 100, BufferedImage.TYPE_BYTE_INDEXED), LIMITES, (ancho, alto) -> 1)) {
+            assertThat(leida.imagen().getType()).isEqualTo(BufferedImage.TYPE_BYTE_INDEXED);
+            assertThat(disponible - decodificador.memoriaDisponible()).isEqualTo(Math.ceilDiv(100 * 100 * (1 + 4), 1024) * 1024L);
+        }
+    }
+
+    @Test
+    void abortaLasDecodificacionesQueSuperanElTiempoMaximo() throws Exception {
+        DecodificadorImagenes decodificador = new DecodificadorImagenes(10_000_000, Duration.ZERO, Duration.ZERO);
+        long disponible = decodificador.memoriaDisponible();
+
+        assertThatThrownBy(() -> decodificador.leer(png(300, 300), LIMITES, (ancho, alto) -> 1))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("tardó demasiado");
+        assertThat(decodificador.memoriaDisponible()).isEqualTo(disponible);
+    }
+
+    @Test
+    void devuelveNullSiNingunLectorReconoceElFormato() throws Exception {
+        DecodificadorImagenes decodificador = new DecodificadorImagenes(1_000_000, Duration.ZERO, Duration.ofSeconds(5));
+
+        assertThat(decodificador.leer("no es una imagen".getBytes(), LIMITES, (ancho, alto) -> 1)).isNull();
+    }
+
+    /** PNG de 1 × 1 con el IHDR reescrito para declarar otras dimensiones. */
+    private static byte[] pngConDimensiones(int ancho, int alto) throws Exception {
+        byte[] datos = png(1, 1);
+        ByteBuffer.wrap(datos, 16, 8).putInt(ancho).putInt(alto);
+        CRC32 crc = new CRC32();
+        crc.update(datos, 12, 17);
+        ByteBuffer.wrap(datos, 29, 4).putInt((int) crc.getValue());
+        return datos;
+    }
+
+    private static byte[] png(int ancho, int alto) throws Exception {
+        return png(ancho, alto, BufferedImage.TYPE_INT_RGB);
+    }
+
+    private static byte[] png(int ancho, int alto, int tipo) throws Exception {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(ancho, alto, tipo), "png", salida);
+        return salida.toByteArray();
+    }
+}
@@ -0,0 +1,79 @@
+package ar.edu.huergo.swapify.service.imagen;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class HuellaPerceptualTest {
+
+    @Test
+    void toleraCambiosDeTamanioYBrilloPeroNoUnaImagenEspejada() {
+        BufferedImage original = escena(640, 480, 0);
+        BufferedImage achicada = escalar(original, 200, 150);
+        BufferedImage aclarada = escena(640, 480, 30);
+        BufferedImage espejada = espejar(original);
+
+        long huella = HuellaPerceptual.calcular(original);
+
+        assertThat(HuellaPerceptual.distancia(huella, HuellaPerceptual.calcular(achicada))).isLessThanOrEqualTo(3);
+        assertThat(HuellaPerceptual.distancia(huella, HuellaPerceptual.calcular(aclarada))).isLessThanOrEqualTo(3);
+        assertThat(HuellaPerceptual.distancia(huella, HuellaPerceptual.calcular(espejada))).isGreaterThan(10);
+    }
+
+    @Test
+    void agrupaHuellasCercanasPorTransitividad() {
+        Map<Long, Long> huellas = new LinkedHashMap<>();
+        huellas.put(1L, 0xF0F0_F0F0_F0F0_F0F0L);
+        huellas.put(2L, 0xF0F0_F0F0_F0F0_F0F3L);
+        huellas.put(3L, 0xF0F0_F0F0_F0F0_F0FFL);
+        huellas.put(4L, 0x0F0F_0F0F_0F0F_0F0FL);
+        huellas.put(5L, 0x0123_4567_89AB_CDEFL);
+        huellas.put(6L, 0x0123_4567_89AB_CDEEL);
+
+        assertThat(CasiDuplicados.agrupar(huellas, 2)).containsExactly(List.of(1L, 2L, 3L), List.of(5L, 6L));
+        assertThat(CasiDuplicados.agrupar(huellas, 0)).isEmpty();
+        assertThrows(IllegalArgumentException.class, () -> CasiDuplicados.agrupar(huellas, 8));
+    }
+
+    private static BufferedImage escena(int ancho, int alto, int brillo) {
+        BufferedImage imagen = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = imagen.createGraphics();
+        for (int x = 0; x < ancho; x++) {
+            int nivel = Math.min(255, 40 + brillo + x * 150 / ancho);
+            g.setColor(new Color(nivel, nivel / 2, 255 - nivel));
+            g.drawLine(x, 0, x, alto);
+        }
+        g.setColor(new Color(Math.min(255, 230 + brillo), Math.min(255, 200 + brillo), 40));
+        g.fillOval(ancho / 5, alto / 4, ancho / 3, alto / 2);
+        g.setColor(new Color(20 + brillo, 20 + brillo, 20 + brillo));
+        g.fillRect(ancho * 3 / 5, alto / 3, ancho / 4, alto / 2);
+        g.dispose();
+        return imagen;
+    }
+
+    private static BufferedImage escalar(BufferedImage origen, int ancho, int alto) {
+        BufferedImage destino = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = destino.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.drawImage(origen, 0, 0, ancho, alto, null);
+        g.dispose();
+        return destino;
+    }
+
+    private static BufferedImage espejar(BufferedImage origen) {
+        BufferedImage destino = new BufferedImage(origen.getWidth(), origen.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = destino.createGraphics();
+        g.drawImage(origen, origen.getWidth(), 0, -origen.getWidth(), origen.getHeight(), null);
+        g.dispose();
+        return destino;
+    }
+}
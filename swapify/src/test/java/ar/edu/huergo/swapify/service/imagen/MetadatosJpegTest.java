@@ -0,0 +1,103 @@
+package ar.edu.huergo.swapify.service.imagen;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+
+class MetadatosJpegTest {
+
+    @Test
+    void quitaExifYComentariosSinTocarLosDatosComprimidos() throws Exception {
+        byte[] jpeg = jpeg(esquinaRoja(40, 30));
+        byte[] conMetadatos = conExif(jpeg, 6, true);
+
+        byte[] limpio = MetadatosJpeg.sinMetadatos(conMetadatos);
+
+        assertThat(MetadatosJpeg.orientacion(conMetadatos)).isEqualTo(6);
+        assertThat(MetadatosJpeg.orientacion(limpio)).isEqualTo(MetadatosJpeg.ORIENTACION_NORMAL);
+        assertThat(limpio).isEqualTo(jpeg);
+        assertThat(MetadatosJpeg.sinMetadatos(jpeg)).isSameAs(jpeg);
+        assertThat(MetadatosJpeg.sinMetadatos(new byte[] {1, 2, 3})).containsExactly(1, 2, 3);
+    }
+
+    @Test
+    void enderezaLaImagenSegunLaOrientacion() {
+        BufferedImage imagen = esquinaRoja(40, 30);
+
+        BufferedImage girada = MetadatosJpeg.orientar(imagen, 6);
+        BufferedImage espejada = MetadatosJpeg.orientar(imagen, 2);
+
+        assertThat(girada.getWidth()).isEqualTo(30);
+        assertThat(girada.getHeight()).isEqualTo(40);
+        assertThat(girada.getRGB(29, 0) & 0xFFFFFF).isEqualTo(0xFF0000);
+        assertThat(espejada.getRGB(39, 0) & 0xFFFFFF).isEqualTo(0xFF0000);
+        assertThat(MetadatosJpeg.orientar(imagen, 1)).isSameAs(imagen);
+
+        int[][] esquinaSegunOrientacion = {{39, 0}, {39, 29}, {0, 29}, {0, 0}, {29, 0}, {29, 39}, {0, 39}};
+        for (int orientacion = 2; orientacion <= 8; orientacion++) {
+            int[] esquina = esquinaSegunOrientacion[orientacion - 2];
+            assertThat(MetadatosJpeg.orientar(imagen, orientacion).getRGB(esquina[0], esquina[1]) & 0xFFFFFF)
+                    .as("orientación %d", orientacion)
+                    .isEqualTo(0xFF0000);
+        }
+    }
+
+    private static BufferedImage esquinaRoja(int ancho, int alto) {
+        BufferedImage imagen = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = imagen.createGraphics();
+        g.setColor(Color.WHITE);
+        g.fillRect(0, 0, ancho, alto);
+        g.setColor(Color.RED);
+        g.fillRect(0, 0, 1, 1);
+        g.dispose();
+        return imagen;
+    }
+
+    private static byte[] jpeg(BufferedImage imagen) throws Exception {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        ImageIO.write(imagen, "jpg", salida);
+        return salida.toByteArray();
+    }
+
+    /** Inserta tras el SOI un EXIF big-endian con la orientación y, opcionalmente, un comentario. */
+    private static byte[] conExif(byte[] jpeg, int orientacion, boolean comentario) {
+        byte[] tiff = {
+                'M', 'M', 0, 42, 0, 0, 0, 8,
+                0, 1,
+                0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, (byte) orientacion, 0, 0,
+                0, 0, 0, 0
+        };
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        salida.write(jpeg, 0, 2);
+        segmento(salida, 0xE1, concatenar("Exif\0\0".getBytes(StandardCharsets.ISO_8859_1), tiff));
+        if (comentario) {
+            segmento(salida, 0xFE, "Tomada con un teléfono".getBytes(StandardCharsets.UTF_8));
+        }
+        salida.write(jpeg, 2, jpeg.length - 2);
+        return salida.toByteArray();
+    }
+
+    private static void segmento(ByteArrayOutputStream salida, int marcador, byte[] datos) {
+        int largo = datos.length + 2;
+        salida.write(0xFF);
+        salida.write(marcador);
+        salida.write(largo >> 8);
+        salida.write(largo & 0xFF);
+        salida.write(datos, 0, datos.length);
+    }
+
+    private static byte[] concatenar(byte[] a, byte[] b) {
+        byte[] resultado = new byte[a.length + b.length];
+        System.arraycopy(a, 0, resultado, 0, a.length);
+        System.arraycopy(b, 0, resultado, a.length, b.length);
+        return resultado;
+    }
+}
@@ -0,0 +1,66 @@
+package ar.edu.huergo.swapify.service.imagen;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import ar.edu.huergo.swapify.util.DecodificadorBase64;
+
+class RecepcionImagenesTest {
+
+    @Test
+    void leeFormatoYDimensionesDeLaCabecera() throws Exception {
+        MockMultipartFile archivo = new MockMultipartFile("imagen", "foto.jpg", "image/png", imagen(640, 480, "jpg"));
+
+        ImagenRecibida recibida = RecepcionImagenes.recibir(archivo, LimitesImagen.hasta(1_000_000));
+
+        assertThat(recibida.cabecera().contentType()).isEqualTo("image/jpeg");
+        assertThat(recibida.cabecera().ancho()).isEqualTo(640);
+        assertThat(recibida.cabecera().alto()).isEqualTo(480);
+        assertThat(recibida.datos()).isEqualTo(archivo.getBytes());
+    }
+
+    @Test
+    void rechazaArchivosQueNoSonImagenes() {
+        assertThatThrownBy(() -> RecepcionImagenes.recibir("%PDF-1.7 no es una imagen".getBytes(),
+                LimitesImagen.hasta(1_000_000)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("El archivo adjunto no es una imagen válida");
+    }
+
+    @Test
+    void rechazaPorTamanioSinLeerElArchivo() throws Exception {
+        MockMultipartFile archivo = spy(new MockMultipartFile("imagen", imagen(64, 64, "png")));
+
+        assertThatThrownBy(() -> RecepcionImagenes.recibir(archivo, LimitesImagen.hasta(10)))
+                .isInstanceOf(DecodificadorBase64.LimiteExcedidoException.class);
+        verify(archivo, never()).getInputStream();
+        verify(archivo, never()).getBytes();
+    }
+
+    @Test
+    void rechazaImagenesFueraDeLosLimitesDeDimension() throws Exception {
+        byte[] datos = imagen(40, 20, "png");
+
+        assertThatThrownBy(() -> RecepcionImagenes.recibir(datos, new LimitesImagen(1_000_000, 32, 1000, 1_000_000)))
+                .hasMessageContaining("demasiado chica (40 × 20 px)");
+        assertThatThrownBy(() -> RecepcionImagenes.recibir(datos, new LimitesImagen(1_000_000, 1, 1000, 500)))
+                .hasMessageContaining("demasiado grande");
+    }
+
+    private static byte[] imagen(int ancho, int alto, String formato) throws Exception {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB), formato, salida);
+        return salida.toByteArray();
+    }
+}
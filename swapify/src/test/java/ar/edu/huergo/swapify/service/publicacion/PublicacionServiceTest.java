@@ -3,40 +3,67 @@ package ar.edu.huergo.swapify.service.publicacion;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.AdditionalAnswers.returnsFirstArg;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import ar.edu.huergo.swapify.config.metricas.MetricasImagenes;
 import ar.edu.huergo.swapify.dto.publicacion.CrearPublicacionDTO;
+import ar.edu.huergo.swapify.dto.publicacion.MostrarPublicacionDTO;
 import ar.edu.huergo.swapify.entity.publicacion.Publicacion;
 import ar.edu.huergo.swapify.entity.publicacion.PublicacionImagen;
 import ar.edu.huergo.swapify.entity.security.Usuario;
 import ar.edu.huergo.swapify.mapper.publicacion.PublicacionMapper;
 import ar.edu.huergo.swapify.repository.publicacion.PublicacionRepository;
+import ar.edu.huergo.swapify.service.imagen.AlmacenImagenes;
+import ar.edu.huergo.swapify.service.imagen.CodificadorImagen;
+import ar.edu.huergo.swapify.service.imagen.CodificadorWebp;
+import ar.edu.huergo.swapify.service.imagen.DecodificadorImagenes;
+import ar.edu.huergo.swapify.service.imagen.ImagenServida;
+import ar.edu.huergo.swapify.service.imagen.Ssim;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import jakarta.persistence.EntityNotFoundException;
 import java.awt.Color;
+import java.awt.GradientPaint;
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
 import java.util.Random;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import javax.imageio.ImageIO;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.MediaType;
 import org.springframework.security.access.AccessDeniedException;
+import org.springframework.transaction.PlatformTransactionManager;
 
 @ExtendWith(MockitoExtension.class)
 public class PublicacionServiceTest {
@@ -53,9 +80,39 @@ public class PublicacionServiceTest {
     @Mock
     private ar.edu.huergo.swapify.repository.publicacion.OfertaRepository ofertaRepository;
 
+    @Mock
+    private org.springframework.context.ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private MetricasImagenes metricasImagenes = new MetricasImagenes(new SimpleMeterRegistry());
+
+    @Spy
+    private AsyncTaskExecutor ejecutorImagenes = new SimpleAsyncTaskExecutor("test-imagenes-");
+
+    @Spy
+    private Semaphore cupoImagenes = new Semaphore(4);
+
+    @Spy
+    private List<CodificadorImagen> codificadores = new ArrayList<>(List.of(new CodificadorWebp()));
+
+    @Mock
+    private AlmacenImagenes almacenImagenes;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private DecodificadorImagenes decodificador =
+            new DecodificadorImagenes(256L << 20, Duration.ofSeconds(3), Duration.ofSeconds(10));
+
     @InjectMocks
     private PublicacionService publicacionService;
 
+    @BeforeEach
+    void compartirSinAlmacenPrevio() {
+        lenient().when(almacenImagenes.compartir(any(), any())).thenAnswer(returnsFirstArg());
+    }
+
     @Test
     public void testCrearPublicacion_Success() {
         CrearPublicacionDTO dto = crearDtoBasico();
@@ -77,8 +134,12 @@ public class PublicacionServiceTest {
         PublicacionImagen imagen = result.getImagenesOrdenadas().get(0);
         assertThat(imagen.getDatos()).isNotEmpty();
         assertThat(imagen.getContentType()).isEqualTo("image/png");
-        assertThat(imagen.getDataUri()).startsWith("data:image/png;base64,");
         verify(publicacionRepository).save(publicacion);
+        InOrder orden = inOrder(metricasImagenes, transactionManager, usuarioRepository);
+        orden.verify(metricasImagenes).registrar(anyString(), anyLong(), anyLong());
+        orden.verify(transactionManager).getTransaction(any());
+        orden.verify(usuarioRepository).findByUsername(usuario.getUsername());
+        orden.verify(transactionManager).commit(any());
     }
 
     @Test
@@ -86,10 +147,6 @@ public class PublicacionServiceTest {
         CrearPublicacionDTO dto = crearDtoBasico();
 
         Usuario usuario = new Usuario("test@example.com", "password");
-        Publicacion publicacion = new Publicacion();
-
-        when(usuarioRepository.findByUsername(usuario.getUsername())).thenReturn(Optional.of(usuario));
-        when(publicacionMapper.toEntity(dto)).thenReturn(publicacion);
 
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
                 () -> publicacionService.crearPublicacion(dto, usuario));
@@ -104,10 +161,6 @@ public class PublicacionServiceTest {
         dto.getImagenesBase64().add("no_es_base64");
 
         Usuario usuario = new Usuario("test@example.com", "password");
-        Publicacion publicacion = new Publicacion();
-
-        when(usuarioRepository.findByUsername(usuario.getUsername())).thenReturn(Optional.of(usuario));
-        when(publicacionMapper.toEntity(dto)).thenReturn(publicacion);
 
         IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
                 () -> publicacionService.crearPublicacion(dto, usuario));
@@ -139,7 +192,7 @@ public class PublicacionServiceTest {
     }
 
     @Test
-    public void testListarTodas_PopulaDataUriParaImagenes() {
+    public void testToDTO_CodificaLasImagenesComoDataUri() {
         Usuario usuario = new Usuario("test@example.com", "password");
         PublicacionImagen imagen = new PublicacionImagen();
         imagen.setDatos(new byte[] {1, 2, 3, 4});
@@ -147,13 +200,9 @@ public class PublicacionServiceTest {
         Publicacion pub = new Publicacion(1L, "Libro", BigDecimal.TEN, "Desc", "Obj",
                 LocalDateTime.now(), usuario, List.of(imagen), null, null);
 
-        when(publicacionRepository.findAllByOrderByFechaPublicacionDesc()).thenReturn(List.of(pub));
-
-        List<Publicacion> result = publicacionService.listarTodas();
+        MostrarPublicacionDTO dto = new PublicacionMapper().toDTO(pub);
 
-        PublicacionImagen procesada = result.get(0).getImagenesOrdenadas().get(0);
-        assertThat(procesada.getBase64()).isNotBlank();
-        assertThat(procesada.getDataUri()).startsWith("data:image/png;base64,");
+        assertThat(dto.getImagenesDataUri()).containsExactly("data:image/png;base64,AQIDBA==");
     }
 
     @Test
@@ -297,7 +346,6 @@ public class PublicacionServiceTest {
         PublicacionImagen imagen = resultado.getImagenesOrdenadas().get(0);
         assertThat(imagen.getDatos()).isNotEmpty();
         assertThat(imagen.getContentType()).isEqualTo("image/png");
-        assertThat(imagen.getDataUri()).startsWith("data:image/png;base64,");
     }
 
     @Test
@@ -322,14 +370,13 @@ public class PublicacionServiceTest {
         PublicacionImagen imagen = resultado.getImagenesOrdenadas().get(0);
         assertThat(imagen.getDatos()).isNotEmpty();
         assertThat(imagen.getContentType()).isEqualTo("image/jpeg");
-        assertThat(imagen.getDataUri()).startsWith("data:image/jpeg;base64,");
     }
 
     @Test
     public void testCrearPublicacion_ComprimeImagenGrande() throws Exception {
         CrearPublicacionDTO dto = crearDtoBasico();
         dto.getImagenesContentType().add("image/png");
-        dto.getImagenesBase64().add(generarImagenAleatoriaBase64(3000));
+        dto.getImagenesBase64().add(generarImagenAleatoriaBase64(2500));
 
         Usuario usuario = new Usuario("grande@test.com", "secreta");
         Publicacion entidad = new Publicacion();
@@ -351,29 +398,218 @@ public class PublicacionServiceTest {
     }
 
     @Test
-    void testCrearPublicacion_LanzaErrorAmigableCuandoNoHayMemoria() {
+    void testCrearPublicacion_RechazaDimensionesExcesivasSinDecodificar() throws Exception {
         CrearPublicacionDTO dto = crearDtoBasico();
         dto.getImagenesContentType().add("image/png");
-        dto.getImagenesBase64().add("iVBORw0KGgoAAAANSUhEUgAAAAEAAAABCAQAAAC1HAwCAAAAC0lEQVR42mP8/AcAAn8B9pEJcwAAAABJRU5ErkJggg==");
+        dto.getImagenesBase64().add(Base64.getEncoder().encodeToString(pngConDimensiones(50_000, 50_000)));
 
         Usuario usuario = new Usuario("sin-memoria@test.com", "clave");
+
+        try (MockedStatic<ImageIO> imageIO = org.mockito.Mockito.mockStatic(ImageIO.class,
+                org.mockito.Mockito.CALLS_REAL_METHODS)) {
+            IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                    () -> publicacionService.crearPublicacion(dto, usuario));
+
+            assertThat(ex.getMessage())
+                    .isEqualTo("La imagen es demasiado grande para procesarla (50000 × 50000 px). Reducila e intentá nuevamente.");
+            imageIO.verify(() -> ImageIO.read(any(ByteArrayInputStream.class)), never());
+        }
+    }
+
+    @Test
+    void testLeerImagen_SubmuestreaLasImagenesGrandesAlDecodificar() throws Exception {
+        try (DecodificadorImagenes.ImagenDecodificada leida = publicacionService.leerImagen(imagenPng(5300, 90));
+             DecodificadorImagenes.ImagenDecodificada chica = publicacionService.leerImagen(imagenPng(2000, 10))) {
+            assertThat(leida.imagen().getWidth()).isEqualTo(2650);
+            assertThat(leida.imagen().getHeight()).isEqualTo(45);
+            assertThat(chica.imagen().getWidth()).isEqualTo(2000);
+        }
+    }
+
+    @Test
+    void testOptimizarImagen_EligeElFormatoSegunElContenido() throws Exception {
+        BufferedImage foto = new BufferedImage(300, 200, BufferedImage.TYPE_INT_RGB);
+        Random random = new Random(7L);
+        for (int y = 0; y < foto.getHeight(); y++) {
+            for (int x = 0; x < foto.getWidth(); x++) {
+                foto.setRGB(x, y, random.nextInt(0x1000000));
+            }
+        }
+        BufferedImage grafico = new BufferedImage(300, 200, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = grafico.createGraphics();
+        g2d.setColor(Color.RED);
+        g2d.fillRect(50, 50, 100, 100);
+        g2d.dispose();
+
+        assertThat(publicacionService.optimizarImagen(bmp(foto), "image/bmp", foto).contentType())
+                .isEqualTo("image/jpeg");
+        assertThat(publicacionService.optimizarImagen(bmp(grafico), "image/bmp", grafico).contentType())
+                .isEqualTo("image/png");
+    }
+
+    @Test
+    void testOptimizarImagen_EnderezaLosJpegSegunExifYLosGuardaProgresivosSinMetadatos() throws Exception {
+        BufferedImage foto = new BufferedImage(300, 200, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = foto.createGraphics();
+        g2d.setPaint(new GradientPaint(0, 0, Color.ORANGE, 300, 200, Color.BLUE));
+        g2d.fillRect(0, 0, 300, 200);
+        g2d.setColor(Color.RED);
+        g2d.fillRect(0, 0, 40, 40);
+        g2d.dispose();
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        ImageIO.write(foto, "jpg", jpeg);
+        // EXIF big-endian con orientación 6: la foto se muestra girada 90° a la derecha.
+        byte[] exif = {(byte) 0xFF, (byte) 0xE1, 0, 34, 'E', 'x', 'i', 'f', 0, 0, 'M', 'M', 0, 42, 0, 0, 0, 8, 0, 1,
+                0x01, 0x12, 0, 3, 0, 0, 0, 1, 0, 6, 0, 0, 0, 0, 0, 0};
+        byte[] original = jpeg.toByteArray();
+        byte[] conExif = new byte[original.length + exif.length];
+        System.arraycopy(original, 0, conExif, 0, 2);
+        System.arraycopy(exif, 0, conExif, 2, exif.length);
+        System.arraycopy(original, 2, conExif, 2 + exif.length, original.length - 2);
+
+        byte[] datos = publicacionService.optimizarImagen(conExif, "image/jpeg", ImageIO.read(new ByteArrayInputStream(conExif)))
+                .datos();
+
+        BufferedImage leida = ImageIO.read(new ByteArrayInputStream(datos));
+        assertThat(leida.getWidth()).isEqualTo(200);
+        assertThat(leida.getHeight()).isEqualTo(300);
+        assertThat(new Color(leida.getRGB(180, 20)).getRed()).isGreaterThan(200);
+        assertThat(new String(datos, StandardCharsets.ISO_8859_1)).doesNotContain("Exif");
+        assertThat(contieneMarcador(datos, 0xC2)).as("SOF2, JPEG progresivo").isTrue();
+    }
+
+    @Test
+    void testRecomprimirComoJpeg_EligeLaCalidadPorSimilitud() throws Exception {
+        BufferedImage liso = new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = liso.createGraphics();
+        g2d.setPaint(new GradientPaint(0, 0, Color.WHITE, 400, 300, Color.GRAY));
+        g2d.fillRect(0, 0, 400, 300);
+        g2d.dispose();
+
+        byte[] adaptativo = publicacionService.recomprimirComoJpeg(liso);
+
+        BufferedImage leida = ImageIO.read(new ByteArrayInputStream(adaptativo));
+        assertThat(Ssim.de(liso).comparar(leida)).isGreaterThanOrEqualTo(0.985);
+        assertThat(adaptativo.length).isLessThan(publicacionService.recomprimirComoJpeg(liso, 0.9f).length);
+    }
+
+    private static boolean contieneMarcador(byte[] jpeg, int marcador) {
+        for (int i = 0; i + 1 < jpeg.length; i++) {
+            if ((jpeg[i] & 0xFF) == 0xFF && (jpeg[i + 1] & 0xFF) == marcador) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    void testCrearPublicacion_ProcesaVariasImagenesYConservaElOrden() throws Exception {
+        CrearPublicacionDTO dto = crearDtoBasico();
+        int[] anchos = {1500, 40, 900, 2600, 10};
+        for (int ancho : anchos) {
+            dto.getImagenesContentType().add("image/png");
+            dto.getImagenesBase64().add(Base64.getEncoder().encodeToString(imagenPng(ancho, 30)));
+        }
+
+        Usuario usuario = new Usuario("varias@test.com", "secreta");
         Publicacion entidad = new Publicacion();
 
         when(usuarioRepository.findByUsername(usuario.getUsername())).thenReturn(Optional.of(usuario));
         when(publicacionMapper.toEntity(dto)).thenReturn(entidad);
+        when(publicacionRepository.save(any(Publicacion.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        try (MockedStatic<ImageIO> imageIO = org.mockito.Mockito.mockStatic(ImageIO.class)) {
-            imageIO.when(() -> ImageIO.read(any(ByteArrayInputStream.class)))
-                    .thenThrow(new OutOfMemoryError("Simulado"));
+        Publicacion resultado = publicacionService.crearPublicacion(dto, usuario);
 
-            IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
-                    () -> publicacionService.crearPublicacion(dto, usuario));
+        List<PublicacionImagen> imagenes = resultado.getImagenesOrdenadas();
+        assertThat(imagenes).extracting(PublicacionImagen::getOrden).containsExactly(0, 1, 2, 3, 4);
+        for (int i = 0; i < anchos.length; i++) {
+            BufferedImage leida = ImageIO.read(new ByteArrayInputStream(imagenes.get(i).getDatos()));
+            assertThat(leida.getWidth()).isEqualTo(Math.min(anchos[i], 1280));
+        }
+        verify(ejecutorImagenes, org.mockito.Mockito.atLeastOnce()).execute(any(Runnable.class));
+        // Los ayudantes devuelven su permiso apenas terminan, sin que se pierda ni se duplique ninguno.
+        assertThat(cupoImagenes.tryAcquire(4, 5, TimeUnit.SECONDS)).isTrue();
+        assertThat(cupoImagenes.availablePermits()).isZero();
+        cupoImagenes.release(4);
+    }
 
-            assertThat(ex.getMessage())
-                    .isEqualTo("La imagen es demasiado grande para procesarla. Reducila e intentá nuevamente.");
+    @Test
+    void testCrearPublicacion_SinCupoLibreProcesaSoloEnElHiloDelRequest() throws Exception {
+        CrearPublicacionDTO dto = crearDtoBasico();
+        for (int i = 0; i < 3; i++) {
+            dto.getImagenesContentType().add("image/png");
+            dto.getImagenesBase64().add(Base64.getEncoder().encodeToString(imagenPng(200, 30)));
+        }
+        Usuario usuario = new Usuario("cupo@test.com", "secreta");
+
+        when(usuarioRepository.findByUsername(usuario.getUsername())).thenReturn(Optional.of(usuario));
+        when(publicacionMapper.toEntity(dto)).thenReturn(new Publicacion());
+        when(publicacionRepository.save(any(Publicacion.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        cupoImagenes.acquire(3);
+        try {
+            Publicacion resultado = publicacionService.crearPublicacion(dto, usuario);
+
+            assertThat(resultado.getImagenesOrdenadas()).hasSize(3);
+            verify(ejecutorImagenes, never()).execute(any(Runnable.class));
+            assertThat(cupoImagenes.availablePermits()).isEqualTo(1);
+        } finally {
+            cupoImagenes.release(3);
         }
     }
 
+    @Test
+    void testCrearPublicacion_GuardaVarianteWebpDeLosGraficos() throws Exception {
+        BufferedImage grafico = new BufferedImage(400, 300, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = grafico.createGraphics();
+        g2d.setColor(Color.WHITE);
+        g2d.fillRect(0, 0, 400, 300);
+        g2d.setColor(Color.BLUE);
+        g2d.fillOval(60, 40, 200, 150);
+        g2d.dispose();
+        ByteArrayOutputStream png = new ByteArrayOutputStream();
+        ImageIO.write(grafico, "png", png);
+        CrearPublicacionDTO dto = crearDtoBasico();
+        dto.getImagenesContentType().add("image/png");
+        dto.getImagenesBase64().add(Base64.getEncoder().encodeToString(png.toByteArray()));
+
+        Usuario usuario = new Usuario("webp@test.com", "secreta");
+        when(usuarioRepository.findByUsername(usuario.getUsername())).thenReturn(Optional.of(usuario));
+        when(publicacionMapper.toEntity(dto)).thenReturn(new Publicacion());
+        when(publicacionRepository.save(any(Publicacion.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        PublicacionImagen imagen = publicacionService.crearPublicacion(dto, usuario).getImagenesOrdenadas().get(0);
+
+        assertThat(imagen.getContentType()).isEqualTo("image/png");
+        assertThat(imagen.getVarianteContentType()).isEqualTo("image/webp");
+        assertThat(imagen.getVarianteDatos().length).isLessThan(imagen.getDatos().length);
+        BufferedImage leida = ImageIO.read(new ByteArrayInputStream(imagen.getVarianteDatos()));
+        assertThat(leida.getRGB(100, 100)).isEqualTo(grafico.getRGB(100, 100));
+    }
+
+    @Test
+    void testObtenerImagen_EntregaLaVarianteSoloSiElClienteLaAcepta() {
+        PublicacionImagen imagen = new PublicacionImagen();
+        imagen.setId(9L);
+        imagen.setDatos(new byte[] {1, 2, 3});
+        imagen.setContentType("image/png");
+        imagen.getContenido().setVariante(new byte[] {4, 5}, "image/webp");
+        when(publicacionRepository.findImagen(7L, 0)).thenReturn(Optional.of(imagen));
+
+        ImagenServida webp = publicacionService.obtenerImagen(7L, 0,
+                MediaType.parseMediaTypes("image/avif,image/webp,image/apng,*/*;q=0.8"));
+        ImagenServida comodin = publicacionService.obtenerImagen(7L, 0, MediaType.parseMediaTypes("image/*,*/*;q=0.5"));
+        ImagenServida rechazada = publicacionService.obtenerImagen(7L, 0,
+                MediaType.parseMediaTypes("image/webp;q=0,*/*"));
+
+        assertThat(webp.contentType()).isEqualTo("image/webp");
+        assertThat(webp.datos()).containsExactly(4, 5);
+        assertThat(webp.variante()).isTrue();
+        assertThat(comodin.contentType()).isEqualTo("image/png");
+        assertThat(comodin.datos()).containsExactly(1, 2, 3);
+        assertThat(rechazada.variante()).isFalse();
+    }
+
     private CrearPublicacionDTO crearDtoBasico() {
         CrearPublicacionDTO dto = new CrearPublicacionDTO();
         dto.setNombre("Libro");
@@ -404,4 +640,26 @@ public class PublicacionServiceTest {
         assertThat(datos.length).isGreaterThan(5_000_000);
         return Base64.getEncoder().encodeToString(datos);
     }
+
+    /** PNG de 1 × 1 con el IHDR reescrito para declarar otras dimensiones. */
+    private byte[] pngConDimensiones(int ancho, int alto) throws Exception {
+        byte[] datos = imagenPng(1, 1);
+        java.nio.ByteBuffer.wrap(datos, 16, 8).putInt(ancho).putInt(alto);
+        java.util.zip.CRC32 crc = new java.util.zip.CRC32();
+        crc.update(datos, 12, 17);
+        java.nio.ByteBuffer.wrap(datos, 29, 4).putInt((int) crc.getValue());
+        return datos;
+    }
+
+    private byte[] imagenPng(int ancho, int alto) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB), "png", baos);
+        return baos.toByteArray();
+    }
+
+    private byte[] bmp(BufferedImage imagen) throws Exception {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        ImageIO.write(imagen, "bmp", baos);
+        return baos.toByteArray();
+    }
 }
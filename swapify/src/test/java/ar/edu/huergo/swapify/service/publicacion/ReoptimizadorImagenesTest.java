@@ -0,0 +1,154 @@
+package ar.edu.huergo.swapify.service.publicacion;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import ar.edu.huergo.swapify.config.metricas.MetricasImagenes;
+import ar.edu.huergo.swapify.entity.publicacion.EstadoOferta;
+import ar.edu.huergo.swapify.entity.publicacion.EstadoReoptimizacion;
+import ar.edu.huergo.swapify.entity.publicacion.Oferta;
+import ar.edu.huergo.swapify.entity.publicacion.ProgresoReoptimizacion;
+import ar.edu.huergo.swapify.entity.publicacion.Publicacion;
+import ar.edu.huergo.swapify.entity.publicacion.PublicacionImagen;
+import ar.edu.huergo.swapify.entity.security.Usuario;
+import ar.edu.huergo.swapify.repository.publicacion.ProgresoReoptimizacionRepository;
+import ar.edu.huergo.swapify.service.imagen.AlmacenImagenes;
+import ar.edu.huergo.swapify.service.imagen.DecodificadorImagenes;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DataJpaTest
+@Import({AlmacenImagenes.class, MetricasImagenes.class, SimpleMeterRegistry.class})
+class ReoptimizadorImagenesTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ProgresoReoptimizacionRepository progresoRepository;
+
+    @Autowired
+    private AlmacenImagenes almacenImagenes;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private ReoptimizadorImagenes reoptimizador;
+
+    @BeforeEach
+    void crearReoptimizador() {
+        PublicacionService publicacionService =
+                new PublicacionService(null, null, null, null, null, null, null, null, List.of(), almacenImagenes, null,
+                        new DecodificadorImagenes(64L << 20, Duration.ZERO, Duration.ofSeconds(10)));
+        AsyncTaskExecutor sincronico = Runnable::run;
+        reoptimizador = new ReoptimizadorImagenes(progresoRepository, publicacionService, almacenImagenes,
+                transactionManager, sincronico, 1, 1.0, 0.05, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void noArrancaMientrasOtroNodoTieneElTrabajoYLoRetomaCuandoVence() {
+        ProgresoReoptimizacion progreso = new ProgresoReoptimizacion();
+        progreso.setEstado(EstadoReoptimizacion.EN_CURSO);
+        progreso.setPropietario("otro-nodo");
+        progreso.setLatidoEn(LocalDateTime.now());
+        entityManager.persistAndFlush(progreso);
+        entityManager.clear();
+
+        assertThatThrownBy(reoptimizador::iniciar)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("otro nodo");
+        assertThat(reoptimizador.resumen().interrumpida()).isFalse();
+
+        entityManager.getEntityManager()
+                .createQuery("update ProgresoReoptimizacion p set p.latidoEn = :vencido")
+                .setParameter("vencido", LocalDateTime.now().minusHours(1))
+                .executeUpdate();
+        entityManager.clear();
+        assertThat(reoptimizador.resumen().interrumpida()).isTrue();
+
+        assertThat(reoptimizador.iniciar().estado()).isEqualTo(EstadoReoptimizacion.FINALIZADA);
+        assertThat(progresoRepository.findById(ProgresoReoptimizacion.ID).orElseThrow().getPropietario()).isNull();
+    }
+
+    @Test
+    void reemplazaSoloLasImagenesQueQuedanMasLivianasYRegistraElAhorro() throws Exception {
+        Usuario autor = entityManager.persist(new Usuario("autor@example.com", "password"));
+        Usuario ofertante = entityManager.persist(new Usuario("ofertante@example.com", "password"));
+        Publicacion publicacion = entityManager.persist(new Publicacion(null, "Bicicleta", new BigDecimal("10.00"),
+                "Descripción", "Cualquier cosa", LocalDateTime.now(), autor, List.of(), null, null));
+        byte[] bmp = codificar(foto(400, 300), "bmp");
+        // Fila de una versión anterior: los bytes sin procesar, en la propia fila.
+        entityManager.getEntityManager().createNativeQuery(
+                "INSERT INTO publicacion_imagen (publicacion_id, orden, datos, content_type) VALUES (?, 0, ?, 'image/bmp')")
+                .setParameter(1, publicacion.getId())
+                .setParameter(2, bmp)
+                .executeUpdate();
+        PublicacionImagen optima = new PublicacionImagen();
+        optima.setOrden(1);
+        optima.setContentType("image/png");
+        optima.setDatos(codificar(foto(8, 8), "png"));
+        publicacion.agregarImagen(optima);
+        Oferta oferta = new Oferta();
+        oferta.setPublicacion(publicacion);
+        oferta.setUsuario(ofertante);
+        oferta.setMensaje("Te la cambio");
+        oferta.setEstado(EstadoOferta.PENDIENTE);
+        oferta.setImagen(bmp);
+        oferta.setImagenContentType("image/bmp");
+        entityManager.persist(oferta);
+        entityManager.flush();
+        entityManager.clear();
+
+        ReoptimizadorImagenes.Resumen resumen = reoptimizador.iniciar();
+
+        assertThat(resumen.estado()).isEqualTo(EstadoReoptimizacion.FINALIZADA);
+        assertThat(resumen.revisadas()).isEqualTo(3);
+        assertThat(resumen.reemplazadas()).isEqualTo(2);
+        assertThat(resumen.pendientes()).isZero();
+        assertThat(resumen.bytesAhorrados()).isGreaterThan(bmp.length);
+        entityManager.clear();
+        Publicacion leida = entityManager.find(Publicacion.class, publicacion.getId());
+        PublicacionImagen heredada = leida.getImagenesOrdenadas().get(0);
+        assertThat(heredada.getContenido()).isNotNull();
+        assertThat(heredada.getContentType()).isNotEqualTo("image/bmp");
+        assertThat(heredada.getDatos().length).isLessThan(bmp.length);
+        assertThat(leida.getImagenesOrdenadas().get(1).getContentType()).isEqualTo("image/png");
+        Oferta ofertaLeida = entityManager.find(Oferta.class, oferta.getId());
+        assertThat(ofertaLeida.getImagen().length).isLessThan(bmp.length);
+    }
+
+    private static BufferedImage foto(int ancho, int alto) {
+        BufferedImage imagen = new BufferedImage(ancho, alto, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = imagen.createGraphics();
+        g.setPaint(new GradientPaint(0, 0, Color.ORANGE, ancho, alto, Color.BLUE));
+        g.fillRect(0, 0, ancho, alto);
+        g.dispose();
+        return imagen;
+    }
+
+    private static byte[] codificar(BufferedImage imagen, String formato) throws Exception {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream();
+        ImageIO.write(imagen, formato, salida);
+        return salida.toByteArray();
+    }
+}
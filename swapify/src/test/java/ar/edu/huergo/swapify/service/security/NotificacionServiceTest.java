@@ -0,0 +1,64 @@
+package ar.edu.huergo.swapify.service.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import ar.edu.huergo.swapify.entity.publicacion.Oferta;
+import ar.edu.huergo.swapify.entity.publicacion.Publicacion;
+import ar.edu.huergo.swapify.entity.security.Usuario;
+import ar.edu.huergo.swapify.repository.security.NotificacionRepository;
+import ar.edu.huergo.swapify.repository.security.UsuarioRepository;
+
+/**
+ * La notificación se guarda en la transacción de la oferta: aparece apenas
+ * confirma y desaparece con ella si se revierte.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:notificaciones;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create-drop"})
+class NotificacionServiceTest {
+
+    @Autowired
+    private NotificacionService notificacionService;
+
+    @Autowired
+    private NotificacionRepository notificacionRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void notificacionDeUnaOferta_confirmaYSeRevierteConSuTransaccion() {
+        Usuario duenio = usuarioRepository.findByUsernameIgnoreCase("cliente@huergo.edu.ar").orElseThrow();
+        Usuario oferente = usuarioRepository.findByUsernameIgnoreCase("admin@huergo.edu.ar").orElseThrow();
+        Publicacion publicacion = new Publicacion();
+        publicacion.setId(1L);
+        publicacion.setNombre("Bicicleta");
+        publicacion.setUsuario(duenio);
+        Oferta oferta = new Oferta();
+        oferta.setUsuario(oferente);
+        TransactionTemplate transaccion = new TransactionTemplate(transactionManager);
+        int antes = recibidas(duenio);
+
+        transaccion.executeWithoutResult(status -> {
+            notificacionService.notificarNuevaOferta(publicacion, oferta);
+            status.setRollbackOnly();
+        });
+        assertThat(recibidas(duenio)).isEqualTo(antes);
+
+        transaccion.executeWithoutResult(status -> notificacionService.notificarNuevaOferta(publicacion, oferta));
+        assertThat(recibidas(duenio)).isEqualTo(antes + 1);
+    }
+
+    private int recibidas(Usuario usuario) {
+        return notificacionRepository.findTop50ByUsuarioIdOrderByFechaCreacionDesc(usuario.getId()).size();
+    }
+}
@@ -29,6 +29,7 @@ import ar.edu.huergo.swapify.repository.publicacion.PublicacionRepository;
 import ar.edu.huergo.swapify.repository.security.NotificacionRepository;
 import ar.edu.huergo.swapify.repository.security.RolRepository;
 import ar.edu.huergo.swapify.repository.security.UsuarioRepository;
+import ar.edu.huergo.swapify.service.imagen.AlmacenImagenes;
 import ar.edu.huergo.swapify.service.security.NotificacionService;
 
 /**
@@ -63,6 +64,15 @@ class UsuarioServiceTest {
     @Mock
     private NotificacionService notificacionService;
 
+    @Mock
+    private org.springframework.context.ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private RevocacionTokensService revocacionTokensService;
+
+    @Mock
+    private AlmacenImagenes almacenImagenes;
+
     @InjectMocks
     private UsuarioService usuarioService;
 